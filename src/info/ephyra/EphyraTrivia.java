@@ -0,0 +1,169 @@
+package info.ephyra;
+
+import info.ephyra.io.Logger;
+import info.ephyra.io.MsgPrinter;
+import info.ephyra.search.Result;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * <p>Runs and evaluates Ephyra on multiple-choice trivia questions. Each
+ * question is answered with the full pipeline, with snippet scoring and with
+ * snippet scoring and additional queries for the answers. The accuracy and the
+ * average latency of each mode are reported, as well as how often the snippet
+ * scoring modes rank the same answer first as the full pipeline.</p>
+ * 
+ * <p>The test set is a text file with one question per line, in the format
+ * <code>question TAB correct answer TAB answer 1 TAB answer 2 ...</code>. The
+ * correct answer must be one of the answers. A question is answered correctly
+ * if the correct answer has a higher score than all other answers. A small
+ * test set is provided in <code>res/testdata/trivia/trivia_mc</code>.</p>
+ * 
+ * <p>This class extends <code>OpenEphyra</code>.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class EphyraTrivia extends OpenEphyra {
+	/** Names of the modes that are evaluated. */
+	private static final String[] MODES =
+		{"full pipeline", "snippet scoring", "snippet scoring + queries"};
+	
+	/** Question strings. */
+	private static String[] qss;
+	/** Correct answers. */
+	private static String[] correct;
+	/** Possible answers. */
+	private static String[][] answers;
+	
+	/**
+	 * Loads the test set from a file.
+	 * 
+	 * @param filename name of the test set file
+	 * @return <code>true</code>, iff the test set was loaded successfully
+	 */
+	private static boolean loadTestSet(String filename) {
+		ArrayList<String> qsL = new ArrayList<String>();
+		ArrayList<String> correctL = new ArrayList<String>();
+		ArrayList<String[]> answersL = new ArrayList<String[]>();
+		
+		try {
+			BufferedReader in = new BufferedReader(
+					new FileReader(new File(filename)));
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length < 4) continue;
+				
+				qsL.add(fields[0].trim());
+				correctL.add(fields[1].trim());
+				String[] as = new String[fields.length - 2];
+				for (int i = 0; i < as.length; i++)
+					as[i] = fields[i + 2].trim();
+				answersL.add(as);
+			}
+			in.close();
+		} catch (IOException e) {
+			return false;
+		}
+		
+		qss = qsL.toArray(new String[qsL.size()]);
+		correct = correctL.toArray(new String[correctL.size()]);
+		answers = answersL.toArray(new String[answersL.size()][]);
+		
+		return true;
+	}
+	
+	/**
+	 * Gets the answer that has a higher score than all other answers.
+	 * 
+	 * @param results scored answers
+	 * @return answer ranked first or <code>null</code> if there is no answer
+	 * 		   or a tie
+	 */
+	private static String getTopAnswer(Result[] results) {
+		Result best = null;
+		boolean tie = false;
+		for (Result result : results)
+			if (best == null || result.getScore() > best.getScore()) {
+				best = result;
+				tie = false;
+			} else if (result.getScore() == best.getScore()) {
+				tie = true;
+			}
+		
+		return (best != null && !tie) ? best.getAnswer() : null;
+	}
+	
+	/**
+	 * Initializes Ephyra, asks the questions in each mode and reports accuracy
+	 * and latency.
+	 */
+	private static void runAndEval() {
+		// initialize Ephyra
+		EphyraTrivia ephyra = new EphyraTrivia();
+		Logger.enableLogging(false);
+		
+		int[] numCorrect = new int[MODES.length];
+		int[] numAgree = new int[MODES.length];
+		long[] time = new long[MODES.length];
+		
+		for (int i = 0; i < qss.length; i++) {
+			MsgPrinter.printQuestion(qss[i]);
+			
+			String fullTop = null;
+			for (int mode = 0; mode < MODES.length; mode++) {
+				long start = System.currentTimeMillis();
+				Result[] results = ephyra.askFactoidWithAnswers(qss[i],
+						answers[i], FACTOID_MAX_ANSWERS, FACTOID_ABS_THRESH,
+						mode > 0, mode > 1);
+				time[mode] += System.currentTimeMillis() - start;
+				
+				String top = getTopAnswer(results);
+				if (mode == 0) fullTop = top;
+				if (top != null && top.equalsIgnoreCase(correct[i]))
+					numCorrect[mode]++;
+				if ((top == null) ? fullTop == null
+						: top.equalsIgnoreCase(fullTop)) numAgree[mode]++;
+				MsgPrinter.printStatusMsg(MODES[mode] + ": " +
+						((top != null) ? top : "no answer"));
+			}
+		}
+		
+		for (int mode = 0; mode < MODES.length; mode++)
+			MsgPrinter.printStatusMsg(MODES[mode] + ": accuracy " +
+					((float) numCorrect[mode]) / qss.length + ", latency " +
+					time[mode] / qss.length + "ms" + ((mode > 0)
+						? ", same answer as full pipeline " +
+						  ((float) numAgree[mode]) / qss.length
+						: ""));
+	}
+	
+	/**
+	 * Runs and evaluates Ephyra on multiple-choice trivia questions.
+	 * 
+	 * @param args argument 1: name of the test set file
+	 */
+	public static void main(String[] args) {
+		// enable output of status and error messages
+		MsgPrinter.enableStatusMsgs(true);
+		MsgPrinter.enableErrorMsgs(true);
+		
+		if (args.length < 1) {
+			MsgPrinter.printUsage("java EphyraTrivia test_file");
+			System.exit(1);
+		}
+		
+		// load test set
+		if (!loadTestSet(args[0]) || qss.length == 0) {
+			MsgPrinter.printErrorMsg("Could not load test set.");
+			System.exit(1);
+		}
+		
+		// ask Ephyra the questions and evaluate the answers
+		runAndEval();
+	}
+}
@@ -38,13 +38,17 @@ import info.ephyra.querygeneration.generators.PredicateG;
 import info.ephyra.querygeneration.generators.QuestionInterpretationG;
 import info.ephyra.querygeneration.generators.QuestionReformulationG;
 import info.ephyra.questionanalysis.AnalyzedQuestion;
+import info.ephyra.questionanalysis.KeywordListener;
 import info.ephyra.questionanalysis.QuestionAnalysis;
+import info.ephyra.questionanalysis.QuestionAnalysisCache;
 import info.ephyra.questionanalysis.QuestionInterpreter;
 import info.ephyra.questionanalysis.QuestionNormalizer;
 import info.ephyra.search.Result;
 import info.ephyra.search.Search;
 import info.ephyra.search.searchers.BingAzureKM;
+import info.ephyra.util.StringUtils;
 
+import java.io.File;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
@@ -56,7 +60,7 @@ import java.net.URI;
  * <code>OpenEphyra</code> is an open framework for question answering (QA).
  * 
  * @author Nico Schlaefer
- * @version 2008-03-23
+ * @version 2026-10-19
  */
 public class OpenEphyra
 {
@@ -71,6 +75,10 @@ public class OpenEphyra
     protected static final float FACTOID_ABS_THRESH = 0;
     /** Relative threshold for list answer scores (fraction of top score). */
     protected static final float LIST_REL_THRESH = 0.1f;
+    /** Score of queries for the provided answers to a multiple-choice question. */
+    protected static final float CANDIDATE_QUERY_SCORE = 1;
+    /** Maximum size of the log file in characters before it is rotated. */
+    protected static final long LOG_MAX_SIZE = 10 * 1024 * 1024;
 
     /** Serialized classifier for score normalization. */
     public static final String NORMALIZER = "res/scorenormalization/classifiers/"
@@ -79,6 +87,18 @@ public class OpenEphyra
         + "TREC10+TREC11+TREC12+TREC13+TREC14+TREC15+TREC8+TREC9"
         + ".serialized";
 
+    /**
+     * Sends the queries that only need the keywords of the question to the
+     * searchers while the question is still being analyzed.
+     */
+    protected static final KeywordListener EARLY_SEARCH = new KeywordListener()
+    {
+        public void keywordsExtracted(String question, String[] kws)
+        {
+            Search.doEarlySearch(QueryGeneration.getEarlyQueries(question, kws));
+        }
+    };
+
     /** The directory of Ephyra, required when Ephyra is used as an API. */
     protected String dir;
 
@@ -153,6 +173,7 @@ public class OpenEphyra
         
         // set log file and enable logging
         Logger.setLogfile("log/OpenEphyra");
+        Logger.setMaxSize(LOG_MAX_SIZE);
         Logger.enableLogging(true);
         
         // enable output of status and error messages
@@ -228,6 +249,14 @@ public class OpenEphyra
         if (!WordNet.initialize(dir
             + "res/ontologies/wordnet/file_properties.xml"))
             MsgPrinter.printErrorMsg("Could not create WordNet dictionary.");
+        // use a compact copy of the dictionary if it was built with
+        // WordNetGraph
+        String graphFile = dir + "res/ontologies/wordnet/wordnet.graph";
+        if (new File(graphFile).exists()) {
+            MsgPrinter.printStatusMsg("  ...loading WordNet graph");
+            if (!WordNet.loadGraph(graphFile))
+                MsgPrinter.printErrorMsg("Could not load WordNet graph.");
+        }
 
         // load function words (numbers are excluded)
         MsgPrinter.printStatusMsg("Loading function verbs...");
@@ -273,6 +302,14 @@ public class OpenEphyra
         if (!AnswerPatternFilter.loadPatterns(dir
             + "res/patternlearning/answerpatterns/"))
             MsgPrinter.printErrorMsg("Could not load answer patterns.");
+
+        // load cached question analyses, dropping them if the models or
+        // pattern files the analysis depends on have changed
+        MsgPrinter.printStatusMsg("Loading question analysis cache...");
+        QuestionAnalysisCache.enable(dir + "res/cache/questionanalysis",
+            dir + "conf/", dir + "res/answertypes/", dir + "res/indices/",
+            dir + "res/nlp/", dir + "res/ontologies/wordnet/",
+            dir + "res/patternlearning/questionpatterns/");
     }
 
     /**
@@ -414,6 +451,68 @@ public class OpenEphyra
         return results;
     }
 
+    /**
+     * Runs query generation and search and scores the provided answers by
+     * their evidence in the search results, skipping the answer extraction
+     * and selection filters.
+     *
+     * @param aq
+     *            analyzed question
+     * @param answers
+     *            possible answers
+     * @param candidateQueries
+     *            if <code>true</code>, a query is added for each answer
+     * @return the answers sorted by their scores
+     */
+    protected Result[] runPipelineWithSnippets(AnalyzedQuestion aq, String[] answers,
+        boolean candidateQueries)
+    {
+        // query generation
+        MsgPrinter.printGeneratingQueries();
+        Query[] queries = QueryGeneration.getQueries(aq);
+        if (candidateQueries)
+            queries = addCandidateQueries(queries, aq, answers);
+
+        // search
+        MsgPrinter.printSearching();
+        Result[] results = Search.doSearch(queries);
+
+        // answer selection
+        MsgPrinter.printSelectingAnswers();
+        results = AnswerSelection.getResultsFromSnippets(results, answers, aq.isNegated);
+
+        return results;
+    }
+
+    /**
+     * Adds a query for each of the provided answers, formed from the keywords
+     * in the question and the answer as a phrase.
+     *
+     * @param queries
+     *            queries generated from the question
+     * @param aq
+     *            analyzed question
+     * @param answers
+     *            possible answers
+     * @return the queries followed by the queries for the answers
+     */
+    protected Query[] addCandidateQueries(Query[] queries, AnalyzedQuestion aq,
+        String[] answers)
+    {
+        String keywords = StringUtils.concatWithSpaces(aq.getKeywords());
+
+        Query[] all = new Query[queries.length + answers.length];
+        System.arraycopy(queries, 0, all, 0, queries.length);
+        for (int i = 0; i < answers.length; i++)
+        {
+            all[queries.length + i] = new Query(keywords + " \"" + answers[i] + "\"",
+                aq, CANDIDATE_QUERY_SCORE);
+            all[queries.length + i].setExtractionTechniques(new String[0]);
+        }
+
+        return all;
+    }
+
     /**
      * Returns the directory of Ephyra.
      * 
@@ -490,14 +589,22 @@ public class OpenEphyra
         // initialize pipeline
         initFactoid();
 
-        // analyze question
-        MsgPrinter.printAnalyzingQuestion();
-        AnalyzedQuestion aq = QuestionAnalysis.analyze(question);
+        try
+        {
+            // analyze question
+            MsgPrinter.printAnalyzingQuestion();
+            AnalyzedQuestion aq = QuestionAnalysis.analyze(question, EARLY_SEARCH);
 
-        // get answers
-        Result[] results = runPipeline(aq, maxAnswers, absThresh);
+            // get answers
+            Result[] results = runPipeline(aq, maxAnswers, absThresh);
 
-        return results;
+            return results;
+        }
+        finally
+        {
+            // drop the early searches if the pipeline failed
+            Search.discardEarlySearch();
+        }
     }
 
     /**
@@ -515,18 +622,58 @@ public class OpenEphyra
      * @return array of results
      */
     public Result[] askFactoidWithAnswers(String question, String[] answers, int maxAnswers, float absThresh)
+    {
+        return askFactoidWithAnswers(question, answers, maxAnswers, absThresh, false, false);
+    }
+
+    /**
+     * Asks Ephyra a factoid question with provided possible answers. The
+     * answers are either matched against the results of the full pipeline, or
+     * scored directly by their evidence in the search results, which skips the
+     * expensive answer extraction filters.
+     *
+     * @param question
+     *            factoid question
+     * @param answers
+     *            all possible answers to analyze against
+     * @param maxAnswers
+     *            maximum number of answers (full pipeline only)
+     * @param absThresh
+     *            absolute threshold for scores (full pipeline only)
+     * @param snippetScoring
+     *            if <code>true</code>, the answers are scored by their
+     *            evidence in the search results
+     * @param candidateQueries
+     *            if <code>true</code>, the search results include results for
+     *            a query for each answer (snippet scoring only)
+     * @return array of results
+     */
+    public Result[] askFactoidWithAnswers(String question, String[] answers, int maxAnswers,
+        float absThresh, boolean snippetScoring, boolean candidateQueries)
     {
         // initialize pipeline
         initFactoid();
 
-        // analyze question
-        MsgPrinter.printAnalyzingQuestion();
-        AnalyzedQuestion aq = QuestionAnalysis.analyze(question);
+        try
+        {
+            // analyze question
+            MsgPrinter.printAnalyzingQuestion();
+            AnalyzedQuestion aq = QuestionAnalysis.analyze(question, EARLY_SEARCH);
 
-        // get answers
-        Result[] results = runPipelineWithAnswers(aq, answers, maxAnswers, absThresh);
+            // get answers
+            Result[] results;
+            if (snippetScoring)
+                results = runPipelineWithSnippets(aq, answers, candidateQueries);
+            else
+                results = runPipelineWithAnswers(aq, answers, maxAnswers, absThresh);
 
-        return results;
+            return results;
+        }
+        finally
+        {
+            // drop the early searches if the pipeline failed
+            Search.discardEarlySearch();
+        }
     }
 
     /**
@@ -42,8 +42,13 @@ public class WebHandler implements HttpHandler {
                         answers[a] = answersArr.getString(a);
                     }
 
+                    // optionally score the answers directly from the search results
+                    boolean snippetScoring = input.getBoolean("snippetScoring", false);
+                    boolean candidateQueries = input.getBoolean("candidateQueries", false);
+
                     OpenEphyra instance = OpenEphyra.GetSingleton();
-                    Result[] results = instance.askFactoidWithAnswers(question, answers, OpenEphyra.FACTOID_MAX_ANSWERS, OpenEphyra.FACTOID_ABS_THRESH);
+                    Result[] results = instance.askFactoidWithAnswers(question, answers, OpenEphyra.FACTOID_MAX_ANSWERS,
+                            OpenEphyra.FACTOID_ABS_THRESH, snippetScoring, candidateQueries);
 
                     // RESPONSE Headers
                     //Headers responseHeaders = he.getResponseHeaders();
@@ -0,0 +1,193 @@
+package info.ephyra.answerselection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import me.xdrop.fuzzywuzzy.Ratio;
+import me.xdrop.fuzzywuzzy.StringProcessor;
+import me.xdrop.fuzzywuzzy.algorithms.DefaultStringProcessor;
+import me.xdrop.fuzzywuzzy.ratios.SimpleRatio;
+
+/**
+ * <p>Matches the provided answers to a multiple-choice question against many
+ * strings, e.g. the answers of the search results, with the token set ratio of
+ * <code>FuzzySearch.tokenSetRatio()</code>.</p>
+ * 
+ * <p>Each string is normalized and tokenized once, and its tokens are sorted
+ * and deduplicated. The ratio of two strings is computed from their sorted
+ * token sets, which yields the same value as
+ * <code>FuzzySearch.tokenSetRatio()</code>. The strings are split among
+ * multiple threads.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class AnswerMatcher {
+	/** Normalizes strings the same way as <code>FuzzySearch</code>. */
+	private static final StringProcessor PROCESSOR =
+		new DefaultStringProcessor();
+	/** Compares strings the same way as <code>FuzzySearch</code>. */
+	private static final Ratio RATIO = new SimpleRatio();
+	/** Minimum number of strings matched by a thread. */
+	private static final int MIN_STRINGS_PER_THREAD = 50;
+	
+	/** Sorted token sets of the provided answers. */
+	private String[][] answerTokens;
+	
+	/**
+	 * Creates a matcher for the provided answers.
+	 * 
+	 * @param answers possible answers
+	 */
+	public AnswerMatcher(String[] answers) {
+		answerTokens = new String[answers.length][];
+		for (int i = 0; i < answers.length; i++)
+			answerTokens[i] = getTokenSet(answers[i]);
+	}
+	
+	/**
+	 * Normalizes and tokenizes a string like
+	 * <code>FuzzySearch.tokenSetRatio()</code> and returns the distinct tokens
+	 * in ascending order.
+	 * 
+	 * @param s a string
+	 * @return sorted token set
+	 */
+	public static String[] getTokenSet(String s) {
+		String[] tokens = PROCESSOR.process(s).split("\\s+");
+		Arrays.sort(tokens);
+		
+		int n = 0;
+		for (int i = 0; i < tokens.length; i++)
+			if (n == 0 || !tokens[i].equals(tokens[n - 1]))
+				tokens[n++] = tokens[i];
+		
+		return (n == tokens.length) ? tokens : Arrays.copyOf(tokens, n);
+	}
+	
+	/**
+	 * Joins sorted tokens with spaces like
+	 * <code>FuzzySearch.tokenSetRatio()</code>.
+	 * 
+	 * @param tokens sorted tokens
+	 * @return joined tokens
+	 */
+	private static String join(ArrayList<String> tokens) {
+		StringBuilder sb = new StringBuilder();
+		for (String token : tokens) sb.append(' ').append(token);
+		
+		return sb.toString().trim();
+	}
+	
+	/**
+	 * Computes the token set ratio of two strings from their sorted token sets.
+	 * The ratio is the same as <code>FuzzySearch.tokenSetRatio()</code> for
+	 * the strings.
+	 * 
+	 * @param tokens1 sorted token set of string 1
+	 * @param tokens2 sorted token set of string 2
+	 * @return token set ratio between 0 and 100
+	 */
+	public static int tokenSetRatio(String[] tokens1, String[] tokens2) {
+		// merge the token sets into the intersection and the differences
+		ArrayList<String> sect = new ArrayList<String>();
+		ArrayList<String> diff1to2 = new ArrayList<String>();
+		ArrayList<String> diff2to1 = new ArrayList<String>();
+		int i = 0, j = 0;
+		while (i < tokens1.length || j < tokens2.length) {
+			int c;
+			if (i == tokens1.length) c = 1;
+			else if (j == tokens2.length) c = -1;
+			else c = tokens1[i].compareTo(tokens2[j]);
+			
+			if (c == 0) {
+				sect.add(tokens1[i++]);
+				j++;
+			} else if (c < 0) {
+				diff1to2.add(tokens1[i++]);
+			} else {
+				diff2to1.add(tokens2[j++]);
+			}
+		}
+		
+		String sorted = join(sect);
+		String combined1to2 = (sorted + " " + join(diff1to2)).trim();
+		String combined2to1 = (sorted + " " + join(diff2to1)).trim();
+		
+		int ratio = Math.max(RATIO.apply(sorted, combined1to2),
+							 RATIO.apply(sorted, combined2to1));
+		
+		// the edit distance is at least the difference of the lengths, the
+		// ratio of the combined strings is only computed if it can be larger
+		int l1 = combined1to2.length();
+		int l2 = combined2to1.length();
+		double max = (l1 + l2 - Math.abs(l1 - l2)) / (double) (l1 + l2);
+		if (Math.round(100 * max) > ratio)
+			ratio = Math.max(ratio, RATIO.apply(combined1to2, combined2to1));
+		
+		return ratio;
+	}
+	
+	/**
+	 * Computes the token set ratios of the provided answers and the given
+	 * strings. The strings are matched in multiple threads.
+	 * 
+	 * @param strings strings to match the answers against
+	 * @return for each string the ratio of each answer
+	 */
+	public int[][] getRatios(final String[] strings) {
+		final int[][] ratios = new int[strings.length][];
+		
+		int numThreads = Math.min(Runtime.getRuntime().availableProcessors(),
+				(strings.length + MIN_STRINGS_PER_THREAD - 1) /
+				MIN_STRINGS_PER_THREAD);
+		if (numThreads <= 1) {
+			match(strings, ratios, 0, strings.length);
+			return ratios;
+		}
+		
+		// split the strings into one range per thread
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final int from = (int) ((long) strings.length * t / numThreads);
+			final int to = (int) ((long) strings.length * (t + 1) / numThreads);
+			threads[t] = new Thread() {
+				public void run() {
+					match(strings, ratios, from, to);
+				}
+			};
+			threads[t].start();
+		}
+		
+		// wait until all threads are done
+		boolean interrupted = false;
+		for (Thread thread : threads)
+			while (thread.isAlive())
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+		if (interrupted) Thread.currentThread().interrupt();
+		
+		return ratios;
+	}
+	
+	/**
+	 * Computes the token set ratios of the provided answers and a range of the
+	 * strings.
+	 * 
+	 * @param strings strings to match the answers against
+	 * @param ratios for each string the ratio of each answer
+	 * @param from first string in the range
+	 * @param to end of the range (exclusive)
+	 */
+	private void match(String[] strings, int[][] ratios, int from, int to) {
+		for (int i = from; i < to; i++) {
+			String[] tokens = getTokenSet(strings[i]);
+			int[] rs = new int[answerTokens.length];
+			for (int a = 0; a < answerTokens.length; a++)
+				rs[a] = tokenSetRatio(answerTokens[a], tokens);
+			ratios[i] = rs;
+		}
+	}
+}
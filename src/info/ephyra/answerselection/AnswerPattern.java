@@ -1,5 +1,7 @@
 package info.ephyra.answerselection;
 
+import info.ephyra.util.StringUtils;
+
 import java.util.ArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -23,8 +25,11 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 	private static final int MAX_PROP = 10;
 	/** The pattern descriptor from which the pattern is built. */
 	private String desc;
-	/** The <code>Pattern</code> that is applied to a sentence. */
-	private Pattern pattern;
+	/**
+	 * The <code>Pattern</code> that is applied to a sentence or
+	 * <code>null</code> if it has not been compiled yet.
+	 */
+	private volatile Pattern pattern;
 	/** The type of PROPERTY that is extracted with this pattern. */
 	private String property;
 	/** ID of the group that represents the PROPERTY to be extracted. */
@@ -35,6 +40,10 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 	private int correct = 0;
 	/** Counter for the number of wrong applications of the pattern. */
 	private int wrong = 0;
+	/** NE types of the PROPERTY tag or <code>null</code> if not known yet. */
+	private String[] propertyTypes;
+	/** Strings required by the pattern or <code>null</code> if not known yet. */
+	private String[] literals;
 	
 	/**
 	 * Creates an <code>AnswerPattern</code> from a descriptor that is a
@@ -55,6 +64,45 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 		desc = expr;  // pattern descriptor
 		property = prop;  // PROPERTY that this pattern extracts
 		
+		compile();
+	}
+	
+	/**
+	 * <p>Creates an <code>AnswerPattern</code> from a descriptor and metadata
+	 * that were computed before, e.g. by loading the pattern from a
+	 * <code>PatternBank</code>.</p>
+	 * 
+	 * <p>The regular expression is not compiled before the pattern is first
+	 * applied, thus the descriptor must be valid.</p>
+	 * 
+	 * @param expr pattern descriptor
+	 * @param prop PROPERTY that the pattern extracts
+	 * @param correct number of correct applications
+	 * @param wrong number of wrong applications
+	 * @param propertyTypes NE types of the PROPERTY tag, an empty array if the
+	 * 						tag has no NE types
+	 * @param literals strings returned by <code>getRequiredLiterals()</code>
+	 */
+	public AnswerPattern(String expr, String prop, int correct, int wrong,
+						 String[] propertyTypes, String[] literals) {
+		desc = expr;
+		property = prop;
+		this.correct = correct;
+		this.wrong = wrong;
+		this.propertyTypes = propertyTypes;
+		this.literals = literals;
+	}
+	
+	/**
+	 * Builds the regular expression from the pattern descriptor and compiles
+	 * it, unless this has been done before.
+	 * 
+	 * @return the compiled pattern
+	 */
+	private synchronized Pattern compile() {
+		if (pattern != null) return pattern;
+		String expr = desc;
+		
 		// add group that covers the string between TARGET and PROPERTY
 		expr = addDistGroup(expr);
 		
@@ -69,6 +117,8 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 		
 		// compile regular expression (case insensitive)
 		pattern = Pattern.compile(expr, Pattern.CASE_INSENSITIVE);
+		
+		return pattern;
 	}
 	
 	/**
@@ -343,11 +393,155 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 	 * @return NE types or <code>null</code> iff no specific types are expected
 	 */
 	public String[] getPropertyTypes() {
-		Matcher m = Pattern.compile("<PO_([^>]++)>").matcher(desc);
-		if (!m.find()) return null;
+		if (propertyTypes == null) {
+			Matcher m = Pattern.compile("<PO_([^>]++)>").matcher(desc);
+			propertyTypes = (m.find()) ? m.group(1).split("_") : new String[0];
+		}
+		
+		return (propertyTypes.length > 0) ? propertyTypes : null;
+	}
+	
+	/**
+	 * <p>Returns strings that occur in every sentence the pattern matches, in
+	 * the form returned by <code>StringUtils.toLowerCaseAscii()</code>.</p>
+	 * 
+	 * <p>The strings are taken from the parts of the descriptor that are
+	 * neither in groups nor quantified: literal text, TARGET and CONTEXT tags
+	 * and NE tags with a single NE type. Other constructs are skipped, so the
+	 * result may be incomplete but never contains a string that is not
+	 * required.</p>
+	 * 
+	 * @return required strings or an empty array
+	 */
+	public String[] getRequiredLiterals() {
+		if (literals == null) literals = findRequiredLiterals();
 		
-		String[] neTypes = m.group(1).split("_");
-		return neTypes;
+		return literals;
+	}
+	
+	/**
+	 * Determines the strings returned by <code>getRequiredLiterals()</code>.
+	 * 
+	 * @return required strings or an empty array
+	 */
+	private String[] findRequiredLiterals() {
+		ArrayList<String> literals = new ArrayList<String>();
+		StringBuilder run = new StringBuilder();  // current literal text
+		boolean lastLiteral = false;  // last character was added to run
+		int depth = 0;  // nesting depth of groups
+		
+		int i = 0;
+		while (i < desc.length()) {
+			char c = desc.charAt(i);
+			String tag = null;
+			boolean literal = false;
+			
+			if (c == '\\') {  // escape sequence
+				if (i + 1 == desc.length()) return new String[0];
+				c = desc.charAt(i + 1);
+				if (!Character.isLetterOrDigit(c)) literal = true;
+				else if ("bBdDsSwW".indexOf(c) == -1)
+					return new String[0];  // not supported
+				i += 2;
+			} else if (c == '[') {  // character class
+				i = skipClass(i);
+				if (i == -1) return new String[0];
+			} else if (c == '(') {
+				depth++;
+				i++;
+			} else if (c == ')') {
+				depth--;
+				i++;
+			} else if (c == '|') {
+				if (depth == 0) return new String[0];  // alternatives
+				i++;
+			} else if (c == '?' || c == '*' || c == '+' || c == '{') {
+				// quantifier, the preceding character is not required
+				if (lastLiteral) run.setLength(run.length() - 1);
+				if (c == '{') i = desc.indexOf('}', i);
+				if (i == -1) return new String[0];
+				i++;
+			} else if (c == '.' || c == '^' || c == '$') {
+				i++;
+			} else if (c == '<' && desc.indexOf('>', i) != -1) {
+				int end = desc.indexOf('>', i) + 1;
+				tag = getTagLiteral(desc.substring(i, end));
+				if (tag != null) {
+					i = end;
+					// a quantified tag is not required
+					if (i < desc.length() && "?*+{".indexOf(desc.charAt(i)) != -1)
+						tag = "";
+				} else {
+					literal = true;
+					i++;
+				}
+			} else {
+				literal = true;
+				i++;
+			}
+			
+			if (literal && depth == 0) {
+				run.append(c);
+				lastLiteral = true;
+			} else {
+				if (run.length() > 0)
+					literals.add(StringUtils.toLowerCaseAscii(run.toString()));
+				run.setLength(0);
+				lastLiteral = false;
+			}
+			if (tag != null && tag.length() > 0 && depth == 0)
+				literals.add(StringUtils.toLowerCaseAscii(tag));
+		}
+		if (run.length() > 0)
+			literals.add(StringUtils.toLowerCaseAscii(run.toString()));
+		
+		return literals.toArray(new String[literals.size()]);
+	}
+	
+	/**
+	 * Skips a character class in the pattern descriptor.
+	 * 
+	 * @param start index of the opening bracket
+	 * @return index after the closing bracket or -1 if the class is not closed
+	 */
+	private int skipClass(int start) {
+		int depth = 0;
+		
+		for (int i = start; i < desc.length(); i++) {
+			char c = desc.charAt(i);
+			if (c == '\\') i++;
+			else if (c == '[') depth++;
+			else if (c == ']' && --depth == 0) return i + 1;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Gets a string that occurs in every match of a tag in the pattern
+	 * descriptor.
+	 * 
+	 * @param tag a string enclosed in angle brackets
+	 * @return required string, an empty string if no string is required or
+	 * 		   <code>null</code> if the string is not a tag
+	 */
+	private String getTagLiteral(String tag) {
+		if (tag.equals("<TO>")) return "<TO_";
+		if (tag.equals("<CO>")) return "<CO_";
+		if (tag.equals("<PO>")) return "";
+		if (tag.startsWith("<PO_")) {
+			// the PROPERTY tag is replaced by a group with a tag
+			String neTag = "<" + tag.substring(4);
+			String literal = getTagLiteral(neTag);
+			return (literal == null) ? "" : literal;
+		}
+		if (tag.startsWith("<NE")) {
+			String neType = tag.substring(1, tag.length() - 1);
+			// with several NE types, any one of them can occur
+			return (neType.matches("[a-zA-Z0-9]++")) ? neType : "";
+		}
+		
+		return null;
 	}
 	
 	/**
@@ -360,6 +554,9 @@ public class AnswerPattern implements Comparable<AnswerPattern> {
 	 *         not match the pattern
 	 */
 	public String[] apply(String sentence) {
+		Pattern pattern = this.pattern;
+		if (pattern == null) pattern = compile();
+		
 		Matcher m = pattern.matcher(sentence);
 		ArrayList<String> results = new ArrayList<String>();
 		
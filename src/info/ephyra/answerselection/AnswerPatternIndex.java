@@ -0,0 +1,97 @@
+package info.ephyra.answerselection;
+
+import info.ephyra.util.AhoCorasick;
+import info.ephyra.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * <p>An index over the answer patterns for a PROPERTY that determines the
+ * patterns that can match a sentence without applying them.</p>
+ * 
+ * <p>For each pattern, the strings that occur in every sentence it matches are
+ * obtained from <code>AnswerPattern.getRequiredLiterals()</code>. The strings
+ * of all patterns are compiled into an Aho-Corasick automaton, so that a
+ * sentence is scanned only once to find the candidate patterns, i.e. those
+ * patterns whose required strings all occur in the sentence. Only the
+ * candidates need to be applied, the result is the same as if all patterns
+ * were applied.</p>
+ * 
+ * <p>The index is immutable and must be rebuilt when the patterns change.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class AnswerPatternIndex {
+	/** The patterns in the order of the collection. */
+	private AnswerPattern[] patterns;
+	/** For each pattern the IDs of its required strings. */
+	private int[][] literalIds;
+	/** Finds the required strings in a sentence. */
+	private AhoCorasick literals;
+	
+	/**
+	 * Builds an index over a collection of answer patterns.
+	 * 
+	 * @param patterns the answer patterns
+	 */
+	public AnswerPatternIndex(Collection<AnswerPattern> patterns) {
+		this.patterns = patterns.toArray(new AnswerPattern[patterns.size()]);
+		literalIds = new int[this.patterns.length][];
+		
+		// assign IDs to the distinct required strings
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		ArrayList<String> keywords = new ArrayList<String>();
+		for (int i = 0; i < this.patterns.length; i++) {
+			String[] ls = this.patterns[i].getRequiredLiterals();
+			literalIds[i] = new int[ls.length];
+			for (int j = 0; j < ls.length; j++) {
+				Integer id = ids.get(ls[j]);
+				if (id == null) {
+					id = keywords.size();
+					ids.put(ls[j], id);
+					keywords.add(ls[j]);
+				}
+				literalIds[i][j] = id;
+			}
+		}
+		
+		literals =
+			new AhoCorasick(keywords.toArray(new String[keywords.size()]));
+	}
+	
+	/**
+	 * Returns the answer patterns in the order of the collection the index was
+	 * built from.
+	 * 
+	 * @return the answer patterns
+	 */
+	public AnswerPattern[] getPatterns() {
+		return patterns;
+	}
+	
+	/**
+	 * Determines the answer patterns that can match a sentence.
+	 * 
+	 * @param sentence a sentence
+	 * @return for each pattern in the order of <code>getPatterns()</code>
+	 * 		   <code>true</code> iff it can match the sentence
+	 */
+	public boolean[] getCandidates(String sentence) {
+		boolean[] found =
+			literals.findAll(StringUtils.toLowerCaseAscii(sentence));
+		
+		boolean[] candidates = new boolean[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			candidates[i] = true;
+			for (int id : literalIds[i])
+				if (!found[id]) {
+					candidates[i] = false;
+					break;
+				}
+		}
+		
+		return candidates;
+	}
+}
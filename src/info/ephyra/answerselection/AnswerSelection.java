@@ -1,13 +1,12 @@
 package info.ephyra.answerselection;
 
 import info.ephyra.answerselection.filters.Filter;
+import info.ephyra.answerselection.filters.ScoreSorterFilter;
 import info.ephyra.io.MsgPrinter;
 import info.ephyra.search.Result;
 
 import java.util.*;
 
-import me.xdrop.fuzzywuzzy.FuzzySearch;
-
 /**
  * <p>The <code>AnswerSelection</code> component applies <code>Filters</code> to
  * <code>Results</code> to promote promising results, to drop results that are
@@ -15,7 +14,7 @@ import me.xdrop.fuzzywuzzy.FuzzySearch;
  * results returned by the <code>Searchers</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2006-06-28
+ * @version 2026-10-19
  */
 public class AnswerSelection {
 
@@ -76,6 +75,33 @@ public class AnswerSelection {
 		filters.clear();
 	}
 	
+	/**
+	 * Applies the <code>Filters</code> to the <code>Results</code>. Only the
+	 * best <code>maxResults</code> results are needed from the last filter
+	 * that does not preserve prefixes of the results and from the filters
+	 * after it, so e.g. a final <code>ScoreSorterFilter</code> does not sort
+	 * all results.
+	 * 
+	 * @param results search results
+	 * @param maxResults maximum number of results that are needed
+	 * @return filtered results
+	 */
+	private static Result[] applyFilters(Result[] results, int maxResults) {
+		int bounded = filters.size() - 1;
+		while (bounded > 0 && filters.get(bounded).isPrefixFilter()) bounded--;
+		
+		for (int i = 0; i < filters.size(); i++) {
+			Filter filter = filters.get(i);
+			MsgPrinter.printFilterStarted(filter, results.length);
+			results = (maxResults > 0 && i >= bounded)
+				? filter.apply(results, maxResults)
+				: filter.apply(results);
+			MsgPrinter.printFilterFinished(filter, results.length);
+		}
+		
+		return results;
+	}
+	
 	/**
 	 * Applies <code>Filters</code> to the <code>Results</code> from the search
 	 * component and returns up to <code>maxResults</code> results with a score
@@ -89,11 +115,7 @@ public class AnswerSelection {
 	public static Result[] getResults(Result[] results, int maxResults,
 									  float minScore) {
 		// apply filters
-		for (Filter filter : filters) {
-			MsgPrinter.printFilterStarted(filter, results.length);
-			results = filter.apply(results);
-			MsgPrinter.printFilterFinished(filter, results.length);
-		}
+		results = applyFilters(results, maxResults);
 		
 		// get up to maxResults results with a score of at least minScore
 		ArrayList<Result> resultsList = new ArrayList<Result>();
@@ -134,28 +156,26 @@ public class AnswerSelection {
             rankedAnswers.put(answer, 0);
         }
 
-		for (Result result : results) {
-			for (String answer : answers) {
+		AnswerMatcher matcher = new AnswerMatcher(answers);
+		int[][] ratios = matcher.getRatios(getAnswerStrings(results));
+		for (int r = 0; r < results.length; r++) {
+			for (int a = 0; a < answers.length; a++) {
 				//Fuzzy search for answer in result
 				/*if (result.getAnswer().contains(answer)) {
 					answerCounts[a] += 1;
 				}*/
-				int ratio = FuzzySearch.tokenSetRatio(answer, result.getAnswer());
+				int ratio = ratios[r][a];
 				//System.out.println("Ratio of "+answer+" in "+result.getAnswer()+" is >>>>>> "+ratio);
 				if (ratio > 50) {
-				    int curVal = rankedAnswers.get(answer);
-					rankedAnswers.put(answer, curVal+1);
+				    int curVal = rankedAnswers.get(answers[a]);
+					rankedAnswers.put(answers[a], curVal+1);
 					foundAnyAnswer = true;
 				}
 			}
 		}
 
 		// apply filters
-		for (Filter filter : filters) {
-			MsgPrinter.printFilterStarted(filter, results.length);
-			results = filter.apply(results);
-			MsgPrinter.printFilterFinished(filter, results.length);
-		}
+		results = applyFilters(results, maxResults);
 
 		// get up to maxResults results with a score of at least minScore
 		ArrayList<Result> resultsList = new ArrayList<Result>();
@@ -185,13 +205,15 @@ public class AnswerSelection {
 		}*/
 
 		if (resultsList.size() > 0) {
-		    for (Result result : resultsList) {
-                for (String answer : answers) {
-                    int ratioToActualAnswer = FuzzySearch.tokenSetRatio(answer, result.getAnswer());
+		    ratios = matcher.getRatios(getAnswerStrings(
+		            resultsList.toArray(new Result[resultsList.size()])));
+		    for (int r = 0; r < resultsList.size(); r++) {
+                for (int a = 0; a < answers.length; a++) {
+                    int ratioToActualAnswer = ratios[r][a];
                     if (ratioToActualAnswer >= 75) {
                         foundAnyAnswer = true;
                         System.out.println("Found actual answer!!");
-                        rankedAnswers.put(answer, rankedAnswers.get(answer)+(resultCount/2));
+                        rankedAnswers.put(answers[a], rankedAnswers.get(answers[a])+(resultCount/2));
                     }
                 }
             }
@@ -235,4 +257,66 @@ public class AnswerSelection {
 
 		return resultsList.toArray(new Result[resultsList.size()]);
 	}
+	
+	/**
+	 * <p>Scores the provided answers to a multiple-choice question by their
+	 * evidence in the search results, without applying the
+	 * <code>Filters</code>. This is much faster than
+	 * <code>getResultsWithAnswerMatching()</code>, which extracts answers from
+	 * the results before matching them against the provided answers.</p>
+	 * 
+	 * <p>Each result that matches an answer with a token set ratio above 50
+	 * counts as evidence for the answer, a result that matches it with a ratio
+	 * of at least 75 counts twice. The score of an answer is its evidence in
+	 * percent of the maximum evidence, or the remaining percentage if the
+	 * question is negated.</p>
+	 * 
+	 * @param results search results
+	 * @param answers possible answers to match against
+	 * @param isInverse <code>true</code> iff the question is negated
+	 * @return the answers sorted by their scores, or an empty array if none of
+	 * 		   the answers occurs in the results
+	 */
+	public static Result[] getResultsFromSnippets(Result[] results,
+			String[] answers, boolean isInverse) {
+		int[] evidence = new int[answers.length];
+		boolean foundAnyAnswer = false;
+		
+		int[][] ratios =
+			new AnswerMatcher(answers).getRatios(getAnswerStrings(results));
+		for (int r = 0; r < results.length; r++)
+			for (int i = 0; i < answers.length; i++) {
+				int ratio = ratios[r][i];
+				if (ratio > 50) {
+					evidence[i]++;
+					foundAnyAnswer = true;
+				}
+				if (ratio >= 75) evidence[i]++;
+			}
+		if (!foundAnyAnswer) return new Result[0];
+		
+		Result[] scored = new Result[answers.length];
+		for (int i = 0; i < answers.length; i++) {
+			double percent = evidence[i] / (2.0 * results.length);
+			if (isInverse) percent = 1 - percent;
+			scored[i] = new Result(answers[i]);
+			scored[i].setScore((float) (percent * 100));
+		}
+		
+		return (new ScoreSorterFilter()).apply(scored);
+	}
+	
+	/**
+	 * Returns the answer strings of the results.
+	 * 
+	 * @param results results
+	 * @return answer strings
+	 */
+	private static String[] getAnswerStrings(Result[] results) {
+		String[] strings = new String[results.length];
+		for (int i = 0; i < results.length; i++)
+			strings[i] = results[i].getAnswer();
+		
+		return strings;
+	}
 }
@@ -0,0 +1,519 @@
+package info.ephyra.answerselection;
+
+import info.ephyra.io.MsgPrinter;
+import info.ephyra.util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import edu.cmu.minorthird.classify.Classifier;
+import edu.cmu.minorthird.classify.Feature;
+import edu.cmu.minorthird.classify.MutableInstance;
+
+/**
+ * <p>A compact form of a classifier trained with MinorThird's
+ * <code>AdaBoost</code> learner over decision trees. The nodes of all trees
+ * are stored in flat arrays, with the index of the tested feature and the
+ * threshold of each internal node and the score of each leaf. Instances are
+ * primitive feature vectors, indexed like <code>getFeatureNames()</code>.</p>
+ * 
+ * <p>The score of an instance is the sum of the scores of the leaves it
+ * reaches in the trees. At an internal node, the branch for a true test is
+ * taken if the feature value is at least the threshold. The probability of the
+ * positive class is the logistic function of the score, as in MinorThird's
+ * <code>ClassLabel.posProbability()</code>.</p>
+ * 
+ * <p>A scorer is exported from a trained classifier with
+ * <code>export()</code>, which checks that it computes the same probabilities
+ * as the classifier, and stored in a binary file.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class BoostedTreeScorer {
+	/** Magic number at the beginning of a scorer file. */
+	private static final int MAGIC = 0x42545331;
+	/** Feature index of leaf nodes. */
+	private static final int LEAF = -1;
+	/** Maximum difference of the probabilities accepted by the export. */
+	private static final double TOLERANCE = 1e-9;
+	/** Number of random instances used to check the export. */
+	private static final int NUM_PROBES = 10000;
+	
+	/** Names of the features. */
+	private String[] featureNames;
+	/** Maps the feature names to their indices. */
+	private HashMap<String, Integer> featureIndices;
+	/** Root nodes of the trees. */
+	private int[] roots;
+	/** For each node the tested feature or <code>LEAF</code>. */
+	private int[] features;
+	/** For each node the threshold or, for leaves, the score. */
+	private double[] values;
+	/** For each internal node the node if the test is true. */
+	private int[] ifTrue;
+	/** For each internal node the node if the test is false. */
+	private int[] ifFalse;
+	/**
+	 * MinorThird features in the order of the feature vectors, or
+	 * <code>null</code> if the scorer was read from a file.
+	 */
+	private List<Feature> featureList;
+	
+	/**
+	 * Creates a scorer from its arrays.
+	 * 
+	 * @param featureNames names of the features
+	 * @param roots root nodes of the trees
+	 * @param features tested features
+	 * @param values thresholds and scores
+	 * @param ifTrue nodes if the tests are true
+	 * @param ifFalse nodes if the tests are false
+	 */
+	private BoostedTreeScorer(String[] featureNames, int[] roots,
+			int[] features, double[] values, int[] ifTrue, int[] ifFalse) {
+		this.featureNames = featureNames;
+		this.roots = roots;
+		this.features = features;
+		this.values = values;
+		this.ifTrue = ifTrue;
+		this.ifFalse = ifFalse;
+		
+		featureIndices = new HashMap<String, Integer>();
+		for (int i = 0; i < featureNames.length; i++)
+			featureIndices.put(featureNames[i], i);
+	}
+	
+	/**
+	 * Returns the names of the features, in the order of the feature vectors.
+	 * Names with multiple parts are joined with dots.
+	 * 
+	 * @return names of the features
+	 */
+	public String[] getFeatureNames() {
+		return featureNames;
+	}
+	
+	/**
+	 * Returns the index of a feature in the feature vectors.
+	 * 
+	 * @param name name of the feature
+	 * @return index of the feature or <code>-1</code> if it is not used by the
+	 * 		   classifier
+	 */
+	public int getFeatureIndex(String name) {
+		Integer index = featureIndices.get(name);
+		
+		return (index == null) ? -1 : index;
+	}
+	
+	/**
+	 * Creates a feature vector with all features set to 0.
+	 * 
+	 * @return feature vector
+	 */
+	public double[] createVector() {
+		return new double[featureNames.length];
+	}
+	
+	/**
+	 * Computes the score of an instance.
+	 * 
+	 * @param vector feature vector of the instance
+	 * @return sum of the scores of the trees
+	 */
+	public double score(double[] vector) {
+		double score = 0;
+		
+		for (int root : roots) {
+			int node = root;
+			while (features[node] != LEAF)
+				node = (vector[features[node]] >= values[node])
+						? ifTrue[node]
+						: ifFalse[node];
+			score += values[node];
+		}
+		
+		return score;
+	}
+	
+	/**
+	 * Computes the probability of the positive class for an instance.
+	 * 
+	 * @param vector feature vector of the instance
+	 * @return probability of the positive class
+	 */
+	public double posProbability(double[] vector) {
+		return 1 / (1 + Math.exp(-score(vector)));
+	}
+	
+	/**
+	 * Gets the value of a field of a MinorThird object. The classes of the
+	 * trained classifier do not expose their structure, the names of the
+	 * fields are those in the serialized form.
+	 * 
+	 * @param o an object
+	 * @param name name of the field
+	 * @return value of the field
+	 * @throws IOException if the object does not have the field
+	 */
+	private static Object getField(Object o, String name) throws IOException {
+		for (Class<?> c = o.getClass(); c != null; c = c.getSuperclass())
+			try {
+				Field field = c.getDeclaredField(name);
+				field.setAccessible(true);
+				return field.get(o);
+			} catch (NoSuchFieldException e) {
+				// try superclass
+			} catch (IllegalAccessException e) {
+				break;
+			}
+		
+		throw new IOException("Unsupported classifier: " +
+				o.getClass().getName() + " has no field " + name);
+	}
+	
+	/**
+	 * Joins the parts of a feature name with dots.
+	 * 
+	 * @param feature a feature
+	 * @return name of the feature
+	 * @throws IOException if the name could not be read
+	 */
+	private static String getName(Feature feature) throws IOException {
+		String[] parts = (String[]) getField(feature, "name");
+		StringBuilder name = new StringBuilder();
+		for (String part : parts) {
+			if (name.length() > 0) name.append('.');
+			name.append(part);
+		}
+		
+		return name.toString();
+	}
+	
+	/**
+	 * Adds the nodes of a decision tree to the arrays of the scorer.
+	 * 
+	 * @param tree the tree
+	 * @param featureList features tested in the trees
+	 * @param features tested features
+	 * @param values thresholds and scores
+	 * @param ifTrue nodes if the tests are true
+	 * @param ifFalse nodes if the tests are false
+	 * @return index of the root node of the tree
+	 * @throws IOException if the tree is not supported
+	 */
+	private static int addTree(Object tree, List<Feature> featureList,
+			List<Integer> features, List<Double> values, List<Integer> ifTrue,
+			List<Integer> ifFalse) throws IOException {
+		int node = features.size();
+		String className = tree.getClass().getName();
+		
+		if (className.endsWith("DecisionTree$Leaf")) {
+			features.add(LEAF);
+			values.add((Double) getField(tree, "myScore"));
+			ifTrue.add(-1);
+			ifFalse.add(-1);
+		} else if (className.endsWith("DecisionTree$InternalNode")) {
+			Feature test = (Feature) getField(tree, "test");
+			int feature = featureList.indexOf(test);
+			if (feature == -1) {
+				feature = featureList.size();
+				featureList.add(test);
+			}
+			features.add(feature);
+			values.add((Double) getField(tree, "threshold"));
+			ifTrue.add(-1);
+			ifFalse.add(-1);
+			
+			int t = addTree(getField(tree, "ifTrue"), featureList, features,
+					values, ifTrue, ifFalse);
+			int f = addTree(getField(tree, "ifFalse"), featureList, features,
+					values, ifTrue, ifFalse);
+			ifTrue.set(node, t);
+			ifFalse.set(node, f);
+		} else {
+			throw new IOException("Unsupported tree: " + className);
+		}
+		
+		return node;
+	}
+	
+	/**
+	 * Converts a list of integers into an array.
+	 * 
+	 * @param list list of integers
+	 * @return array of integers
+	 */
+	private static int[] toIntArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+		
+		return array;
+	}
+	
+	/**
+	 * Exports a classifier trained with the <code>AdaBoost</code> learner over
+	 * decision trees. The probabilities computed by the scorer are compared to
+	 * those of the classifier for instances with feature values around the
+	 * thresholds of the trees.
+	 * 
+	 * @param classifier a trained classifier
+	 * @return scorer that computes the same probabilities
+	 * @throws IOException if the classifier is not supported or the
+	 * 					   probabilities differ
+	 */
+	public static BoostedTreeScorer export(Classifier classifier)
+			throws IOException {
+		if (!classifier.getClass().getName().endsWith(
+				"AdaBoost$BoostedClassifier"))
+			throw new IOException("Unsupported classifier: " +
+					classifier.getClass().getName());
+		
+		List<?> trees = (List<?>) getField(classifier, "classifiers");
+		List<Feature> featureList = new ArrayList<Feature>();
+		List<Integer> features = new ArrayList<Integer>();
+		List<Double> values = new ArrayList<Double>();
+		List<Integer> ifTrue = new ArrayList<Integer>();
+		List<Integer> ifFalse = new ArrayList<Integer>();
+		int[] roots = new int[trees.size()];
+		for (int i = 0; i < roots.length; i++)
+			roots[i] = addTree(trees.get(i), featureList, features, values,
+					ifTrue, ifFalse);
+		
+		String[] featureNames = new String[featureList.size()];
+		for (int i = 0; i < featureNames.length; i++)
+			featureNames[i] = getName(featureList.get(i));
+		double[] vs = new double[values.size()];
+		for (int i = 0; i < vs.length; i++) vs[i] = values.get(i);
+		BoostedTreeScorer scorer = new BoostedTreeScorer(featureNames, roots,
+				toIntArray(features), vs, toIntArray(ifTrue),
+				toIntArray(ifFalse));
+		scorer.featureList = featureList;
+		
+		double diff = scorer.compare(classifier, NUM_PROBES);
+		if (diff > TOLERANCE)
+			throw new IOException("Exported classifier differs from the " +
+					"original by " + diff);
+		
+		return scorer;
+	}
+	
+	/**
+	 * Creates random feature vectors. Each feature is 0, 1, one of the
+	 * thresholds of the feature or the next value above or below a threshold.
+	 * 
+	 * @param num number of vectors
+	 * @return feature vectors
+	 */
+	private double[][] createProbes(int num) {
+		List<TreeSet<Double>> sets = new ArrayList<TreeSet<Double>>();
+		for (int f = 0; f < featureNames.length; f++) {
+			TreeSet<Double> vs = new TreeSet<Double>();
+			vs.add(0d);
+			vs.add(1d);
+			sets.add(vs);
+		}
+		for (int node = 0; node < features.length; node++)
+			if (features[node] != LEAF) {
+				TreeSet<Double> vs = sets.get(features[node]);
+				vs.add(values[node]);
+				vs.add(Math.nextUp(values[node]));
+				vs.add(-Math.nextUp(-values[node]));
+			}
+		Double[][] candidates = new Double[featureNames.length][];
+		for (int f = 0; f < featureNames.length; f++)
+			candidates[f] = sets.get(f).toArray(new Double[sets.get(f).size()]);
+		
+		Random random = new Random(0);
+		double[][] probes = new double[num][];
+		for (int i = 0; i < num; i++) {
+			probes[i] = createVector();
+			for (int f = 0; f < featureNames.length; f++)
+				probes[i][f] =
+					candidates[f][random.nextInt(candidates[f].length)];
+		}
+		
+		return probes;
+	}
+	
+	/**
+	 * Creates a MinorThird instance from a feature vector.
+	 * 
+	 * @param vector feature vector
+	 * @return instance
+	 */
+	private MutableInstance createInstance(double[] vector) {
+		MutableInstance instance = new MutableInstance("probe");
+		for (int f = 0; f < vector.length; f++)
+			if (vector[f] != 0)
+				instance.addNumeric(featureList.get(f), vector[f]);
+		
+		return instance;
+	}
+	
+	/**
+	 * Compares the probabilities computed by the scorer with those of the
+	 * classifier it was exported from, for random feature vectors.
+	 * 
+	 * @param classifier the classifier
+	 * @param num number of feature vectors
+	 * @return maximum difference of the probabilities
+	 */
+	private double compare(Classifier classifier, int num) {
+		double maxDiff = 0;
+		
+		for (double[] probe : createProbes(num)) {
+			double expected = classifier.classification(
+					createInstance(probe)).posProbability();
+			maxDiff = Math.max(Math.abs(expected - posProbability(probe)),
+					maxDiff);
+		}
+		
+		return maxDiff;
+	}
+	
+	/**
+	 * Reads a scorer from a file.
+	 * 
+	 * @param file scorer file
+	 * @return the scorer
+	 * @throws IOException if the file could not be read
+	 */
+	public static BoostedTreeScorer read(File file) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a boosted tree scorer: " + file);
+			
+			String[] featureNames = new String[in.readInt()];
+			for (int i = 0; i < featureNames.length; i++)
+				featureNames[i] = in.readUTF();
+			int[] roots = new int[in.readInt()];
+			for (int i = 0; i < roots.length; i++) roots[i] = in.readInt();
+			int numNodes = in.readInt();
+			int[] features = new int[numNodes];
+			double[] values = new double[numNodes];
+			int[] ifTrue = new int[numNodes];
+			int[] ifFalse = new int[numNodes];
+			for (int i = 0; i < numNodes; i++) {
+				features[i] = in.readInt();
+				values[i] = in.readDouble();
+				ifTrue[i] = in.readInt();
+				ifFalse[i] = in.readInt();
+			}
+			
+			return new BoostedTreeScorer(featureNames, roots, features, values,
+					ifTrue, ifFalse);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Writes the scorer to a file.
+	 * 
+	 * @param file scorer file
+	 * @throws IOException if the file could not be written
+	 */
+	public void write(File file) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(featureNames.length);
+			for (String name : featureNames) out.writeUTF(name);
+			out.writeInt(roots.length);
+			for (int root : roots) out.writeInt(root);
+			out.writeInt(features.length);
+			for (int i = 0; i < features.length; i++) {
+				out.writeInt(features[i]);
+				out.writeDouble(values[i]);
+				out.writeInt(ifTrue[i]);
+				out.writeInt(ifFalse[i]);
+			}
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Returns the file of the exported scorer for a serialized classifier.
+	 * 
+	 * @param classifierFilename filename of a serialized classifier
+	 * @return file of the scorer
+	 */
+	public static File getScorerFile(String classifierFilename) {
+		return new File(classifierFilename.replaceFirst("\\.serialized$", "") +
+				".trees");
+	}
+	
+	/**
+	 * Exports a serialized classifier, compares the probabilities of the
+	 * scorer and the classifier and measures the throughput of both.
+	 * 
+	 * @param args filename of a serialized classifier, [number of instances]
+	 */
+	public static void main(String[] args) {
+		// enable output of status and error messages
+		MsgPrinter.enableStatusMsgs(true);
+		MsgPrinter.enableErrorMsgs(true);
+		
+		if (args.length < 1) {
+			MsgPrinter.printUsage("java BoostedTreeScorer classifier_file " +
+					"[num_instances]");
+			System.exit(1);
+		}
+		int num = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		
+		try {
+			// export classifier
+			Classifier classifier =
+				(Classifier) FileUtils.readSerialized(new File(args[0]));
+			BoostedTreeScorer scorer = export(classifier);
+			File file = getScorerFile(args[0]);
+			scorer.write(file);
+			MsgPrinter.printStatusMsg("Exported " + scorer.roots.length +
+					" trees with " + scorer.features.length + " nodes to " +
+					file);
+			
+			// compare probabilities
+			MsgPrinter.printStatusMsg("Maximum difference: " +
+					scorer.compare(classifier, num));
+			
+			// measure throughput, including the creation of the instances
+			double[][] probes = scorer.createProbes(num);
+			double sum = 0;
+			long start = System.nanoTime();
+			for (double[] probe : probes)
+				sum += classifier.classification(
+						scorer.createInstance(probe)).posProbability();
+			long m3rdTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (double[] probe : probes)
+				sum -= scorer.posProbability(probe);
+			long scorerTime = System.nanoTime() - start;
+			MsgPrinter.printStatusMsg("MinorThird: " +
+					(long) (num / (m3rdTime / 1e9)) + " instances/s");
+			MsgPrinter.printStatusMsg("Scorer:     " +
+					(long) (num / (scorerTime / 1e9)) + " instances/s" +
+					" (checksum " + sum + ")");
+		} catch (Exception e) {
+			MsgPrinter.printErrorMsg("Could not export classifier:");
+			MsgPrinter.printErrorMsg(e.toString());
+			System.exit(1);
+		}
+	}
+}
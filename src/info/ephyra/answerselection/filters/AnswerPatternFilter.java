@@ -1,6 +1,7 @@
 package info.ephyra.answerselection.filters;
 
 import info.ephyra.answerselection.AnswerPattern;
+import info.ephyra.answerselection.AnswerPatternIndex;
 import info.ephyra.io.MsgPrinter;
 import info.ephyra.nlp.NETagger;
 import info.ephyra.nlp.OpenNLP;
@@ -8,18 +9,24 @@ import info.ephyra.querygeneration.Query;
 import info.ephyra.questionanalysis.QuestionInterpretation;
 import info.ephyra.search.Result;
 import info.ephyra.util.FileUtils;
+import info.ephyra.util.PatternBank;
 import info.ephyra.util.RegexConverter;
 import info.ephyra.util.StringUtils;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -36,15 +43,39 @@ import java.util.regex.PatternSyntaxException;
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-04-18
+ * @version 2026-10-19
  */
 public class AnswerPatternFilter extends Filter {
 	/** Identifier for the pattern learning and matching approach. */
 	public static final String ID = "Pattern learning and matching";
+	/**
+	 * Version of the sections of the pattern bank. Must be incremented when
+	 * their format or the way the patterns are derived from the descriptors
+	 * changes, so that existing banks are rebuilt.
+	 */
+	private static final int BANK_VERSION = 1;
 	
 	/** For each PROPERTY the answer patterns that are used to extract it. */
 	private static Hashtable<String, HashSet<AnswerPattern>> props =
 		new Hashtable<String, HashSet<AnswerPattern>>();
+	/**
+	 * Pattern bank with the answer patterns for the PROPERTIES that have not
+	 * been used yet or <code>null</code> if all patterns are in
+	 * <code>props</code>.
+	 */
+	private static PatternBank bank;
+	/**
+	 * For each PROPERTY an index that determines the answer patterns that can
+	 * match a sentence. Built when the patterns are first applied and dropped
+	 * when they change. Built indices are looked up without locking.
+	 */
+	private static ConcurrentHashMap<String, AnswerPatternIndex> indices =
+		new ConcurrentHashMap<String, AnswerPatternIndex>();
+	/**
+	 * Whether only the patterns whose required strings occur in a sentence are
+	 * applied. Disabling it does not change the extractions.
+	 */
+	private static boolean prefilter = true;
 	/**
 	 * For each PROPERTY the number of text passages used to assess the answer
 	 * patterns.
@@ -268,8 +299,9 @@ public class AnswerPatternFilter extends Filter {
 		String prop = qi.getProperty();
 		String answer = result.getAnswer();
 		// get answer patterns
-		HashSet<AnswerPattern> patterns = props.get(prop);
-		if (patterns == null) return;
+		AnswerPatternIndex index = getIndex(prop);
+		if (index == null) return;
+		AnswerPattern[] patterns = index.getPatterns();
 		
 		// tokenize interpretation
 		to = NETagger.tokenizeWithSpaces(to);
@@ -291,7 +323,15 @@ public class AnswerPatternFilter extends Filter {
 			sentences[i] = prepSentence(sentences[i], to, cos, nes[i]);
 			if (sentences[i] == null) continue;
 			
-			for (AnswerPattern pattern : patterns) {
+			// only apply the patterns whose required strings occur in the
+			// sentence
+			boolean[] candidates =
+				prefilter ? index.getCandidates(sentences[i]) : null;
+			
+			for (int k = 0; k < patterns.length; k++) {
+				if (candidates != null && !candidates[k]) continue;
+				AnswerPattern pattern = patterns[k];
+				
 				// apply answer pattern
 				String[] pos = pattern.apply(sentences[i]);
 				
@@ -318,6 +358,97 @@ public class AnswerPatternFilter extends Filter {
 		}
 	}
 	
+	/**
+	 * Enables or disables the prefilter that only applies the answer patterns
+	 * whose required strings occur in a sentence. The prefilter is enabled by
+	 * default. It is only disabled to check that it does not change the
+	 * extractions.
+	 * 
+	 * @param enabled <code>true</code> to enable the prefilter
+	 */
+	public static void setPrefilter(boolean enabled) {
+		prefilter = enabled;
+	}
+	
+	/**
+	 * Gets the index over the answer patterns for a PROPERTY. The index is
+	 * built if the patterns changed since it was last used.
+	 * 
+	 * @param prop the PROPERTY
+	 * @return index over the answer patterns or <code>null</code> if there are
+	 * 		   no patterns for the PROPERTY
+	 */
+	private static AnswerPatternIndex getIndex(String prop) {
+		AnswerPatternIndex index = indices.get(prop);
+		
+		return (index != null) ? index : buildIndex(prop);
+	}
+	
+	/**
+	 * Builds the index over the answer patterns for a PROPERTY unless another
+	 * thread has built it already.
+	 * 
+	 * @param prop the PROPERTY
+	 * @return index over the answer patterns or <code>null</code> if there are
+	 * 		   no patterns for the PROPERTY
+	 */
+	private static synchronized AnswerPatternIndex buildIndex(String prop) {
+		AnswerPatternIndex index = indices.get(prop);
+		if (index == null) {
+			HashSet<AnswerPattern> patterns = getPatterns(prop);
+			if (patterns == null) return null;
+			
+			index = new AnswerPatternIndex(patterns);
+			indices.put(prop, index);
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Gets the answer patterns for a PROPERTY. If the PROPERTY has not been
+	 * used yet, its patterns are read from the pattern bank.
+	 * 
+	 * @param prop the PROPERTY
+	 * @return answer patterns or <code>null</code> if there are no patterns
+	 * 		   for the PROPERTY
+	 */
+	private static synchronized HashSet<AnswerPattern> getPatterns(
+			String prop) {
+		HashSet<AnswerPattern> patterns = props.get(prop);
+		if (patterns != null || bank == null) return patterns;
+		
+		ByteBuffer section = bank.getSection(prop);
+		if (section == null) return null;
+		
+		section.getInt();  // number of passages, see loadPatterns()
+		int n = section.getInt();
+		patterns = new HashSet<AnswerPattern>();
+		for (int i = 0; i < n; i++) {
+			String expr = PatternBank.getString(section);
+			int correct = section.getInt();
+			int wrong = section.getInt();
+			String[] propertyTypes = PatternBank.getStrings(section);
+			String[] literals = PatternBank.getStrings(section);
+			patterns.add(new AnswerPattern(expr, prop, correct, wrong,
+										   propertyTypes, literals));
+		}
+		props.put(prop, patterns);
+		
+		return patterns;
+	}
+	
+	/**
+	 * Reads the answer patterns for all PROPERTIES that have not been used yet
+	 * from the pattern bank.
+	 */
+	private static synchronized void getAllPatterns() {
+		if (bank == null) return;
+		
+		for (String prop : bank.getProperties()) getPatterns(prop);
+		bank = null;
+	}
+	
 	/**
 	 * Adds an answer pattern for a specific PROPERTY.
 	 * 
@@ -327,7 +458,7 @@ public class AnswerPatternFilter extends Filter {
 	 */
 	public static boolean addPattern(String expr, String prop) {
 		// get the answer patterns for the specified PROPERTY
-		HashSet<AnswerPattern> patterns = props.get(prop);
+		HashSet<AnswerPattern> patterns = getPatterns(prop);
 		if (patterns == null) {  // new PROPERTY
 			patterns = new HashSet<AnswerPattern>();
 			props.put(prop, patterns);
@@ -336,6 +467,7 @@ public class AnswerPatternFilter extends Filter {
 		
 		// if the pattern is not in the set, add it
 		boolean added = patterns.add(new AnswerPattern(expr, prop));
+		if (added) indices.remove(prop);
 		
 		// print out new patterns
 		if (added) MsgPrinter.printStatusMsg(prop + ": " + expr);
@@ -344,18 +476,76 @@ public class AnswerPatternFilter extends Filter {
 	}
 	
 	/**
-	 * Loads the answer patterns from a directory of PROPERTY files. The first
-	 * line of each file is the total number of passages used to assess the
-	 * patterns. It is followed by a list of pattern descriptors, along with
+	 * <p>Loads the answer patterns from a directory of PROPERTY files. The
+	 * first line of each file is the total number of passages used to assess
+	 * the patterns. It is followed by a list of pattern descriptors, along with
 	 * their number of correct and wrong applications. The format of the
 	 * descriptors is described in the documentation of the class
-	 * <code>AnswerPattern</code>.
+	 * <code>AnswerPattern</code>.</p>
+	 * 
+	 * <p>If the pattern bank for the directory is up to date, it is
+	 * memory-mapped instead and the patterns for a PROPERTY are created when
+	 * the PROPERTY is first used. Otherwise the files are read and the pattern
+	 * bank is written.</p>
 	 * 
 	 * @param dir directory of the answer patterns
 	 * @return true, iff the answer patterns were loaded successfully
 	 */
 	public static boolean loadPatterns(String dir) {
+		getAllPatterns();  // patterns from a previous pattern bank
+		
+		if (PatternBank.isUpToDate(dir, BANK_VERSION)) {
+			try {
+				PatternBank bank = PatternBank.load(dir);
+				for (String prop : bank.getProperties()) {
+					// total number of passages used to assess the patterns
+					nOfPassages.put(prop, bank.getSection(prop).getInt());
+					props.remove(prop);
+					indices.remove(prop);
+				}
+				AnswerPatternFilter.bank = bank;
+				
+				MsgPrinter.printStatusMsg("  ...done");
+				return true;
+			} catch (IOException e) {}  // read the PROPERTY files
+		}
+		
+		return compilePatterns(dir);
+	}
+	
+	/**
+	 * Loads the answer patterns from a directory of PROPERTY files and writes
+	 * the pattern bank for the directory.
+	 * 
+	 * @param dir directory of the answer patterns
+	 * @return true, iff the answer patterns were loaded successfully
+	 */
+	public static boolean compilePatterns(String dir) {
+		getAllPatterns();  // patterns from a previous pattern bank
+		
+		String[] loaded = readPatterns(dir);
+		if (loaded == null) return false;
+		
+		try {
+			writePatternBank(dir, loaded);
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Could not write " +
+									 PatternBank.getBankFile(dir));
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Reads the answer patterns from a directory of PROPERTY files.
+	 * 
+	 * @param dir directory of the answer patterns
+	 * @return the PROPERTIES that were read or <code>null</code> if the files
+	 * 		   could not be read
+	 */
+	private static String[] readPatterns(String dir) {
 		File[] files = FileUtils.getFiles(dir);
+		String[] loaded = new String[files.length];
 		
 		try {
 			BufferedReader in;
@@ -363,7 +553,8 @@ public class AnswerPatternFilter extends Filter {
 			int passages, correct, wrong;
 			HashSet<AnswerPattern> patterns;
 			
-			for (File file : files) {
+			for (int i = 0; i < files.length; i++) {
+				File file = files[i];
 				MsgPrinter.printStatusMsg("  ...for " + file.getName());
 				
 				prop = file.getName();
@@ -393,16 +584,57 @@ public class AnswerPatternFilter extends Filter {
 					}
 				}
 				props.put(prop, patterns);
+				indices.remove(prop);
+				loaded[i] = prop;
 				
 				in.close();
 			}
 			
 			MsgPrinter.printStatusMsg("  ...done");
 		} catch (IOException e) {
-			return false;
+			return null;
 		}
 		
-		return true;
+		return loaded;
+	}
+	
+	/**
+	 * Writes the pattern bank for a directory of PROPERTY files. For each
+	 * PROPERTY, the bank holds the total number of passages used to assess the
+	 * patterns, followed by the number of patterns and for each pattern the
+	 * descriptor, the number of correct and wrong applications, the NE types
+	 * of the PROPERTY tag and the strings required by the pattern.
+	 * 
+	 * @param dir directory of the answer patterns
+	 * @param loaded the PROPERTIES that were read from the directory
+	 * @throws IOException if the bank could not be written
+	 */
+	private static void writePatternBank(String dir, String[] loaded)
+			throws IOException {
+		HashMap<String, byte[]> sections = new HashMap<String, byte[]>();
+		
+		for (String prop : loaded) {
+			HashSet<AnswerPattern> patterns = props.get(prop);
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			
+			out.writeInt(nOfPassages.get(prop));
+			out.writeInt(patterns.size());
+			for (AnswerPattern pattern : patterns) {
+				PatternBank.putString(out, pattern.getDesc());
+				out.writeInt(pattern.getCorrect());
+				out.writeInt(pattern.getWrong());
+				String[] propertyTypes = pattern.getPropertyTypes();
+				PatternBank.putStrings(out, (propertyTypes != null) ?
+						propertyTypes : new String[0]);
+				PatternBank.putStrings(out, pattern.getRequiredLiterals());
+			}
+			
+			out.close();
+			sections.put(prop, bytes.toByteArray());
+		}
+		
+		PatternBank.write(dir, BANK_VERSION, loaded, sections);
 	}
 	
 	/**
@@ -418,6 +650,8 @@ public class AnswerPatternFilter extends Filter {
 		File file;
 		PrintWriter out;
 		
+		getAllPatterns();
+		
 		try {
 			for (String prop : props.keySet()) {
 				// sort answer patterns
@@ -485,6 +719,8 @@ public class AnswerPatternFilter extends Filter {
 	 * @param supportThresh the support threshold
 	 */
 	public static void dropLowSupport(float supportThresh) {
+		getAllPatterns();
+		
 		// for each PROPERTY
 		for (String prop : props.keySet()) {
 			HashSet<AnswerPattern> patterns = props.get(prop);
@@ -497,6 +733,7 @@ public class AnswerPatternFilter extends Filter {
 					remaining.add(pattern);
 			
 			props.put(prop, remaining);
+			indices.remove(prop);
 		}
 	}
 	
@@ -507,6 +744,8 @@ public class AnswerPatternFilter extends Filter {
 	 * @param confidenceThresh the confidence threshold
 	 */
 	public static void dropLowConfidence(float confidenceThresh) {
+		getAllPatterns();
+		
 		// for each PROPERTY
 		for (String prop : props.keySet()) {
 			HashSet<AnswerPattern> patterns = props.get(prop);
@@ -518,6 +757,7 @@ public class AnswerPatternFilter extends Filter {
 					remaining.add(pattern);
 			
 			props.put(prop, remaining);
+			indices.remove(prop);
 		}
 	}
 	
@@ -76,7 +76,7 @@ public class AnswerProjectionFilter extends Filter {
 		for (Result resultCorp : resultsCorp) {
 			if (resultCorp.getScore() > 0) {
 				// factoid answer
-				String norm = StringUtils.normalize(resultCorp.getAnswer());
+				String norm = resultCorp.getNormalizedAnswer();
 				Result factoid = factoids.get(norm);
 				if (factoid != null) {
 					if (hasHigherPreference(resultCorp, factoid)) {
@@ -113,7 +113,7 @@ public class AnswerProjectionFilter extends Filter {
 		ArrayList<Result> projected = new ArrayList<Result>();
 		for (Result resultWeb : results) {
 			if (resultWeb.getScore() <= 0) continue;  // only project factoids
-			String norm = StringUtils.normalize(resultWeb.getAnswer());
+			String norm = resultWeb.getNormalizedAnswer();
 			
 			// Answer projection rules:
 			// - first try to find a matching factoid answer extracted from the
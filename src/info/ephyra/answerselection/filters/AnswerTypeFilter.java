@@ -8,6 +8,8 @@ import info.ephyra.util.StringUtils;
 
 import java.util.Hashtable;
 
+import opennlp.tools.util.Span;
+
 /**
  * <p>The <code>AnswerTypeFilter</code> extracts factoid answers of the expected
  * answer types from text passages. This is a high-recall but low-precision
@@ -48,8 +50,11 @@ public class AnswerTypeFilter extends Filter {
 			String answer = result.getAnswer();
 			String[] sentences = OpenNLP.sentDetect(answer);
 			String[][] tokens = new String[sentences.length][];
-			for (int i = 0; i < sentences.length; i++)
-				tokens[i] = NETagger.tokenize(sentences[i]);
+			Span[][] spans = new Span[sentences.length][];
+			for (int i = 0; i < sentences.length; i++) {
+				spans[i] = NETagger.tokenizeToSpans(sentences[i]);
+				tokens[i] = NETagger.spansToStrings(spans[i], sentences[i]);
+			}
 			
 			for (String answerType : answerTypes) {
 				// get IDs of the taggers for the most specific NE type that can
@@ -64,14 +69,10 @@ public class AnswerTypeFilter extends Filter {
 				// extract NEs of that type
 				for (int neId : neIds) {
 					String neType = NETagger.getNeType(neId);
-					String[][] nes = NETagger.extractNes(tokens, neId);
+					String[][] nes =
+						NETagger.extractNes(tokens, neId, sentences, spans);
 					
 					for (int i = 0; i < sentences.length; i++) {
-						// untokenize NEs
-						for (int j = 0; j < nes[i].length; j++)
-							nes[i][j] = OpenNLP.untokenize(nes[i][j],
-									sentences[i]);
-						
 						// create new result for each unique normalized NE
 						for (String ne : nes[i]) {
 							String norm = StringUtils.normalize(ne);
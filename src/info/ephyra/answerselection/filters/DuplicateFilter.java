@@ -1,9 +1,11 @@
 package info.ephyra.answerselection.filters;
 
+import info.ephyra.nlp.Vocabulary;
 import info.ephyra.search.Result;
 import info.ephyra.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * <p>The <code>DuplicateFilter</code> drops duplicate results. Results are
@@ -11,10 +13,15 @@ import java.util.ArrayList;
  * the answer strings. In this case the result with the higher score is kept
  * and its score is incremented by the score of the other result.</p>
  * 
+ * <p>The answer strings are normalized once and indexed by the IDs of their
+ * stemmed keywords in the shared <code>Vocabulary</code>, so that only results
+ * with a keyword in common are compared. The index is a sorted array of
+ * (keyword, result) pairs.</p>
+ * 
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2006-06-28
+ * @version 2026-10-19
  */
 public class DuplicateFilter extends Filter {
 	/**
@@ -43,35 +50,66 @@ public class DuplicateFilter extends Filter {
 		// sort results by their scores in descending order
 		results = (new ScoreSorterFilter()).apply(results);
 		
+		// results with infinite scores are neither dropped nor merged, results
+		// with a score of -infinity are at the end
+		int end = 0;
+		while (end < results.length &&
+			   results[end].getScore() != Float.NEGATIVE_INFINITY) end++;
+		
+		// index the results by their stemmed keywords: each posting holds the
+		// keyword ID in the upper and the result index in the lower 32 bits
+		Vocabulary vocab = Vocabulary.getInstance();
+		int[][] keywords = new int[end][];
+		int numPostings = 0;
+		for (int i = 0; i < end; i++) {
+			if (results[i].getScore() == Float.POSITIVE_INFINITY) continue;
+			
+			keywords[i] =
+				StringUtils.getStemmedKeywordIds(results[i].getAnswer(), vocab);
+			numPostings += keywords[i].length;
+		}
+		long[] postings = new long[numPostings];
+		int p = 0;
+		for (int i = 0; i < end; i++)
+			if (keywords[i] != null)
+				for (int keyword : keywords[i])
+					postings[p++] = ((long) keyword << 32) | i;
+		Arrays.sort(postings);
+		
 		// drop results with forbidden answer strings
 		for (String as : forbidden)
-			for (int i = 0; i < results.length; i++) {
-				if (results[i] == null ||
-					results[i].getScore() == Float.POSITIVE_INFINITY) continue;
-				if (results[i].getScore() == Float.NEGATIVE_INFINITY) break;
-				
-				if (StringUtils.equalsCommonNorm(as, results[i].getAnswer()))
-					results[i] = null;
-			}
+			for (int keyword : StringUtils.getStemmedKeywordIds(as, vocab))
+				for (p = find(postings, keyword, 0);
+					 p < postings.length && (int) (postings[p] >>> 32) == keyword;
+					 p++)
+					results[(int) postings[p]] = null;
 		
 		// drop duplicates
-		for (int i = 0; i < results.length - 1; i++) {
+		boolean[] merged = new boolean[end];
+		int[] dups = new int[end];
+		for (int i = 0; i < end; i++) {
 			if (results[i] == null ||
 				results[i].getScore() == Float.POSITIVE_INFINITY) continue;
-			if (results[i].getScore() == Float.NEGATIVE_INFINITY) break;
 			
-			for (int j = i + 1; j < results.length; j++) {
-				if (results[j] == null ||
-					results[j].getScore() == Float.POSITIVE_INFINITY) continue;
-				if (results[j].getScore() == Float.NEGATIVE_INFINITY) break;
-				
-				if (StringUtils.equalsCommonNorm(results[i].getAnswer(),
-												 results[j].getAnswer())) {
-					// increment score of higher-scored result
-					results[i].incScore(results[j].getScore());
-					// drop lower-scored result
-					results[j] = null;
+			// remaining results with lower scores that have a keyword in common
+			int numDups = 0;
+			for (int keyword : keywords[i])
+				for (p = find(postings, keyword, i + 1);
+					 p < postings.length && (int) (postings[p] >>> 32) == keyword;
+					 p++) {
+					int j = (int) postings[p];
+					if (results[j] != null && !merged[j]) {
+						merged[j] = true;
+						dups[numDups++] = j;
+					}
 				}
+			
+			// increment score of higher-scored result in the order of the scores
+			// of the dropped results
+			Arrays.sort(dups, 0, numDups);
+			for (int k = 0; k < numDups; k++) {
+				results[i].incScore(results[dups[k]].getScore());
+				results[dups[k]] = null;
 			}
 		}
 		
@@ -82,4 +120,26 @@ public class DuplicateFilter extends Filter {
 		
 		return noDups.toArray(new Result[noDups.size()]);
 	}
+	
+	/**
+	 * Finds the first posting of a keyword for a result with an index of at
+	 * least <code>i</code>.
+	 * 
+	 * @param postings sorted postings
+	 * @param keyword keyword ID
+	 * @param i result index
+	 * @return index of the posting or of the first posting of a greater
+	 *         keyword
+	 */
+	private static int find(long[] postings, int keyword, int i) {
+		long key = ((long) keyword << 32) | i;
+		int low = 0;
+		int high = postings.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (postings[mid] < key) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
 }
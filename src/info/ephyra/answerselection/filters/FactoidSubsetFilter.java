@@ -1,10 +1,13 @@
 package info.ephyra.answerselection.filters;
 
 import info.ephyra.nlp.NETagger;
+import info.ephyra.nlp.indices.FunctionWords;
 import info.ephyra.search.Result;
 import info.ephyra.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 
 /**
  * <p>The <code>FactoidSubsetFilter</code> checks a set of factoid answers for
@@ -18,6 +21,10 @@ import java.util.ArrayList;
  * tokens (such as "1879 and") are preferred over properly chunked ones (e.g.
  * "1879").</p>
  * 
+ * <p>The answers that can absorb other answers are indexed by their tokens, so
+ * that the supersets of an answer are found by intersecting the sets of
+ * answers that contain its keywords.</p>
+ * 
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
@@ -42,24 +49,54 @@ public class FactoidSubsetFilter extends Filter {
 		for (int i = 0; i < results.length; i++)
 			if (results[i].getScore() != Float.POSITIVE_INFINITY &&
 					results[i].getScore() != Float.NEGATIVE_INFINITY)
-				norms[i] = StringUtils.normalize(results[i].getAnswer());
+				norms[i] = results[i].getNormalizedAnswer();
+		
+		// index the longer answers by their tokens, using the same tokens as
+		// StringUtils.isSubsetKeywords()
+		BitSet superset = new BitSet(results.length);
+		HashMap<String, BitSet> index = new HashMap<String, BitSet>();
+		for (int j = 0; j < results.length; j++)
+			if (norms[j] != null && results[j].isNamedEntity() &&
+					!NETagger.allModelType(results[j].getNeTypes())) {
+				// longer answer is a NE not extracted with a model-based tagger
+				superset.set(j);
+				for (String token : norms[j].split(" ")) {
+					BitSet answers = index.get(token);
+					if (answers == null) {
+						answers = new BitSet(results.length);
+						index.put(token, answers);
+					}
+					answers.set(j);
+				}
+			}
 		
 		// check for subset relations, aggregate answers
 		for (int i = 0; i < results.length - 1; i++) {
 			if (results[i].getScore() != Float.POSITIVE_INFINITY &&
-					results[i].getScore() != Float.NEGATIVE_INFINITY)
-				for (int j = results.length - 1; j > i; j--)
-					if (results[j].getScore() != Float.POSITIVE_INFINITY &&
-							results[j].getScore() != Float.NEGATIVE_INFINITY &&
-							results[j].isNamedEntity() &&
-							!NETagger.allModelType(results[j].getNeTypes()) &&
-							StringUtils.isSubsetKeywords(norms[i], norms[j])) {
-						// longer answer is a NE not extracted with a
-						// model-based tagger
-						results[j].incScore(results[i].getScore());
-						results[i] = null;
-						break;
-					}
+					results[i].getScore() != Float.NEGATIVE_INFINITY) {
+				// answers that contain all keywords of the shorter answer
+				BitSet candidates = (BitSet) superset.clone();
+				if (norms[i] != null)
+					for (String token : norms[i].split(" "))
+						if (token.length() > 1 && !FunctionWords.lookup(token)) {
+							BitSet answers = index.get(token);
+							if (answers == null) {
+								candidates.clear();
+								break;
+							}
+							candidates.and(answers);
+						}
+				
+				// aggregate with the last of these answers
+				int j = candidates.length() - 1;
+				if (j > i) {
+					results[j].incScore(results[i].getScore());
+					results[i] = null;
+					if (results[j].getScore() == Float.POSITIVE_INFINITY ||
+							results[j].getScore() == Float.NEGATIVE_INFINITY)
+						superset.clear(j);
+				}
+			}
 		}
 		
 		// get remaining results
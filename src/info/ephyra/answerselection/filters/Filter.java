@@ -14,8 +14,12 @@ import java.util.ArrayList;
  * a list of results (in which case the apply(Result[]) method should be
  * implemented).</p>
  * 
+ * <p>If only the best results are needed, <code>AnswerSelection</code> calls
+ * <code>apply(Result[], int)</code> instead, which allows a filter that sorts
+ * the results to select the best results without sorting all of them.</p>
+ * 
  * @author Nico Schlaefer
- * @version 2007-03-07
+ * @version 2026-10-19
  */
 public abstract class Filter {
 	/**
@@ -49,4 +53,33 @@ public abstract class Filter {
 		
 		return filtered.toArray(new Result[filtered.size()]);
 	}
+	
+	/**
+	 * Filters an array of <code>Result</code> objects of which only the best
+	 * <code>maxResults</code> results are needed. A filter that sorts the
+	 * results by their scores in descending order may drop the results that
+	 * would be ranked after the first <code>maxResults</code> results. By
+	 * default, all results are filtered with <code>apply(Result[])</code>.
+	 * 
+	 * @param results results to filter
+	 * @param maxResults number of results that are needed
+	 * @return filtered results, starting with the same results as the array
+	 *         returned by <code>apply(Result[])</code>
+	 */
+	public Result[] apply(Result[] results, int maxResults) {
+		return apply(results);
+	}
+	
+	/**
+	 * Checks if the first <i>n</i> results returned by this filter only depend
+	 * on the first <i>n</i> results it is given, e.g. because it only cuts off
+	 * the results. If so, the preceding filter only needs to provide the best
+	 * results as well.
+	 * 
+	 * @return <code>true</code> iff the filter preserves prefixes of the
+	 * 		   results
+	 */
+	public boolean isPrefixFilter() {
+		return false;
+	}
 }
@@ -2,7 +2,6 @@ package info.ephyra.answerselection.filters;
 
 import info.ephyra.nlp.LingPipe;
 import info.ephyra.nlp.NETagger;
-import info.ephyra.nlp.OpenNLP;
 import info.ephyra.nlp.VerbFormConverter;
 import info.ephyra.nlp.semantics.ASSERT;
 import info.ephyra.nlp.semantics.Predicate;
@@ -18,10 +17,16 @@ import info.ephyra.util.StringUtils;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import opennlp.tools.util.Span;
 
 /**
  * <p>Extracts predicates which are similar to those in the question from
@@ -30,7 +35,7 @@ import java.util.Set;
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-07-17
+ * @version 2026-10-19
  */
 public class PredicateExtractionFilter extends Filter {
 	/**
@@ -64,8 +69,10 @@ public class PredicateExtractionFilter extends Filter {
 		Map<String, String[]> extracted = new Hashtable<String, String[]>();
 		
 		// tokenize sentence
+		Span[][] spans = new Span[1][];
+		spans[0] = NETagger.tokenizeToSpans(sentence);
 		String[][] tokens = new String[1][];
-		tokens[0] = NETagger.tokenize(sentence);
+		tokens[0] = NETagger.spansToStrings(spans[0], sentence);
 		
 		for (String answerType : answerTypes) {
 			// get IDs of the taggers for the most specific NE type that can be
@@ -83,11 +90,8 @@ public class PredicateExtractionFilter extends Filter {
 			
 			// extract NEs of that type
 			for (int neId : neIds) {
-				String[][] nes = NETagger.extractNes(tokens, neId);
-				
-				// untokenize NEs
-				for (int i = 0; i < nes[0].length; i++)
-					nes[0][i] = OpenNLP.untokenize(nes[0][i], sentence);
+				String[][] nes = NETagger.extractNes(tokens, neId,
+						new String[] {sentence}, spans);
 				
 				for (String ne : nes[0]) {
 					String[] types = extracted.get(ne);
@@ -121,6 +125,100 @@ public class PredicateExtractionFilter extends Filter {
 		return extracted;
 	}
 	
+	/**
+	 * Finds the forms of the relevant verbs in a text and looks up their
+	 * weights. Paragraphs are checked with a single pattern for all forms,
+	 * sentences with one pattern per weight.
+	 */
+	static class VerbMatcher {
+		/** Matches any of the verb forms, or <code>null</code> if none. */
+		private Pattern pattern;
+		/** Match the verb forms of each weight, highest weight first. */
+		private Pattern[] weightPatterns;
+		/** Weights of the patterns. */
+		private double[] weights;
+		
+		/**
+		 * Builds the matcher from the verb forms and their weights. If a form
+		 * belongs to several verbs, the highest weight is used.
+		 * 
+		 * @param verbFormsMap verb forms and their weights
+		 */
+		VerbMatcher(Map<String[], Double> verbFormsMap) {
+			Map<String, Double> formWeights = new HashMap<String, Double>();
+			for (String[] verbForms : verbFormsMap.keySet()) {
+				Double weight = verbFormsMap.get(verbForms);
+				for (String verbForm : verbForms) {
+					String form = verbForm.toLowerCase();
+					Double other = formWeights.get(form);
+					if (other == null || other < weight)
+						formWeights.put(form, weight);
+				}
+			}
+			
+			// group the forms by weight, highest weight first
+			TreeMap<Double, ArrayList<String>> groups =
+				new TreeMap<Double, ArrayList<String>>(
+						Collections.reverseOrder());
+			for (String form : formWeights.keySet()) {
+				Double weight = formWeights.get(form);
+				ArrayList<String> group = groups.get(weight);
+				if (group == null) {
+					group = new ArrayList<String>();
+					groups.put(weight, group);
+				}
+				group.add(Pattern.quote(form));
+			}
+			
+			weightPatterns = new Pattern[groups.size()];
+			weights = new double[groups.size()];
+			ArrayList<String> forms = new ArrayList<String>();
+			int i = 0;
+			for (Double weight : groups.keySet()) {
+				weightPatterns[i] = compile(groups.get(weight));
+				weights[i++] = weight;
+				forms.addAll(groups.get(weight));
+			}
+			if (!forms.isEmpty()) pattern = compile(forms);
+		}
+		
+		/**
+		 * Compiles a pattern that matches any of the verb forms.
+		 * 
+		 * @param forms quoted verb forms
+		 * @return pattern
+		 */
+		private static Pattern compile(ArrayList<String> forms) {
+			return Pattern.compile("(?i)\\b(" + StringUtils.concat(
+					forms.toArray(new String[forms.size()]), "|") + ")\\b");
+		}
+		
+		/**
+		 * Checks if the text contains any of the verb forms.
+		 * 
+		 * @param text a paragraph or sentence
+		 * @return <code>true</code> iff a verb form occurs in the text
+		 */
+		boolean find(String text) {
+			return pattern != null && pattern.matcher(text).find();
+		}
+		
+		/**
+		 * Gets the highest weight of the verb forms in the text. The forms of
+		 * each weight are matched separately, since a single pattern would
+		 * only report one of several overlapping forms.
+		 * 
+		 * @param text a paragraph or sentence
+		 * @return highest weight or 0 if no verb form occurs in the text
+		 */
+		double getWeight(String text) {
+			for (int i = 0; i < weightPatterns.length; i++)
+				if (weightPatterns[i].matcher(text).find()) return weights[i];
+			
+			return 0;
+		}
+	}
+	
 	/**
 	 * Gets all forms of the verbs and expansions of predicates with missing
 	 * arguments. The verb forms are associated with their weights.
@@ -265,6 +363,9 @@ public class PredicateExtractionFilter extends Filter {
 		// - get sentences that contain relevant verbs,
 		//   use weights of verbs as confidence scores
 		HashSet<Result> ssSet = new HashSet<Result>();
+		// verb matchers are built once per question
+		Map<Predicate[], VerbMatcher> verbMatchers =
+			new HashMap<Predicate[], VerbMatcher>();
 		for (Result result : results) {
 			// only apply this filter to results for the semantic parsing
 			// approach
@@ -277,40 +378,23 @@ public class PredicateExtractionFilter extends Filter {
 				continue;
 			}
 			
-			// get all verb forms and build patterns
-			Hashtable<String[], Double> verbFormsMap = getAllVerbForms(ps);
-			ArrayList<String> verbPatterns = new ArrayList<String>();
-			ArrayList<Double> verbWeights = new ArrayList<Double>();
-			for (String[] verbForms : verbFormsMap.keySet()) {
-				String verbPattern = "(?i).*?\\b(" +
-						StringUtils.concat(verbForms, "|") + ")\\b.*+";
-				verbPatterns.add(verbPattern);
-				verbWeights.add(verbFormsMap.get(verbForms));
+			// get all verb forms and build a matcher
+			VerbMatcher verbMatcher = verbMatchers.get(ps);
+			if (verbMatcher == null) {
+				verbMatcher = new VerbMatcher(getAllVerbForms(ps));
+				verbMatchers.put(ps, verbMatcher);
 			}
 			
 			String[] paragraphs = result.getAnswer().split("\\n");
 			for (String p : paragraphs) {
 				// paragraph does not contain relevant verb?
-				boolean contains = false;
-				for (String verbPattern : verbPatterns) {
-					if (p.matches(verbPattern)) {
-						contains = true;
-						break;
-					}
-				}
-				if (!contains) continue;
+				if (!verbMatcher.find(p)) continue;
 				
 				String[] sentences = LingPipe.sentDetect(p);
 				for (String s : sentences) {
 					// sentence does not contain relevant verb?
-					Double weight = 0d;
-					for (int i = 0; i < verbPatterns.size(); i++) {
-						if (s.matches(verbPatterns.get(i))) {
-							weight = verbWeights.get(i);
-							break;
-						}
-					}
-					if (weight == 0d) continue;
+					double weight = verbMatcher.getWeight(s);
+					if (weight == 0) continue;
 					
 					// replace whitespaces by single blanks and trim
 					s = s.replaceAll("\\s++", " ").trim();
@@ -318,7 +402,7 @@ public class PredicateExtractionFilter extends Filter {
 					// create sentence-level result object
 					Result sentence = result.getCopy();
 					sentence.setAnswer(s);
-					sentence.setScore(weight.floatValue());
+					sentence.setScore((float) weight);
 					
 					ssSet.add(sentence);
 				}
@@ -11,7 +11,7 @@ import java.util.ArrayList;
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Guido Sautter, Nico Schlaefer
- * @version 2006-07-15
+ * @version 2026-10-19
  */
 public class ResultLengthFilter extends Filter {
 	/** Maximum number of non-whitespace characters per question. */
@@ -51,4 +51,14 @@ public class ResultLengthFilter extends Filter {
 		
 		return filtered.toArray(new Result[filtered.size()]);
 	}
+	
+	/**
+	 * The results are only cut off, the first <i>n</i> results returned by
+	 * this filter only depend on the first <i>n</i> results it is given.
+	 * 
+	 * @return <code>true</code>
+	 */
+	public boolean isPrefixFilter() {
+		return true;
+	}
 }
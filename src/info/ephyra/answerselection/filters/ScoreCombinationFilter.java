@@ -1,7 +1,6 @@
 package info.ephyra.answerselection.filters;
 
 import info.ephyra.search.Result;
-import info.ephyra.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -164,7 +163,7 @@ public class ScoreCombinationFilter extends Filter {
 				sameExtractor = new Hashtable<String, Result>();
 				allExtractors.put(extractor, sameExtractor);
 			}
-			String norm = StringUtils.normalize(result.getAnswer());
+			String norm = result.getNormalizedAnswer();
 			sameExtractor.put(norm, result);
 		}
 		
@@ -173,7 +172,7 @@ public class ScoreCombinationFilter extends Filter {
 			allExtractors.keySet().toArray(new String[allExtractors.size()]);
 		Set<String> covered = new HashSet<String>();
 		for (Result result : factoids) {
-			String norm = StringUtils.normalize(result.getAnswer());
+			String norm = result.getNormalizedAnswer();
 			if (!covered.add(norm)) continue;
 			
 			// get all extractors for the result and the normalized scores
@@ -1,5 +1,6 @@
 package info.ephyra.answerselection.filters;
 
+import info.ephyra.answerselection.BoostedTreeScorer;
 import info.ephyra.io.MsgPrinter;
 import info.ephyra.questionanalysis.AnalyzedQuestion;
 import info.ephyra.search.Result;
@@ -57,6 +58,11 @@ import edu.cmu.minorthird.ui.Recommended.BoostedStumpLearner;
  * 
  * <p>The filter is applied to factoid answers only.</p>
  * 
+ * <p>A classifier trained with the Ada Boost model over decision trees is
+ * exported into a <code>BoostedTreeScorer</code>, which scores primitive
+ * feature vectors. The scorer is stored next to the serialized classifier and
+ * loaded instead of the classifier if it is up to date.</p>
+ * 
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
@@ -153,6 +159,11 @@ public class ScoreNormalizationFilter extends Filter {
 	
 	/** Classifier for score normalization. */
 	private static Classifier classifier;
+	/**
+	 * Compact form of the classifier or <code>null</code> if the classifier
+	 * could not be exported.
+	 */
+	private static BoostedTreeScorer scorer;
 	
 	/**
 	 * Reads serialized results from a file.
@@ -756,9 +767,9 @@ public class ScoreNormalizationFilter extends Filter {
 		String filename =
 			model + "_" + StringUtils.concat(features, "+") + "_" +
 			StringUtils.concat(dataSets, "+") + ".serialized";
+		File classifierFile = new File(classifiersDir, filename);
 		try {
-			FileUtils.writeSerialized(classifier,
-					new File(classifiersDir, filename));
+			FileUtils.writeSerialized(classifier, classifierFile);
 		} catch (IOException e) {
 			MsgPrinter.printErrorMsg("Failed to serialize classifier to file " +
 					filename + ":");
@@ -766,22 +777,103 @@ public class ScoreNormalizationFilter extends Filter {
 			System.exit(1);
 		}
 		
+		// export classifier into compact form
+		exportClassifier(classifier, classifierFile.getPath());
+		
 		MsgPrinter.printStatusMsg("...done.");
 	}
 	
 	/**
-	 * Loads a serialized classifier for score normalization from a file.
+	 * Checks if the selected features are supported by the compact form of the
+	 * classifier, i.e. the score and the extractors.
+	 * 
+	 * @return <code>true</code> iff the compact form can be used
+	 */
+	private static boolean isExportSupported() {
+		for (String feature : SELECTED_FEATURES)
+			if (!feature.equals(SCORE_F) && !feature.equals(EXTRACTORS_F))
+				return false;
+		
+		return true;
+	}
+	
+	/**
+	 * Exports a classifier into a <code>BoostedTreeScorer</code> and writes it
+	 * next to the serialized classifier. Classifiers that are not supported
+	 * are not exported.
+	 * 
+	 * @param classifier the classifier
+	 * @param classifierFilename filename of the serialized classifier
+	 * @return the scorer or <code>null</code> if the classifier could not be
+	 * 		   exported
+	 */
+	private static BoostedTreeScorer exportClassifier(Classifier classifier,
+			String classifierFilename) {
+		if (!isExportSupported()) return null;
+		
+		try {
+			BoostedTreeScorer scorer = BoostedTreeScorer.export(classifier);
+			scorer.write(BoostedTreeScorer.getScorerFile(classifierFilename));
+			return scorer;
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Failed to export classifier:");
+			MsgPrinter.printErrorMsg(e.toString());
+			return null;
+		}
+	}
+	
+	/**
+	 * Loads a classifier for score normalization. If the serialized classifier
+	 * has been exported into a compact form, the compact form is loaded
+	 * instead. Otherwise, the classifier is exported if it is supported.
 	 * 
 	 * @param classifierFilename filename of a serialized classifier
 	 */
 	public static void loadClassifier(String classifierFilename) {
+		classifier = null;
+		scorer = null;
+		
+		// load compact form if it is up to date
+		File scorerFile = BoostedTreeScorer.getScorerFile(classifierFilename);
+		if (isExportSupported() && scorerFile.lastModified() >=
+				new File(classifierFilename).lastModified()) {
+			try {
+				scorer = BoostedTreeScorer.read(scorerFile);
+				return;
+			} catch (IOException e) {
+				MsgPrinter.printErrorMsg("Failed to load exported classifier:");
+				MsgPrinter.printErrorMsg(e.toString());
+			}
+		}
+		
 		try {
 			Object o = FileUtils.readSerialized(new File(classifierFilename));
 			classifier = (Classifier) o;
 		} catch (Exception e) {
 			MsgPrinter.printErrorMsg("Failed to load classifier:");
 			MsgPrinter.printErrorMsg(e.toString());
+			return;
 		}
+		
+		scorer = exportClassifier(classifier, classifierFilename);
+	}
+	
+	/**
+	 * Computes the normalized score of a factoid answer with the compact form
+	 * of the classifier.
+	 * 
+	 * @param result answer candidate
+	 * @return weight of the positive class
+	 */
+	private static double getNormScore(Result result) {
+		// create feature vector with score and extractor features
+		double[] vector = scorer.createVector();
+		int feature = scorer.getFeatureIndex(SCORE_F);
+		if (feature != -1) vector[feature] = result.getScore();
+		feature = scorer.getFeatureIndex(result.getExtractionTechniques()[0]);
+		if (feature != -1) vector[feature] = 1;
+		
+		return scorer.posProbability(vector);
 	}
 	
 	/**
@@ -968,7 +1060,8 @@ public class ScoreNormalizationFilter extends Filter {
 	 * @return array of <code>Result</code> objects with normalized scores
 	 */
 	public Result[] apply(Result[] results) {
-		if (classifier == null) return results;  // classifier not loaded
+		// classifier not loaded
+		if (classifier == null && scorer == null) return results;
 		
 		for (Result result : results) {
 			// only factoid answers with 1 extraction technique
@@ -978,6 +1071,12 @@ public class ScoreNormalizationFilter extends Filter {
 					result.getExtractionTechniques().length != 1)
 				continue;
 			
+			// use compact form of the classifier if available
+			if (scorer != null) {
+				result.setNormScore((float) getNormScore(result));
+				continue;
+			}
+			
 			// create instance with selected features
 	        Instance instance = createInstance(SELECTED_FEATURES, result,
 	        		results);
@@ -3,15 +3,20 @@ package info.ephyra.answerselection.filters;
 import info.ephyra.search.Result;
 
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
 
 /**
  * <p>The <code>ScoreSorterFilter</code> sorts the results by their scores in
  * descending order. The sort is guaranteed to be stable.</p>
  * 
+ * <p>If only the best results are needed, they are selected with a bounded
+ * heap instead of sorting all results.</p>
+ * 
  * <p>This class extends the class <code>Filter</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-05-24
+ * @version 2026-10-19
  */
 public class ScoreSorterFilter extends Filter {
 	/**
@@ -31,4 +36,50 @@ public class ScoreSorterFilter extends Filter {
 		
 		return results;
 	}
+	
+	/**
+	 * Returns the best <code>maxResults</code> results, sorted by their scores
+	 * in descending order. Results with equal scores are kept in their
+	 * original order, so the results are the same as the first
+	 * <code>maxResults</code> results returned by <code>apply(Result[])</code>.
+	 * 
+	 * @param results array of <code>Result</code> objects
+	 * @param maxResults number of results that are needed
+	 * @return best results in descending order of their scores
+	 */
+	public Result[] apply(final Result[] results, int maxResults) {
+		if (maxResults <= 0 || maxResults >= results.length)
+			return apply(results);
+		// NaN scores are not ordered consistently by the sort, keep its order
+		for (Result result : results)
+			if (Float.isNaN(result.getScore())) return apply(results);
+		
+		// heap of the indices of the best results, the worst one on top
+		PriorityQueue<Integer> best =
+			new PriorityQueue<Integer>(maxResults, new Comparator<Integer>() {
+				public int compare(Integer i1, Integer i2) {
+					float score1 = results[i1].getScore();
+					float score2 = results[i2].getScore();
+					
+					if (score1 < score2) return -1;
+					else if (score1 > score2) return 1;
+					else return i2 - i1;  // later result ranks lower
+				}
+			});
+		for (int i = 0; i < results.length; i++) {
+			if (best.size() < maxResults) {
+				best.add(i);
+			} else if (results[i].getScore() >
+					results[best.peek()].getScore()) {
+				best.poll();
+				best.add(i);
+			}
+		}
+		
+		Result[] sorted = new Result[best.size()];
+		for (int i = sorted.length - 1; i >= 0; i--)
+			sorted[i] = results[best.poll()];
+		
+		return sorted;
+	}
 }
@@ -4,7 +4,6 @@ import info.ephyra.nlp.NETagger;
 import info.ephyra.nlp.indices.Prepositions;
 import info.ephyra.search.Result;
 import info.ephyra.util.RegexConverter;
-import info.ephyra.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.Hashtable;
@@ -146,7 +145,7 @@ public class TruncationFilter extends Filter {
 				truncatedT = new Hashtable<String, Result>();
 				truncated.put(extractor, truncatedT);
 			}
-			String norm = StringUtils.normalize(result.getAnswer());
+			String norm = result.getNormalizedAnswer();
 			Result similar = truncatedT.get(norm);
 			if (similar == null) {
 				filtered.add(result);
@@ -5,26 +5,236 @@ import info.ephyra.querygeneration.Query;
 import info.ephyra.questionanalysis.QuestionInterpretation;
 import info.ephyra.search.Result;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Logs all questions that are posed to the system and the answers that are
+ * <p>Logs all questions that are posed to the system and the answers that are
  * returned to a file. Logging can be enabled or disabled. By default, logging
- * is enabled.
+ * is enabled.</p>
+ * 
+ * <p>The log records are written by a single background thread, which keeps
+ * the log file open. The entry for a question is tagged with a request ID and
+ * the records that are logged for the question are collected until the entry
+ * is ended, so that the entries of concurrent questions do not interleave.
+ * The request of a thread is inherited by the threads it starts, other
+ * threads can join a request with <code>setRequest()</code>.</p>
+ * 
+ * <p>The log file can be rotated when it exceeds a maximum size. Pending
+ * records are written when the JVM shuts down. If the queue of pending
+ * records is full, records are dropped and the number of dropped records is
+ * written to the log file.</p>
  * 
  * @author Nico Schlaefer
- * @version 2005-09-30
+ * @version 2026-10-19
  */
 public class Logger {
+	/** Maximum number of records waiting to be written. */
+	private static final int MAX_PENDING = 10000;
+	/** Number of rotated log files that are kept. */
+	private static final int MAX_BACKUPS = 5;
+	/** Time in ms to wait for space in a full queue for an entry that ends a
+	 *  request. */
+	private static final long CLOSE_TIMEOUT = 1000;
+	
 	/** The log file. */
 	private static File logfile;
 	/** True, iff logging is enabled. */
 	private static boolean enabled = true;
+	/** Maximum size of the log file in characters (0 = no limit). */
+	private static long maxSize = 0;
+	
+	/** ID of the next request. */
+	private static int nextRequest = 1;
+	/** Request of the current thread. */
+	private static InheritableThreadLocal<Integer> request =
+		new InheritableThreadLocal<Integer>();
+	/** Records of the requests that have not been ended yet. */
+	private static HashMap<Integer, StringBuilder> openRequests =
+		new HashMap<Integer, StringBuilder>();
+	
+	/** Records waiting to be written. */
+	private static BlockingQueue<Record> pending =
+		new ArrayBlockingQueue<Record>(MAX_PENDING);
+	/** Thread that writes the records. */
+	private static WriterThread writer;
+	/** Number of records that were dropped because the queue was full. */
+	private static AtomicLong dropped = new AtomicLong();
+	
+	/**
+	 * A record that is written to a log file, or a request to signal when all
+	 * previous records have been written.
+	 */
+	private static class Record {
+		/** The log file. */
+		private File file;
+		/** Text of the record or <code>null</code>. */
+		private String text;
+		/** Counted down when the record has been processed. */
+		private CountDownLatch done;
+		
+		/**
+		 * Creates a record.
+		 * 
+		 * @param file the log file
+		 * @param text text of the record or <code>null</code>
+		 * @param done counted down when the record has been processed
+		 */
+		private Record(File file, String text, CountDownLatch done) {
+			this.file = file;
+			this.text = text;
+			this.done = done;
+		}
+	}
+	
+	/**
+	 * Writes the records in the queue to the log files.
+	 */
+	private static class WriterThread extends Thread {
+		/** The log file that is open. */
+		private File file;
+		/** Writer for the log file. */
+		private Writer out;
+		/** Size of the log file. */
+		private long size;
+		/** Number of dropped records that have been reported. */
+		private long reported;
+		
+		/**
+		 * Creates the writer thread.
+		 */
+		private WriterThread() {
+			super("Logger");
+			setDaemon(true);
+		}
+		
+		/**
+		 * Writes records until the thread is interrupted.
+		 */
+		public void run() {
+			ArrayList<Record> records = new ArrayList<Record>();
+			
+			while (true) {
+				try {
+					records.add(pending.take());
+				} catch (InterruptedException e) {
+					break;
+				}
+				pending.drainTo(records);
+				
+				// report records that were dropped before this batch
+				long total = dropped.get();
+				if (total > reported) {
+					records.add(0, new Record(logfile, "<dropped records=\"" +
+							(total - reported) + "\"/>\n", null));
+					reported = total;
+				}
+				
+				write(records);
+				records.clear();
+			}
+			
+			close();
+		}
+		
+		/**
+		 * Writes a batch of records and flushes the log file.
+		 * 
+		 * @param records the records
+		 */
+		private void write(ArrayList<Record> records) {
+			for (Record record : records) {
+				if (record.text != null && record.file != null) {
+					try {
+						if (!record.file.equals(file)) open(record.file);
+						if (maxSize > 0 && size > 0 &&
+								size + record.text.length() > maxSize) {
+							close();
+							rotate(record.file);
+							open(record.file);
+						}
+						
+						out.write(record.text);
+						size += record.text.length();
+					} catch (IOException e) {
+						close();  // try to reopen the file for the next record
+					}
+				}
+				
+				if (record.done != null) {
+					try {
+						if (out != null) out.flush();
+					} catch (IOException e) {
+						close();
+					}
+					record.done.countDown();
+				}
+			}
+			
+			try {
+				if (out != null) out.flush();
+			} catch (IOException e) {
+				close();
+			}
+		}
+		
+		/**
+		 * Opens a log file in append mode.
+		 * 
+		 * @param file the log file
+		 * @throws IOException if the file could not be opened
+		 */
+		private void open(File file) throws IOException {
+			close();
+			
+			out = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file, true)));
+			this.file = file;
+			size = file.length();
+		}
+		
+		/**
+		 * Closes the log file that is open.
+		 */
+		private void close() {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {}  // records are lost anyway
+			}
+			out = null;
+			file = null;
+		}
+		
+		/**
+		 * Renames the log file to <code>file.1</code> and shifts the older log
+		 * files, dropping the oldest one.
+		 * 
+		 * @param file the log file
+		 */
+		private static void rotate(File file) {
+			new File(file.getPath() + "." + MAX_BACKUPS).delete();
+			for (int i = MAX_BACKUPS - 1; i >= 1; i--)
+				new File(file.getPath() + "." + i).renameTo(
+						new File(file.getPath() + "." + (i + 1)));
+			file.renameTo(new File(file.getPath() + ".1"));
+		}
+	}
 	
 	/**
 	 * Sets the log file.
@@ -35,6 +245,186 @@ public class Logger {
 		logfile = new File(filename);
 	}
 	
+	/**
+	 * Sets the maximum size of the log file. If a record would exceed this
+	 * size, the log file is rotated.
+	 * 
+	 * @param size maximum size in characters (0 = no limit)
+	 */
+	public static void setMaxSize(long size) {
+		maxSize = size;
+	}
+	
+	/**
+	 * Returns the request of the current thread.
+	 * 
+	 * @return request ID or <code>null</code> if the thread does not belong
+	 * 		   to a request
+	 */
+	public static Integer getRequest() {
+		return request.get();
+	}
+	
+	/**
+	 * Sets the request of the current thread, e.g. for a worker thread that
+	 * processes part of the request.
+	 * 
+	 * @param id request ID or <code>null</code>
+	 */
+	public static void setRequest(Integer id) {
+		if (id == null) request.remove();
+		else request.set(id);
+	}
+	
+	/**
+	 * Returns the number of records that were dropped because the queue of
+	 * pending records was full.
+	 * 
+	 * @return number of dropped records
+	 */
+	public static long getDroppedRecords() {
+		return dropped.get();
+	}
+	
+	/**
+	 * Starts a new request for the current thread. The entry of a previous
+	 * request of the thread that has not been ended is written as it is.
+	 * 
+	 * @return request ID
+	 */
+	private static int startRequest() {
+		Integer previous = request.get();
+		StringBuilder unfinished = null;
+		int id;
+		synchronized (openRequests) {
+			if (previous != null) unfinished = openRequests.remove(previous);
+			id = nextRequest++;
+			openRequests.put(id, new StringBuilder());
+		}
+		request.set(id);
+		
+		if (unfinished != null && unfinished.length() > 0)
+			enqueue(new Record(logfile, unfinished.toString(), null), true);
+		
+		return id;
+	}
+	
+	/**
+	 * Logs a record. If the current thread belongs to a request, the record is
+	 * added to the entry of the request, otherwise it is written directly.
+	 * 
+	 * @param text text of the record
+	 * @return true, iff the record was accepted
+	 */
+	private static boolean log(String text) {
+		Integer id = request.get();
+		if (id != null) {
+			synchronized (openRequests) {
+				StringBuilder entry = openRequests.get(id);
+				if (entry != null) {
+					entry.append(text);
+					return true;
+				}
+			}
+		}
+		
+		return enqueue(new Record(logfile, text, null), false);
+	}
+	
+	/**
+	 * Ends the request of the current thread and writes its entry.
+	 * 
+	 * @param text last record of the entry
+	 * @return true, iff the entry was accepted
+	 */
+	private static boolean endRequest(String text) {
+		Integer id = request.get();
+		request.remove();
+		
+		StringBuilder entry = null;
+		if (id != null)
+			synchronized (openRequests) {
+				entry = openRequests.remove(id);
+			}
+		if (entry != null) text = entry.append(text).toString();
+		
+		return enqueue(new Record(logfile, text, null), true);
+	}
+	
+	/**
+	 * Adds a record to the queue, starting the writer thread if necessary. If
+	 * the queue is full, the record is dropped and counted. An entry that ends
+	 * a request waits briefly for space in the queue.
+	 * 
+	 * @param record the record
+	 * @param closing true, iff the record ends a request
+	 * @return true, iff the record was added to the queue, false if it was
+	 * 		   dropped
+	 */
+	private static boolean enqueue(Record record, boolean closing) {
+		startWriter();
+		
+		boolean added;
+		if (closing) {
+			try {
+				added = pending.offer(record, CLOSE_TIMEOUT,
+						TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				added = false;
+			}
+		} else {
+			added = pending.offer(record);
+		}
+		if (!added) dropped.incrementAndGet();
+		
+		return added;
+	}
+	
+	/**
+	 * Starts the writer thread if it is not running yet and makes sure that
+	 * pending records are written when the JVM shuts down.
+	 */
+	private static synchronized void startWriter() {
+		if (writer != null) return;
+		
+		writer = new WriterThread();
+		writer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			public void run() {
+				// write the entries of requests that have not been ended
+				ArrayList<String> entries = new ArrayList<String>();
+				synchronized (openRequests) {
+					for (StringBuilder entry : openRequests.values())
+						entries.add(entry.toString());
+					openRequests.clear();
+				}
+				for (String entry : entries)
+					if (entry.length() > 0)
+						enqueue(new Record(logfile, entry, null), true);
+				
+				flush();
+			}
+		});
+	}
+	
+	/**
+	 * Waits until all records that have been logged so far are written to the
+	 * log file. The entries of requests that have not been ended yet are not
+	 * written.
+	 */
+	public static void flush() {
+		startWriter();
+		
+		CountDownLatch done = new CountDownLatch(1);
+		try {
+			pending.put(new Record(logfile, null, done));
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
 	/**
 	 * Enables or disables logging.
 	 * 
@@ -55,24 +445,18 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<factoid>");
-			out.println("\t<time>");
-			out.println("\t\t" + (new Date()).toString());
-			out.println("\t</time>");
-			out.println("\t<question>");
-			out.println("\t\t" + question);
-			out.println("\t</question>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("<factoid request=\"" + startRequest() + "\">");
+		out.println("\t<time>");
+		out.println("\t\t" + (new Date()).toString());
+		out.println("\t</time>");
+		out.println("\t<question>");
+		out.println("\t\t" + question);
+		out.println("\t</question>");
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -84,18 +468,12 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("</factoid>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
 		
-		return true;
+		out.println("</factoid>");
+		
+		return endRequest(record.toString());
 	}
 	
 	/**
@@ -108,24 +486,18 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<list>");
-			out.println("\t<time>");
-			out.println("\t\t" + (new Date()).toString());
-			out.println("\t</time>");
-			out.println("\t<question>");
-			out.println("\t\t" + question);
-			out.println("\t</question>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("<list request=\"" + startRequest() + "\">");
+		out.println("\t<time>");
+		out.println("\t\t" + (new Date()).toString());
+		out.println("\t</time>");
+		out.println("\t<question>");
+		out.println("\t\t" + question);
+		out.println("\t</question>");
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -137,18 +509,12 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("</list>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("</list>");
 		
-		return true;
+		return endRequest(record.toString());
 	}
 	
 	/**
@@ -161,24 +527,18 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<definitional>");
-			out.println("\t<time>");
-			out.println("\t\t" + (new Date()).toString());
-			out.println("\t</time>");
-			out.println("\t<question>");
-			out.println("\t\t" + question);
-			out.println("\t</question>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
 		
-		return true;
+		out.println("<definitional request=\"" + startRequest() + "\">");
+		out.println("\t<time>");
+		out.println("\t\t" + (new Date()).toString());
+		out.println("\t</time>");
+		out.println("\t<question>");
+		out.println("\t\t" + question);
+		out.println("\t</question>");
+		
+		return log(record.toString());
 	}
 	
 	/**
@@ -190,18 +550,12 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("</definitional>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("</definitional>");
 		
-		return true;
+		return endRequest(record.toString());
 	}
 	
 	/**
@@ -214,20 +568,14 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("\t<normalization>");
-			out.println("\t\t" + qn);
-			out.println("\t</normalization>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("\t<normalization>");
+		out.println("\t\t" + qn);
+		out.println("\t</normalization>");
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -240,22 +588,16 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			for (String at : ats) {
-				out.println("\t<answertype>");
-				out.println("\t\t" + at);
-				out.println("\t</answertype>");
-			}
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (String at : ats) {
+			out.println("\t<answertype>");
+			out.println("\t\t" + at);
+			out.println("\t</answertype>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -268,32 +610,26 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			for (QuestionInterpretation qi : qis) {
-				out.println("\t<interpretation>");
-				out.println("\t\t<property>");
-				out.println("\t\t\t" + qi.getProperty());
-				out.println("\t\t</property>");
-				out.println("\t\t<target>");
-				out.println("\t\t\t" + qi.getTarget());
-				out.println("\t\t</target>");
-				for (String context : qi.getContext()) {
-					out.println("\t\t<context>");
-					out.println("\t\t\t" + context);
-					out.println("\t\t</context>");
-				}
-				out.println("\t</interpretation>");
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (QuestionInterpretation qi : qis) {
+			out.println("\t<interpretation>");
+			out.println("\t\t<property>");
+			out.println("\t\t\t" + qi.getProperty());
+			out.println("\t\t</property>");
+			out.println("\t\t<target>");
+			out.println("\t\t\t" + qi.getTarget());
+			out.println("\t\t</target>");
+			for (String context : qi.getContext()) {
+				out.println("\t\t<context>");
+				out.println("\t\t\t" + context);
+				out.println("\t\t</context>");
 			}
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
+			out.println("\t</interpretation>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -306,22 +642,16 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			for (Predicate p : ps) {
-				out.println("\t<predicate>");
-				out.println("\t\t" + p.getAnnotated());
-				out.println("\t</predicate>");
-			}
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (Predicate p : ps) {
+			out.println("\t<predicate>");
+			out.println("\t\t" + p.getAnnotated());
+			out.println("\t</predicate>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -334,22 +664,16 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			for (Query query : queries) {
-				out.println("\t<querystring>");
-				out.println("\t\t" + query.getQueryString());
-				out.println("\t</querystring>");
-			}
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (Query query : queries) {
+			out.println("\t<querystring>");
+			out.println("\t\t" + query.getQueryString());
+			out.println("\t</querystring>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -362,54 +686,48 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (Result result : results) {
+			out.println("\t<result>");
 			
-			for (Result result : results) {
-				out.println("\t<result>");
-				
-				out.println("\t\t<answer>");
-				out.println("\t\t\t" + result.getAnswer());
-				out.println("\t\t</answer>");
-				
-				out.println("\t\t<score>");
-				out.println("\t\t\t" + result.getScore());
-				out.println("\t\t</score>");
-				
-				if (result.getDocID() != null) {
-					out.println("\t\t<docid>");
-					out.println("\t\t\t" + result.getDocID());
-					out.println("\t\t</docid>");
-				}
-				
-				QuestionInterpretation qi =
-					result.getQuery().getInterpretation();
-				if (qi != null) {
-					out.println("\t\t<interpretation>");
-					out.println("\t\t\t<property>");
-					out.println("\t\t\t\t" + qi.getProperty());
-					out.println("\t\t\t</property>");
-					out.println("\t\t\t<target>");
-					out.println("\t\t\t\t" + qi.getTarget());
-					out.println("\t\t\t</target>");
-					for (String context : qi.getContext()) {
-						out.println("\t\t\t<context>");
-						out.println("\t\t\t\t" + context);
-						out.println("\t\t\t</context>");
-					}
-					out.println("\t\t</interpretation>");
+			out.println("\t\t<answer>");
+			out.println("\t\t\t" + result.getAnswer());
+			out.println("\t\t</answer>");
+			
+			out.println("\t\t<score>");
+			out.println("\t\t\t" + result.getScore());
+			out.println("\t\t</score>");
+			
+			if (result.getDocID() != null) {
+				out.println("\t\t<docid>");
+				out.println("\t\t\t" + result.getDocID());
+				out.println("\t\t</docid>");
+			}
+			
+			QuestionInterpretation qi =
+				result.getQuery().getInterpretation();
+			if (qi != null) {
+				out.println("\t\t<interpretation>");
+				out.println("\t\t\t<property>");
+				out.println("\t\t\t\t" + qi.getProperty());
+				out.println("\t\t\t</property>");
+				out.println("\t\t\t<target>");
+				out.println("\t\t\t\t" + qi.getTarget());
+				out.println("\t\t\t</target>");
+				for (String context : qi.getContext()) {
+					out.println("\t\t\t<context>");
+					out.println("\t\t\t\t" + context);
+					out.println("\t\t\t</context>");
 				}
-				
-				out.println("\t</result>");
+				out.println("\t\t</interpretation>");
 			}
 			
-			out.close();
-		} catch (IOException e) {
-			return false;
+			out.println("\t</result>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -424,38 +742,32 @@ public class Logger {
 		// logging is disabled or log file is not specified
 		if (!enabled || logfile == null) return false;
 		
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			for (int i = 0; i < results.length; i++) {
-				out.println("\t<result>");
-				out.println("\t\t<answer>");
-				out.println("\t\t\t" + results[i].getAnswer());
-				out.println("\t\t</answer>");
-				out.println("\t\t<score>");
-				out.println("\t\t\t" + results[i].getScore());
-				out.println("\t\t</score>");
-				if (results[i].getDocID() != null) {
-					out.println("\t\t<docid>");
-					out.println("\t\t\t" + results[i].getDocID());
-					out.println("\t\t</docid>");
-				}
-				out.println("\t\t<correct>");
-				out.println(
-					(correct[i])
-					? "\t\t\ttrue"
-					: "\t\t\tfalse");
-				out.println("\t\t</correct>");
-				out.println("\t</result>");
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		for (int i = 0; i < results.length; i++) {
+			out.println("\t<result>");
+			out.println("\t\t<answer>");
+			out.println("\t\t\t" + results[i].getAnswer());
+			out.println("\t\t</answer>");
+			out.println("\t\t<score>");
+			out.println("\t\t\t" + results[i].getScore());
+			out.println("\t\t</score>");
+			if (results[i].getDocID() != null) {
+				out.println("\t\t<docid>");
+				out.println("\t\t\t" + results[i].getDocID());
+				out.println("\t\t</docid>");
 			}
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
+			out.println("\t\t<correct>");
+			out.println(
+				(correct[i])
+				? "\t\t\ttrue"
+				: "\t\t\tfalse");
+			out.println("\t\t</correct>");
+			out.println("\t</result>");
 		}
 		
-		return true;
+		return log(record.toString());
 	}
 	
 	/**
@@ -472,25 +784,20 @@ public class Logger {
 		DecimalFormat df = new DecimalFormat();
 		df.setMaximumFractionDigits(3);
 		df.setMinimumFractionDigits(3);
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<scores>");
-			out.println("\t<precision>");
-			out.println("\t\t" + df.format(precision));
-			out.println("\t</precision>");
-			out.println("\t<mrr>");
-			out.println("\t\t" + df.format(mrr));
-			out.println("\t</mrr>");
-			out.println("</scores>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
 		
-		return true;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("<scores>");
+		out.println("\t<precision>");
+		out.println("\t\t" + df.format(precision));
+		out.println("\t</precision>");
+		out.println("\t<mrr>");
+		out.println("\t\t" + df.format(mrr));
+		out.println("\t</mrr>");
+		out.println("</scores>");
+		
+		return log(record.toString());
 	}
 	
 	/**
@@ -506,20 +813,15 @@ public class Logger {
 		DecimalFormat df = new DecimalFormat();
 		df.setMaximumFractionDigits(3);
 		df.setMinimumFractionDigits(3);
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<factoidscore abs_thresh=\"" + absThresh + "\">");
-			out.println("\t" + df.format(score));
-			out.println("</factoidscore>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
 		
-		return true;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("<factoidscore abs_thresh=\"" + absThresh + "\">");
+		out.println("\t" + df.format(score));
+		out.println("</factoidscore>");
+		
+		return log(record.toString());
 	}
 	
 	/**
@@ -535,19 +837,14 @@ public class Logger {
 		DecimalFormat df = new DecimalFormat();
 		df.setMaximumFractionDigits(3);
 		df.setMinimumFractionDigits(3);
-		try {
-			PrintWriter out =
-				new PrintWriter(new FileOutputStream(logfile, true));
-			
-			out.println("<listscore rel_thresh=\"" + relThresh + "\">");
-			out.println("\t" + df.format(score));
-			out.println("</listscore>");
-			
-			out.close();
-		} catch (IOException e) {
-			return false;
-		}
 		
-		return true;
+		StringWriter record = new StringWriter();
+		PrintWriter out = new PrintWriter(record);
+		
+		out.println("<listscore rel_thresh=\"" + relThresh + "\">");
+		out.println("\t" + df.format(score));
+		out.println("</listscore>");
+		
+		return log(record.toString());
 	}
 }
@@ -0,0 +1,666 @@
+package info.ephyra.nlp;
+
+import info.ephyra.io.MsgPrinter;
+import info.ephyra.util.HashDictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>A matcher that applies all gazetteer lists in a single left-to-right pass
+ * over a token sequence.</p>
+ * 
+ * <p>The entries of all lists are compiled into one token-level trie over
+ * stemmed token IDs. Each node of the trie knows the lists that contain the
+ * token sequence leading to it, so a single walk from a start token reports
+ * the longest match for every list. The matches are identical to those of
+ * <code>RegExMatcher.markAllContained(tokens, dictionary)</code> applied to
+ * each list separately. They are added to <code>NeSpans</code>, or returned
+ * as arrays of START/CONTINUE/OTHER markers for existing callers.</p>
+ * 
+ * <p>The trie is stored in a compact binary form which is memory-mapped at
+ * startup. The binary form can be precompiled with the <code>main()</code>
+ * method of this class, or it is created the first time the lists are
+ * loaded. It records the version of the normalization of the entries and is
+ * compiled again if the tokenizer or the stemmer changes.</p>
+ * 
+ * <p>The tokens passed to the matcher are expected to be produced by
+ * <code>NETagger.tokenize()</code>. They are stemmed with the shared
+ * <code>Vocabulary</code>, and the trie token ID of each stem is memorized,
+ * so a token that has been seen before is mapped to its ID with a single
+ * hash lookup.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class GazetteerMatcher {
+	/** Name of the compiled gazetteer in the list directory. */
+	public static final String COMPILED_FILE = "gazetteer.bin";
+	
+	/** Magic number at the beginning of a compiled gazetteer. */
+	private static final int MAGIC = 0x47415A32;
+	
+	/** Version of the normalization of the entries. */
+	private int normalizerVersion;
+	
+	/** Names of the lists, in the order of the list IDs. */
+	private String[] listNames;
+	/** Offsets of the tokens in <code>tokenChars</code>. */
+	private IntBuffer tokenOffsets;
+	/** Stemmed tokens, sorted lexicographically. The index is the token ID. */
+	private CharBuffer tokenChars;
+	/** Index of the first outgoing edge of each node. */
+	private IntBuffer edgeStart;
+	/** Token IDs of the edges, sorted for each node. */
+	private IntBuffer edgeTokens;
+	/** Target nodes of the edges. */
+	private IntBuffer edgeTargets;
+	/** Index of the first list label of each node. */
+	private IntBuffer labelStart;
+	/** IDs of the lists that contain the token sequence leading to a node. */
+	private IntBuffer labels;
+	/** Number of distinct stemmed tokens. */
+	private int numTokens;
+	/** Token IDs of the stems in the shared vocabulary. */
+	private volatile StemMap stemMap = new StemMap(Vocabulary.getInstance());
+	
+	/**
+	 * Maps the IDs of stems in a <code>Vocabulary</code> to token IDs. The map
+	 * is filled on demand, concurrent threads may look up a stem twice but
+	 * always store the same value.
+	 */
+	private static class StemMap {
+		/** The vocabulary. */
+		final Vocabulary vocab;
+		/** Token IDs + 2 by stem ID, 1 if not in any list, 0 if unknown. */
+		volatile int[] tokenIds = new int[1024];
+		
+		StemMap(Vocabulary vocab) {
+			this.vocab = vocab;
+		}
+	}
+	
+	/**
+	 * Creates a matcher from a compiled gazetteer.
+	 * 
+	 * @param buffer compiled gazetteer
+	 * @throws IOException if the gazetteer is corrupted
+	 */
+	private GazetteerMatcher(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("Not a compiled gazetteer");
+		normalizerVersion = buffer.getInt();
+		
+		// list names
+		listNames = new String[buffer.getInt()];
+		for (int i = 0; i < listNames.length; i++) {
+			char[] name = new char[buffer.getInt()];
+			for (int c = 0; c < name.length; c++) name[c] = buffer.getChar();
+			listNames[i] = new String(name);
+		}
+		
+		// vocabulary
+		numTokens = buffer.getInt();
+		tokenOffsets = slice(buffer, (numTokens + 1) * 4).asIntBuffer();
+		tokenChars = slice(buffer, tokenOffsets.get(numTokens) * 2)
+			.asCharBuffer();
+		
+		// trie
+		int numNodes = buffer.getInt();
+		edgeStart = slice(buffer, (numNodes + 1) * 4).asIntBuffer();
+		int numEdges = edgeStart.get(numNodes);
+		edgeTokens = slice(buffer, numEdges * 4).asIntBuffer();
+		edgeTargets = slice(buffer, numEdges * 4).asIntBuffer();
+		labelStart = slice(buffer, (numNodes + 1) * 4).asIntBuffer();
+		labels = slice(buffer, labelStart.get(numNodes) * 4).asIntBuffer();
+	}
+	
+	/**
+	 * Returns a view of the next <code>length</code> bytes of the buffer and
+	 * advances the position of the buffer.
+	 * 
+	 * @param buffer a buffer
+	 * @param length number of bytes
+	 * @return view of the bytes
+	 * @throws IOException if the buffer is too short
+	 */
+	private static ByteBuffer slice(ByteBuffer buffer, int length)
+			throws IOException {
+		if (length < 0 || buffer.remaining() < length)
+			throw new IOException("Compiled gazetteer is truncated");
+		ByteBuffer slice = buffer.slice();
+		slice.limit(length);
+		buffer.position(buffer.position() + length);
+		return slice;
+	}
+	
+	/**
+	 * Returns the names of the lists, in the order of the list IDs.
+	 * 
+	 * @return list names
+	 */
+	public String[] getListNames() {
+		return listNames;
+	}
+	
+	/**
+	 * Returns the ID of the list with the given name.
+	 * 
+	 * @param listName name of a list
+	 * @return ID of the list or <code>-1</code> if there is no such list
+	 */
+	public int getListId(String listName) {
+		for (int i = 0; i < listNames.length; i++)
+			if (listNames[i].equals(listName)) return i;
+		return -1;
+	}
+	
+	/**
+	 * Looks up the ID of a stemmed token.
+	 * 
+	 * @param stem stemmed token
+	 * @return token ID or <code>-1</code> if the token does not occur in any
+	 *         list
+	 */
+	private int getTokenId(String stem) {
+		int low = 0;
+		int high = numTokens - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = compareToken(mid, stem);
+			if (cmp < 0) low = mid + 1;
+			else if (cmp > 0) high = mid - 1;
+			else return mid;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Compares the token with the given ID to a string, using the same order
+	 * as <code>String.compareTo()</code>.
+	 * 
+	 * @param id token ID
+	 * @param s a string
+	 * @return negative, zero or positive value
+	 */
+	private int compareToken(int id, String s) {
+		int start = tokenOffsets.get(id);
+		int length = tokenOffsets.get(id + 1) - start;
+		int n = Math.min(length, s.length());
+		for (int c = 0; c < n; c++) {
+			char c1 = tokenChars.get(start + c);
+			char c2 = s.charAt(c);
+			if (c1 != c2) return c1 - c2;
+		}
+		return length - s.length();
+	}
+	
+	/**
+	 * Follows the edge for the given token from a node of the trie.
+	 * 
+	 * @param node a node
+	 * @param tokenId token ID
+	 * @return target node or <code>-1</code> if there is no such edge
+	 */
+	private int getChild(int node, int tokenId) {
+		int low = edgeStart.get(node);
+		int high = edgeStart.get(node + 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int token = edgeTokens.get(mid);
+			if (token < tokenId) low = mid + 1;
+			else if (token > tokenId) high = mid - 1;
+			else return edgeTargets.get(mid);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Maps the tokens to the IDs of their stems.
+	 * 
+	 * @param tokens the token sequence
+	 * @return token IDs, <code>-1</code> for tokens that are not in any list
+	 */
+	private int[] getTokenIds(String[] tokens) {
+		Vocabulary vocab = Vocabulary.getInstance();
+		StemMap map = stemMap;
+		if (map.vocab != vocab) {
+			map = new StemMap(vocab);
+			stemMap = map;
+		}
+		
+		int[] ids = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			int stem = vocab.getStem(vocab.getId(tokens[i].trim()));
+			int[] tokenIds = map.tokenIds;
+			if (stem >= tokenIds.length) {
+				tokenIds = Arrays.copyOf(tokenIds,
+						Math.max(stem + 1, 2 * tokenIds.length));
+				map.tokenIds = tokenIds;
+			}
+			if (tokenIds[stem] == 0)
+				tokenIds[stem] = getTokenId(vocab.getForm(stem)) + 2;
+			ids[i] = tokenIds[stem] - 2;
+		}
+		return ids;
+	}
+	
+	/**
+	 * Marks all parts of a token sequence that are contained in the lists. For
+	 * each list, the longest match is taken at each start position and the
+	 * search continues after the end of the match.
+	 * 
+	 * @param tokens the token sequence to be rooted through
+	 * @return for each list, an array of marker strings marking all
+	 *         subsequences of the token sequence that are contained in the list
+	 */
+	public String[][] markAllContained(String[] tokens) {
+		NeSpans nes = new NeSpans();
+		markAllContained(tokens, nes, 0);
+		return nes.toMarkers(0, listNames.length, tokens.length);
+	}
+	
+	/**
+	 * Marks all parts of a token sequence that are contained in the lists and
+	 * adds them to the given spans. The NE type of a span is the ID of the
+	 * list plus <code>firstType</code>.
+	 * 
+	 * @param tokens the token sequence to be rooted through
+	 * @param nes spans to which the matches are added
+	 * @param firstType NE type of the list with ID 0
+	 */
+	public void markAllContained(String[] tokens, NeSpans nes, int firstType) {
+		int[] ids = getTokenIds(tokens);
+		
+		// index of the first token that is not covered by a previous match
+		int[] nextFree = new int[listNames.length];
+		// end of the longest match for the current start token
+		int[] matchEnd = new int[listNames.length];
+		Arrays.fill(matchEnd, -1);
+		int[] matched = new int[listNames.length];
+		
+		for (int start = 0; start < tokens.length; start++) {
+			// walk the trie to find the longest match for each list
+			int numMatched = 0;
+			int node = 0;
+			for (int end = start; end < tokens.length && ids[end] != -1; end++) {
+				node = getChild(node, ids[end]);
+				if (node == -1) break;
+				
+				for (int l = labelStart.get(node); l < labelStart.get(node + 1); l++) {
+					int list = labels.get(l);
+					if (matchEnd[list] == -1) matched[numMatched++] = list;
+					matchEnd[list] = end;
+				}
+			}
+			
+			// add the matches that do not overlap with previous matches
+			for (int m = 0; m < numMatched; m++) {
+				int list = matched[m];
+				if (start >= nextFree[list]) {
+					nes.add(start, matchEnd[list] + 1, firstType + list);
+					nextFree[list] = matchEnd[list] + 1;
+				}
+				matchEnd[list] = -1;
+			}
+		}
+	}
+	
+	/**
+	 * Marks all parts of a token sequence that are contained in a single list
+	 * and adds them to the given spans. The matches are the same as those of
+	 * <code>markAllContained(tokens, nes, firstType)</code> for the list, but
+	 * the other lists are not tracked.
+	 * 
+	 * @param tokens the token sequence to be rooted through
+	 * @param listId ID of the list
+	 * @param nes spans to which the matches are added
+	 * @param type NE type of the spans
+	 */
+	public void markAllContained(String[] tokens, int listId, NeSpans nes,
+			int type) {
+		int[] ids = getTokenIds(tokens);
+		
+		int start = 0;
+		while (start < tokens.length) {
+			// walk the trie to find the longest match for the list
+			int matchEnd = -1;
+			int node = 0;
+			for (int end = start; end < tokens.length && ids[end] != -1; end++) {
+				node = getChild(node, ids[end]);
+				if (node == -1) break;
+				
+				for (int l = labelStart.get(node); l < labelStart.get(node + 1); l++)
+					if (labels.get(l) == listId) matchEnd = end;
+			}
+			
+			if (matchEnd != -1) {
+				nes.add(start, matchEnd + 1, type);
+				start = matchEnd + 1;
+			} else {
+				start++;
+			}
+		}
+	}
+	
+	/**
+	 * Extracts all parts of a token sequence that are contained in a list.
+	 * 
+	 * @param tokens the token sequence to be rooted through
+	 * @param listId ID of the list
+	 * @return all subsequences of the token sequence that are contained in the
+	 *         list, the tokens separated by single blanks
+	 */
+	public String[] extractAllContained(String[] tokens, int listId) {
+		// drop empty tokens
+		ArrayList<String> tokenList = new ArrayList<String>();
+		for (String token : tokens)
+			if (token.length() != 0) tokenList.add(token);
+		tokens = tokenList.toArray(new String[tokenList.size()]);
+		
+		NeSpans nes = new NeSpans();
+		markAllContained(tokens, listId, nes, listId);
+		
+		String[] matches = new String[nes.size()];
+		for (int n = 0; n < matches.length; n++) {
+			StringBuilder match = new StringBuilder(tokens[nes.getStart(n)]);
+			for (int i = nes.getStart(n) + 1; i < nes.getEnd(n); i++)
+				match.append(' ').append(tokens[i]);
+			matches[n] = match.toString();
+		}
+		
+		return matches;
+	}
+	
+	// =========================
+	// Compilation and loading
+	// =========================
+	
+	/**
+	 * A node of the trie that is used during compilation.
+	 */
+	private static class Node {
+		/** Children by token ID. */
+		private TreeMap<Integer, Node> children = new TreeMap<Integer, Node>();
+		/** IDs of the lists that contain the token sequence. */
+		private TreeSet<Integer> lists = new TreeSet<Integer>();
+	}
+	
+	/**
+	 * Reads the entries of a list file and normalizes them with
+	 * <code>HashDictionary.normalize()</code>.
+	 * 
+	 * @param file list file
+	 * @return entries as arrays of stemmed tokens
+	 * @throws IOException if the list could not be read
+	 */
+	private static ArrayList<String[]> readList(File file) throws IOException {
+		ArrayList<String[]> entries = new ArrayList<String[]>();
+		
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		while (in.ready()) {
+			String entry = in.readLine().trim();
+			if (entry.startsWith("//")) continue;  // skip comments
+			entry = HashDictionary.normalize(entry);
+			if (entry.length() > 0) entries.add(entry.split(" "));
+		}
+		in.close();
+		
+		return entries;
+	}
+	
+	/**
+	 * Compiles the given lists into the binary form of the gazetteer.
+	 * 
+	 * @param listDirectory directory that contains the lists
+	 * @param listNames file names of the lists
+	 * @return compiled gazetteer
+	 * @throws IOException if a list could not be read
+	 */
+	public static byte[] compile(String listDirectory, String[] listNames)
+			throws IOException {
+		// read and normalize lists
+		ArrayList<ArrayList<String[]>> entries =
+			new ArrayList<ArrayList<String[]>>();
+		TreeSet<String> vocabulary = new TreeSet<String>();
+		for (String listName : listNames) {
+			ArrayList<String[]> list = readList(new File(listDirectory, listName));
+			for (String[] entry : list) vocabulary.addAll(Arrays.asList(entry));
+			entries.add(list);
+		}
+		
+		// assign token IDs in lexicographical order
+		String[] tokens = vocabulary.toArray(new String[vocabulary.size()]);
+		HashMap<String, Integer> tokenIds = new HashMap<String, Integer>();
+		for (int i = 0; i < tokens.length; i++) tokenIds.put(tokens[i], i);
+		
+		// build trie
+		Node root = new Node();
+		int numNodes = 1;
+		for (int list = 0; list < entries.size(); list++)
+			for (String[] entry : entries.get(list)) {
+				Node node = root;
+				for (String token : entry) {
+					Integer id = tokenIds.get(token);
+					Node child = node.children.get(id);
+					if (child == null) {
+						child = new Node();
+						node.children.put(id, child);
+						numNodes++;
+					}
+					node = child;
+				}
+				node.lists.add(list);
+			}
+		
+		// number nodes in breadth-first order
+		ArrayList<Node> nodes = new ArrayList<Node>(numNodes);
+		nodes.add(root);
+		for (int i = 0; i < nodes.size(); i++)
+			nodes.addAll(nodes.get(i).children.values());
+		HashMap<Node, Integer> nodeIds = new HashMap<Node, Integer>();
+		for (int i = 0; i < nodes.size(); i++) nodeIds.put(nodes.get(i), i);
+		
+		// serialize
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(HashDictionary.getNormalizerVersion());
+		out.writeInt(listNames.length);
+		for (String listName : listNames) {
+			out.writeInt(listName.length());
+			out.writeChars(listName);
+		}
+		
+		out.writeInt(tokens.length);
+		int offset = 0;
+		for (String token : tokens) {
+			out.writeInt(offset);
+			offset += token.length();
+		}
+		out.writeInt(offset);
+		for (String token : tokens) out.writeChars(token);
+		
+		out.writeInt(nodes.size());
+		int edge = 0;
+		for (Node node : nodes) {
+			out.writeInt(edge);
+			edge += node.children.size();
+		}
+		out.writeInt(edge);
+		for (Node node : nodes)
+			for (Integer token : node.children.keySet()) out.writeInt(token);
+		for (Node node : nodes)
+			for (Node child : node.children.values())
+				out.writeInt(nodeIds.get(child));
+		int label = 0;
+		for (Node node : nodes) {
+			out.writeInt(label);
+			label += node.lists.size();
+		}
+		out.writeInt(label);
+		for (Node node : nodes)
+			for (Integer list : node.lists) out.writeInt(list);
+		
+		out.close();
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * Memory-maps a compiled gazetteer.
+	 * 
+	 * @param compiledFile compiled gazetteer
+	 * @return matcher
+	 * @throws IOException if the file could not be read or is corrupted
+	 */
+	public static GazetteerMatcher load(File compiledFile) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(compiledFile, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer =
+				channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new GazetteerMatcher(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Loads the gazetteer for the given lists. The compiled gazetteer in the
+	 * list directory is memory-mapped if it is up to date, otherwise the lists
+	 * are compiled and the compiled gazetteer is written to the list directory.
+	 * 
+	 * @param listDirectory directory that contains the lists
+	 * @param listNames file names of the lists
+	 * @return matcher or <code>null</code> if the lists could not be loaded
+	 */
+	public static GazetteerMatcher getMatcher(String listDirectory,
+			String[] listNames) {
+		File compiledFile = new File(listDirectory, COMPILED_FILE);
+		
+		// use compiled gazetteer if it is newer than the lists and the entries
+		// are normalized the same way
+		if (compiledFile.exists()) {
+			boolean upToDate = true;
+			for (String listName : listNames)
+				if (new File(listDirectory, listName).lastModified() >
+						compiledFile.lastModified()) upToDate = false;
+			
+			if (upToDate) {
+				try {
+					GazetteerMatcher matcher = load(compiledFile);
+					if (Arrays.equals(matcher.getListNames(), listNames) &&
+							matcher.normalizerVersion ==
+								HashDictionary.getNormalizerVersion())
+						return matcher;
+				} catch (IOException e) {}  // recompile
+			}
+		}
+		
+		// compile lists
+		MsgPrinter.printStatusMsg("  ...compiling lists");
+		byte[] compiled;
+		try {
+			compiled = compile(listDirectory, listNames);
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Could not compile lists in " +
+					listDirectory);
+			return null;
+		}
+		
+		try {
+			write(compiled, compiledFile);
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Could not write " + compiledFile);
+		}
+		
+		try {
+			return new GazetteerMatcher(ByteBuffer.wrap(compiled));
+		} catch (IOException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes a compiled gazetteer to a file.
+	 * 
+	 * @param compiled compiled gazetteer
+	 * @param file output file
+	 * @throws IOException if the file could not be written
+	 */
+	private static void write(byte[] compiled, File file) throws IOException {
+		BufferedOutputStream out =
+			new BufferedOutputStream(new FileOutputStream(file));
+		try {
+			out.write(compiled);
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Returns the file names of the lists in a directory, sorted by name.
+	 * 
+	 * @param listDirectory directory that contains the lists
+	 * @return file names of the lists
+	 */
+	public static String[] getListFiles(String listDirectory) {
+		ArrayList<String> listNames = new ArrayList<String>();
+		File[] files = new File(listDirectory).listFiles();
+		if (files != null)
+			for (File file : files)
+				if (file.getName().endsWith(".lst"))
+					listNames.add(file.getName());
+		String[] names = listNames.toArray(new String[listNames.size()]);
+		Arrays.sort(names);
+		return names;
+	}
+	
+	/**
+	 * Precompiles the gazetteer lists in a directory.
+	 * 
+	 * @param args directory that contains the lists
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			MsgPrinter.printUsage("java GazetteerMatcher list_directory");
+			System.exit(1);
+		}
+		
+		MsgPrinter.enableStatusMsgs(true);
+		MsgPrinter.enableErrorMsgs(true);
+		MsgPrinter.printStatusMsg("Compiling gazetteer lists...");
+		
+		SnowballStemmer.create();
+		
+		String[] listNames = getListFiles(args[0]);
+		File compiledFile = new File(args[0], COMPILED_FILE);
+		try {
+			write(compile(args[0], listNames), compiledFile);
+			GazetteerMatcher matcher = load(compiledFile);
+			MsgPrinter.printStatusMsg("  ..." + matcher.getListNames().length +
+					" lists, " + matcher.numTokens + " distinct tokens");
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Could not compile lists: " +
+					e.getMessage());
+			System.exit(1);
+		}
+		
+		MsgPrinter.printStatusMsg("...completed.");
+	}
+}
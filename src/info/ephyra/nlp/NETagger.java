@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import opennlp.maxent.MaxentModel;
@@ -32,7 +33,7 @@ import opennlp.tools.util.Span;
  * class. Do not use other tokenizers.</p>
  * 
  * @author Nico Schlaefer, Guido Sautter
- * @version 2007-07-24
+ * @version 2026-10-19
  */
 public class NETagger {
 	// ===================
@@ -106,6 +107,12 @@ public class NETagger {
 	 */
 	private static String[] listNames = new String[0];
 	
+	/**
+	 * Compiled gazetteer that applies all lists in a single pass, or
+	 * <code>null</code> if the lists are applied one after another.
+	 */
+	private static GazetteerMatcher gazetteer;
+	
 	/** Edit distance threshold for fuzzy-lookups in dictionaries. */
 	private static int fuzzyListLookupThreshold = 0;
 	
@@ -139,6 +146,39 @@ public class NETagger {
 		
 		lists = listsList.toArray(new String[listsList.size()]);
 		listNames = listNamesList.toArray(new String[listNamesList.size()]);
+		
+		gazetteer = GazetteerMatcher.getMatcher(listDirectory, lists);
+	}
+	
+	/**
+	 * Applies all lists to a token sequence.
+	 * 
+	 * @param tokens the token sequence
+	 * @return marker strings per list
+	 */
+	private static String[][] markAllContained(String[] tokens) {
+		NeSpans nes = new NeSpans();
+		markAllContained(tokens, nes, 0);
+		return nes.toMarkers(0, lists.length, tokens.length);
+	}
+	
+	/**
+	 * Applies all lists to a token sequence. The NE type of a span is the
+	 * index of the list plus <code>firstType</code>.
+	 * 
+	 * @param tokens the token sequence
+	 * @param nes spans to which the list entries are added
+	 * @param firstType NE type of the first list
+	 */
+	private static void markAllContained(String[] tokens, NeSpans nes,
+			int firstType) {
+		if (gazetteer != null && fuzzyListLookupThreshold == 0) {
+			gazetteer.markAllContained(tokens, nes, firstType);
+			return;
+		}
+		
+		for (int i = 0; i < lists.length; i++)
+			RegExMatcher.markAllContained(tokens, RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold, nes, firstType + i);
 	}
 	
 	// =====================
@@ -434,8 +474,9 @@ public class NETagger {
 	 * behave as they used to. Setting a higher threshold, in turn, will result
 	 * in more strings extracted, thus in a certain tolerance with regard to
 	 * typos in the documents. A side effect is a growth of the processing time
-	 * for the extractNes() and tagNes() methods, especially for large
-	 * dictionaries.
+	 * for the extractNes() and tagNes() methods, which grows with the
+	 * threshold. The lists are then applied one after another, using the
+	 * BK-tree indices of the dictionaries.
 	 * 
 	 * @param threshold the new value for the edit distance threshold for
 	 *                  fuzzy-lookups in dictionaries
@@ -530,6 +571,28 @@ public class NETagger {
 		return NameFinder.spansToStrings(spans, text);
 	}
 	
+	/**
+	 * Applies the rule-based tokenizer and returns the character spans of the
+	 * tokens in the text.
+	 * 
+	 * @param text text to tokenize
+	 * @return array of token spans
+	 */
+	public static Span[] tokenizeToSpans(String text) {
+		return NameFinder.tokenizeToSpans(text);
+	}
+	
+	/**
+	 * Gets the tokens covered by the given character spans.
+	 * 
+	 * @param spans array of token spans
+	 * @param text the tokenized text
+	 * @return array of tokens
+	 */
+	public static String[] spansToStrings(Span[] spans, String text) {
+		return NameFinder.spansToStrings(spans, text);
+	}
+	
 	/**
 	 * Applies the rule-based tokenizer and concatenates the tokens with spaces.
 	 * 
@@ -590,9 +653,7 @@ public class NETagger {
 				regExTags[patterns.length + i + 1] = RegExMatcher.extractQuantities(tokens, numberMarkers, quantityUnitPatterns[i], quantityUnitPatternMaxTokens[i]);
 			
 			//	apply lists
-			String[][] listTags = new String[lists.length][];
-			for (int i = 0; i < lists.length; i++)
-				listTags[i] = RegExMatcher.markAllContained(tokens, RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold);
+			String[][] listTags = markAllContained(tokens);
 			
 			for (int i = 0; i < tokens.length; i++) {
 				//check for end tags
@@ -724,15 +785,151 @@ public class NETagger {
 	    }
 	}
 	
+	/**
+	 * Assembles the NEs in a tokenized sentence from START and CONTINUE tags.
+	 * If the original sentence and the character spans of the tokens are given,
+	 * the NEs are substrings of the original sentence, otherwise the tokens are
+	 * concatenated with spaces.
+	 * 
+	 * @param tokens tokenized sentence
+	 * @param tags NE tags of the tokens
+	 * @param original original sentence or <code>null</code>
+	 * @param spans character spans of the tokens or <code>null</code>
+	 * @return NEs in the sentence
+	 */
+	private static String[] getNes(String[] tokens, String[] tags,
+			String original, Span[] spans) {
+		ArrayList<String> neList = new ArrayList<String>();
+		
+		int start = -1;
+		for (int i = 0; i <= tokens.length; i++) {
+			String tag = (i < tokens.length) ? tags[i] : NameFinderME.OTHER;
+			
+			// end of an NE
+			if (start != -1 && !tag.equals(NameFinderME.CONTINUE)) {
+				if (spans != null) {
+					neList.add(original.substring(spans[start].getStart(),
+							spans[i - 1].getEnd()));
+				} else {
+					String ne = tokens[start];
+					for (int j = start + 1; j < i; j++) ne += " " + tokens[j];
+					neList.add(ne);
+				}
+				start = -1;
+			}
+			
+			// beginning of an NE
+			if (tag.equals(NameFinderME.START) ||
+					(start == -1 && tag.equals(NameFinderME.CONTINUE)))
+				start = i;
+		}
+		
+		return neList.toArray(new String[neList.size()]);
+	}
+	
+	/**
+	 * Assembles the NEs of consecutive types in a tokenized sentence from their
+	 * spans. If the original sentence and the character spans of the tokens are
+	 * given, the NEs are substrings of the original sentence, otherwise the
+	 * tokens are concatenated with spaces.
+	 * 
+	 * @param tokens tokenized sentence
+	 * @param nes spans of the NEs
+	 * @param firstType first NE type
+	 * @param numTypes number of NE types
+	 * @param original original sentence or <code>null</code>
+	 * @param spans character spans of the tokens or <code>null</code>
+	 * @return NEs per type, starting with <code>firstType</code>
+	 */
+	private static String[][] getNes(String[] tokens, NeSpans nes,
+			int firstType, int numTypes, String original, Span[] spans) {
+		int[] counts = new int[numTypes];
+		for (int n = 0; n < nes.size(); n++) {
+			int type = nes.getType(n) - firstType;
+			if (type >= 0 && type < numTypes) counts[type]++;
+		}
+		String[][] results = new String[numTypes][];
+		for (int type = 0; type < numTypes; type++) {
+			results[type] = new String[counts[type]];
+			counts[type] = 0;
+		}
+		
+		for (int n = 0; n < nes.size(); n++) {
+			int type = nes.getType(n) - firstType;
+			if (type < 0 || type >= numTypes) continue;
+			
+			int start = nes.getStart(n);
+			int end = nes.getEnd(n);
+			String ne;
+			if (spans != null) {
+				ne = original.substring(spans[start].getStart(),
+						spans[end - 1].getEnd());
+			} else {
+				StringBuilder sb = new StringBuilder(tokens[start]);
+				for (int j = start + 1; j < end; j++)
+					sb.append(' ').append(tokens[j]);
+				ne = sb.toString();
+			}
+			results[type][counts[type]++] = ne;
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Maps a substring of a tokenized sentence, given by its character offsets
+	 * in the space-delimited tokens, to the original sentence.
+	 * 
+	 * @param sentence space-delimited tokens
+	 * @param tokens tokenized sentence
+	 * @param start start offset in the space-delimited tokens
+	 * @param end end offset in the space-delimited tokens
+	 * @param original original sentence
+	 * @param spans character spans of the tokens in the original sentence
+	 * @return substring of the original sentence or of the space-delimited
+	 * 		   tokens, if it does not cover any token
+	 */
+	private static String getNe(String sentence, String[] tokens, int start,
+			int end, String original, Span[] spans) {
+		int from = -1, to = -1;
+		int offset = 0;
+		for (int i = 0; i < tokens.length && offset < end; i++) {
+			int tokenEnd = offset + tokens[i].length();
+			if (from == -1 && start < tokenEnd)
+				from = spans[i].getStart() + Math.max(start - offset, 0);
+			to = spans[i].getStart() + Math.min(end - offset, tokens[i].length());
+			offset = tokenEnd + 1;
+		}
+		
+		return (from != -1 && to >= from)
+			? original.substring(from, to)
+			: sentence.substring(start, end);
+	}
+	
 	/**
 	 * Extracts NEs from an array of tokenized sentences.
 	 * 
 	 * @param sentences array of tokenized sentences
 	 * @return NEs per sentence and NE type
 	 */
+	public static String[][][] extractNes(String[][] sentences) {
+		return extractNes(sentences, null, null);
+	}
+	
+	/**
+	 * Extracts NEs from an array of tokenized sentences and maps them back to
+	 * the original sentences, using the character spans of the tokens.
+	 * 
+	 * @param sentences array of tokenized sentences
+	 * @param originals original sentences or <code>null</code> to concatenate
+	 * 					the tokens of the NEs with spaces
+	 * @param spans character spans of the tokens in the original sentences
+	 * @return NEs per sentence and NE type
+	 */
 	// TODO only works with OpenNLP taggers, lists and patterns so far
 	@SuppressWarnings("unchecked")
-	public static String[][][] extractNes(String[][] sentences) {
+	public static String[][][] extractNes(String[][] sentences,
+			String[] originals, Span[][] spans) {
 		String[][][] nes = new String[sentences.length][][];
 		
 		// initialize prevTokenMaps
@@ -740,9 +937,13 @@ public class NETagger {
 		for (int i = 0; i < finders.length; i++)
 			prevTokenMaps[i] = new HashMap();
 		
+		NeSpans neSpans = new NeSpans();
 		for (int s = 0; s < sentences.length; s++) {
 			String[] tokens = sentences[s];
+			String original = (originals != null) ? originals[s] : null;
+			Span[] tokenSpans = (spans != null) ? spans[s] : null;
 			nes[s] = new String[finders.length + allPatternNames.length + lists.length + stanfordNames.length][];
+			neSpans.clear();
 			
 			// find named entities
 			String[][] finderTags = new String[finders.length][];
@@ -756,100 +957,39 @@ public class NETagger {
 			
 			// extract named entities
 			for (int i = 0; i < finders.length; i++) {
-				ArrayList<String> neList = new ArrayList<String>();
-				
-				String ne = "";
-				for (int j = 0; j < tokens.length; j++) {
-					if ((finderTags[i][j].equals(NameFinderME.START) ||
-						finderTags[i][j].equals(NameFinderME.OTHER)) &&
-						ne.length() > 0) {
-						neList.add(ne.trim());
-						ne = "";
-					}
-					
-					if (finderTags[i][j].equals(NameFinderME.START))
-						ne = tokens[j];
-					
-					if (finderTags[i][j].equals(NameFinderME.CONTINUE))
-						ne += " " + tokens[j];
-				}
-		        if (ne.length() > 0) neList.add(ne);
-		        
-		        nes[s][i] = neList.toArray(new String[neList.size()]);
+				nes[s][i] = getNes(tokens, finderTags[i], original, tokenSpans);
 			}
 			
-			// apply regular expressions
-			String[][] regExTags = new String[allPatternNames.length][];
+			// apply regular expressions, the NE types of the spans are the NE
+			// IDs
+			int firstPattern = finders.length;
 			
 			//	don't tag NEproperName here
-			regExTags[0] = new String[tokens.length];
-			for (int i = 0; i < tokens.length; i++) regExTags[0][i] = NameFinderME.OTHER;
-			
 			for (int i = 1; i < patterns.length; i++)
-				regExTags[i] = RegExMatcher.markAllMatches(tokens, patterns[i], patternMaxTokens[i]);
+				RegExMatcher.markAllMatches(tokens, patterns[i], patternMaxTokens[i], neSpans, firstPattern + i);
 			
-			String[] numberMarkers = RegExMatcher.extractNumbers(tokens);
-			regExTags[patterns.length] = numberMarkers;
+			int numberType = firstPattern + patterns.length;
+			RegExMatcher.extractNumbers(tokens, neSpans, numberType);
 			
 			for (int i = 0; i < quantityUnitPatterns.length; i++)
-				regExTags[patterns.length + i + 1] = RegExMatcher.extractQuantities(tokens, numberMarkers, quantityUnitPatterns[i], quantityUnitPatternMaxTokens[i]);
-			
-			for (int i = 0; i < allPatternNames.length; i++) {
-				ArrayList<String> neList = new ArrayList<String>();
-				
-				String ne = "";
-				for (int j = 0; j < tokens.length; j++) {
-					if ((regExTags[i][j].equals(NameFinderME.START) ||
-							regExTags[i][j].equals(NameFinderME.OTHER)) &&
-						ne.length() > 0) {
-						neList.add(ne.trim());
-						ne = "";
-					}
-					
-					if (regExTags[i][j].equals(NameFinderME.START))
-						ne = tokens[j];
-					
-					if (regExTags[i][j].equals(NameFinderME.CONTINUE))
-						ne += " " + tokens[j];
-				}
-		        if (ne.length() > 0) neList.add(ne);
-		        
-		        nes[s][finders.length + i] = neList.toArray(new String[neList.size()]);
-			}
+				RegExMatcher.extractQuantities(tokens, neSpans, numberType, quantityUnitPatterns[i], quantityUnitPatternMaxTokens[i], neSpans, numberType + i + 1);
 			
 			// apply lists
-			String[][] listTags = new String[listNames.length][];
-			for (int i = 0; i < lists.length; i++)
-				listTags[i] = RegExMatcher.markAllContained(tokens, RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold);
+			markAllContained(tokens, neSpans, firstPattern + allPatternNames.length);
 			
-			for (int i = 0; i < lists.length; i++) {
-				ArrayList<String> neList = new ArrayList<String>();
-				
-				String ne = "";
-				for (int j = 0; j < tokens.length; j++) {
-					if ((listTags[i][j].equals(NameFinderME.START) ||
-							listTags[i][j].equals(NameFinderME.OTHER)) &&
-						ne.length() > 0) {
-						neList.add(ne.trim());
-						ne = "";
-					}
-					
-					if (listTags[i][j].equals(NameFinderME.START))
-						ne = tokens[j];
-					
-					if (listTags[i][j].equals(NameFinderME.CONTINUE))
-						ne += " " + tokens[j];
-				}
-		        if (ne.length() > 0) neList.add(ne);
-		        
-		        nes[s][finders.length + allPatternNames.length + i] = neList.toArray(new String[neList.size()]);
-			}
+			String[][] patternAndListNes = getNes(tokens, neSpans, firstPattern,
+					allPatternNames.length + lists.length, original, tokenSpans);
+			System.arraycopy(patternAndListNes, 0, nes[s], firstPattern,
+					patternAndListNes.length);
 			
 			//	apply stanford tagger
 			HashMap <String, String[]> allStanfordNEs = StanfordNeTagger.extractNEs(StringUtils.concatWithSpaces(sentences[s]));
 			for (int i = 0; i < stanfordNames.length; i++) {
 				String[] stanfordNEs = allStanfordNEs.get(stanfordNames[i]);
 				if (stanfordNEs == null) stanfordNEs = new String[0];
+				if (original != null)
+					for (int j = 0; j < stanfordNEs.length; j++)
+						stanfordNEs[j] = OpenNLP.untokenize(stanfordNEs[j], original);
 				nes[s][finders.length + allPatternNames.length + lists.length + i] = stanfordNEs;
 			}
 		}
@@ -865,8 +1005,26 @@ public class NETagger {
 	 * @return NEs of the particular type per sentence or <code>null</code>, if
 	 * 		   the ID is invalid
 	 */
-	@SuppressWarnings("unchecked")
 	public static String[][] extractNes(String[][] sentences, int neId) {
+		return extractNes(sentences, neId, null, null);
+	}
+	
+	/**
+	 * Extracts NEs of a particular type from an array of tokenized sentences
+	 * and maps them back to the original sentences, using the character spans
+	 * of the tokens.
+	 * 
+	 * @param sentences array of tokenized sentences
+	 * @param neId ID of a name finder or regular expression
+	 * @param originals original sentences or <code>null</code> to concatenate
+	 * 					the tokens of the NEs with spaces
+	 * @param spans character spans of the tokens in the original sentences
+	 * @return NEs of the particular type per sentence or <code>null</code>, if
+	 * 		   the ID is invalid
+	 */
+	@SuppressWarnings("unchecked")
+	public static String[][] extractNes(String[][] sentences, int neId,
+			String[] originals, Span[][] spans) {
 		if (neId < 0 || neId >= finderNames.length + allPatternNames.length + listNames.length + stanfordNames.length)
 			return null;  // invalid ID
 		
@@ -887,25 +1045,9 @@ public class NETagger {
 					prevTokenMap.put(tokens[i], tags[i]);
 				
 				// extract named entities
-				ArrayList<String> neList = new ArrayList<String>();
-				String ne = "";
-				for (int i = 0; i < tokens.length; i++) {
-					if ((tags[i].equals(NameFinderME.START) ||
-						tags[i].equals(NameFinderME.OTHER)) &&
-						ne.length() > 0) {
-						neList.add(ne.trim());
-						ne = "";
-					}
-					
-					if (tags[i].equals(NameFinderME.START))
-						ne = tokens[i];
-					
-					if (tags[i].equals(NameFinderME.CONTINUE))
-						ne += " " + tokens[i];
-				}
-				if (ne.length() > 0) neList.add(ne);
-				
-			    nes[s] = neList.toArray(new String[neList.size()]);
+				nes[s] = (spans != null)
+					? getNes(tokens, tags, originals[s], spans[s])
+					: getNes(tokens, tags, null, null);
 			}
 		} else {
 			// adjust ID
@@ -926,15 +1068,38 @@ public class NETagger {
 				for (int s = 0; s < sentences.length; s++) {
 					// apply regular expression
 					String sentence = StringUtils.concatWithSpaces(sentences[s]);
-					nes[s] = RegExMatcher.extractAllMatches(sentence, regEx);
+					if (spans == null) {
+						nes[s] = RegExMatcher.extractAllMatches(sentence, regEx);
+						continue;
+					}
+					
+					// map the matches to the original sentence
+					ArrayList<String> neList = new ArrayList<String>();
+					Matcher m = regEx.matcher(sentence);
+					while (m.find())
+						neList.add(getNe(sentence, sentences[s], m.start(),
+								m.end(), originals[s], spans[s]));
+					nes[s] = neList.toArray(new String[neList.size()]);
 				}
 				
 			} else {
 				i -= allPatternNames.length;
 				
 				if (i < listNames.length) {
+					NeSpans neSpans = new NeSpans();
 					for (int s = 0; s < sentences.length; s++)
-						nes[s] = RegExMatcher.extractAllContained(sentences[s], RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold);
+						if (spans != null) {
+							// mark the list entries to keep the token positions
+							neSpans.clear();
+							if (gazetteer != null && fuzzyListLookupThreshold == 0)
+								gazetteer.markAllContained(sentences[s], i, neSpans, 0);
+							else
+								RegExMatcher.markAllContained(sentences[s], RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold, neSpans, 0);
+							nes[s] = getNes(sentences[s], neSpans, 0, 1, originals[s], spans[s])[0];
+						} else if (gazetteer != null && fuzzyListLookupThreshold == 0)
+							nes[s] = gazetteer.extractAllContained(sentences[s], i);
+						else
+							nes[s] = RegExMatcher.extractAllContained(sentences[s], RegExMatcher.getDictionary(lists[i]), fuzzyListLookupThreshold);
 					
 				} else {
 					i -= listNames.length;
@@ -944,6 +1109,9 @@ public class NETagger {
 						HashMap <String, String[]> allStanfordNEs = StanfordNeTagger.extractNEs(StringUtils.concatWithSpaces(sentences[s]));
 						String[] stanfordNEs = allStanfordNEs.get(stanfordNames[i]);
 						if (stanfordNEs == null) stanfordNEs = new String[0];
+						if (originals != null)
+							for (int j = 0; j < stanfordNEs.length; j++)
+								stanfordNEs[j] = OpenNLP.untokenize(stanfordNEs[j], originals[s]);
 						nes[s] = stanfordNEs;
 					}
 				}
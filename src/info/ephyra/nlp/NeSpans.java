@@ -0,0 +1,163 @@
+package info.ephyra.nlp;
+
+import java.util.Arrays;
+
+/**
+ * <p>A compact list of NE annotations in a token sequence. Each annotation is
+ * a span of tokens from <code>start</code> (inclusive) to <code>end</code>
+ * (exclusive) with the ID of its NE type. The spans of all types are stored
+ * in a single <code>int</code> array, so tagging a sentence with many taggers
+ * does not allocate an array of markers per tagger.</p>
+ * 
+ * <p>The spans are kept in the order in which they were added. The taggers
+ * add the spans of a type from left to right and the spans of a type do not
+ * overlap.</p>
+ * 
+ * <p>The methods <code>toMarkers()</code> and <code>addMarkers()</code>
+ * convert between spans and the START/CONTINUE/OTHER marker arrays used by
+ * <code>RegExMatcher</code> and the OpenNLP name finders.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class NeSpans {
+	/** Start, end and type of each span. */
+	private int[] spans = new int[3 * 16];
+	/** Number of spans. */
+	private int size;
+	
+	/**
+	 * Adds a span.
+	 * 
+	 * @param start index of the first token
+	 * @param end index after the last token
+	 * @param type ID of the NE type
+	 */
+	public void add(int start, int end, int type) {
+		if (3 * size == spans.length)
+			spans = Arrays.copyOf(spans, 2 * spans.length);
+		
+		spans[3 * size] = start;
+		spans[3 * size + 1] = end;
+		spans[3 * size + 2] = type;
+		size++;
+	}
+	
+	/**
+	 * Adds the spans marked in an array of START/CONTINUE/OTHER markers. A
+	 * span starts at a START marker or at a CONTINUE marker that follows an
+	 * OTHER marker and ends before the next marker that is not CONTINUE.
+	 * 
+	 * @param markers marker strings
+	 * @param type ID of the NE type
+	 */
+	public void addMarkers(String[] markers, int type) {
+		int start = -1;
+		for (int i = 0; i <= markers.length; i++) {
+			String marker =
+				(i < markers.length) ? markers[i] : RegExMatcher.OTHER;
+			
+			// end of a span
+			if (start != -1 && !marker.equals(RegExMatcher.CONTINUE)) {
+				add(start, i, type);
+				start = -1;
+			}
+			
+			// beginning of a span
+			if (marker.equals(RegExMatcher.START) ||
+					(start == -1 && marker.equals(RegExMatcher.CONTINUE)))
+				start = i;
+		}
+	}
+	
+	/**
+	 * Returns the number of spans.
+	 * 
+	 * @return number of spans
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the index of the first token of a span.
+	 * 
+	 * @param i index of the span
+	 * @return start of the span
+	 */
+	public int getStart(int i) {
+		return spans[3 * i];
+	}
+	
+	/**
+	 * Returns the index after the last token of a span.
+	 * 
+	 * @param i index of the span
+	 * @return end of the span
+	 */
+	public int getEnd(int i) {
+		return spans[3 * i + 1];
+	}
+	
+	/**
+	 * Returns the NE type of a span.
+	 * 
+	 * @param i index of the span
+	 * @return ID of the NE type
+	 */
+	public int getType(int i) {
+		return spans[3 * i + 2];
+	}
+	
+	/**
+	 * Removes all spans.
+	 */
+	public void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * Converts the spans of a type to an array of START/CONTINUE/OTHER
+	 * markers.
+	 * 
+	 * @param type ID of the NE type
+	 * @param numTokens number of tokens
+	 * @return marker strings
+	 */
+	public String[] toMarkers(int type, int numTokens) {
+		String[] markers = new String[numTokens];
+		Arrays.fill(markers, RegExMatcher.OTHER);
+		for (int i = 0; i < size; i++)
+			if (spans[3 * i + 2] == type) {
+				markers[spans[3 * i]] = RegExMatcher.START;
+				for (int t = spans[3 * i] + 1; t < spans[3 * i + 1]; t++)
+					markers[t] = RegExMatcher.CONTINUE;
+			}
+		
+		return markers;
+	}
+	
+	/**
+	 * Converts the spans of consecutive types to arrays of
+	 * START/CONTINUE/OTHER markers.
+	 * 
+	 * @param firstType ID of the first NE type
+	 * @param numTypes number of NE types
+	 * @param numTokens number of tokens
+	 * @return marker strings per type
+	 */
+	public String[][] toMarkers(int firstType, int numTypes, int numTokens) {
+		String[][] markers = new String[numTypes][numTokens];
+		for (String[] typeMarkers : markers)
+			Arrays.fill(typeMarkers, RegExMatcher.OTHER);
+		for (int i = 0; i < size; i++) {
+			int type = spans[3 * i + 2] - firstType;
+			if (type < 0 || type >= numTypes) continue;
+			
+			markers[type][spans[3 * i]] = RegExMatcher.START;
+			for (int t = spans[3 * i] + 1; t < spans[3 * i + 1]; t++)
+				markers[type][t] = RegExMatcher.CONTINUE;
+		}
+		
+		return markers;
+	}
+}
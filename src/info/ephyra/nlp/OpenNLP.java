@@ -1,6 +1,5 @@
 package info.ephyra.nlp;
 
-import info.ephyra.util.RegexConverter;
 import info.ephyra.util.StringUtils;
 
 import java.io.IOException;
@@ -23,6 +22,7 @@ import opennlp.tools.lang.english.TreebankParser;
 import opennlp.tools.parser.Parse;
 import opennlp.tools.parser.ParserME;
 import opennlp.tools.postag.POSDictionary;
+import opennlp.tools.util.Span;
 
 /**
  * <p>This class provides a common interface to the
@@ -39,8 +39,11 @@ import opennlp.tools.postag.POSDictionary;
  * </ul>
  * </p>
  * 
+ * <p>The tools are not thread-safe, each of them is only used by one thread at
+ * a time.</p>
+ * 
  * @author Nico Schlaefer
- * @version 2006-05-20
+ * @version 2026-10-19
  */
 public class OpenNLP {
 	/** Pattern for abundant blanks. More specific rules come first. T.b.c. */
@@ -151,7 +154,7 @@ public class OpenNLP {
 		
 		return true;
 	}
-
+	
 	/**
 	 * Creates the linker from a directory containing models.
 	 * 
@@ -177,9 +180,11 @@ public class OpenNLP {
 	 * 		   sentence detector is not initialized
 	 */
 	public static String[] sentDetect(String text) {
-		return (sentenceDetector != null)
-			? sentenceDetector.sentDetect(text)
-			: null;
+		if (sentenceDetector == null) return null;
+		
+		synchronized (sentenceDetector) {
+			return sentenceDetector.sentDetect(text);
+		}
 	}
 	
 	/**
@@ -190,7 +195,28 @@ public class OpenNLP {
 	 * 		   initialized
 	 */
 	public static String[] tokenize(String text) {
-		return (tokenizer != null) ? tokenizer.tokenize(text) : null;
+		if (tokenizer == null) return null;
+		
+		synchronized (tokenizer) {
+			return tokenizer.tokenize(text);
+		}
+	}
+	
+	/**
+	 * Applies the model-based tokenizer and returns the character spans of the
+	 * tokens in the text. The tokens are the substrings of the text covered by
+	 * the spans.
+	 * 
+	 * @param text text to tokenize
+	 * @return array of token spans or <code>null</code>, if the tokenizer is not
+	 * 		   initialized
+	 */
+	public static Span[] tokenizeToSpans(String text) {
+		if (tokenizer == null) return null;
+		
+		synchronized (tokenizer) {
+			return tokenizer.tokenizePos(text);
+		}
 	}
 	
 	/**
@@ -239,21 +265,97 @@ public class OpenNLP {
 	 */
 	public static String untokenize(String text, String original) {
 		// try with boundary matchers
-		String regex = RegexConverter.strToRegexWithBounds(text);
-		regex = regex.replace(" ", "\\s*+");
-		Matcher m = Pattern.compile(regex).matcher(original);
-		if (m.find()) return m.group(0);
+		String match = findTokenized(text, original, true);
+		if (match != null) return match;
 		
 		// try without boundary matchers
-		regex = RegexConverter.strToRegex(text);
-		regex = regex.replace(" ", "\\s*+");
-		m = Pattern.compile(regex).matcher(original);
-		if (m.find()) return m.group(0);
+		if (text.length() > 0 && (isAsciiWordChar(text.charAt(0)) ||
+				isAsciiWordChar(text.charAt(text.length() - 1)))) {
+			match = findTokenized(text, original, false);
+			if (match != null) return match;
+		}
 		
 		// untokenization failed
 		return text;
 	}
 	
+	/**
+	 * Finds the first substring of the original string that is equal to the
+	 * text if blanks in the text are mapped to arbitrary sequences of
+	 * whitespace, including the empty sequence. If <code>bounds</code> is set
+	 * and the text starts or ends with a word character, the substring must
+	 * start or end at a word boundary.
+	 * 
+	 * @param text tokenized text
+	 * @param original string that contains the original text
+	 * @param bounds require word boundaries
+	 * @return substring of the original string or <code>null</code>, iff there
+	 * 		   is no such substring
+	 */
+	private static String findTokenized(String text, String original,
+			boolean bounds) {
+		int length = original.length();
+		boolean startBound = bounds && text.length() > 0 &&
+			isAsciiWordChar(text.charAt(0));
+		boolean endBound = bounds && text.length() > 0 &&
+			isAsciiWordChar(text.charAt(text.length() - 1));
+		
+		for (int start = 0; start <= length; start++) {
+			// skip ahead to the next occurrence of the first character
+			if (text.length() > 0 && text.charAt(0) != ' ') {
+				start = original.indexOf(text.charAt(0), start);
+				if (start == -1) break;
+			}
+			if (startBound && start > 0 &&
+					isWordChar(original.charAt(start - 1))) continue;
+			
+			// match the text, blanks consume all whitespace
+			int end = start;
+			for (int i = 0; i < text.length() && end != -1; i++) {
+				char c = text.charAt(i);
+				if (c == ' ') {
+					while (end < length && isWhitespace(original.charAt(end)))
+						end++;
+				} else if (end < length && original.charAt(end) == c) {
+					end++;
+				} else {
+					end = -1;
+				}
+			}
+			if (end == -1) continue;
+			
+			if (endBound && end < length && isWordChar(original.charAt(end)))
+				continue;
+			return original.substring(start, end);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Checks if a character is a word character in the sense of word
+	 * boundaries in regular expressions.
+	 */
+	private static boolean isWordChar(char c) {
+		return c == '_' || Character.isLetterOrDigit(c);
+	}
+	
+	/**
+	 * Checks if a character is an ASCII letter, digit or underscore.
+	 */
+	private static boolean isAsciiWordChar(char c) {
+		return c < 128 && isWordChar(c);
+	}
+	
+	/**
+	 * Checks if a character is a whitespace character in the sense of regular
+	 * expressions.
+	 */
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' ||
+			c == '\f' || c == '\r';
+	}
+	
 	/**
 	 * Assigns POS tags to a sentence of space-delimited tokens.
 	 * 
@@ -262,7 +364,11 @@ public class OpenNLP {
 	 * 		   initialized
 	 */
 	public static String tagPos(String sentence) {
-		return (tagger != null) ? tagger.tag(sentence) : null;
+		if (tagger == null) return null;
+		
+		synchronized (tagger) {
+			return tagger.tag(sentence);
+		}
 	}
 	
 	/**
@@ -273,7 +379,11 @@ public class OpenNLP {
 	 * 		   initialized
 	 */
 	public static String[] tagPos(String[] sentence) {
-		return (tagger != null) ? tagger.tag(sentence) : null;
+		if (tagger == null) return null;
+		
+		synchronized (tagger) {
+			return tagger.tag(sentence);
+		}
 	}
 	
 	/**
@@ -285,7 +395,11 @@ public class OpenNLP {
 	 * 		   initialized
 	 */
 	public static String[] tagChunks(String[] tokens, String[] pos) {
-		return (chunker != null) ? chunker.chunk(tokens, pos) : null;
+		if (chunker == null) return null;
+		
+		synchronized (chunker) {
+			return chunker.chunk(tokens, pos);
+		}
 	}
 	
 	/**
@@ -296,10 +410,12 @@ public class OpenNLP {
 	 * 		   initialized or the sentence is empty
 	 */
 	public static Parse parse(String sentence) {
-		return (parser != null && sentence.length() > 0)
+		if (parser == null || sentence.length() == 0) return null;
+		
+		synchronized (parser) {
 			// only get first parse (that is most likely to be correct)
-			? TreebankParser.parseLine(sentence, parser, 1)[0]
-			: null;
+			return TreebankParser.parseLine(sentence, parser, 1)[0];
+		}
 	}
 	
 	/**
@@ -6,6 +6,7 @@ import info.ephyra.util.HashDictionary;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -14,8 +15,11 @@ import opennlp.tools.namefind.NameFinderME;
 /**
  * Applies regular expressions for named entity extraction.
  * 
+ * The matches are added to <code>NeSpans</code>, the methods that return
+ * arrays of START/CONTINUE/OTHER markers are adapters for existing callers.
+ * 
  * @author Guido Sautter, Nico Schlaefer
- * @version 2008-02-10
+ * @version 2026-10-19
  */
 public class RegExMatcher {
 	public static final String OTHER = NameFinderME.OTHER;
@@ -24,6 +28,19 @@ public class RegExMatcher {
 	
 	private static final int MAX_TOKENS = 10;
 	
+	/**	apply patterns in a single scan over the sentence, where this is equivalent to testing every token subsequence */
+	private static boolean singleScan = true;
+	
+	/**	register for patterns that have been checked for single scan matching */
+	private static ConcurrentHashMap<String, Boolean> singleScanPatterns = new ConcurrentHashMap<String, Boolean>();
+	
+	/**	enable or disable single scan matching in markAllMatches()
+	 * @param	enable	apply patterns in a single scan over the sentence?
+	 */
+	public static void setSingleScan(boolean enable) {
+		singleScan = enable;
+	}
+	
 	/**	mark all parts of a token sequence that match a regular expression
 	 * @param	tokens			the token sequence to be rooted through
 	 * @param	regEx			the regular expression that's matches are to be extracted
@@ -59,8 +76,23 @@ public class RegExMatcher {
 	 * @return an array of marker Strings marking all subsequences of the specified token sequence that match the specified regular expression
 	 */
 	public static String[] markAllMatches(String[] tokens, Pattern pattern, int maxTokens) {
-		String[] markers = new String[tokens.length];
-		int markerIndex = 0;
+		NeSpans nes = new NeSpans();
+		markAllMatches(tokens, pattern, maxTokens, nes, 0);
+		return nes.toMarkers(0, tokens.length);
+	}
+	
+	/**	mark all parts of a token sequence that match a regular expression
+	 * @param	tokens			the token sequence to be rooted through
+	 * @param	pattern			the pattern that's matches are to be extracted
+	 * @param	maxTokens		the maximum number of tokens a matching part may contain (0 means no limit, Attention: high computation effort)
+	 * @param	nes				the spans to which the matching subsequences of the specified token sequence are added
+	 * @param	type			the NE type of the added spans
+	 */
+	public static void markAllMatches(String[] tokens, Pattern pattern, int maxTokens, NeSpans nes, int type) {
+		if (singleScan && isSingleScanPattern(pattern)) {
+			markAllMatchesSingleScan(tokens, pattern, maxTokens, nes, type);
+			return;
+		}
 		
 		int lastStartIndex = 0;
 		int lastMatchedIndex = 0;
@@ -86,23 +118,7 @@ public class RegExMatcher {
 			
 			//	store longest match
 			if (foundMatch) {
-				
-				//	fill in marker array up to start of actual match
-				while (markerIndex < lastStartIndex) {
-					markers[markerIndex] = OTHER;
-					markerIndex ++;
-				}
-				
-				//	mark start of match
-				markers[markerIndex] = START;
-				markerIndex++;
-				
-				//	mark rest of match
-				while (markerIndex <= lastMatchedIndex) {
-					markers[markerIndex] = CONTINUE;
-					markerIndex ++;
-				}
-				
+				nes.add(lastStartIndex, lastMatchedIndex + 1, type);
 				index = lastMatchedIndex;
 			} else {
 				index = lastStartIndex;
@@ -113,14 +129,107 @@ public class RegExMatcher {
 			actualPart.setLength(0);
 			index ++;
 		}
+	}
+	
+	/**	mark all parts of a token sequence that match a regular expression, running the pattern over the space-delimited token sequence instead of testing every subsequence
+	 * The leftmost match found from a token's start offset tells that no match can start at the tokens in between, so the longest match is only determined at tokens where a match starts.
+	 * The result is the same as the result of markAllMatches() for patterns that are accepted by isSingleScanPattern().
+	 * @param	tokens			the token sequence to be rooted through
+	 * @param	pattern			the pattern that's matches are to be extracted
+	 * @param	maxTokens		the maximum number of tokens a matching part may contain (0 means no limit)
+	 * @return an array of marker Strings marking all subsequences of the specified token sequence that match the specified regular expression
+	 */
+	public static String[] markAllMatchesSingleScan(String[] tokens, Pattern pattern, int maxTokens) {
+		NeSpans nes = new NeSpans();
+		markAllMatchesSingleScan(tokens, pattern, maxTokens, nes, 0);
+		return nes.toMarkers(0, tokens.length);
+	}
+	
+	/**	mark all parts of a token sequence that match a regular expression, running the pattern over the space-delimited token sequence instead of testing every subsequence
+	 * @param	tokens			the token sequence to be rooted through
+	 * @param	pattern			the pattern that's matches are to be extracted
+	 * @param	maxTokens		the maximum number of tokens a matching part may contain (0 means no limit)
+	 * @param	nes				the spans to which the matching subsequences of the specified token sequence are added
+	 * @param	type			the NE type of the added spans
+	 */
+	public static void markAllMatchesSingleScan(String[] tokens, Pattern pattern, int maxTokens, NeSpans nes, int type) {
+		if (tokens.length == 0) return;
 		
-		//	fill in rest of marker array
-		while (markerIndex < tokens.length) {
-			markers[markerIndex] = OTHER;
-			markerIndex ++;
+		//	join tokens and remember their offsets
+		int[] starts = new int[tokens.length];
+		int[] ends = new int[tokens.length];
+		StringBuilder sentence = new StringBuilder();
+		for (int t = 0; t < tokens.length; t++) {
+			if (t > 0) sentence.append(' ');
+			starts[t] = sentence.length();
+			sentence.append(tokens[t]);
+			ends[t] = sentence.length();
 		}
 		
-		return markers;
+		Matcher matcher = pattern.matcher(sentence);
+		int matchStart = -1;
+		int index = 0;
+		
+		while (index < tokens.length) {
+			
+			//	find leftmost match at or after the start of the actual token
+			if (matchStart < starts[index])
+				matchStart = matcher.find(starts[index]) ? matcher.start() : sentence.length() + 1;
+			
+			//	no match can start before the leftmost match
+			if (matchStart > starts[index]) {
+				while ((index < tokens.length) && (starts[index] < matchStart)) index++;
+				continue;
+			}
+			
+			//	find longest match starting with actual token
+			int lastMatchedIndex = -1;
+			for (int end = index; (end < tokens.length) && (((end - index) < maxTokens) || (maxTokens == 0)); end++) {
+				matcher.region(starts[index], ends[end]);
+				if (matcher.matches()) lastMatchedIndex = end;
+			}
+			matchStart = -1;
+			
+			//	store longest match
+			if (lastMatchedIndex != -1) {
+				nes.add(index, lastMatchedIndex + 1, type);
+				index = lastMatchedIndex + 1;
+			} else {
+				index++;
+			}
+		}
+	}
+	
+	/**	check if a pattern can be applied with markAllMatchesSingleScan(), i.e. if it does not use anchors or lookarounds that depend on the text outside a match
+	 * and no possessive quantifiers or atomic groups, which cut off backtracking so that find() may miss a match that matches() accepts on a region
+	 * @param	pattern			the pattern to be checked
+	 * @return true iff matching the pattern in a single scan yields the same markers as testing every token subsequence
+	 */
+	public static boolean isSingleScanPattern(Pattern pattern) {
+		Boolean singleScan = singleScanPatterns.get(pattern.pattern());
+		if (singleScan == null) {
+			String regEx = pattern.pattern();
+			singleScan = true;
+			for (int c = 0; c < regEx.length(); c++) {
+				char ch = regEx.charAt(c);
+				if (ch == '\\') {
+					//	anchors \A, \z, \Z and \G, skip other escaped characters
+					if ((c + 1 < regEx.length()) && ("AzZG".indexOf(regEx.charAt(c + 1)) != -1)) singleScan = false;
+					c++;
+				} else if ((ch == '$') || ((ch == '^') && ((c == 0) || (regEx.charAt(c - 1) != '[')))) {
+					singleScan = false;
+				} else if (regEx.startsWith("(?=", c) || regEx.startsWith("(?!", c) || regEx.startsWith("(?<=", c) || regEx.startsWith("(?<!", c)) {
+					singleScan = false;
+				} else if (regEx.startsWith("(?>", c)) {
+					singleScan = false;
+				} else if (("*+?}".indexOf(ch) != -1) && (c + 1 < regEx.length()) && (regEx.charAt(c + 1) == '+')) {
+					//	possessive quantifiers *+, ++, ?+ and {n,m}+
+					singleScan = false;
+				}
+			}
+			singleScanPatterns.put(pattern.pattern(), singleScan);
+		}
+		return singleScan;
 	}
 	
 	/**	extract all parts from a token sequence that match a regular expression
@@ -174,8 +283,20 @@ public class RegExMatcher {
 	 * @return an array of marker Strings marking all subsequences of the specified token sequence that's String representation is contained in the specified list
 	 */
 	public static String[] markAllContained(String[] tokens, HashDictionary dictionary) {
-		String[] markers = new String[tokens.length];
-		int markerIndex = 0;
+		NeSpans nes = new NeSpans();
+		markAllContained(tokens, dictionary, nes, 0);
+		return nes.toMarkers(0, tokens.length);
+	}
+	
+	/**	mark all parts of a String that are contained in a list of Strings
+	 * @param	tokens		the token sequence to be rooted through
+	 * @param	dictionary	the gazetteer containing the Strings to be found
+	 * @param	nes			the spans to which the subsequences of the specified token sequence that are contained in the specified list are added
+	 * @param	type		the NE type of the added spans
+	 */
+	public static void markAllContained(String[] tokens, HashDictionary dictionary, NeSpans nes, int type) {
+		Vocabulary vocab = Vocabulary.getInstance();
+		int[] ids = vocab.getIds(tokens);
 		
 		int lastStartIndex = 0;
 		int lastMatchedIndex = 0;
@@ -187,7 +308,7 @@ public class RegExMatcher {
 			lastStartIndex = index;
 			
 			//	find longest match
-			while ((index < tokens.length) && dictionary.containsToken(tokens[index]) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
+			while ((index < tokens.length) && dictionary.containsToken(vocab, ids[index]) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
 				
 				currentPart = ((currentPart == null) ? tokens[index] : (currentPart + " " + tokens[index]));
 				if (dictionary.contains(currentPart)) {
@@ -199,23 +320,7 @@ public class RegExMatcher {
 			
 			//	store longest match
 			if (foundMatch) {
-				
-				//	fill in marker array up to start of actual match
-				while (markerIndex < lastStartIndex) {
-					markers[markerIndex] = OTHER;
-					markerIndex ++;
-				}
-				
-				//	mark start of match
-				markers[markerIndex] = START;
-				markerIndex++;
-				
-				//	mark rest of match
-				while (markerIndex <= lastMatchedIndex) {
-					markers[markerIndex] = CONTINUE;
-					markerIndex ++;
-				}
-				
+				nes.add(lastStartIndex, lastMatchedIndex + 1, type);
 				index = lastMatchedIndex;
 			} else {
 				index = lastStartIndex;
@@ -226,14 +331,6 @@ public class RegExMatcher {
 			currentPart = null;
 			index ++;
 		}
-		
-		//	fill in rest of marker array
-		while (markerIndex < tokens.length) {
-			markers[markerIndex] = OTHER;
-			markerIndex ++;
-		}
-		
-		return markers;
 	}
 	
 	/**	mark all parts of a String that are fuzzy-contained in a list of Strings
@@ -243,10 +340,25 @@ public class RegExMatcher {
 	 * @return an array of marker Strings marking all subsequences of the specified token sequence that's String representation is contained in the specified list
 	 */
 	public static String[] markAllContained(String[] tokens, HashDictionary dictionary, int threshold) {
-		if (threshold == 0) return markAllContained(tokens, dictionary);
+		NeSpans nes = new NeSpans();
+		markAllContained(tokens, dictionary, threshold, nes, 0);
+		return nes.toMarkers(0, tokens.length);
+	}
+	
+	/**	mark all parts of a String that are fuzzy-contained in a list of Strings
+	 * @param	tokens		the token sequence to be rooted through
+	 * @param	dictionary	the gazetteer containing the Strings to be found
+	 * @param	threshold	the maximum editing distance for which a fuzzy lookup shall return true
+	 * @param	nes			the spans to which the subsequences of the specified token sequence that are fuzzy-contained in the specified list are added
+	 * @param	type		the NE type of the added spans
+	 */
+	public static void markAllContained(String[] tokens, HashDictionary dictionary, int threshold, NeSpans nes, int type) {
+		if (threshold == 0) {
+			markAllContained(tokens, dictionary, nes, type);
+			return;
+		}
 		
-		String[] markers = new String[tokens.length];
-		int markerIndex = 0;
+		byte[] tokenLookups = new byte[tokens.length];
 		
 		int lastStartIndex = 0;
 		int lastMatchedIndex = 0;
@@ -258,7 +370,7 @@ public class RegExMatcher {
 			lastStartIndex = index;
 			
 			//	find longest match
-			while ((index < tokens.length) && dictionary.fuzzyContainsToken(tokens[index], threshold) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
+			while ((index < tokens.length) && fuzzyContainsToken(dictionary, tokens, index, threshold, tokenLookups) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
 				
 				currentPart = ((currentPart == null) ? tokens[index] : (currentPart + " " + tokens[index]));
 				if (dictionary.fuzzyContains(currentPart, threshold)) {
@@ -270,23 +382,7 @@ public class RegExMatcher {
 			
 			//	store longest match
 			if (foundMatch) {
-				
-				//	fill in marker array up to start of actual match
-				while (markerIndex < lastStartIndex) {
-					markers[markerIndex] = OTHER;
-					markerIndex ++;
-				}
-				
-				//	mark start of match
-				markers[markerIndex] = START;
-				markerIndex++;
-				
-				//	mark rest of match
-				while (markerIndex <= lastMatchedIndex) {
-					markers[markerIndex] = CONTINUE;
-					markerIndex ++;
-				}
-				
+				nes.add(lastStartIndex, lastMatchedIndex + 1, type);
 				index = lastMatchedIndex;
 			} else {
 				index = lastStartIndex;
@@ -297,14 +393,20 @@ public class RegExMatcher {
 			currentPart = null;
 			index ++;
 		}
-		
-		//	fill in rest of marker array
-		while (markerIndex < tokens.length) {
-			markers[markerIndex] = OTHER;
-			markerIndex ++;
-		}
-		
-		return markers;
+	}
+	
+	/**	fuzzy lookup of a token, each token is only looked up once per token sequence
+	 * @param	dictionary		the gazetteer containing the Strings to be found
+	 * @param	tokens			the token sequence to be rooted through
+	 * @param	index			the index of the token to be looked up
+	 * @param	threshold		the maximum editing distance for which a fuzzy lookup shall return true
+	 * @param	tokenLookups	the results of previous lookups (0 for unknown, 1 for contained, 2 for not contained)
+	 * @return true iff the token is fuzzy-contained in the specified list
+	 */
+	private static boolean fuzzyContainsToken(HashDictionary dictionary, String[] tokens, int index, int threshold, byte[] tokenLookups) {
+		if (tokenLookups[index] == 0)
+			tokenLookups[index] = (byte) (dictionary.fuzzyContainsToken(tokens[index], threshold) ? 1 : 2);
+		return (tokenLookups[index] == 1);
 	}
 	
 	/**	mark all parts of a String that are contained in a list of Strings
@@ -319,6 +421,8 @@ public class RegExMatcher {
 		for (int t = 0; t < tokens.length; t++)
 			if (tokens[t].length() != 0) tokenList.add(tokens[t]);
 		tokens = tokenList.toArray(new String[tokenList.size()]);
+		Vocabulary vocab = Vocabulary.getInstance();
+		int[] ids = vocab.getIds(tokens);
 		
 		ArrayList<String> matches = new ArrayList<String>();
 		
@@ -332,7 +436,7 @@ public class RegExMatcher {
 			lastStartIndex = index;
 			
 			//	find longest match starting with actual token
-			while ((index < tokens.length) && dictionary.containsToken(tokens[index]) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
+			while ((index < tokens.length) && dictionary.containsToken(vocab, ids[index]) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
 				
 				currentPart = ((currentPart == null) ? tokens[index] : (currentPart + " " + tokens[index]));
 				if (dictionary.contains(currentPart)) {
@@ -373,6 +477,7 @@ public class RegExMatcher {
 		for (int t = 0; t < tokens.length; t++)
 			if (tokens[t].length() != 0) tokenList.add(tokens[t]);
 		tokens = tokenList.toArray(new String[tokenList.size()]);
+		byte[] tokenLookups = new byte[tokens.length];
 		
 		ArrayList<String> matches = new ArrayList<String>();
 		
@@ -386,7 +491,7 @@ public class RegExMatcher {
 			lastStartIndex = index;
 			
 			//	find longest match starting with actual token
-			while ((index < tokens.length) && dictionary.fuzzyContainsToken(tokens[index], threshold) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
+			while ((index < tokens.length) && fuzzyContainsToken(dictionary, tokens, index, threshold, tokenLookups) && (((index - lastStartIndex) < dictionary.getMaxTokens()))) {
 				
 				currentPart = ((currentPart == null) ? tokens[index] : (currentPart + " " + tokens[index]));
 				if (dictionary.fuzzyContains(currentPart, threshold)) {
@@ -425,6 +530,15 @@ public class RegExMatcher {
 		return markAllMatches(tokens, NUMBER_PATTERN, 10);
 	}
 	
+	/**	mark all numbers in a token sequence
+	 * @param	tokens	the token sequence
+	 * @param	nes		the spans to which the numbers in the specified token sequence are added
+	 * @param	type	the NE type of the added spans
+	 */
+	public static void extractNumbers(String[] tokens, NeSpans nes, int type) {
+		markAllMatches(tokens, NUMBER_PATTERN, 10, nes, type);
+	}
+	
 	/**	mark all parts from a token sequence that match a regular expression
 	 * @param	tokens				the token sequence to be rooted through
 	 * @param	dimensionPattern	the pattern that's matches are to be extracted
@@ -432,75 +546,59 @@ public class RegExMatcher {
 	 * @return an array of marker Strings marking all subsequences of the specified token sequence that match the specified regular expression
 	 */
 	public static String[] extractQuantities(String[] tokens, String[] numberMarkers, Pattern dimensionPattern, int maxTokens) {
-		String[] markers = new String[tokens.length];
-		int markerIndex = 0;
-		
-		int lastStartIndex = 0;
-		int lastMatchedIndex = 0;
-		int matchStartIndex = 0;
+		NeSpans nes = new NeSpans();
+		nes.addMarkers(numberMarkers, 0);
+		extractQuantities(tokens, nes, 0, dimensionPattern, maxTokens, nes, 1);
+		return nes.toMarkers(1, tokens.length);
+	}
+	
+	/**	mark all parts from a token sequence that consist of a number and a following part that matches a regular expression
+	 * @param	tokens				the token sequence to be rooted through
+	 * @param	numbers				the spans of the numbers in the token sequence
+	 * @param	numberType			the NE type of the numbers
+	 * @param	dimensionPattern	the pattern that's matches are to be extracted
+	 * @param	maxTokens			the maximum number of tokens a matching part may contain (0 means no limit, Attention: high computation effort)
+	 * @param	nes					the spans to which the quantities in the specified token sequence are added, may be the same as the spans of the numbers
+	 * @param	type				the NE type of the added spans
+	 */
+	public static void extractQuantities(String[] tokens, NeSpans numbers, int numberType, Pattern dimensionPattern, int maxTokens, NeSpans nes, int type) {
 		int index = 0;
-		StringBuffer actualPart = new StringBuffer();
-		boolean foundMatch = false;
+		StringBuilder actualPart = new StringBuilder();
 		
-		while (index < tokens.length) {
-			
-			while ((index < tokens.length) && !START.equals(numberMarkers[index])) index++;
-			
-			lastStartIndex = index;
+		int numSpans = numbers.size();
+		for (int n = 0; n < numSpans; n++) {
+			if (numbers.getType(n) != numberType || numbers.getStart(n) < index) continue;
 			
-			while ((index < tokens.length) && !OTHER.equals(numberMarkers[index])) index++;
+			int lastStartIndex = numbers.getStart(n);
 			
-			matchStartIndex = index;
+			//	skip the number and the numbers directly following it
+			int matchStartIndex = numbers.getEnd(n);
+			for (int m = n + 1; m < numSpans; m++) {
+				if (numbers.getType(m) != numberType) continue;
+				if (numbers.getStart(m) != matchStartIndex) break;
+				matchStartIndex = numbers.getEnd(m);
+			}
 			
-			while ((index < tokens.length) && ((index - matchStartIndex) < maxTokens)) {
-				
-				actualPart.append(((actualPart.length() == 0) ? "" : " ") + tokens[index]);
-				String testPart = actualPart.toString();
+			//	find longest match
+			int lastMatchedIndex = -1;
+			for (index = matchStartIndex; (index < tokens.length) && ((index - matchStartIndex) < maxTokens); index++) {
+				if (actualPart.length() != 0) actualPart.append(' ');
+				actualPart.append(tokens[index]);
 				
-				if (dimensionPattern.matcher(testPart).matches()) {
-					foundMatch = true;
-					lastMatchedIndex = index;
-				}
-				index++;
+				if (dimensionPattern.matcher(actualPart).matches()) lastMatchedIndex = index;
 			}
 			
 			//	store longest match
-			if (foundMatch) {
-				
-				//	fill in marker array up to start of actual match
-				while (markerIndex < lastStartIndex) {
-					markers[markerIndex] = OTHER;
-					markerIndex ++;
-				}
-				
-				//	mark start of match
-				markers[markerIndex] = START;
-				markerIndex++;
-				
-				//	mark rest of match
-				while (markerIndex <= lastMatchedIndex) {
-					markers[markerIndex] = CONTINUE;
-					markerIndex ++;
-				}
-				
-				index = lastMatchedIndex;
+			if (lastMatchedIndex != -1) {
+				nes.add(lastStartIndex, lastMatchedIndex + 1, type);
+				index = lastMatchedIndex + 1;
 			} else {
-				index = lastStartIndex;
+				index = lastStartIndex + 1;
 			}
 			
 			//	tidy up
-			foundMatch = false;
 			actualPart.setLength(0);
-			index ++;
-		}
-		
-		//	fill in rest of marker array
-		while (markerIndex < tokens.length) {
-			markers[markerIndex] = OTHER;
-			markerIndex ++;
 		}
-		
-		return markers;
 	}
 	
 	/**	a regular expression capturing group matching all ordinal numbers given in form of digits
@@ -1,23 +1,42 @@
 package info.ephyra.nlp;
 
+import info.ephyra.util.MemoCache;
+
 import org.tartarus.snowball.ext.englishStemmer;
 
 /**
  * This class provides an interface to the Snowball stemmer for the English
- * language.
+ * language. Stemmed words are cached, and the stemmer can be used by
+ * concurrent threads.
  * 
  * @author Nico Schlaefer
  * @version 2006-04-21
  */
 public class SnowballStemmer {
-	/** Snowball stemmer for the English language. */
-	private static englishStemmer stemmer;
+	/** Snowball stemmers for the English language, one per thread. */
+	private static ThreadLocal<englishStemmer> stemmers;
+	/** Memorizes stemmed words. */
+	private static final MemoCache<String, String> cache =
+		new MemoCache<String, String>(100000);
 	
 	/**
 	 * Creates the stemmer.
 	 */
 	public static void create() {
-		stemmer = new englishStemmer();
+		stemmers = new ThreadLocal<englishStemmer>() {
+			protected englishStemmer initialValue() {
+				return new englishStemmer();
+			}
+		};
+	}
+	
+	/**
+	 * Returns the cache of stemmed words, e.g. to get its hit rate.
+	 * 
+	 * @return cache used by <code>stem()</code>
+	 */
+	public static MemoCache<String, String> getCache() {
+		return cache;
 	}
 	
     /**
@@ -27,9 +46,15 @@ public class SnowballStemmer {
      * @return stemmed word
      */
 	public static String stem(String word) {
+		String stemmed = cache.get(word);
+		if (stemmed != null) return stemmed;
+		
+		englishStemmer stemmer = stemmers.get();
 		stemmer.setCurrent(word);
 		stemmer.stem();
-		return stemmer.getCurrent();
+		stemmed = stemmer.getCurrent();
+		cache.put(word, stemmed);
+		return stemmed;
     }
 	
 	/**
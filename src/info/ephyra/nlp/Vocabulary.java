@@ -0,0 +1,226 @@
+package info.ephyra.nlp;
+
+import info.ephyra.nlp.indices.FunctionWords;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A <code>Vocabulary</code> maps the surface forms of tokens to
+ * <code>int</code> IDs. For each ID, it memorizes the ID of the lower case
+ * form, the ID of the stem and whether the token is a function word, so that
+ * these properties are computed only once per distinct token and tokens can be
+ * compared as integers in inner loops.</p>
+ * 
+ * <p>The IDs are only meaningful within one instance. The shared instance
+ * returned by <code>getInstance()</code> grows with the distinct tokens it
+ * has seen, when it is full or when the function words are reloaded it is
+ * replaced by an empty instance. Callers should therefore get the instance
+ * once and use it for all IDs they compare, and caches of IDs must remember
+ * the instance they belong to.</p>
+ * 
+ * <p>A vocabulary can be used by concurrent threads.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class Vocabulary {
+	/** Number of tokens after which the shared vocabulary is replaced. */
+	private static final int MAX_SIZE = 1 << 20;
+	/** Number of bits of the index of a token within its block. */
+	private static final int BLOCK_BITS = 12;
+	/** Number of tokens per block. */
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	
+	/** Flag of a token that is not a function word. */
+	private static final byte CONTENT_WORD = 1;
+	/** Flag of a token that is a function word. */
+	private static final byte FUNCTION_WORD = 2;
+	
+	/** The shared vocabulary. */
+	private static volatile Vocabulary shared = new Vocabulary();
+	
+	/** IDs of the surface forms. */
+	private final ConcurrentHashMap<String, Integer> ids =
+		new ConcurrentHashMap<String, Integer>();
+	/** Properties of the tokens in blocks of <code>BLOCK_SIZE</code>. */
+	private volatile Block[] blocks = new Block[16];
+	/** Number of tokens. */
+	private volatile int size;
+	
+	/**
+	 * Properties of <code>BLOCK_SIZE</code> consecutive tokens. The stems and
+	 * flags are computed on demand, concurrent threads may compute them twice
+	 * but always store the same values.
+	 */
+	private static class Block {
+		/** Surface forms. */
+		final String[] forms = new String[BLOCK_SIZE];
+		/** IDs of the lower case forms. */
+		final int[] lowerCase = new int[BLOCK_SIZE];
+		/** IDs of the stems or <code>-1</code> if not computed yet. */
+		final int[] stems = new int[BLOCK_SIZE];
+		/** Function word flags or 0 if not computed yet. */
+		final byte[] flags = new byte[BLOCK_SIZE];
+	}
+	
+	/**
+	 * Returns the shared vocabulary.
+	 * 
+	 * @return shared vocabulary
+	 */
+	public static Vocabulary getInstance() {
+		Vocabulary vocab = shared;
+		if (vocab.size() < MAX_SIZE) return vocab;
+		
+		synchronized (Vocabulary.class) {
+			if (shared == vocab) shared = new Vocabulary();
+			return shared;
+		}
+	}
+	
+	/**
+	 * Replaces the shared vocabulary by an empty instance, e.g. because the
+	 * function words have been reloaded.
+	 */
+	public static synchronized void reset() {
+		shared = new Vocabulary();
+	}
+	
+	/**
+	 * Gets the ID of a surface form, adding it to the vocabulary if necessary.
+	 * 
+	 * @param form surface form of a token
+	 * @return ID of the token
+	 */
+	public int getId(String form) {
+		Integer id = ids.get(form);
+		
+		return (id != null) ? id : add(form);
+	}
+	
+	/**
+	 * Gets the IDs of the surface forms of tokens.
+	 * 
+	 * @param forms surface forms
+	 * @return IDs of the tokens
+	 */
+	public int[] getIds(String[] forms) {
+		int[] ids = new int[forms.length];
+		for (int i = 0; i < forms.length; i++) ids[i] = getId(forms[i]);
+		
+		return ids;
+	}
+	
+	/**
+	 * Adds a surface form to the vocabulary.
+	 * 
+	 * @param form surface form of a token
+	 * @return ID of the token
+	 */
+	private int add(String form) {
+		String lower = form.toLowerCase();
+		int lowerId = lower.equals(form) ? -1 : getId(lower);
+		
+		synchronized (this) {
+			Integer id = ids.get(form);
+			if (id != null) return id;  // added by a concurrent thread
+			
+			int newId = size;
+			int b = newId >> BLOCK_BITS;
+			if (b == blocks.length) blocks = Arrays.copyOf(blocks, 2 * b);
+			if (blocks[b] == null) {
+				Block block = new Block();
+				Arrays.fill(block.stems, -1);
+				blocks[b] = block;
+			}
+			
+			Block block = blocks[b];
+			int i = newId & (BLOCK_SIZE - 1);
+			block.forms[i] = form;
+			block.lowerCase[i] = (lowerId == -1) ? newId : lowerId;
+			size = newId + 1;
+			ids.put(form, newId);  // publishes the properties
+			return newId;
+		}
+	}
+	
+	/**
+	 * Gets the block of a token.
+	 * 
+	 * @param id token ID
+	 * @return block containing the token
+	 */
+	private Block getBlock(int id) {
+		if (id < 0 || id >= size)
+			throw new IllegalArgumentException("Unknown token ID: " + id);
+		
+		return blocks[id >> BLOCK_BITS];
+	}
+	
+	/**
+	 * Returns the surface form of a token.
+	 * 
+	 * @param id token ID
+	 * @return surface form
+	 */
+	public String getForm(int id) {
+		return getBlock(id).forms[id & (BLOCK_SIZE - 1)];
+	}
+	
+	/**
+	 * Returns the ID of the lower case form of a token.
+	 * 
+	 * @param id token ID
+	 * @return ID of the lower case form
+	 */
+	public int getLowerCase(int id) {
+		return getBlock(id).lowerCase[id & (BLOCK_SIZE - 1)];
+	}
+	
+	/**
+	 * Returns the ID of the stem of the lower case form of a token.
+	 * 
+	 * @param id token ID
+	 * @return ID of the stem
+	 */
+	public int getStem(int id) {
+		Block block = getBlock(id);
+		int i = id & (BLOCK_SIZE - 1);
+		int stem = block.stems[i];
+		if (stem == -1 || stem >= size) {  // not computed or not visible yet
+			String lower = getForm(block.lowerCase[i]);
+			stem = getId(SnowballStemmer.stem(lower));
+			block.stems[i] = stem;
+		}
+		
+		return stem;
+	}
+	
+	/**
+	 * Checks if a token is a function word.
+	 * 
+	 * @param id token ID
+	 * @return <code>true</code> iff the token is a function word
+	 */
+	public boolean isFunctionWord(int id) {
+		Block block = getBlock(id);
+		int i = id & (BLOCK_SIZE - 1);
+		byte flag = block.flags[i];
+		if (flag == 0) {
+			flag = FunctionWords.lookup(block.forms[i])
+				? FUNCTION_WORD : CONTENT_WORD;
+			block.flags[i] = flag;
+		}
+		
+		return flag == FUNCTION_WORD;
+	}
+	
+	/**
+	 * Returns the number of distinct surface forms in the vocabulary.
+	 * 
+	 * @return number of tokens
+	 */
+	public int size() {
+		return size;
+	}
+}
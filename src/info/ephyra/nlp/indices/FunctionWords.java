@@ -1,36 +1,69 @@
 package info.ephyra.nlp.indices;
 
-import info.ephyra.util.Dictionary;
+import info.ephyra.nlp.Vocabulary;
 import info.ephyra.util.HashDictionary;
+import info.ephyra.util.Lexicon;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 
 /**
  * <p>A dictionary of function words in English.<p>
  * 
- * <p>Internally, it uses an instance of <code>HashDictionary</code> to store
- * the words.</p>
+ * <p>Internally, it uses an instance of <code>Lexicon</code> to store the
+ * words, normalized like in a <code>HashDictionary</code>. The lexicon is
+ * written to a binary file and memory-mapped on subsequent loads.</p>
  * 
  * @author Nico Schlaefer
- * @version 2005-09-13
+ * @version 2026-10-19
  */
 public class FunctionWords {
 	/** The dictionary containing the function words. */
-	private static Dictionary dictionary;
+	private static Lexicon dictionary;
 	
 	/**
-	 * Creates the dictionary from a list of function words in a file.
+	 * Creates the dictionary from a list of function words in a file. The
+	 * shared <code>Vocabulary</code> is reset since it memorizes which tokens
+	 * are function words.
 	 * 
 	 * @param filename file containing the function words
 	 * @return true, iff the function words were loaded successfully
 	 */
 	public static boolean loadIndex(String filename) {
+		int version = HashDictionary.getNormalizerVersion();
+		if (Lexicon.isUpToDate(filename, version)) {
+			try {
+				dictionary = Lexicon.load(filename);
+				Vocabulary.reset();
+				return true;
+			} catch (IOException e) {}  // read the file instead
+		}
+		
+		ArrayList<String> words = new ArrayList<String>();
 		try {
-			dictionary = new HashDictionary(filename);
+			BufferedReader in = new BufferedReader(new FileReader(
+					new File(filename)));
+			while (in.ready()) {
+				String word = in.readLine().trim();
+				if (word.startsWith("//")) continue;  // skip comments
+				word = HashDictionary.normalize(word);
+				if (word.length() > 0) words.add(word);
+			}
+			in.close();
 		} catch (IOException e) {
 			return false;
 		}
 		
+		dictionary = Lexicon.build(words.toArray(new String[words.size()]),
+				new int[words.size()]);
+		Vocabulary.reset();
+		try {
+			dictionary.save(filename, version);
+		} catch (IOException e) {}  // the file is read again next time
+		
 		return true;
 	}
 	
@@ -41,6 +74,7 @@ public class FunctionWords {
 	 * @return true, iff it is a function word
 	 */
 	public static boolean lookup(String word) {
-		return (dictionary != null && dictionary.contains(word));
+		return (dictionary != null &&
+				dictionary.contains(HashDictionary.normalize(word)));
 	}
 }
@@ -1,10 +1,13 @@
 package info.ephyra.nlp.indices;
 
+import info.ephyra.util.Lexicon;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * <p>A dictionary of irregular verbs in English. For each verb, the infinitive,
@@ -13,31 +16,63 @@ import java.util.ArrayList;
  * <p>The dictionary is case-insensitive, so it does not matter whether a verb
  * that is looked up is in upper or lower case.</p>
  * 
+ * <p>The verb forms are indexed in a <code>Lexicon</code>, which maps each
+ * form in lower case to the first verb that has this form and to the first of
+ * the forms <code>INF</code>, <code>SP</code> and <code>PP</code> in which it
+ * occurs.</p>
+ * 
  * @author Nico Schlaefer
- * @version 2005-09-26
+ * @version 2026-10-19
  */
 public class IrregularVerbs {
+	/** Names of the forms in the values of the index. */
+	private static final String[] FORMS = {"INF", "SP", "PP"};
+	
 	/** The infinitive forms of the irregular verbs.*/
 	private static ArrayList<String> inf = new ArrayList<String>();
 	/** The simple past forms of the irregular verbs.*/
 	private static ArrayList<String> sp = new ArrayList<String>();
 	/** The past participle forms of the irregular verbs.*/
 	private static ArrayList<String> pp = new ArrayList<String>();
+	/**
+	 * Maps the forms in lower case to <code>4 * index + form</code>, where
+	 * index is the first verb with that form and form is the position of the
+	 * first matching form in <code>FORMS</code>.
+	 */
+	private static Lexicon index = Lexicon.build(new String[0], new int[0]);
 	
 	/**
-	 * Determines whether a word is in a list of words separated by "/". Does
-	 * not distinguish between lower and upper case.
-	 * 
-	 * @param word word to test
-	 * @param words words separated by "/"
-	 * @return true, iff the word is in the list
+	 * Indexes the forms of the irregular verbs.
 	 */
-	private static boolean matches(String word, String words) {
-		String[] list = words.split("/");
+	private static void createIndex() {
+		ArrayList<String> forms = new ArrayList<String>();
+		ArrayList<Integer> values = new ArrayList<Integer>();
+		for (int f = 0; f < FORMS.length; f++) {
+			ArrayList<String> list = (f == 0) ? inf : (f == 1) ? sp : pp;
+			for (int i = 0; i < list.size(); i++)
+				for (String elem : list.get(i).split("/")) {
+					forms.add(elem.toLowerCase());
+					values.add(4 * i + f);
+				}
+		}
+		
+		// keep the first verb and the first form of each entry
+		HashMap<String, Integer> best = new HashMap<String, Integer>();
+		for (int i = 0; i < forms.size(); i++) {
+			Integer value = best.get(forms.get(i));
+			int v = values.get(i);
+			if (value == null) {
+				best.put(forms.get(i), v);
+			} else {
+				int verb = Math.min(value / 4, v / 4);
+				int form = Math.min(value % 4, v % 4);
+				best.put(forms.get(i), 4 * verb + form);
+			}
+		}
+		int[] vs = new int[forms.size()];
+		for (int i = 0; i < vs.length; i++) vs[i] = best.get(forms.get(i));
 		
-		for (String elem : list)
-			if (elem.toLowerCase().equals(word.toLowerCase())) return true;
-		return false;
+		index = Lexicon.build(forms.toArray(new String[forms.size()]), vs);
 	}
 	
 	/**
@@ -48,13 +83,9 @@ public class IrregularVerbs {
 	 * @return index or <code>-1</code>
 	 */
 	private static int getIndex(String verb) {
-		for (int i = 0; i < inf.size(); i++)
-			if (matches(verb, inf.get(i)) ||
-				matches(verb, sp.get(i)) ||
-				matches(verb, pp.get(i)))
-				return i;
+		int value = index.get(verb.toLowerCase(), -1);
 		
-		return -1;
+		return (value == -1) ? -1 : value / 4;
 	}
 	
 	/**
@@ -95,6 +126,8 @@ public class IrregularVerbs {
 			in.close();
 		} catch (IOException e) {
 			return false;
+		} finally {
+			createIndex();
 		}
 		
 		return true;
@@ -111,11 +144,9 @@ public class IrregularVerbs {
 	 * 		   <code>null</code>
 	 */
 	public static String lookup(String verb) {
-		for (String elem : inf) if (matches(verb, elem)) return "INF";
-		for (String elem : sp) if (matches(verb, elem)) return "SP";
-		for (String elem : pp) if (matches(verb, elem)) return "PP";
+		int value = index.get(verb.toLowerCase(), -1);
 		
-		return null;
+		return (value == -1) ? null : FORMS[value % 4];
 	}
 	
 	/**
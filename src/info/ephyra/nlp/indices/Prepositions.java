@@ -1,22 +1,27 @@
 package info.ephyra.nlp.indices;
 
-import info.ephyra.util.Dictionary;
 import info.ephyra.util.HashDictionary;
+import info.ephyra.util.Lexicon;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 
 /**
  * <p>A dictionary of prepositions in English.<p>
  * 
- * <p>Internally, it uses an instance of <code>HashDictionary</code> to store
- * the words.</p>
+ * <p>Internally, it uses an instance of <code>Lexicon</code> to store the
+ * words, normalized like in a <code>HashDictionary</code>. The lexicon is
+ * written to a binary file and memory-mapped on subsequent loads.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-04-14
+ * @version 2026-10-19
  */
 public class Prepositions {
 	/** The dictionary containing the prepositions. */
-	private static Dictionary dictionary;
+	private static Lexicon dictionary;
 	
 	/**
 	 * Creates the dictionary from a list of prepositions in a file.
@@ -25,12 +30,35 @@ public class Prepositions {
 	 * @return true, iff the prepositions were loaded successfully
 	 */
 	public static boolean loadIndex(String filename) {
+		int version = HashDictionary.getNormalizerVersion();
+		if (Lexicon.isUpToDate(filename, version)) {
+			try {
+				dictionary = Lexicon.load(filename);
+				return true;
+			} catch (IOException e) {}  // read the file instead
+		}
+		
+		ArrayList<String> words = new ArrayList<String>();
 		try {
-			dictionary = new HashDictionary(filename);
+			BufferedReader in = new BufferedReader(new FileReader(
+					new File(filename)));
+			while (in.ready()) {
+				String word = in.readLine().trim();
+				if (word.startsWith("//")) continue;  // skip comments
+				word = HashDictionary.normalize(word);
+				if (word.length() > 0) words.add(word);
+			}
+			in.close();
 		} catch (IOException e) {
 			return false;
 		}
 		
+		dictionary = Lexicon.build(words.toArray(new String[words.size()]),
+				new int[words.size()]);
+		try {
+			dictionary.save(filename, version);
+		} catch (IOException e) {}  // the file is read again next time
+		
 		return true;
 	}
 	
@@ -41,6 +69,7 @@ public class Prepositions {
 	 * @return true, iff it is a preposition
 	 */
 	public static boolean lookup(String word) {
-		return (dictionary != null && dictionary.contains(word));
+		return (dictionary != null &&
+				dictionary.contains(HashDictionary.normalize(word)));
 	}
 }
@@ -3,6 +3,7 @@ package info.ephyra.nlp.indices;
 import info.ephyra.io.MsgPrinter;
 import info.ephyra.nlp.NETagger;
 import info.ephyra.util.FileUtils;
+import info.ephyra.util.Lexicon;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -19,10 +20,12 @@ import java.util.Hashtable;
  * them in a dictionary.</p>
  * 
  * <p>Internally, a hash table is used to store the index, which allows access
- * to the index in constant time.</p>
+ * to the index in constant time. An index that is loaded from a file is
+ * stored in an immutable <code>Lexicon</code> instead, which is written to a
+ * binary file and memory-mapped on subsequent loads.</p>
  * 
  * @author Nico Schlaefer
- * @version 2008-01-23
+ * @version 2026-10-19
  */
 public class WordFrequencies {
 	/** Maximum number of words to be parsed (0 = no limit). */
@@ -33,6 +36,11 @@ public class WordFrequencies {
 	private static final int MIN_FREQUENCY = 2;
 	/** Whether words are saved in the order of their frequencies. */
 	private static final boolean SORT_BY_FREQUENCY = true;
+	/**
+	 * Version of the binary file of the <code>Lexicon</code>, to be
+	 * incremented when the words are stored differently.
+	 */
+	private static final int LEXICON_VERSION = 1;
 	
 	/** Total number of words that have been parsed. */
 	private static int total;
@@ -40,6 +48,8 @@ public class WordFrequencies {
 	private static int distinct;
 	/** <code>Hashtable</code> used to store (word, frequency) pairs. */
 	private static Hashtable<String, Integer> index;
+	/** <code>Lexicon</code> used to store a loaded index. */
+	private static Lexicon lexicon;
 	
 	/**
 	 * Creates an index of word frequencies from an arbitrary text file.
@@ -51,10 +61,24 @@ public class WordFrequencies {
 		total = 0;
 		distinct = 0;
 		index = new Hashtable<String, Integer>(10000);  // initial size 10,000
+		lexicon = null;
 		
 		return updateIndexFromFile(filename);
 	}
 
+	/**
+	 * Copies a loaded index from the <code>Lexicon</code> into a hash table, so
+	 * that it can be modified.
+	 */
+	private static void unpackLexicon() {
+		if (lexicon == null) return;
+		
+		index = new Hashtable<String, Integer>(2 * lexicon.size());
+		for (int e = 0; e < lexicon.size(); e++)
+			index.put(lexicon.getWord(e), lexicon.getValue(e));
+		lexicon = null;
+	}
+	
 	/**
 	 * Updates the index with the words in an arbitrary text file.
 	 * 
@@ -63,6 +87,7 @@ public class WordFrequencies {
 	 */
 	public static boolean updateIndexFromFile(String filename) {
 		MsgPrinter.printStatusMsg(filename);
+		unpackLexicon();
 		
 		File file = new File(filename);
 		try {
@@ -114,6 +139,7 @@ public class WordFrequencies {
 		total = 0;
 		distinct = 0;
 		index = new Hashtable<String, Integer>(10000);  // initial size 10,000
+		lexicon = null;
 		
 		return updateIndexFromDir(dirname);
 	}
@@ -143,6 +169,7 @@ public class WordFrequencies {
 	 * Drops rare words from the index.
 	 */
 	public static void dropRareWords() {
+		unpackLexicon();
 		Hashtable<String, Integer> newIndex = new Hashtable<String, Integer>();
 		
 		for (String word : index.keySet()) {
@@ -161,6 +188,8 @@ public class WordFrequencies {
 	 * @return words sorted by their frequencies
 	 */
 	public static String[] getSortedWords() {
+		unpackLexicon();
+		
 		String[] sorted = index.keySet().toArray(new String[index.size()]);
 		
 		Arrays.sort(sorted, new Comparator<String>() {
@@ -179,6 +208,7 @@ public class WordFrequencies {
 	 * @return true, iff the index was saved successfully
 	 */
 	public static boolean saveIndex(String filename) {
+		unpackLexicon();
 		if (index == null) return false;  // no index loaded
 		
 		File file = new File(filename);
@@ -214,12 +244,27 @@ public class WordFrequencies {
 	}
 	
 	/**
-	 * Loads an index of word frequencies from an input file.
+	 * Loads an index of word frequencies from an input file. The index is
+	 * read from the binary file of its <code>Lexicon</code> if that file is up
+	 * to date, otherwise the binary file is created.
 	 * 
 	 * @param filename name of the input file containing the index
 	 * @return true, iff the index was loaded successfully
 	 */
 	public static boolean loadIndex(String filename) {
+		if (Lexicon.isUpToDate(filename, LEXICON_VERSION)) {
+			try {
+				Lexicon loaded = Lexicon.load(filename);
+				int[] info = loaded.getInfo();
+				total = info[0];
+				distinct = info[1];
+				lexicon = loaded;
+				index = null;
+				
+				return true;
+			} catch (IOException e) {}  // read the input file instead
+		}
+		
 		File file = new File(filename);
 		
 		try {
@@ -230,25 +275,27 @@ public class WordFrequencies {
 			// read number of distinct words
 			distinct = Integer.parseInt(in.readLine());
 			
-			// create hash table that will have load factor of 0.5
-			index = new Hashtable<String, Integer>(2 * distinct);
-			
-			String word;
-			int frequency;
+			String[] words = new String[distinct];
+			int[] frequencies = new int[distinct];
 			
 			// read (word, frequency) pairs
 			for (int i = 0; i < distinct; i++) {
-				word = in.readLine();
-				frequency = Integer.parseInt(in.readLine());
-				
-				index.put(word, new Integer(frequency));
+				words[i] = in.readLine();
+				frequencies[i] = Integer.parseInt(in.readLine());
 			}
 			
 			in.close();
+			
+			lexicon = Lexicon.build(words, frequencies, total, distinct);
+			index = null;
 		} catch (IOException e) {
 			return false;
 		}
 		
+		try {
+			lexicon.save(filename, LEXICON_VERSION);
+		} catch (IOException e) {}  // the input file is read again next time
+		
 		return true;
 	}
 	
@@ -278,11 +325,12 @@ public class WordFrequencies {
 	 * @return frequency of the word
 	 */
 	public static int lookup(String word) {
-		if (index == null) return 0;  // no index loaded
+		if (index == null && lexicon == null) return 0;  // no index loaded
 		
 		// convert to lower case;
 		if (LOWER_CASE) word = word.toLowerCase();
 		
+		if (lexicon != null) return lexicon.get(word, 0);
 		if (index.containsKey(word))
 			return (index.get(word)).intValue();
 		else
@@ -14,20 +14,40 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * A Wrapper for the ASSERT semantic role labeler.
+ * <p>A Wrapper for the ASSERT semantic role labeler.</p>
+ * 
+ * <p>By default, an ASSERT process is started for each call. Alternatively,
+ * a pool of persistent annotators can be started with
+ * <code>startServers()</code> or by setting the environment variable
+ * <code>ASSERT_SERVER</code> to the command that starts an annotator and
+ * optionally <code>ASSERT_SERVERS</code> to the number of annotators. See
+ * <code>ASSERTServer</code> for the protocol.</p>
  * 
  * @author Andy Schlaikjer, Nico Schlaefer
- * @version 2007-04-25
+ * @version 2026-10-19
  */
 public class ASSERT {
 	/** Directory of ASSERT. */
 	private static final String ASSERT_DIR = System.getenv("ASSERT");
 	/** Run ASSERT in client mode. */
 	private static final boolean ASSERT_CLIENT_MODE = false;
+	/** Command that starts a persistent annotator (optional). */
+	private static final String ASSERT_SERVER = System.getenv("ASSERT_SERVER");
+	/** Number of persistent annotators (optional). */
+	private static final String ASSERT_SERVERS = System.getenv("ASSERT_SERVERS");
+	
+	/** Pool of persistent annotators or <code>null</code> if not used. */
+	private static BlockingQueue<ASSERTServer> servers;
+	/** Set if the annotators from the environment have been started. */
+	private static boolean serversFromEnv;
+	/** Set if a shutdown hook terminates the annotators. */
+	private static boolean shutdownHook;
 	
 	/** Enable caching of parses. */
 	private static final boolean CACHING = true;
@@ -246,6 +266,77 @@ public class ASSERT {
 		}
 	}
 	
+	/**
+	 * Starts a pool of persistent annotators that are used instead of
+	 * starting a new ASSERT process for each call. Annotators that were
+	 * started before are terminated.
+	 * 
+	 * @param command command that starts an annotator
+	 * @param n number of annotators
+	 * @return true, iff the annotators were started successfully
+	 */
+	public static synchronized boolean startServers(String[] command, int n) {
+		stopServers();
+		
+		BlockingQueue<ASSERTServer> pool =
+			new ArrayBlockingQueue<ASSERTServer>(n);
+		for (int i = 0; i < n; i++) {
+			ASSERTServer server = new ASSERTServer(command);
+			pool.add(server);
+			try {
+				server.start();
+			} catch (IOException e) {
+				MsgPrinter.printErrorMsg(e.getMessage());
+				for (ASSERTServer started : pool) started.stop();
+				return false;
+			}
+		}
+		
+		// terminate the annotators when the VM exits
+		if (!shutdownHook) {
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					stopServers();
+				}
+			});
+			shutdownHook = true;
+		}
+		
+		servers = pool;
+		return true;
+	}
+	
+	/**
+	 * Terminates the persistent annotators.
+	 */
+	public static synchronized void stopServers() {
+		if (servers == null) return;
+		
+		for (ASSERTServer server : servers) server.stop();
+		servers = null;
+	}
+	
+	/**
+	 * Gets the pool of persistent annotators. On the first call, the
+	 * annotators specified by the environment variables are started.
+	 * 
+	 * @return pool of annotators or <code>null</code> if not used
+	 */
+	private static synchronized BlockingQueue<ASSERTServer> getServers() {
+		if (!serversFromEnv && servers == null && ASSERT_SERVER != null &&
+				ASSERT_SERVER.length() > 0) {
+			int n = 1;
+			if (ASSERT_SERVERS != null && ASSERT_SERVERS.matches("\\d++"))
+				n = Math.max(Integer.parseInt(ASSERT_SERVERS), 1);
+			
+			MsgPrinter.printStatusMsg("Starting " + n + " ASSERT server(s)...");
+			startServers(ASSERT_SERVER.trim().split("\\s++"), n);
+			serversFromEnv = true;
+		}
+		
+		return servers;
+	}
+	
 	/**
 	 * Annotates the predicates in an array of sentences.
 	 * 
@@ -286,7 +377,25 @@ public class ASSERT {
 		
 		// get missing parses from ASSERT
 		String[][] parses = new String[ss.length][];
-		if (ss.length > 0 && ASSERT_DIR != null && ASSERT_DIR.length() > 0) {
+		BlockingQueue<ASSERTServer> servers = getServers();
+		if (ss.length > 0 && servers != null) {
+			// use a persistent annotator, wait if all annotators are busy
+			ASSERTServer server = null;
+			try {
+				MsgPrinter.printStatusMsgTimestamp("Parsing " + ss.length + " sentences with ASSERT server...");
+				
+				server = servers.take();
+				parses = server.annotate(ss);  // restarts the annotator if it fails
+				
+				MsgPrinter.printStatusMsgTimestamp("...done");
+			} catch (InterruptedException e) {
+				// leave the sentences unparsed
+				MsgPrinter.printErrorMsg("\nInterrupted while waiting for ASSERT server");
+				Thread.currentThread().interrupt();
+			} finally {
+				if (server != null) servers.offer(server);
+			}
+		} else if (ss.length > 0 && ASSERT_DIR != null && ASSERT_DIR.length() > 0) {
 			try {
 				MsgPrinter.printStatusMsgTimestamp("Parsing " + ss.length + " sentences with ASSERT...");
 				
@@ -0,0 +1,274 @@
+package info.ephyra.nlp.semantics;
+
+import info.ephyra.io.MsgPrinter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>A long-lived semantic role labeling process. The process is started once
+ * and receives batches of sentences over its standard input, so that the
+ * models of the annotator are not loaded again for each question.</p>
+ * 
+ * <p>The annotator communicates through the following line-based protocol,
+ * using the ISO-8859-1 encoding:
+ * <ul>
+ * <li><code>PING</code> is answered with <code>PONG</code>.</li>
+ * <li><code>BATCH n</code> is followed by <code>n</code> sentences, one per
+ * line. For the i-th sentence of the batch, starting from 0, the annotator
+ * writes a line <code>i: annotation</code> for each predicate, in the output
+ * format of ASSERT, followed by <code>DONE i</code>. The batch is completed
+ * with <code>END</code>.</li>
+ * <li><code>QUIT</code> terminates the annotator.</li>
+ * </ul>
+ * Other lines on the standard output are ignored, the standard error stream is
+ * discarded.</p>
+ * 
+ * <p>The sentences of a batch are written by a separate thread while the
+ * annotations are read, so an annotator that writes its output before it has
+ * read the whole batch cannot block on a full pipe. If the annotator dies or
+ * does not finish a sentence in time, it is restarted and the sentence is
+ * skipped. The class <code>MockAnnotator</code> implements the protocol for
+ * tests.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class ASSERTServer {
+	/** Maximum time in ms to wait for the answer to a health check. */
+	private static final long PING_TIMEOUT = 30000;
+	/** Maximum time in ms to wait for the annotations of a sentence. */
+	private static final long SENTENCE_TIMEOUT = 60000;
+	
+	/** Pattern for annotations in the output of the annotator. */
+	private static final Pattern PARSE_P = Pattern.compile("(\\d++): (.*+)");
+	/** Pattern for the end of a sentence in the output of the annotator. */
+	private static final Pattern DONE_P = Pattern.compile("DONE (\\d++)");
+	
+	/** Kills annotators that do not respond in time. */
+	private static final Timer watchdog = new Timer(true);
+	
+	/** Command that starts the annotator. */
+	private String[] command;
+	/** The annotator process or <code>null</code> if it is not running. */
+	private Process process;
+	/** Writes to the standard input of the annotator. */
+	private PrintWriter toProcess;
+	/** Reads from the standard output of the annotator. */
+	private BufferedReader fromProcess;
+	
+	/**
+	 * Creates a server for an annotator. The annotator is started when it is
+	 * first used.
+	 * 
+	 * @param command command that starts the annotator
+	 */
+	public ASSERTServer(String[] command) {
+		this.command = command;
+	}
+	
+	/**
+	 * Starts the annotator and checks that it responds.
+	 * 
+	 * @throws IOException if the annotator could not be started
+	 */
+	public synchronized void start() throws IOException {
+		stop();
+		
+		final Process process = new ProcessBuilder(command).start();
+		toProcess = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+				process.getOutputStream(), "ISO-8859-1")));
+		fromProcess = new BufferedReader(new InputStreamReader(
+				process.getInputStream(), "ISO-8859-1"));
+		this.process = process;
+		
+		// discard the error stream so that the annotator does not block
+		Thread drain = new Thread() {
+			public void run() {
+				InputStream err = process.getErrorStream();
+				byte[] buffer = new byte[4096];
+				try {
+					while (err.read(buffer) != -1);
+				} catch (IOException e) {}
+			}
+		};
+		drain.setDaemon(true);
+		drain.start();
+		
+		if (!ping()) {
+			stop();
+			throw new IOException("Annotator does not respond: " +
+					command[0]);
+		}
+	}
+	
+	/**
+	 * Terminates the annotator.
+	 */
+	public synchronized void stop() {
+		if (process == null) return;
+		
+		toProcess.println("QUIT");
+		toProcess.close();
+		process.destroy();
+		process = null;
+	}
+	
+	/**
+	 * Checks if the annotator is running and responds to requests.
+	 * 
+	 * @return <code>true</code> iff the annotator responds
+	 */
+	public synchronized boolean ping() {
+		if (process == null) return false;
+		
+		toProcess.println("PING");
+		toProcess.flush();
+		if (toProcess.checkError()) return false;
+		
+		TimerTask kill = killAfter(PING_TIMEOUT);
+		try {
+			String line;
+			while ((line = fromProcess.readLine()) != null)
+				if (line.equals("PONG")) return true;
+		} catch (IOException e) {
+		} finally {
+			kill.cancel();
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Schedules the termination of the annotator.
+	 * 
+	 * @param delay delay in ms
+	 * @return the scheduled task, which must be cancelled if the annotator
+	 * 		   responds in time
+	 */
+	private TimerTask killAfter(long delay) {
+		final Process process = this.process;
+		TimerTask kill = new TimerTask() {
+			public void run() {
+				process.destroy();
+			}
+		};
+		watchdog.schedule(kill, delay);
+		
+		return kill;
+	}
+	
+	/**
+	 * Annotates the predicates in an array of sentences. Sentences the
+	 * annotator fails on are left <code>null</code>, all others are annotated
+	 * with arrays of predicate annotations. If the annotator cannot be
+	 * restarted, the remaining sentences are left <code>null</code> as well.
+	 * 
+	 * @param ss sentences without line breaks
+	 * @return annotated sentences
+	 */
+	public synchronized String[][] annotate(String[] ss) {
+		String[][] parses = new String[ss.length][];
+		
+		int beginIndex = 0;
+		while (beginIndex < ss.length) {
+			// restart the annotator if it died
+			if (!ping()) {
+				try {
+					start();
+				} catch (IOException e) {
+					MsgPrinter.printErrorMsg(e.getMessage());
+					break;
+				}
+			}
+			
+			int failedIndex = annotate(ss, beginIndex, parses);
+			if (failedIndex < ss.length) {
+				// skip the sentence the annotator failed on
+				MsgPrinter.printErrorMsg("ASSERT could not parse sentence:\n" +
+						ss[failedIndex]);
+				stop();
+			}
+			beginIndex = failedIndex + 1;
+		}
+		
+		return parses;
+	}
+	
+	/**
+	 * Sends the sentences starting from the given index to the annotator as
+	 * one batch and reads the annotations. The watchdog is armed before the
+	 * batch is written, and the batch is written by a separate thread.
+	 * 
+	 * @param ss sentences without line breaks
+	 * @param beginIndex index of the first sentence in the batch
+	 * @param parses array for the annotated sentences
+	 * @return <code>ss.length</code> if all sentences were annotated or the
+	 * 		   index of the sentence the annotator failed on
+	 */
+	private int annotate(final String[] ss, final int beginIndex,
+			String[][] parses) {
+		TimerTask kill = killAfter(SENTENCE_TIMEOUT);
+		Thread writer = new Thread() {
+			public void run() {
+				toProcess.println("BATCH " + (ss.length - beginIndex));
+				for (int i = beginIndex; i < ss.length; i++)
+					toProcess.println(ss[i]);
+				toProcess.flush();
+			}
+		};
+		writer.setDaemon(true);
+		writer.start();
+		
+		int nextIndex = beginIndex;  // first sentence that is not done
+		ArrayList<String> as = new ArrayList<String>();
+		try {
+			String line;
+			while ((line = fromProcess.readLine()) != null) {
+				if (line.equals("END")) break;
+				
+				Matcher doneM = DONE_P.matcher(line);
+				if (doneM.matches()) {
+					int sid = beginIndex + Integer.parseInt(doneM.group(1));
+					if (sid < ss.length)
+						parses[sid] = as.toArray(new String[as.size()]);
+					as.clear();
+					nextIndex = sid + 1;
+					
+					// the timeout applies to each sentence
+					kill.cancel();
+					kill = killAfter(SENTENCE_TIMEOUT);
+					continue;
+				}
+				
+				Matcher parseM = PARSE_P.matcher(line);
+				if (parseM.matches()) as.add(parseM.group(2).trim());
+			}
+		} catch (IOException e) {
+		} finally {
+			kill.cancel();
+		}
+		
+		// the writer is done unless the annotator stopped reading the batch
+		try {
+			writer.join(PING_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (writer.isAlive()) {
+			process.destroy();  // unblocks the writer
+			stop();
+		}
+		
+		return Math.min(nextIndex, ss.length);
+	}
+}
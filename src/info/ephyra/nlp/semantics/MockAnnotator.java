@@ -0,0 +1,106 @@
+package info.ephyra.nlp.semantics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * <p>A mock semantic role labeler that implements the protocol of
+ * <code>ASSERTServer</code>. It can be used to test the communication with
+ * the annotator without an installation of ASSERT, e.g.:</p>
+ * 
+ * <p><code>ASSERT.startServers(new String[] {"java", "-cp", "bin",
+ * "info.ephyra.nlp.semantics.MockAnnotator"}, 2);</code></p>
+ * 
+ * <p>Each token that ends with "ed" is annotated as a verb, the tokens before
+ * it as its ARG0 and the tokens after it as its ARG1. A sentence that contains
+ * the token <code>#crash#</code> terminates the annotator, a sentence that
+ * contains the token <code>#hang#</code> blocks it. Each sentence is annotated
+ * as soon as it is read, before the rest of the batch.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class MockAnnotator {
+	/**
+	 * Annotates a sentence.
+	 * 
+	 * @param sentence the sentence
+	 * @return one annotation per verb
+	 */
+	private static String[] annotate(String sentence) {
+		String[] tokens = sentence.trim().split("\\s++");
+		
+		int verbs = 0;
+		String[] annotations = new String[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			if (!tokens[i].matches("\\w{2,}ed")) continue;
+			
+			String annotation = "";
+			if (i > 0) annotation += "[ARG0 " + join(tokens, 0, i) + "] ";
+			annotation += "[TARGET " + tokens[i] + " ]";
+			if (i < tokens.length - 1)
+				annotation += " [ARG1 " + join(tokens, i + 1, tokens.length) +
+					"]";
+			annotations[verbs++] = annotation;
+		}
+		
+		String[] result = new String[verbs];
+		System.arraycopy(annotations, 0, result, 0, verbs);
+		return result;
+	}
+	
+	/**
+	 * Concatenates a range of tokens with spaces.
+	 * 
+	 * @param tokens the tokens
+	 * @param from first token
+	 * @param to end of the range (exclusive)
+	 * @return concatenated tokens
+	 */
+	private static String join(String[] tokens, int from, int to) {
+		String s = tokens[from];
+		for (int i = from + 1; i < to; i++) s += " " + tokens[i];
+		return s;
+	}
+	
+	/**
+	 * Entry point of the annotator. Reads requests from the standard input and
+	 * writes the responses to the standard output.
+	 * 
+	 * @param args not used
+	 */
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		BufferedReader in = new BufferedReader(
+				new InputStreamReader(System.in, "ISO-8859-1"));
+		PrintWriter out = new PrintWriter(
+				new OutputStreamWriter(System.out, "ISO-8859-1"));
+		
+		String line;
+		while ((line = in.readLine()) != null) {
+			if (line.equals("QUIT")) break;
+			
+			if (line.equals("PING")) {
+				out.println("PONG");
+			} else if (line.startsWith("BATCH ")) {
+				int n = Integer.parseInt(line.substring(6).trim());
+				for (int i = 0; i < n; i++) {
+					String sentence = in.readLine();
+					if (sentence == null) return;
+					if (sentence.contains("#crash#")) System.exit(1);
+					if (sentence.contains("#hang#"))
+						Thread.sleep(Long.MAX_VALUE);
+					
+					for (String annotation : annotate(sentence))
+						out.println(i + ": " + annotation);
+					out.println("DONE " + i);
+					out.flush();
+				}
+				out.println("END");
+			}
+			out.flush();
+		}
+	}
+}
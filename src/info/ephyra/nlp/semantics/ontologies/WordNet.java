@@ -1,9 +1,11 @@
 package info.ephyra.nlp.semantics.ontologies;
 
 import info.ephyra.questionanalysis.TermExpander;
+import info.ephyra.util.MemoCache;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -13,7 +15,6 @@ import java.util.Map;
 import net.didion.jwnl.JWNL;
 import net.didion.jwnl.JWNLException;
 import net.didion.jwnl.data.IndexWord;
-import net.didion.jwnl.data.IndexWordSet;
 import net.didion.jwnl.data.POS;
 import net.didion.jwnl.data.PointerUtils;
 import net.didion.jwnl.data.Synset;
@@ -27,8 +28,16 @@ import net.didion.jwnl.data.list.PointerTargetNodeList;
  * 
  * <p>This class implements the interface <code>Ontology</code>.</p>
  * 
+ * <p>Lookups of lemmas, related words and expansions are memorized in bounded
+ * caches. Optionally, a <code>WordNetGraph</code> is loaded and used instead
+ * of the JWNL dictionary for words that are in the index. The results are the
+ * same in either case.</p>
+ * 
+ * <p>The JWNL dictionary is not thread-safe, lookups in the dictionary and
+ * walks along its pointers are synchronized on the dictionary.</p>
+ * 
  * @author Nico Schlaefer
- * @version 2007-05-30
+ * @version 2026-10-19
  */
 public class WordNet implements Ontology {
 	/** Indicates that a word is an adjective. */
@@ -81,8 +90,27 @@ public class WordNet implements Ontology {
 //	/** Weight for the relation 'pertainym'. */
 //	private static final double PERTAINYM_WEIGHT = 0.5;
 	
+	/** Indicates the relation 'synonym' in lookups of related words. */
+	private static final int SYNONYMS = -1;
+	
 	/** WordNet dictionary. */
 	private static net.didion.jwnl.dictionary.Dictionary dict;
+	/** Compact copy of the dictionary or <code>null</code> if not loaded. */
+	private static WordNetGraph graph;
+	
+	/** Cached result of a lookup of a lemma that failed. */
+	private static final String NO_LEMMA = new String();
+	/** Cached result of a lookup of related words that failed. */
+	private static final String[] NO_WORDS = new String[0];
+	/** Lemmas of index words, looked up with the morphological processor. */
+	private static final MemoCache<String, String> lemmaCache =
+		new MemoCache<String, String>(50000);
+	/** Related words of words in their most common senses. */
+	private static final MemoCache<String, String[]> relatedCache =
+		new MemoCache<String, String[]>(50000);
+	/** Expansions of events, entities and modifiers. */
+	private static final MemoCache<String, Hashtable<String, Double>>
+		expansionCache = new MemoCache<String, Hashtable<String, Double>>(10000);
 	
 	/**
 	 * Initializes the wrapper for the WordNet dictionary.
@@ -97,11 +125,77 @@ public class WordNet implements Ontology {
 			dict = net.didion.jwnl.dictionary.Dictionary.getInstance();
 		} catch (Exception e) {
 			return false;
+		} finally {
+			// the cached lookups and the graph are for the previous dictionary
+			graph = null;
+			clearCaches();
 		}
 		
 		return true;
 	}
 	
+	/**
+	 * Loads a compact copy of the dictionary that was built with
+	 * <code>WordNetGraph</code>. Words that are in the index of the dictionary
+	 * are then looked up in the copy, other words are still looked up with the
+	 * morphological processor of the JWNL dictionary.
+	 * 
+	 * @param filename name of the graph file
+	 * @return <code>true</code>, iff the graph was loaded successfully
+	 */
+	public static boolean loadGraph(String filename) {
+		if (dict == null) return false;
+		
+		try {
+			graph = WordNetGraph.read(filename);
+		} catch (IOException e) {
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Clears the caches of lemmas, related words and expansions.
+	 */
+	public static void clearCaches() {
+		lemmaCache.clear();
+		relatedCache.clear();
+		expansionCache.clear();
+	}
+	
+	/**
+	 * Looks up the lemma of the index word for a word, applying the
+	 * morphological processor if the word itself is not in the index.
+	 * 
+	 * @param pos part of speech
+	 * @param word a word
+	 * @return lemma like <code>IndexWord.getLemma()</code> or
+	 *         <code>null</code> if lookup failed
+	 */
+	private static String lookupLemma(POS pos, String word) {
+		if (graph != null) {
+			String lemma = graph.getIndexLemma(pos, word);
+			if (lemma != null) return lemma;
+		}
+		
+		String key = pos.getKey() + " " + word;
+		String lemma = lemmaCache.get(key);
+		if (lemma == null) {
+			try {
+				synchronized (dict) {
+					IndexWord indexWord = dict.lookupIndexWord(pos, word);
+					lemma = (indexWord != null) ? indexWord.getLemma() : NO_LEMMA;
+				}
+				lemmaCache.put(key, lemma);
+			} catch (JWNLException e) {
+				return null;
+			}
+		}
+		
+		return (lemma != NO_LEMMA) ? lemma : null;
+	}
+	
 	/**
 	 * Checks if the word exists in WordNet.
 	 * 
@@ -111,12 +205,10 @@ public class WordNet implements Ontology {
 	public static boolean isWord(String word) {
 		if (dict == null) return false;
 		
-		IndexWordSet indexWordSet = null;
-		try {
-			indexWordSet = dict.lookupAllIndexWords(word);
-		} catch (JWNLException e) {}
+		for (Object pos : POS.getAllPOS())
+			if (lookupLemma((POS) pos, word) != null) return true;
 		
-		return indexWordSet.size() > 0;
+		return false;
 	}
 	
 	/**
@@ -131,16 +223,12 @@ public class WordNet implements Ontology {
 		// do not look up words with special characters other than '.'
 		if (word.matches(".*?[^\\w\\s\\.].*+")) return false;
 		
-		IndexWordSet indexWordSet = null;
-		try {
-			indexWordSet = dict.lookupAllIndexWords(word);
-		} catch (JWNLException e) {}
-		
 		// ensure that the word, and not just a substring, was found in WordNet
 		int wordTokens = word.split("\\s", -1).length;
 		int wordDots = word.split("\\.", -1).length;
-		for (IndexWord indexWord : indexWordSet.getIndexWordArray()) {
-			String lemma = indexWord.getLemma();
+		for (Object pos : POS.getAllPOS()) {
+			String lemma = lookupLemma((POS) pos, word);
+			if (lemma == null) continue;
 			int lemmaTokens = lemma.split("\\s", -1).length;
 			int lemmaDots = lemma.split("\\.", -1).length;
 			if (wordTokens == lemmaTokens && wordDots == lemmaDots) return true;
@@ -157,12 +245,7 @@ public class WordNet implements Ontology {
 	public static boolean isAdjective(String word) {
 		if (dict == null) return false;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(POS.ADJECTIVE, word);
-		} catch (JWNLException e) {}
-		
-		return (indexWord != null) ? true : false;
+		return lookupLemma(POS.ADJECTIVE, word) != null;
 	}
 	
 	/**
@@ -174,12 +257,7 @@ public class WordNet implements Ontology {
 	public static boolean isAdverb(String word) {
 		if (dict == null) return false;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(POS.ADVERB, word);
-		} catch (JWNLException e) {}
-		
-		return (indexWord != null) ? true : false;
+		return lookupLemma(POS.ADVERB, word) != null;
 	}
 	
 	/**
@@ -191,12 +269,7 @@ public class WordNet implements Ontology {
 	public static boolean isNoun(String word) {
 		if (dict == null) return false;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(POS.NOUN, word);
-		} catch (JWNLException e) {}
-		
-		return (indexWord != null) ? true : false;
+		return lookupLemma(POS.NOUN, word) != null;
 	}
 	
 	/**
@@ -211,16 +284,12 @@ public class WordNet implements Ontology {
 		// do not look up words with special characters other than '.'
 		if (word.matches(".*?[^\\w\\s\\.].*+")) return false;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(POS.NOUN, word);
-		} catch (JWNLException e) {}
-		if (indexWord == null) return false;
+		String lemma = lookupLemma(POS.NOUN, word);
+		if (lemma == null) return false;
 		
 		// ensure that the word, and not just a substring, was found in WordNet
 		int wordTokens = word.split("\\s", -1).length;
 		int wordDots = word.split("\\.", -1).length;
-		String lemma = indexWord.getLemma();
 		int lemmaTokens = lemma.split("\\s", -1).length;
 		int lemmaDots = lemma.split("\\.", -1).length;
 		return wordTokens == lemmaTokens && wordDots == lemmaDots;
@@ -235,12 +304,7 @@ public class WordNet implements Ontology {
 	public static boolean isVerb(String word) {
 		if (dict == null) return false;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(POS.VERB, word);
-		} catch (JWNLException e) {}
-		
-		return (indexWord != null) ? true : false;
+		return lookupLemma(POS.VERB, word) != null;
 	}
 	
 	/**
@@ -253,13 +317,9 @@ public class WordNet implements Ontology {
 	public static String getLemma(String word, POS pos) {
 		if (dict == null) return null;
 		
-		IndexWord indexWord = null;
-		try {
-			indexWord = dict.lookupIndexWord(pos, word);
-		} catch (JWNLException e) {}
-		if (indexWord == null) return null;
+		String lemma = lookupLemma(pos, word);
+		if (lemma == null) return null;
 		
-		String lemma = indexWord.getLemma();
 		lemma = lemma.replace("_", " ");
 		
 		return lemma;
@@ -301,9 +361,11 @@ public class WordNet implements Ontology {
 		
 		Synset synset = null;
 		try {
-			IndexWord indexWord = dict.lookupIndexWord(pos, word);
-			if (indexWord == null) return null;
-			synset = indexWord.getSense(1);
+			synchronized (dict) {
+				IndexWord indexWord = dict.lookupIndexWord(pos, word);
+				if (indexWord == null) return null;
+				synset = indexWord.getSense(1);
+			}
 		} catch (JWNLException e) {}
 		
 		return synset;
@@ -361,6 +423,114 @@ public class WordNet implements Ontology {
 		return lemmaSet.toArray(new String[lemmaSet.size()]);
 	}
 	
+	/**
+	 * Looks up the lemmas of the words in all synsets of the graph.
+	 * 
+	 * @param synsets IDs of the synsets
+	 * @return lemmas
+	 */
+	private static String[] getLemmas(int[] synsets) {
+		HashSet<String> lemmaSet = new HashSet<String>();
+		
+		for (int synset : synsets) {
+			String[] lemmas = graph.getLemmas(synset);
+			for (String lemma : lemmas) lemmaSet.add(lemma);
+		}
+		
+		return lemmaSet.toArray(new String[lemmaSet.size()]);
+	}
+	
+	/**
+	 * Looks up words that are related to the given word, assuming that it is
+	 * used in its most common sense. The results are cached.
+	 * 
+	 * @param word a word
+	 * @param pos its part of speech
+	 * @param relation <code>SYNONYMS</code> or one of the relations defined
+	 *                 in <code>WordNetGraph</code>
+	 * @return related words or <code>null</code> if lookup failed
+	 */
+	private static String[] getRelated(String word, POS pos, int relation) {
+		String key = relation + " " + pos.getKey() + " " + word;
+		String[] related = relatedCache.get(key);
+		if (related == null) {
+			related = lookupRelated(word, pos, relation);
+			if (related == null) related = NO_WORDS;
+			relatedCache.put(key, related);
+		}
+		
+		return (related != NO_WORDS) ? related.clone() : null;
+	}
+	
+	/**
+	 * Looks up words that are related to the given word in the graph or in the
+	 * JWNL dictionary.
+	 * 
+	 * @param word a word
+	 * @param pos its part of speech
+	 * @param relation <code>SYNONYMS</code> or one of the relations defined
+	 *                 in <code>WordNetGraph</code>
+	 * @return related words or <code>null</code> if lookup failed
+	 */
+	private static String[] lookupRelated(String word, POS pos, int relation) {
+		if (graph != null) {
+			if (dict == null) return null;
+			String lemma = lookupLemma(pos, word);
+			if (lemma == null) return null;
+			int synset = graph.getCommonSynset(pos, lemma);
+			if (synset == -1) return null;
+			
+			if (relation == SYNONYMS) return graph.getLemmas(synset);
+			return getLemmas(graph.getRelated(synset, relation));
+		}
+		
+		if (dict == null) return null;
+		synchronized (dict) {
+			Synset synset = getCommonSynset(word, pos);
+			if (synset == null) return null;
+			if (relation == SYNONYMS) return getLemmas(synset);
+			
+			Synset[] related = getRelatedSynsets(synset, relation);
+			if (related == null) return null;
+			
+			return getLemmas(related);
+		}
+	}
+	
+	/**
+	 * Looks up the synsets that are related to a synset.
+	 * 
+	 * @param synset a synset
+	 * @param relation one of the relations defined in <code>WordNetGraph</code>
+	 * @return related synsets or <code>null</code> if lookup failed
+	 */
+	private static Synset[] getRelatedSynsets(Synset synset, int relation) {
+		switch (relation) {
+			case WordNetGraph.HYPERNYM:
+				return getHypernymSynsets(synset);
+			case WordNetGraph.HYPONYM:
+				return getHyponymSynsets(synset);
+			case WordNetGraph.ENTAILING:
+				return getEntailingSynsets(synset);
+			case WordNetGraph.CAUSING:
+				return getCausingSynsets(synset);
+			case WordNetGraph.MEMBER_OF:
+				return getMemberOfSynsets(synset);
+			case WordNetGraph.SUBSTANCE_OF:
+				return getSubstanceOfSynsets(synset);
+			case WordNetGraph.PART_OF:
+				return getPartOfSynsets(synset);
+			case WordNetGraph.HAS_MEMBER:
+				return getHasMemberSynsets(synset);
+			case WordNetGraph.HAS_SUBSTANCE:
+				return getHasSubstanceSynsets(synset);
+			case WordNetGraph.HAS_PART:
+				return getHasPartSynsets(synset);
+			default:
+				return null;
+		}
+	}
+	
 	// relations for multiple parts of speech
 	
 	/**
@@ -372,10 +542,7 @@ public class WordNet implements Ontology {
 	 * @return synonyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getSynonyms(String word, POS pos) {
-		Synset synset = getCommonSynset(word, pos);
-		if (synset == null) return null;
-		
-		return getLemmas(synset);
+		return getRelated(word, pos, SYNONYMS);
 	}
 	
 	/**
@@ -387,20 +554,16 @@ public class WordNet implements Ontology {
 	 * @return hypernyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHypernyms(String word, POS pos) {
-		Synset synset = getCommonSynset(word, pos);
-		if (synset == null) return null;
-		
-		Synset[] hypernyms = getHypernymSynsets(synset);
-		if (hypernyms == null) return null;
-		
-		return getLemmas(hypernyms);
+		return getRelated(word, pos, WordNetGraph.HYPERNYM);
 	}
 	
 	// get 'hypernym' synsets
 	private static Synset[] getHypernymSynsets(Synset synset) {
 		PointerTargetNodeList hypernyms = null;
 		try {
-			hypernyms = PointerUtils.getInstance().getDirectHypernyms(synset);
+			synchronized (dict) {
+				hypernyms = PointerUtils.getInstance().getDirectHypernyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (hypernyms == null) return null;
 		
@@ -416,13 +579,7 @@ public class WordNet implements Ontology {
 	 * @return hyponyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHyponyms(String word, POS pos) {
-		Synset synset = getCommonSynset(word, pos);
-		if (synset == null) return null;
-		
-		Synset[] hyponyms = getHyponymSynsets(synset);
-		if (hyponyms == null) return null;
-		
-		return getLemmas(hyponyms);
+		return getRelated(word, pos, WordNetGraph.HYPONYM);
 	}
 	
 	/**
@@ -433,16 +590,25 @@ public class WordNet implements Ontology {
 	 * @return hyponyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHyponyms(POS pos, long offset) {
-		Synset synset = null;
-		try {
-			synset = dict.getSynsetAt(pos, offset);
-		} catch (JWNLException e) {}
-		if (synset == null) return null;
-		
-		Synset[] hyponyms = getHyponymSynsets(synset);
-		if (hyponyms == null) return null;
+		if (graph != null) {
+			int synset = graph.getSynsetId(pos, offset);
+			if (synset != -1)
+				return getLemmas(graph.getRelated(synset, WordNetGraph.HYPONYM));
+		}
 		
-		return getLemmas(hyponyms);
+		if (dict == null) return null;
+		synchronized (dict) {
+			Synset synset = null;
+			try {
+				synset = dict.getSynsetAt(pos, offset);
+			} catch (JWNLException e) {}
+			if (synset == null) return null;
+			
+			Synset[] hyponyms = getHyponymSynsets(synset);
+			if (hyponyms == null) return null;
+			
+			return getLemmas(hyponyms);
+		}
 	}
 	
 	/**
@@ -459,7 +625,9 @@ public class WordNet implements Ontology {
 	private static Synset[] getHyponymSynsets(Synset synset) {
 		PointerTargetNodeList hyponyms = null;
 		try {
-			hyponyms = PointerUtils.getInstance().getDirectHyponyms(synset);
+			synchronized (dict) {
+				hyponyms = PointerUtils.getInstance().getDirectHyponyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (hyponyms == null) return null;
 		
@@ -476,20 +644,16 @@ public class WordNet implements Ontology {
 	 * @return entailing verbs or <code>null</code> if lookup failed
 	 */
 	public static String[] getEntailing(String verb) {
-		Synset synset = getCommonSynset(verb, VERB);
-		if (synset == null) return null;
-		
-		Synset[] entailing = getEntailingSynsets(synset);
-		if (entailing == null) return null;
-		
-		return getLemmas(entailing);
+		return getRelated(verb, VERB, WordNetGraph.ENTAILING);
 	}
 	
 	// get 'entailing' synsets
 	private static Synset[] getEntailingSynsets(Synset synset) {
 		PointerTargetNodeList entailing = null;
 		try {
-			entailing = PointerUtils.getInstance().getEntailments(synset);
+			synchronized (dict) {
+				entailing = PointerUtils.getInstance().getEntailments(synset);
+			}
 		} catch (JWNLException e) {}
 		if (entailing == null) return null;
 		
@@ -504,20 +668,16 @@ public class WordNet implements Ontology {
 	 * @return causing verbs or <code>null</code> if lookup failed
 	 */
 	public static String[] getCausing(String verb) {
-		Synset synset = getCommonSynset(verb, VERB);
-		if (synset == null) return null;
-		
-		Synset[] causing = getCausingSynsets(synset);
-		if (causing == null) return null;
-		
-		return getLemmas(causing);
+		return getRelated(verb, VERB, WordNetGraph.CAUSING);
 	}
 	
 	// get 'causing' synsets
 	private static Synset[] getCausingSynsets(Synset synset) {
 		PointerTargetNodeList causing = null;
 		try {
-			causing = PointerUtils.getInstance().getCauses(synset);
+			synchronized (dict) {
+				causing = PointerUtils.getInstance().getCauses(synset);
+			}
 		} catch (JWNLException e) {}
 		if (causing == null) return null;
 		
@@ -534,20 +694,16 @@ public class WordNet implements Ontology {
 	 * @return member holonyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getMembersOf(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] membersOf = getMemberOfSynsets(synset);
-		if (membersOf == null) return null;
-		
-		return getLemmas(membersOf);
+		return getRelated(noun, NOUN, WordNetGraph.MEMBER_OF);
 	}
 	
 	// get 'member-of' synsets
 	private static Synset[] getMemberOfSynsets(Synset synset) {
 		PointerTargetNodeList membersOf = null;
 		try {
-			membersOf = PointerUtils.getInstance().getMemberHolonyms(synset);
+			synchronized (dict) {
+				membersOf = PointerUtils.getInstance().getMemberHolonyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (membersOf == null) return null;
 		
@@ -562,20 +718,16 @@ public class WordNet implements Ontology {
 	 * @return substance holonyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getSubstancesOf(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] substancesOf = getSubstanceOfSynsets(synset);
-		if (substancesOf == null) return null;
-		
-		return getLemmas(substancesOf);
+		return getRelated(noun, NOUN, WordNetGraph.SUBSTANCE_OF);
 	}
 	
 	// get 'substance-of' synsets
 	private static Synset[] getSubstanceOfSynsets(Synset synset) {
 		PointerTargetNodeList substancesOf = null;
 		try {
-			substancesOf = PointerUtils.getInstance().getSubstanceHolonyms(synset);
+			synchronized (dict) {
+				substancesOf = PointerUtils.getInstance().getSubstanceHolonyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (substancesOf == null) return null;
 		
@@ -590,20 +742,16 @@ public class WordNet implements Ontology {
 	 * @return part holonyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getPartsOf(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] partsOf = getPartOfSynsets(synset);
-		if (partsOf == null) return null;
-		
-		return getLemmas(partsOf);
+		return getRelated(noun, NOUN, WordNetGraph.PART_OF);
 	}
 	
 	// get 'part-of' synsets
 	private static Synset[] getPartOfSynsets(Synset synset) {
 		PointerTargetNodeList partsOf = null;
 		try {
-			partsOf = PointerUtils.getInstance().getPartHolonyms(synset);
+			synchronized (dict) {
+				partsOf = PointerUtils.getInstance().getPartHolonyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (partsOf == null) return null;
 		
@@ -618,20 +766,16 @@ public class WordNet implements Ontology {
 	 * @return member meronyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHaveMember(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] haveMember = getHasMemberSynsets(synset);
-		if (haveMember == null) return null;
-		
-		return getLemmas(haveMember);
+		return getRelated(noun, NOUN, WordNetGraph.HAS_MEMBER);
 	}
 	
 	// get 'has-member' synsets
 	private static Synset[] getHasMemberSynsets(Synset synset) {
 		PointerTargetNodeList haveMember = null;
 		try {
-			haveMember = PointerUtils.getInstance().getMemberMeronyms(synset);
+			synchronized (dict) {
+				haveMember = PointerUtils.getInstance().getMemberMeronyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (haveMember == null) return null;
 		
@@ -646,20 +790,16 @@ public class WordNet implements Ontology {
 	 * @return substance meronyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHaveSubstance(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] haveSubstance = getHasSubstanceSynsets(synset);
-		if (haveSubstance == null) return null;
-		
-		return getLemmas(haveSubstance);
+		return getRelated(noun, NOUN, WordNetGraph.HAS_SUBSTANCE);
 	}
 	
 	// get 'has-substance' synsets
 	private static Synset[] getHasSubstanceSynsets(Synset synset) {
 		PointerTargetNodeList haveSubstance = null;
 		try {
-			haveSubstance = PointerUtils.getInstance().getSubstanceMeronyms(synset);
+			synchronized (dict) {
+				haveSubstance = PointerUtils.getInstance().getSubstanceMeronyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (haveSubstance == null) return null;
 		
@@ -674,26 +814,34 @@ public class WordNet implements Ontology {
 	 * @return part meronyms or <code>null</code> if lookup failed
 	 */
 	public static String[] getHavePart(String noun) {
-		Synset synset = getCommonSynset(noun, NOUN);
-		if (synset == null) return null;
-		
-		Synset[] havePart = getHasPartSynsets(synset);
-		if (havePart == null) return null;
-		
-		return getLemmas(havePart);
+		return getRelated(noun, NOUN, WordNetGraph.HAS_PART);
 	}
 	
 	// get 'has-part' synsets
 	private static Synset[] getHasPartSynsets(Synset synset) {
 		PointerTargetNodeList havePart = null;
 		try {
-			havePart = PointerUtils.getInstance().getPartMeronyms(synset);
+			synchronized (dict) {
+				havePart = PointerUtils.getInstance().getPartMeronyms(synset);
+			}
 		} catch (JWNLException e) {}
 		if (havePart == null) return null;
 		
 		return getSynsets(havePart);
 	}
 	
+	/**
+	 * Copies cached expansions, preserving the order of the entries.
+	 * 
+	 * @param expansions cached expansions
+	 * @return copy of the expansions
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Double> copy(
+			Hashtable<String, Double> expansions) {
+		return (Map<String, Double>) expansions.clone();
+	}
+	
 	// implement the interface 'Ontology'
 	
 	/**
@@ -716,6 +864,23 @@ public class WordNet implements Ontology {
 	 * @return related events and their weights
 	 */
 	public Map<String, Double> expandEvent(String event) {
+		String key = "event " + event;
+		Hashtable<String, Double> expansions = expansionCache.get(key);
+		if (expansions == null) {
+			expansions = lookupEvent(event);
+			expansionCache.put(key, expansions);
+		}
+		
+		return copy(expansions);
+	}
+	
+	/**
+	 * Looks up related events in the JWNL dictionary.
+	 * 
+	 * @param event an event
+	 * @return related events and their weights
+	 */
+	private Hashtable<String, Double> lookupEvent(String event) {
 		if (!isVerb(event)) return new Hashtable<String, Double>();
 		
 		// synsets of related concepts
@@ -799,7 +964,7 @@ public class WordNet implements Ontology {
 		}
 		
 		// get concepts in synsets
-		Map<String, Double> expansions = new Hashtable<String, Double>();
+		Hashtable<String, Double> expansions = new Hashtable<String, Double>();
 		for (Synset synset : expanded.keySet()) {
 			double weight = expanded.get(synset);
 			if (weight == 1) weight = SYNONYM_WEIGHT;  // direct synonyms
@@ -823,6 +988,23 @@ public class WordNet implements Ontology {
 	 * @return related entities and their weights
 	 */
 	public Map<String, Double> expandEntity(String entity) {
+		String key = "entity " + entity;
+		Hashtable<String, Double> expansions = expansionCache.get(key);
+		if (expansions == null) {
+			expansions = lookupEntity(entity);
+			expansionCache.put(key, expansions);
+		}
+		
+		return copy(expansions);
+	}
+	
+	/**
+	 * Looks up related entities in the JWNL dictionary.
+	 * 
+	 * @param entity an entity
+	 * @return related entities and their weights
+	 */
+	private Hashtable<String, Double> lookupEntity(String entity) {
 		if (!isCompoundNoun(entity)) return new Hashtable<String, Double>();
 		
 		// synsets of related concepts
@@ -942,7 +1124,7 @@ public class WordNet implements Ontology {
 		}
 		
 		// get concepts in synsets
-		Map<String, Double> expansions = new Hashtable<String, Double>();
+		Hashtable<String, Double> expansions = new Hashtable<String, Double>();
 		for (Synset synset : expanded.keySet()) {
 			double weight = expanded.get(synset);
 			if (weight == 1) weight = SYNONYM_WEIGHT;  // direct synonyms
@@ -968,6 +1150,25 @@ public class WordNet implements Ontology {
 	 * @return related modifiers and their weights
 	 */
 	public Map<String, Double> expandModifier(String modifier, POS pos) {
+		String key = "modifier " + modifier + " " + pos.getKey();
+		Hashtable<String, Double> expansions = expansionCache.get(key);
+		if (expansions == null) {
+			expansions = lookupModifier(modifier, pos);
+			expansionCache.put(key, expansions);
+		}
+		
+		return copy(expansions);
+	}
+	
+	/**
+	 * Looks up related modifiers in the JWNL dictionary.
+	 * 
+	 * @param modifier a modifier
+	 * @param pos its part of speech: <code>POS.ADJECTIVE</code> or
+	 *            <code>POS.ADVERB</code>
+	 * @return related modifiers and their weights
+	 */
+	private Hashtable<String, Double> lookupModifier(String modifier, POS pos) {
 		if ((pos.equals(ADJECTIVE) && !isAdjective(modifier)) ||
 				(pos.equals(ADVERB) && !isAdverb(modifier)))
 			return new Hashtable<String, Double>();
@@ -1018,7 +1219,7 @@ public class WordNet implements Ontology {
 		}
 		
 		// get concepts in synsets
-		Map<String, Double> expansions = new Hashtable<String, Double>();
+		Hashtable<String, Double> expansions = new Hashtable<String, Double>();
 		for (Synset synset : expanded.keySet()) {
 			double weight = expanded.get(synset);
 			if (weight == 1) weight = SYNONYM_WEIGHT;  // direct synonyms
@@ -0,0 +1,505 @@
+package info.ephyra.nlp.semantics.ontologies;
+
+import info.ephyra.io.MsgPrinter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import net.didion.jwnl.JWNLException;
+import net.didion.jwnl.data.IndexWord;
+import net.didion.jwnl.data.POS;
+import net.didion.jwnl.data.PointerType;
+import net.didion.jwnl.data.Synset;
+import net.didion.jwnl.data.Word;
+import net.didion.jwnl.data.list.PointerTargetNode;
+import net.didion.jwnl.data.list.PointerTargetNodeList;
+import net.didion.jwnl.dictionary.Dictionary;
+
+/**
+ * <p>A compact in-memory copy of the WordNet dictionary, used by
+ * <code>WordNet</code> instead of the file-backed JWNL dictionary.</p>
+ * 
+ * <p>The lemmas of the words are stored once and referred to by IDs. Each
+ * synset is an array of lemma IDs, and each relation is an adjacency list of
+ * synset IDs. The index words of each part of speech are sorted by their
+ * lemmas and refer to their most common synsets.</p>
+ * 
+ * <p>The graph is built from a JWNL dictionary with the same JWNL methods that
+ * <code>WordNet</code> uses, so lookups in the graph give the same results. It
+ * is written to a binary file that is loaded much faster than the dictionary
+ * is scanned, and it must be rebuilt when the dictionary changes. Lookups do
+ * not apply the morphological processor of JWNL, i.e. only lemmas that occur
+ * in the index are found.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class WordNetGraph {
+	/** Relation 'hypernym'. */
+	public static final int HYPERNYM = 0;
+	/** Relation 'hyponym'. */
+	public static final int HYPONYM = 1;
+	/** Relation 'entailing'. */
+	public static final int ENTAILING = 2;
+	/** Relation 'causing'. */
+	public static final int CAUSING = 3;
+	/** Relation 'member-of'. */
+	public static final int MEMBER_OF = 4;
+	/** Relation 'substance-of'. */
+	public static final int SUBSTANCE_OF = 5;
+	/** Relation 'part-of'. */
+	public static final int PART_OF = 6;
+	/** Relation 'has-member'. */
+	public static final int HAS_MEMBER = 7;
+	/** Relation 'has-substance'. */
+	public static final int HAS_SUBSTANCE = 8;
+	/** Relation 'has-part'. */
+	public static final int HAS_PART = 9;
+	
+	/** Pointer types of the relations. */
+	private static final PointerType[] POINTER_TYPES = {
+		PointerType.HYPERNYM, PointerType.HYPONYM, PointerType.ENTAILMENT,
+		PointerType.CAUSE, PointerType.MEMBER_HOLONYM,
+		PointerType.SUBSTANCE_HOLONYM, PointerType.PART_HOLONYM,
+		PointerType.MEMBER_MERONYM, PointerType.SUBSTANCE_MERONYM,
+		PointerType.PART_MERONYM
+	};
+	/** Parts of speech in the order of the synset IDs. */
+	private static final POS[] POSS =
+		{POS.NOUN, POS.VERB, POS.ADJECTIVE, POS.ADVERB};
+	/** Identifies a file that contains a graph. */
+	private static final int MAGIC = 0x574e4731;
+	
+	/** Distinct lemmas of the words in the synsets, with spaces. */
+	private String[] lemmas;
+	/** For each part of speech the ID of its first synset, and the total. */
+	private int[] posStart;
+	/** Offsets of the synsets, ascending within each part of speech. */
+	private long[] offsets;
+	/** For each synset the lemma IDs of its words. */
+	private int[][] words;
+	/** For each relation and synset the IDs of the related synsets. */
+	private int[][][] relations;
+	/** For each part of speech the sorted keys of the index words. */
+	private String[][] indexKeys;
+	/** For each part of speech the lemmas of the index words. */
+	private String[][] indexLemmas;
+	/** For each part of speech the most common synsets of the index words. */
+	private int[][] commonSynsets;
+	
+	/**
+	 * Creates an empty graph that is filled by <code>build()</code> or
+	 * <code>read()</code>.
+	 */
+	private WordNetGraph() {}
+	
+	/**
+	 * Gets the internal ID of a part of speech.
+	 * 
+	 * @param pos part of speech
+	 * @return ID or -1 if the part of speech is not supported
+	 */
+	private static int getPosId(POS pos) {
+		for (int i = 0; i < POSS.length; i++)
+			if (POSS[i].equals(pos)) return i;
+		
+		return -1;
+	}
+	
+	/**
+	 * Gets the key of a lemma in the index, the way JWNL looks up index words.
+	 * 
+	 * @param lemma a lemma
+	 * @return key in the index
+	 */
+	private static String getKey(String lemma) {
+		return lemma.trim().toLowerCase().replace(' ', '_');
+	}
+	
+	/**
+	 * Builds a graph from all synsets and index words of a JWNL dictionary.
+	 * 
+	 * @param dict JWNL dictionary
+	 * @return graph
+	 * @throws JWNLException if the dictionary cannot be read
+	 */
+	public static WordNetGraph build(Dictionary dict) throws JWNLException {
+		WordNetGraph graph = new WordNetGraph();
+		
+		// read the synsets, the targets of the relations are identified by
+		// part of speech and offset until all synsets are known
+		ArrayList<Long> offsetL = new ArrayList<Long>();
+		ArrayList<int[]> wordsL = new ArrayList<int[]>();
+		ArrayList<long[][]> targetsL = new ArrayList<long[][]>();
+		HashMap<String, Integer> lemmaIds = new HashMap<String, Integer>();
+		ArrayList<String> lemmaL = new ArrayList<String>();
+		graph.posStart = new int[POSS.length + 1];
+		for (int p = 0; p < POSS.length; p++) {
+			graph.posStart[p] = offsetL.size();
+			Iterator<?> synsets = dict.getSynsetIterator(POSS[p]);
+			while (synsets.hasNext()) {
+				Synset synset = (Synset) synsets.next();
+				if (offsetL.size() > graph.posStart[p] &&
+						synset.getOffset() <= offsetL.get(offsetL.size() - 1))
+					throw new JWNLException("Synsets are not sorted.");
+				offsetL.add(synset.getOffset());
+				
+				Word[] ws = synset.getWords();
+				int[] ids = new int[ws.length];
+				for (int i = 0; i < ws.length; i++) {
+					String lemma = ws[i].getLemma().replace("_", " ");
+					Integer id = lemmaIds.get(lemma);
+					if (id == null) {
+						id = lemmaL.size();
+						lemmaIds.put(lemma, id);
+						lemmaL.add(lemma);
+					}
+					ids[i] = id;
+				}
+				wordsL.add(ids);
+				
+				long[][] targets = new long[POINTER_TYPES.length][];
+				for (int r = 0; r < POINTER_TYPES.length; r++) {
+					PointerTargetNodeList nodes = new PointerTargetNodeList(
+							synset.getTargets(POINTER_TYPES[r]));
+					targets[r] = new long[nodes.size()];
+					for (int i = 0; i < nodes.size(); i++) {
+						Synset target =
+							((PointerTargetNode) nodes.get(i)).getSynset();
+						targets[r][i] = ((long) getPosId(target.getPOS()) << 40) |
+										target.getOffset();
+					}
+				}
+				targetsL.add(targets);
+			}
+		}
+		graph.posStart[POSS.length] = offsetL.size();
+		
+		graph.lemmas = lemmaL.toArray(new String[lemmaL.size()]);
+		graph.offsets = new long[offsetL.size()];
+		for (int s = 0; s < graph.offsets.length; s++)
+			graph.offsets[s] = offsetL.get(s);
+		graph.words = wordsL.toArray(new int[wordsL.size()][]);
+		graph.relations = new int[POINTER_TYPES.length][graph.offsets.length][];
+		for (int s = 0; s < graph.offsets.length; s++) {
+			long[][] targets = targetsL.get(s);
+			for (int r = 0; r < POINTER_TYPES.length; r++) {
+				int[] ids = new int[targets[r].length];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = graph.getSynsetId((int) (targets[r][i] >>> 40),
+							targets[r][i] & 0xffffffffffL);
+					if (ids[i] == -1)
+						throw new JWNLException("Unknown synset in relation.");
+				}
+				graph.relations[r][s] = ids;
+			}
+		}
+		
+		// read the index words
+		graph.indexKeys = new String[POSS.length][];
+		graph.indexLemmas = new String[POSS.length][];
+		graph.commonSynsets = new int[POSS.length][];
+		for (int p = 0; p < POSS.length; p++) {
+			ArrayList<IndexWord> indexWords = new ArrayList<IndexWord>();
+			Iterator<?> iter = dict.getIndexWordIterator(POSS[p]);
+			while (iter.hasNext()) indexWords.add((IndexWord) iter.next());
+			
+			String[] keys = new String[indexWords.size()];
+			HashMap<String, IndexWord> byKey = new HashMap<String, IndexWord>();
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = getKey(indexWords.get(i).getLemma());
+				byKey.put(keys[i], indexWords.get(i));
+			}
+			Arrays.sort(keys);
+			
+			graph.indexKeys[p] = keys;
+			graph.indexLemmas[p] = new String[keys.length];
+			graph.commonSynsets[p] = new int[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				IndexWord indexWord = byKey.get(keys[i]);
+				String lemma = indexWord.getLemma();
+				graph.indexLemmas[p][i] = lemma.equals(keys[i]) ? keys[i] : lemma;
+				graph.commonSynsets[p][i] =
+					graph.getSynsetId(p, indexWord.getSynsetOffsets()[0]);
+				if (graph.commonSynsets[p][i] == -1)
+					throw new JWNLException("Unknown synset in index.");
+			}
+		}
+		
+		return graph;
+	}
+	
+	/**
+	 * Reads a graph from a binary file.
+	 * 
+	 * @param filename name of the file
+	 * @return graph
+	 * @throws IOException if the file cannot be read or is not a graph
+	 */
+	public static WordNetGraph read(String filename) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(filename), 65536));
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException("Not a WordNet graph: " + filename);
+			
+			WordNetGraph graph = new WordNetGraph();
+			graph.lemmas = new String[in.readInt()];
+			for (int i = 0; i < graph.lemmas.length; i++)
+				graph.lemmas[i] = in.readUTF();
+			graph.posStart = new int[POSS.length + 1];
+			for (int p = 0; p <= POSS.length; p++)
+				graph.posStart[p] = in.readInt();
+			
+			int numSynsets = graph.posStart[POSS.length];
+			graph.offsets = new long[numSynsets];
+			graph.words = new int[numSynsets][];
+			for (int s = 0; s < numSynsets; s++) {
+				graph.offsets[s] = in.readInt() & 0xffffffffL;
+				graph.words[s] = readIds(in);
+			}
+			graph.relations = new int[POINTER_TYPES.length][numSynsets][];
+			for (int r = 0; r < POINTER_TYPES.length; r++)
+				for (int s = 0; s < numSynsets; s++)
+					graph.relations[r][s] = readIds(in);
+			
+			graph.indexKeys = new String[POSS.length][];
+			graph.indexLemmas = new String[POSS.length][];
+			graph.commonSynsets = new int[POSS.length][];
+			for (int p = 0; p < POSS.length; p++) {
+				int numIndexWords = in.readInt();
+				graph.indexKeys[p] = new String[numIndexWords];
+				graph.indexLemmas[p] = new String[numIndexWords];
+				graph.commonSynsets[p] = new int[numIndexWords];
+				for (int i = 0; i < numIndexWords; i++) {
+					graph.indexKeys[p][i] = in.readUTF();
+					graph.indexLemmas[p][i] = in.readBoolean()
+						? graph.indexKeys[p][i] : in.readUTF();
+					graph.commonSynsets[p][i] = in.readInt();
+				}
+			}
+			
+			return graph;
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Reads an array of IDs that is preceded by its length.
+	 * 
+	 * @param in input stream
+	 * @return IDs
+	 * @throws IOException if the IDs cannot be read
+	 */
+	private static int[] readIds(DataInputStream in) throws IOException {
+		int[] ids = new int[in.readInt()];
+		for (int i = 0; i < ids.length; i++) ids[i] = in.readInt();
+		
+		return ids;
+	}
+	
+	/**
+	 * Writes the graph to a binary file.
+	 * 
+	 * @param filename name of the file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(String filename) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(filename), 65536));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(lemmas.length);
+			for (String lemma : lemmas) out.writeUTF(lemma);
+			for (int start : posStart) out.writeInt(start);
+			
+			for (int s = 0; s < offsets.length; s++) {
+				out.writeInt((int) offsets[s]);
+				writeIds(out, words[s]);
+			}
+			for (int[][] relation : relations)
+				for (int[] ids : relation) writeIds(out, ids);
+			
+			for (int p = 0; p < POSS.length; p++) {
+				out.writeInt(indexKeys[p].length);
+				for (int i = 0; i < indexKeys[p].length; i++) {
+					out.writeUTF(indexKeys[p][i]);
+					boolean same = indexLemmas[p][i] == indexKeys[p][i];
+					out.writeBoolean(same);
+					if (!same) out.writeUTF(indexLemmas[p][i]);
+					out.writeInt(commonSynsets[p][i]);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Writes an array of IDs, preceded by its length.
+	 * 
+	 * @param out output stream
+	 * @param ids IDs
+	 * @throws IOException if the IDs cannot be written
+	 */
+	private static void writeIds(DataOutputStream out, int[] ids)
+			throws IOException {
+		out.writeInt(ids.length);
+		for (int id : ids) out.writeInt(id);
+	}
+	
+	/**
+	 * Gets the ID of the synset with the given part of speech and offset.
+	 * 
+	 * @param p ID of the part of speech
+	 * @param offset offset of the synset
+	 * @return synset ID or -1 if there is no such synset
+	 */
+	private int getSynsetId(int p, long offset) {
+		if (p == -1) return -1;
+		int s = Arrays.binarySearch(offsets, posStart[p], posStart[p + 1],
+				offset);
+		
+		return (s >= 0) ? s : -1;
+	}
+	
+	/**
+	 * Gets the ID of the synset with the given part of speech and offset.
+	 * 
+	 * @param pos part of speech
+	 * @param offset offset of the synset
+	 * @return synset ID or -1 if there is no such synset
+	 */
+	public int getSynsetId(POS pos, long offset) {
+		return getSynsetId(getPosId(pos), offset);
+	}
+	
+	/**
+	 * Gets the position of a word in the index of a part of speech.
+	 * 
+	 * @param p ID of the part of speech
+	 * @param word a word
+	 * @return position in the index or -1 if the word is not in the index
+	 */
+	private int getIndexPosition(int p, String word) {
+		if (p == -1) return -1;
+		String key = getKey(word);
+		if (key.length() == 0) return -1;
+		int i = Arrays.binarySearch(indexKeys[p], key);
+		
+		return (i >= 0) ? i : -1;
+	}
+	
+	/**
+	 * Looks up the lemma of an index word, like
+	 * <code>IndexWord.getLemma()</code>.
+	 * 
+	 * @param pos part of speech
+	 * @param word a word
+	 * @return lemma or <code>null</code> if the word is not in the index
+	 */
+	public String getIndexLemma(POS pos, String word) {
+		int p = getPosId(pos);
+		int i = getIndexPosition(p, word);
+		
+		return (i != -1) ? indexLemmas[p][i] : null;
+	}
+	
+	/**
+	 * Looks up the most common synset of an index word.
+	 * 
+	 * @param pos part of speech
+	 * @param word a word
+	 * @return synset ID or -1 if the word is not in the index
+	 */
+	public int getCommonSynset(POS pos, String word) {
+		int p = getPosId(pos);
+		int i = getIndexPosition(p, word);
+		
+		return (i != -1) ? commonSynsets[p][i] : -1;
+	}
+	
+	/**
+	 * Looks up the synsets that are related to a synset.
+	 * 
+	 * @param synset synset ID
+	 * @param relation one of the relations defined in this class
+	 * @return IDs of the related synsets, must not be modified
+	 */
+	public int[] getRelated(int synset, int relation) {
+		return relations[relation][synset];
+	}
+	
+	/**
+	 * Looks up the lemmas of the words in a synset, with spaces instead of
+	 * underscores.
+	 * 
+	 * @param synset synset ID
+	 * @return lemmas
+	 */
+	public String[] getLemmas(int synset) {
+		int[] ids = words[synset];
+		String[] ls = new String[ids.length];
+		for (int i = 0; i < ids.length; i++) ls[i] = lemmas[ids[i]];
+		
+		return ls;
+	}
+	
+	/**
+	 * Returns the number of synsets in the graph.
+	 * 
+	 * @return number of synsets
+	 */
+	public int getNumSynsets() {
+		return offsets.length;
+	}
+	
+	/**
+	 * Builds a graph from the WordNet dictionary and writes it to a file.
+	 * 
+	 * @param args argument 1: JWNL property file<br>
+	 * 			   argument 2: graph file
+	 */
+	public static void main(String[] args) {
+		MsgPrinter.enableStatusMsgs(true);
+		MsgPrinter.enableErrorMsgs(true);
+		
+		if (args.length < 2) {
+			MsgPrinter.printUsage("java WordNetGraph properties graph_file");
+			System.exit(1);
+		}
+		
+		if (!WordNet.initialize(args[0])) {
+			MsgPrinter.printErrorMsg("Could not create WordNet dictionary.");
+			System.exit(1);
+		}
+		
+		try {
+			long start = System.currentTimeMillis();
+			WordNetGraph graph = build(Dictionary.getInstance());
+			MsgPrinter.printStatusMsg("Built graph with " +
+					graph.getNumSynsets() + " synsets in " +
+					(System.currentTimeMillis() - start) + "ms.");
+			graph.write(args[1]);
+			
+			start = System.currentTimeMillis();
+			read(args[1]);
+			MsgPrinter.printStatusMsg("Wrote graph to " + args[1] + " (" +
+					new File(args[1]).length() / 1024 + "KB), read it in " +
+					(System.currentTimeMillis() - start) + "ms.");
+		} catch (Exception e) {
+			MsgPrinter.printErrorMsg("Could not build graph:\n" + e);
+			System.exit(1);
+		}
+	}
+}
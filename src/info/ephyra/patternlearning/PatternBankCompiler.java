@@ -0,0 +1,61 @@
+package info.ephyra.patternlearning;
+
+import info.ephyra.answerselection.filters.AnswerPatternFilter;
+import info.ephyra.io.MsgPrinter;
+import info.ephyra.nlp.SnowballStemmer;
+import info.ephyra.questionanalysis.QuestionInterpreter;
+import info.ephyra.util.PatternBank;
+
+/**
+ * <p>Precompiles the question patterns and the answer patterns into pattern
+ * banks, which are memory-mapped at startup instead of reading the pattern
+ * files.</p>
+ * 
+ * <p>The banks are also written the first time the patterns are loaded, or
+ * when the pattern files or the format of the banks have changed since the
+ * banks were written. This build step, which is run by the ant target
+ * <code>compile-patterns</code>, avoids the delay at the first startup.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class PatternBankCompiler {
+	/**
+	 * Entry point of the program. Compiles the question patterns and the answer
+	 * patterns in the given directories.
+	 * 
+	 * @param args directory of the question patterns, directory of the answer
+	 * 			   patterns
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			MsgPrinter.printUsage("java PatternBankCompiler " +
+								  "questionpattern_dir answerpattern_dir");
+			System.exit(1);
+		}
+		
+		// enable output of status and error messages
+		MsgPrinter.enableStatusMsgs(true);
+		MsgPrinter.enableErrorMsgs(true);
+		
+		// required to add the keywords of the question patterns
+		SnowballStemmer.create();
+		
+		MsgPrinter.printStatusMsg("Compiling question patterns...");
+		if (!QuestionInterpreter.compilePatterns(args[0])) {
+			MsgPrinter.printErrorMsg("Could not load question patterns.");
+			System.exit(1);
+		}
+		MsgPrinter.printStatusMsg("  ...wrote " +
+								  PatternBank.getBankFile(args[0]));
+		
+		MsgPrinter.printStatusMsg("Compiling answer patterns...");
+		if (!AnswerPatternFilter.compilePatterns(args[1])) {
+			MsgPrinter.printErrorMsg("Could not load answer patterns.");
+			System.exit(1);
+		}
+		MsgPrinter.printStatusMsg("  ...wrote " +
+								  PatternBank.getBankFile(args[1]));
+		
+		MsgPrinter.printStatusMsg("...completed.");
+	}
+}
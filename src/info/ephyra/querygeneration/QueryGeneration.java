@@ -12,7 +12,7 @@ import java.util.ArrayList;
  * question by applying a set of <code>QueryGenerators</code>.
  * 
  * @author Nico Schlaefer
- * @version 2006-30-10
+ * @version 2026-10-19
  */
 public class QueryGeneration {
 	/** <code>QueryGenerator</code> objects used to generate the queries. */
@@ -35,6 +35,28 @@ public class QueryGeneration {
 		queryGenerators.clear();
 	}
 	
+	/**
+	 * Applies the <code>QueryGenerators</code> that only need the keywords of
+	 * a question and returns the queries that can be passed to the search
+	 * module before the analysis of the question is complete.
+	 * 
+	 * @param question question string
+	 * @param kws keywords in the question
+	 * @return <code>Query</code> objects
+	 */
+	public static Query[] getEarlyQueries(String question, String[] kws) {
+		ArrayList<Query> results = new ArrayList<Query>();
+		
+		// apply query generators
+		for (QueryGenerator queryGenerator : queryGenerators) {
+			Query[] queries =
+				queryGenerator.generateEarlyQueries(question, kws);
+			for (Query query : queries) results.add(query);
+		}
+		
+		return results.toArray(new Query[results.size()]);
+	}
+	
 	/**
 	 * Applies the <code>QueryGenerators</code> to an analysed question and
 	 * returns one or more queries that can be passed to the search module.
@@ -19,7 +19,7 @@ import java.util.HashSet;
  * <p>This class extends the class <code>QueryGenerator</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-07-11
+ * @version 2026-10-19
  */
 public class BagOfWordsG extends QueryGenerator {
 	/** Score assigned to "bag of words" queries. */
@@ -138,4 +138,25 @@ public class BagOfWordsG extends QueryGenerator {
 		
 		return queries;
 	}
+	
+	/**
+	 * Generates a "bag of words" query from the keywords before the analysis
+	 * of the question is complete. The query is only used if a query is also
+	 * generated from the analyzed question.
+	 * 
+	 * @param question question string
+	 * @param kws keywords in the question
+	 * @return <code>Query</code> objects
+	 */
+	public Query[] generateEarlyQueries(String question, String[] kws) {
+		String queryString = getQueryString(new Term[0], kws);
+		
+		// the analyzed question is set when the analysis is complete
+		Query[] queries = new Query[1];
+		queries[0] = new Query(queryString, new AnalyzedQuestion(question),
+				SCORE);
+		queries[0].setExtractionTechniques(EXTRACTION_TECHNIQUES);
+		
+		return queries;
+	}
 }
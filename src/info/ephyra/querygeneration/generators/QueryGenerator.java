@@ -7,12 +7,30 @@ import info.ephyra.questionanalysis.AnalyzedQuestion;
  * <p>A <code>QueryGenerator</code> creates one or more <code>Query</code>
  * objects from an analyzed question.</p>
  * 
+ * <p>Generators that only need the keywords of the question can also create
+ * their queries before the analysis of the question is complete, so that the
+ * search can start early.</p>
+ * 
  * <p>This class is abstract.</p>
  * 
  * @author Nico Schlaefer
- * @version 2006-10-30
+ * @version 2026-10-19
  */
 public abstract class QueryGenerator {
+	/**
+	 * Generates queries from the keywords of a question before the analysis
+	 * of the question is complete. The queries must be equal to the queries
+	 * that are generated from the analyzed question, otherwise their results
+	 * are dropped. By default, no queries are generated.
+	 * 
+	 * @param question question string
+	 * @param kws keywords in the question
+	 * @return <code>Query</code> objects
+	 */
+	public Query[] generateEarlyQueries(String question, String[] kws) {
+		return new Query[0];
+	}
+	
 	/**
 	 * Generates one or more <code>Query</code> objects from an analyzed
 	 * question.
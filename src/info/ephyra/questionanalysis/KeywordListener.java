@@ -0,0 +1,21 @@
+package info.ephyra.questionanalysis;
+
+/**
+ * <p>A <code>KeywordListener</code> is notified as soon as the keywords of a
+ * question have been extracted, before the remaining steps of the question
+ * analysis are complete. E.g. queries that only need the keywords can be sent
+ * to the search engines while the question is still being analyzed.</p>
+ * 
+ * <p>The listener is called by the thread that analyzes the question.</p>
+ * 
+ * @version 2026-10-19
+ */
+public interface KeywordListener {
+	/**
+	 * Called when the keywords of a question have been extracted.
+	 * 
+	 * @param question question string
+	 * @param kws keywords in the question
+	 */
+	public void keywordsExtracted(String question, String[] kws);
+}
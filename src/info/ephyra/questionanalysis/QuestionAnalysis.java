@@ -15,6 +15,13 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,8 +43,20 @@ import me.xdrop.fuzzywuzzy.FuzzySearch;
  * <li>extracts predicate-argument structures</li>
  * </ul>
  * 
+ * <p>If the <code>QuestionAnalysisCache</code> is enabled, questions that
+ * have been analyzed before are taken from the cache.</p>
+ * 
+ * <p>Steps that do not depend on each other are run concurrently by a pool of
+ * worker threads: the extraction of named entities, the focus word, the
+ * answer types and the interpretations only need the question or its
+ * normalized form. The thread that analyzes the question runs the remaining
+ * steps and waits for the results of the workers when they are needed, so the
+ * result does not depend on the order in which the steps finish. The time
+ * spent in each step is recorded and can be compared to the time it took to
+ * analyze the questions.</p>
+ * 
  * @author Nico Schlaefer
- * @version 2008-01-23
+ * @version 2026-10-19
  */
 public class QuestionAnalysis {
 	/** <code>Dictionaries</code> for term extraction. */
@@ -59,6 +78,73 @@ public class QuestionAnalysis {
 	/** Predicates used instead of extracting predicates from the question. */
 	private static Predicate[] predicates;
 	
+	/** Maximum number of worker threads. */
+	private static final int MAX_WORKERS = 4;
+	/** Whether independent steps are run concurrently. */
+	private static boolean concurrent = true;
+	/** Worker threads, created when the first question is analyzed. */
+	private static ExecutorService workers;
+	
+	/** Names of the steps of the question analysis. */
+	private static final String[] STEPS = {"normalization", "keywords",
+		"named entities", "terms", "focus word", "answer types",
+		"interpretation", "predicates", "term expansion"};
+	private static final int NORMALIZATION = 0;
+	private static final int KEYWORDS = 1;
+	private static final int NES = 2;
+	private static final int TERMS = 3;
+	private static final int FOCUS = 4;
+	private static final int ANSWER_TYPES = 5;
+	private static final int INTERPRETATION = 6;
+	private static final int PREDICATES = 7;
+	private static final int EXPANSION = 8;
+	/** Time in ns spent in each step. */
+	private static long[] stepTimes = new long[STEPS.length];
+	/** Time in ns it took to analyze the questions. */
+	private static long totalTime;
+	/** Number of questions that were analyzed. */
+	private static int numAnalyzed;
+	
+	/**
+	 * A step of the question analysis that records the time it takes.
+	 */
+	private static abstract class Step<T> implements Callable<T> {
+		/** Index of the step. */
+		private int step;
+		/** Request of the thread that created the step. */
+		private Integer request;
+		
+		/**
+		 * Creates a step that belongs to the request of the current thread.
+		 * 
+		 * @param step index of the step
+		 */
+		public Step(int step) {
+			this.step = step;
+			request = Logger.getRequest();
+		}
+		
+		/**
+		 * Runs the step.
+		 * 
+		 * @return result of the step
+		 */
+		protected abstract T run();
+		
+		public T call() {
+			// log the records of the step in the entry of the request
+			Integer previous = Logger.getRequest();
+			Logger.setRequest(request);
+			long start = System.nanoTime();
+			try {
+				return run();
+			} finally {
+				addTime(step, System.nanoTime() - start);
+				Logger.setRequest(previous);
+			}
+		}
+	}
+	
 	/**
 	 * Registers a <code>Dictionary</code>.
 	 * 
@@ -160,6 +246,150 @@ public class QuestionAnalysis {
 		predicates = null;
 	}
 	
+	/**
+	 * Enables or disables the concurrent execution of independent steps.
+	 * 
+	 * @param concurrent <code>true</code> to run independent steps
+	 * 					 concurrently, <code>false</code> to run all steps in
+	 * 					 the thread that analyzes the question
+	 */
+	public static synchronized void setConcurrent(boolean concurrent) {
+		QuestionAnalysis.concurrent = concurrent;
+	}
+	
+	/**
+	 * Checks if independent steps are run concurrently.
+	 * 
+	 * @return <code>true</code> iff independent steps are run concurrently
+	 */
+	public static synchronized boolean isConcurrent() {
+		return concurrent;
+	}
+	
+	/**
+	 * Returns the names of the steps of the question analysis.
+	 * 
+	 * @return names of the steps
+	 */
+	public static String[] getSteps() {
+		return STEPS.clone();
+	}
+	
+	/**
+	 * Returns the time spent in each step since the times were last reset.
+	 * 
+	 * @return time in ms per step, in the order of <code>getSteps()</code>
+	 */
+	public static synchronized double[] getStepTimes() {
+		double[] times = new double[STEPS.length];
+		for (int i = 0; i < STEPS.length; i++) times[i] = stepTimes[i] / 1e6;
+		
+		return times;
+	}
+	
+	/**
+	 * Returns the time it took to analyze the questions since the times were
+	 * last reset. If steps are run concurrently, this is less than the sum of
+	 * the times spent in the steps.
+	 * 
+	 * @return time in ms
+	 */
+	public static synchronized double getTotalTime() {
+		return totalTime / 1e6;
+	}
+	
+	/**
+	 * Returns the number of questions that were analyzed since the times were
+	 * last reset. Questions that were taken from the cache are not counted.
+	 * 
+	 * @return number of questions
+	 */
+	public static synchronized int getNumAnalyzed() {
+		return numAnalyzed;
+	}
+	
+	/**
+	 * Resets the times spent in the steps of the question analysis.
+	 */
+	public static synchronized void resetTimes() {
+		stepTimes = new long[STEPS.length];
+		totalTime = 0;
+		numAnalyzed = 0;
+	}
+	
+	/**
+	 * Adds to the time spent in a step.
+	 * 
+	 * @param step index of the step
+	 * @param time time in ns
+	 */
+	private static synchronized void addTime(int step, long time) {
+		stepTimes[step] += time;
+	}
+	
+	/**
+	 * Starts a step. If steps are run concurrently, the step is run by a
+	 * worker thread, otherwise it is run immediately.
+	 * 
+	 * @param step the step
+	 * @return result of the step
+	 */
+	private static <T> Future<T> start(Step<T> step) {
+		synchronized (QuestionAnalysis.class) {
+			if (concurrent) {
+				if (workers == null) {
+					int numWorkers = Math.min(MAX_WORKERS,
+							Runtime.getRuntime().availableProcessors());
+					workers = Executors.newFixedThreadPool(numWorkers,
+							new ThreadFactory() {
+								private int count = 0;
+								
+								public synchronized Thread newThread(
+										Runnable r) {
+									Thread thread = new Thread(r,
+											"QuestionAnalysis-" + ++count);
+									thread.setDaemon(true);
+									return thread;
+								}
+							});
+				}
+				return workers.submit(step);
+			}
+		}
+		
+		FutureTask<T> task = new FutureTask<T>(step);
+		task.run();
+		return task;
+	}
+	
+	/**
+	 * Waits for the result of a step. Errors in the step are thrown again in
+	 * the thread that analyzes the question.
+	 * 
+	 * @param result result of the step
+	 * @return the result
+	 */
+	private static <T> T get(Future<T> result) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return result.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+
     private static String[] getAtypes (String question) {
         List<AnswerType> atypes = new ArrayList<AnswerType>();
         try {
@@ -194,63 +424,52 @@ public class QuestionAnalysis {
     }
     
 	/**
-	 * Analyzes a question string.
+	 * Analyzes a question string. The analysis is taken from the
+	 * <code>QuestionAnalysisCache</code> if the question has been analyzed
+	 * before.
 	 * 
 	 * @param question question string
 	 * @return analyzed question
 	 */
 	public static AnalyzedQuestion analyze(String question) {
-		// normalize question
-		String qn = QuestionNormalizer.normalize(question);
-		
-		// stem verbs and nouns
-		String stemmed = QuestionNormalizer.stemVerbsAndNouns(qn);
-		MsgPrinter.printNormalization(stemmed);
-		Logger.logNormalization(stemmed);
-		
-		// resolve verb constructions with auxiliaries
-		String verbMod = (QuestionNormalizer.handleAuxiliaries(qn))[0];
-		// TODO return only one best string
-		
-		// extract keywords
-		String[] kws = KeywordExtractor.getKeywords(verbMod, context);
-		
-		// extract named entities
-		String[][] nes = TermExtractor.getNes(question, context);
-		
-		// extract terms and set relative frequencies
-		Term[] terms = TermExtractor.getTerms(verbMod, context, nes,
-				dicts.toArray(new Dictionary[dicts.size()]));
-		for (Term term : terms)
-			term.setRelFrequency(WordFrequencies.lookupRel(term.getText()));
-		
-		// extract focus word
-		String focus = FocusFinder.findFocusWord(question);
-		
-		// determine answer types
-		//String[] ats = AnswerTypeTester.getAnswerTypes(qn, stemmed);
-        String[] ats = getAtypes(question);
-		MsgPrinter.printAnswerTypes(ats);
-		Logger.logAnswerTypes(ats);
-		
-		// interpret question
-		QuestionInterpretation[] qis =
-			QuestionInterpreter.interpret(qn, stemmed);
-		MsgPrinter.printInterpretations(qis);
-		Logger.logInterpretations(qis);
+		return analyze(question, null);
+	}
+	
+	/**
+	 * Analyzes a question string and notifies a <code>KeywordListener</code>
+	 * as soon as the keywords have been extracted. The analysis is taken from
+	 * the <code>QuestionAnalysisCache</code> if the question has been analyzed
+	 * before.
+	 * 
+	 * @param question question string
+	 * @param listener listener that is notified of the keywords or
+	 * 				   <code>null</code>
+	 * @return analyzed question
+	 */
+	public static AnalyzedQuestion analyze(String question,
+			KeywordListener listener) {
+		// predicates that are set explicitly are not part of the signature
+		boolean cacheable = predicates == null;
 		
-		// extract predicates
-		Predicate[] ps = (predicates != null) ? predicates
-				: PredicateExtractor.getPredicates(qn, verbMod, ats, terms);
-		MsgPrinter.printPredicates(ps);
-		Logger.logPredicates(ps);
-
-
+		AnalyzedQuestion aq =
+			cacheable ? QuestionAnalysisCache.get(question, context) : null;
+		if (aq != null) {
+			if (listener != null)
+				listener.keywordsExtracted(question, aq.getKeywords());
+		} else {
+			aq = analyzeQuestion(question, listener);
+			if (cacheable) QuestionAnalysisCache.put(question, context, aq);
+		}
+		MsgPrinter.printNormalization(aq.getStemmed());
+		Logger.logNormalization(aq.getStemmed());
+		MsgPrinter.printAnswerTypes(aq.getAnswerTypes());
+		Logger.logAnswerTypes(aq.getAnswerTypes());
+		MsgPrinter.printInterpretations(aq.getInterpretations());
+		Logger.logInterpretations(aq.getInterpretations());
+		MsgPrinter.printPredicates(aq.getPredicates());
+		Logger.logPredicates(aq.getPredicates());
 		
-		// expand terms
-		TermExpander.expandTerms(terms, ps,
-				ontologies.toArray(new Ontology[ontologies.size()]));
-
+		// the negation depends on the case of the question
 		ArrayList<String> exceptStrings = new ArrayList<String>();
 		/*exceptStrings.add("not");
 		exceptStrings.add("except");
@@ -272,7 +491,7 @@ public class QuestionAnalysis {
 		exceptStrings.add("mightn't");
 		exceptStrings.add("mustn't");*/
 		exceptStrings.add("NOT");
-
+		
 		boolean isNegated = false;
 		for (String except: exceptStrings) {
 			/*int ratio = FuzzySearch.tokenSetRatio(except, question);
@@ -290,17 +509,109 @@ public class QuestionAnalysis {
 				break;
 			}
 		}
-
-		AnalyzedQuestion aq = new AnalyzedQuestion(question, qn, stemmed, verbMod, kws, nes,
-				terms, focus, ats, qis, ps);
-
+		
 		if (isNegated) {
 			System.out.println("Detected EXCEPTION word. Acting accordingly...");
 			aq.isNegated = true;
 		}
-
+		
 		return aq;
 	}
+	
+	/**
+	 * Runs all steps of the question analysis. Named entities, focus word,
+	 * answer types and interpretations are determined by worker threads while
+	 * the other steps are run in this thread.
+	 * 
+	 * @param question question string
+	 * @param listener listener that is notified of the keywords or
+	 * 				   <code>null</code>
+	 * @return analyzed question
+	 */
+	private static AnalyzedQuestion analyzeQuestion(final String question,
+			KeywordListener listener) {
+		long start = System.nanoTime();
+		final String context = QuestionAnalysis.context;
+		final Predicate[] predicates = QuestionAnalysis.predicates;
+		
+		// extract named entities
+		Future<String[][]> nesResult = start(new Step<String[][]>(NES) {
+			protected String[][] run() {
+				return TermExtractor.getNes(question, context);
+			}
+		});
+		
+		// extract focus word
+		Future<String> focusResult = start(new Step<String>(FOCUS) {
+			protected String run() {
+				return FocusFinder.findFocusWord(question);
+			}
+		});
+		
+		// determine answer types
+		Future<String[]> atsResult = start(new Step<String[]>(ANSWER_TYPES) {
+			protected String[] run() {
+				//return AnswerTypeTester.getAnswerTypes(qn, stemmed);
+				return getAtypes(question);
+			}
+		});
+		
+		// normalize question, stem verbs and nouns and resolve verb
+		// constructions with auxiliaries
+		long time = System.nanoTime();
+		final String qn = QuestionNormalizer.normalize(question);
+		final String stemmed = QuestionNormalizer.stemVerbsAndNouns(qn);
+		String verbMod = (QuestionNormalizer.handleAuxiliaries(qn))[0];
+		// TODO return only one best string
+		addTime(NORMALIZATION, System.nanoTime() - time);
+		
+		// interpret question
+		Future<QuestionInterpretation[]> qisResult =
+			start(new Step<QuestionInterpretation[]>(INTERPRETATION) {
+				protected QuestionInterpretation[] run() {
+					return QuestionInterpreter.interpret(qn, stemmed);
+				}
+			});
+		
+		// extract keywords
+		time = System.nanoTime();
+		String[] kws = KeywordExtractor.getKeywords(verbMod, context);
+		addTime(KEYWORDS, System.nanoTime() - time);
+		if (listener != null) listener.keywordsExtracted(question, kws);
+		
+		// extract terms and set relative frequencies
+		String[][] nes = get(nesResult);
+		time = System.nanoTime();
+		Term[] terms = TermExtractor.getTerms(verbMod, context, nes,
+				dicts.toArray(new Dictionary[dicts.size()]));
+		for (Term term : terms)
+			term.setRelFrequency(WordFrequencies.lookupRel(term.getText()));
+		addTime(TERMS, System.nanoTime() - time);
+		
+		// extract predicates
+		String[] ats = get(atsResult);
+		time = System.nanoTime();
+		Predicate[] ps = (predicates != null) ? predicates
+				: PredicateExtractor.getPredicates(qn, verbMod, ats, terms);
+		addTime(PREDICATES, System.nanoTime() - time);
+		
+		// expand terms
+		time = System.nanoTime();
+		TermExpander.expandTerms(terms, ps,
+				ontologies.toArray(new Ontology[ontologies.size()]));
+		addTime(EXPANSION, System.nanoTime() - time);
+		
+		String focus = get(focusResult);
+		QuestionInterpretation[] qis = get(qisResult);
+		
+		synchronized (QuestionAnalysis.class) {
+			totalTime += System.nanoTime() - start;
+			numAnalyzed++;
+		}
+		
+		return new AnalyzedQuestion(question, qn, stemmed, verbMod, kws, nes,
+				terms, focus, ats, qis, ps);
+	}
     
     public static void main (String[] args) {
         String[] atypes = getAtypes(args[0]);
@@ -0,0 +1,370 @@
+package info.ephyra.questionanalysis;
+
+import info.ephyra.util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Caches the results of the question analysis. Questions that only differ
+ * in case, sentence punctuation around the words or whitespace have the same
+ * signature and share an entry, so a question that is asked again in a slightly different form is
+ * not analyzed again.</p>
+ * 
+ * <p>The <code>AnalyzedQuestions</code> are stored in serialized form, so
+ * each lookup returns a new copy that can be modified by the caller. The
+ * cache is persistent: it is read from a file when it is enabled and written
+ * back when the JVM shuts down. The file records a fingerprint of the models
+ * and pattern files the analysis depends on, if any of them has changed, the
+ * cached entries are dropped. The cache can also be invalidated explicitly,
+ * e.g. when the question patterns are reloaded.</p>
+ * 
+ * <p>The cache is disabled by default.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class QuestionAnalysisCache {
+	/** Magic number at the beginning of a cache file. */
+	private static final int MAGIC = 0x51414332;
+	/**
+	 * Sentence punctuation at the beginning or end of a token. Symbols within
+	 * tokens and other symbols, e.g. in "C++", "-5", "5%" or "3.5", are part
+	 * of the signature.
+	 */
+	private static final Pattern PUNCTUATION_P = Pattern.compile(
+			"(?<=^|\\s)[?!.,;:\"']++|[?!.,;:\"']++(?=\\s|$)");
+	/** Maximum number of cached questions. */
+	private static final int MAX_ENTRIES = 10000;
+	
+	/** Cache file or <code>null</code> if the cache is disabled. */
+	private static File cacheFile;
+	/** Fingerprint of the files the question analysis depends on. */
+	private static long fingerprint;
+	/** Serialized <code>AnalyzedQuestions</code> by signature. */
+	private static LinkedHashMap<String, byte[]> entries =
+		new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 20261019;
+			
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> e) {
+				return size() > MAX_ENTRIES;
+			}
+		};
+	/** Whether the cache was modified since it was read or written. */
+	private static boolean modified;
+	/** Whether the cache is written when the JVM shuts down. */
+	private static boolean saveOnExit;
+	/** Number of lookups that found an entry. */
+	private static long hits;
+	/** Number of lookups that did not find an entry. */
+	private static long misses;
+	
+	/**
+	 * Returns the signature of a question, i.e. the question in lower case
+	 * without sentence punctuation at the beginning or end of the tokens and
+	 * with single blanks between the tokens.
+	 * 
+	 * @param question question string
+	 * @return signature of the question
+	 */
+	public static String getSignature(String question) {
+		String signature = PUNCTUATION_P.matcher(question.toLowerCase())
+			.replaceAll(" ");
+		
+		return signature.replaceAll("\\s++", " ").trim();
+	}
+	
+	/**
+	 * Returns the key of a question in the given context.
+	 * 
+	 * @param question question string
+	 * @param context context string
+	 * @return key of the entry
+	 */
+	private static String getKey(String question, String context) {
+		return getSignature(question) + "\n" + context;
+	}
+	
+	/**
+	 * Computes a fingerprint of files and directories from their paths, sizes
+	 * and modification times.
+	 * 
+	 * @param paths files and directories
+	 * @return fingerprint
+	 */
+	private static long getFingerprint(String[] paths) {
+		ArrayList<File> files = new ArrayList<File>();
+		for (String path : paths) {
+			File file = new File(path);
+			if (file.isDirectory()) {
+				files.add(file);
+				for (File f : FileUtils.getFilesRec(path)) files.add(f);
+			} else {
+				files.add(file);
+			}
+		}
+		
+		Collections.sort(files);
+		
+		long h = 0xcbf29ce484222325L;
+		for (File file : files) {
+			String s = file.getPath() + ":" + file.length() + ":" +
+				file.lastModified() + ";";
+			for (int i = 0; i < s.length(); i++) {
+				h ^= s.charAt(i);
+				h *= 0x100000001b3L;
+			}
+		}
+		
+		return h;
+	}
+	
+	/**
+	 * Enables the cache and reads the cached entries from a file. The entries
+	 * are dropped if any of the files the question analysis depends on has
+	 * changed since they were written.
+	 * 
+	 * @param filename cache file
+	 * @param dependencies files and directories the question analysis depends
+	 * 					   on, e.g. models and pattern files
+	 * @return <code>true</code> iff cached entries were read
+	 */
+	public static synchronized boolean enable(String filename,
+			String... dependencies) {
+		cacheFile = new File(filename);
+		fingerprint = getFingerprint(dependencies);
+		entries.clear();
+		modified = false;
+		
+		if (!saveOnExit) {
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					save();
+				}
+			});
+			saveOnExit = true;
+		}
+		
+		if (!cacheFile.exists()) return false;
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(cacheFile)));
+			try {
+				if (in.readInt() != MAGIC ||
+						in.readLong() != fingerprint) {
+					modified = true;  // overwrite outdated file
+					return false;
+				}
+				
+				int size = in.readInt();
+				for (int i = 0; i < size; i++) {
+					String key = in.readUTF();
+					byte[] entry = new byte[in.readInt()];
+					in.readFully(entry);
+					entries.put(key, entry);
+				}
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			entries.clear();
+			modified = true;
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Disables the cache. Cached entries are not written to the cache file.
+	 */
+	public static synchronized void disable() {
+		cacheFile = null;
+		entries.clear();
+	}
+	
+	/**
+	 * Checks if the cache is enabled.
+	 * 
+	 * @return <code>true</code> iff the cache is enabled
+	 */
+	public static synchronized boolean isEnabled() {
+		return cacheFile != null;
+	}
+	
+	/**
+	 * Drops all cached entries, e.g. because a model or pattern file has been
+	 * reloaded.
+	 */
+	public static synchronized void invalidate() {
+		if (entries.isEmpty()) return;
+		
+		entries.clear();
+		modified = true;
+	}
+	
+	/**
+	 * Writes the cached entries to the cache file if they were modified.
+	 * 
+	 * @return <code>true</code> iff the cache file is up to date
+	 */
+	public static synchronized boolean save() {
+		if (cacheFile == null) return false;
+		if (!modified) return true;
+		
+		File tmpFile = new File(cacheFile.getPath() + ".tmp");
+		try {
+			File dir = cacheFile.getAbsoluteFile().getParentFile();
+			if (dir != null) dir.mkdirs();
+			
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			try {
+				out.writeInt(MAGIC);
+				out.writeLong(fingerprint);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeInt(entry.getValue().length);
+					out.write(entry.getValue());
+				}
+			} finally {
+				out.close();
+			}
+			
+			// replace the cache file only after it has been written completely
+			cacheFile.delete();
+			if (!tmpFile.renameTo(cacheFile)) return false;
+		} catch (IOException e) {
+			tmpFile.delete();
+			return false;
+		}
+		
+		modified = false;
+		return true;
+	}
+	
+	/**
+	 * Looks up the analysis of a question in the given context.
+	 * 
+	 * @param question question string
+	 * @param context context string
+	 * @return copy of the analyzed question or <code>null</code> if the
+	 * 		   question is not cached
+	 */
+	public static AnalyzedQuestion get(String question, String context) {
+		byte[] entry;
+		synchronized (QuestionAnalysisCache.class) {
+			if (cacheFile == null) return null;
+			
+			entry = entries.get(getKey(question, context));
+			if (entry == null) {
+				misses++;
+				return null;
+			}
+		}
+		
+		AnalyzedQuestion aq;
+		try {
+			ObjectInputStream in =
+				new ObjectInputStream(new ByteArrayInputStream(entry));
+			aq = (AnalyzedQuestion) in.readObject();
+		} catch (Exception e) {
+			// entry was written by an incompatible version of the classes
+			synchronized (QuestionAnalysisCache.class) {
+				entries.remove(getKey(question, context));
+				modified = true;
+				misses++;
+			}
+			return null;
+		}
+		synchronized (QuestionAnalysisCache.class) {
+			hits++;
+		}
+		
+		aq.setQuestion(question);
+		return aq;
+	}
+	
+	/**
+	 * Caches the analysis of a question in the given context.
+	 * 
+	 * @param question question string
+	 * @param context context string
+	 * @param aq analyzed question
+	 */
+	public static void put(String question, String context,
+			AnalyzedQuestion aq) {
+		if (!isEnabled()) return;
+		
+		byte[] entry;
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			ObjectOutputStream out = new ObjectOutputStream(bytes);
+			out.writeObject(aq);
+			out.close();
+			entry = bytes.toByteArray();
+		} catch (IOException e) {
+			return;  // not serializable, analyze the question again next time
+		}
+		
+		synchronized (QuestionAnalysisCache.class) {
+			if (cacheFile == null) return;
+			
+			entries.put(getKey(question, context), entry);
+			modified = true;
+		}
+	}
+	
+	/**
+	 * Returns the number of cached questions.
+	 * 
+	 * @return number of entries
+	 */
+	public static synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * Returns the number of lookups that found an entry.
+	 * 
+	 * @return number of hits
+	 */
+	public static synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * Returns the number of lookups that did not find an entry.
+	 * 
+	 * @return number of misses
+	 */
+	public static synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * Returns the fraction of lookups that found an entry.
+	 * 
+	 * @return hit rate between 0 and 1
+	 */
+	public static synchronized double getHitRate() {
+		long lookups = hits + misses;
+		
+		return (lookups == 0) ? 0 : (double) hits / lookups;
+	}
+}
@@ -6,14 +6,20 @@ import info.ephyra.nlp.semantics.ontologies.WordNet;
 import info.ephyra.util.Dictionary;
 import info.ephyra.util.FileUtils;
 import info.ephyra.util.HashDictionary;
+import info.ephyra.util.PatternBank;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
 import java.util.StringTokenizer;
 import java.util.regex.PatternSyntaxException;
 
@@ -24,12 +30,24 @@ import javatools.PlingStemmer;
  * TARGET, the CONTEXT and the PROPERTY it asks for.
  * 
  * @author Nico Schlaefer
- * @version 2005-11-09
+ * @version 2026-10-19
  */
 public class QuestionInterpreter {
+	/**
+	 * Version of the sections of the pattern bank. Must be incremented when
+	 * their format, the keyword tokens or the way the patterns are derived
+	 * from the descriptors changes, so that existing banks are rebuilt.
+	 */
+	private static final int BANK_VERSION = 1;
+	
 	/** The patterns that are applied to a question. */
 	private static ArrayList<QuestionPattern> questionPatterns =
 		new ArrayList<QuestionPattern>();
+	/**
+	 * Index that determines the question patterns that can match a question.
+	 * Built when the patterns are first applied and dropped when they change.
+	 */
+	private static QuestionPatternIndex patternIndex;
 	/** For each PROPERTY a dictionary of keywords. */
 	private static Hashtable<String, HashDictionary> keywords =
 		new Hashtable<String, HashDictionary>();
@@ -41,22 +59,39 @@ public class QuestionInterpreter {
 		new Hashtable<String, String>();
 	
 	/**
-	 * Adds the keywords in a descriptor of a question pattern to the dictionary
-	 * for the respective PROPERTY.
+	 * Gets the tokens in a descriptor of a question pattern that are long
+	 * enough to be keywords.
 	 * 
-	 * @param expr pattern descriptor 
-	 * @param prop PROPERTY the question pattern belongs to
+	 * @param expr pattern descriptor
+	 * @return tokens with a length of at least 3
 	 */
-	private static void addKeywords(String expr, String prop) {
+	private static String[] getKeywordTokens(String expr) {
+		ArrayList<String> tokens = new ArrayList<String>();
+		
 		// tokenize expr, delimiters are meta-characters, '<', '>' and blank
 		StringTokenizer st = new StringTokenizer(expr, "\\|*+?.^$(){}[]<> ");
 		
 		String token;
-		HashDictionary dict;
 		while (st.hasMoreTokens()) {
 			token = st.nextToken();
-			if (token.length() > 2 && !FunctionWords.lookup(token)) {
-				// token has a length of at least 3 and is not a function word
+			if (token.length() > 2) tokens.add(token);
+		}
+		
+		return tokens.toArray(new String[tokens.size()]);
+	}
+	
+	/**
+	 * Adds keywords to the dictionary for the respective PROPERTY. Function
+	 * words are skipped.
+	 * 
+	 * @param tokens tokens from descriptors of question patterns
+	 * @param prop PROPERTY the question patterns belong to
+	 */
+	private static void addKeywords(String[] tokens, String prop) {
+		HashDictionary dict;
+		for (String token : tokens) {
+			if (!FunctionWords.lookup(token)) {
+				// token is not a function word
 				dict = keywords.get(prop);
 				if (dict == null) {  // new dictionary
 					dict = new HashDictionary();
@@ -69,24 +104,84 @@ public class QuestionInterpreter {
 	}
 	
 	/**
-	 * Loads the question patterns from a directory of PROPERTY files. Each file
-	 * contains a list of pattern descriptors. Their format is described in the
-	 * documentation of the class <code>QuestionPattern</code>.
+	 * <p>Loads the question patterns from a directory of PROPERTY files. Each
+	 * file contains a list of pattern descriptors. Their format is described in
+	 * the documentation of the class <code>QuestionPattern</code>.</p>
+	 * 
+	 * <p>If the pattern bank for the directory is up to date, it is
+	 * memory-mapped instead and the regular expressions are compiled when the
+	 * patterns are first applied. Otherwise the files are read and the pattern
+	 * bank is written.</p>
 	 * 
 	 * @param dir directory of the question patterns
 	 * @return true, iff the question patterns were loaded successfully
 	 */
 	public static boolean loadPatterns(String dir) {
+		patternIndex = null;
+		QuestionAnalysisCache.invalidate();
+		
+		if (PatternBank.isUpToDate(dir, BANK_VERSION)) {
+			try {
+				loadPatternBank(dir);
+				return true;
+			} catch (IOException e) {}  // read the PROPERTY files
+		}
+		
+		return compilePatterns(dir);
+	}
+	
+	/**
+	 * Loads the question patterns from a pattern bank.
+	 * 
+	 * @param dir directory of the question patterns
+	 * @throws IOException if the pattern bank could not be read
+	 */
+	private static void loadPatternBank(String dir) throws IOException {
+		PatternBank bank = PatternBank.load(dir);
+		
+		for (String prop : bank.getProperties()) {
+			ByteBuffer section = bank.getSection(prop);
+			
+			String[] questionTemplate = PatternBank.getStrings(section);
+			if (questionTemplate.length > 0)
+				questionTemplates.put(prop, questionTemplate[0]);
+			String[] answerTemplate = PatternBank.getStrings(section);
+			if (answerTemplate.length > 0)
+				answerTemplates.put(prop, answerTemplate[0]);
+			for (String expr : PatternBank.getStrings(section))
+				questionPatterns.add(new QuestionPattern(expr, prop, false));
+			addKeywords(PatternBank.getStrings(section), prop);
+		}
+	}
+	
+	/**
+	 * Loads the question patterns from a directory of PROPERTY files and
+	 * writes the pattern bank for the directory. For each PROPERTY, the bank
+	 * holds the question template and the answer template, if available, the
+	 * pattern descriptors and the tokens that are candidates for keywords.
+	 * 
+	 * @param dir directory of the question patterns
+	 * @return true, iff the question patterns were loaded successfully
+	 */
+	public static boolean compilePatterns(String dir) {
+		patternIndex = null;
+		
 		File[] files = FileUtils.getFiles(dir);
+		String[] props = new String[files.length];
+		HashMap<String, byte[]> sections = new HashMap<String, byte[]>();
 		
 		try {
 			BufferedReader in;
 			String prop, line;
 			
-			for (File file : files) {
-				prop = file.getName();
-				in = new BufferedReader(new FileReader(file));
+			for (int i = 0; i < files.length; i++) {
+				prop = files[i].getName();
+				in = new BufferedReader(new FileReader(files[i]));
 				
+				String questionTemplate = null, answerTemplate = null;
+				ArrayList<String> exprs = new ArrayList<String>();
+				LinkedHashSet<String> keywordTokens =
+					new LinkedHashSet<String>();
 				while (in.ready()) {
 					line = in.readLine().trim();
 					if (line.length() == 0 || line.startsWith("//"))
@@ -95,19 +190,26 @@ public class QuestionInterpreter {
 					if (line.startsWith("QUESTION_TEMPLATE")) {
 						// add question template
 						String[] tokens = line.split("\\s+", 2);
-						if (tokens.length > 1)
+						if (tokens.length > 1) {
 							questionTemplates.put(prop, tokens[1]);
+							questionTemplate = tokens[1];
+						}
 					} else if (line.startsWith("ANSWER_TEMPLATE")) {
 						// add answer template
 						String[] tokens = line.split("\\s+", 2);
-						if (tokens.length > 1)
+						if (tokens.length > 1) {
 							answerTemplates.put(prop, tokens[1]);
+							answerTemplate = tokens[1];
+						}
 					} else {
 						try {
 							// add question pattern
 							questionPatterns.add(new QuestionPattern(line, prop));
+							exprs.add(line);
 							// add keywords to the dictionary for prop
-							addKeywords(line, prop);
+							String[] ts = getKeywordTokens(line);
+							addKeywords(ts, prop);
+							keywordTokens.addAll(Arrays.asList(ts));
 						} catch (PatternSyntaxException pse) {
 							MsgPrinter.printErrorMsg("Problem loading pattern:\n" +
 													 prop + " " + line);
@@ -117,14 +219,49 @@ public class QuestionInterpreter {
 				}
 				
 				in.close();
+				
+				// serialize the patterns for the pattern bank
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				PatternBank.putStrings(out, (questionTemplate != null) ?
+						new String[] {questionTemplate} : new String[0]);
+				PatternBank.putStrings(out, (answerTemplate != null) ?
+						new String[] {answerTemplate} : new String[0]);
+				PatternBank.putStrings(out,
+						exprs.toArray(new String[exprs.size()]));
+				PatternBank.putStrings(out, keywordTokens.toArray(
+						new String[keywordTokens.size()]));
+				out.close();
+				props[i] = prop;
+				sections.put(prop, bytes.toByteArray());
 			}
 		} catch (IOException e) {
 			return false;
 		}
 		
+		try {
+			PatternBank.write(dir, BANK_VERSION, props, sections);
+		} catch (IOException e) {
+			MsgPrinter.printErrorMsg("Could not write " +
+									 PatternBank.getBankFile(dir));
+		}
+		
 		return true;
 	}
 	
+	/**
+	 * Gets the index over the question patterns. The index is built if the
+	 * patterns changed since it was last used.
+	 * 
+	 * @return index over the question patterns
+	 */
+	private static synchronized QuestionPatternIndex getIndex() {
+		if (patternIndex == null)
+			patternIndex = new QuestionPatternIndex(questionPatterns);
+		
+		return patternIndex;
+	}
+	
 	/**
 	 * Interprets a question by applying the question patterns and returns the
 	 * interpretations of minimal length.
@@ -139,10 +276,15 @@ public class QuestionInterpreter {
 		ArrayList<QuestionInterpretation> qis =
 			new ArrayList<QuestionInterpretation>();
 		
-		// apply the question patterns
-		for (QuestionPattern questionPattern : questionPatterns) {
+		// apply the question patterns that can match the question
+		QuestionPatternIndex index = getIndex();
+		QuestionPattern[] patterns = index.getPatterns();
+		boolean[] candidates = index.getCandidates(stemmed);
+		for (int i = 0; i < patterns.length; i++) {
+			if (!candidates[i]) continue;
+			
 			QuestionInterpretation qi =
-				questionPattern.apply(qn, stemmed);
+				patterns[i].apply(qn, stemmed);
 			
 			if (qi != null) qis.add(qi);
 		}
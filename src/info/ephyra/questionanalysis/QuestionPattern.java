@@ -1,6 +1,7 @@
 package info.ephyra.questionanalysis;
 
 import info.ephyra.nlp.OpenNLP;
+import info.ephyra.util.RegexLiterals;
 
 import java.util.ArrayList;
 import java.util.Hashtable;
@@ -20,8 +21,13 @@ public class QuestionPattern {
 	private static final int MAX_TARGET = 10;
 	/** Maximum length of a CONTEXT object in tokens. */
 	private static final int MAX_CONTEXT = 10;
-	/** The <code>Pattern</code> that is applied to a question string. */
-	private Pattern pattern;
+	/** The pattern descriptor from which the pattern is built. */
+	private String desc;
+	/**
+	 * The <code>Pattern</code> that is applied to a question string or
+	 * <code>null</code> if it has not been compiled yet.
+	 */
+	private volatile Pattern pattern;
 	/** The PROPERTY that a question which matches this pattern asks for. */
 	private String property;
 	/** ID of the group that represents the TARGET of the question. */
@@ -41,8 +47,35 @@ public class QuestionPattern {
 	 * @param prop PROPERTY that a question which matches the pattern asks for
 	 */
 	public QuestionPattern(String expr, String prop) {
+		this(expr, prop, true);
+	}
+	
+	/**
+	 * Creates a <code>QuestionPattern</code> from a descriptor. If the
+	 * regular expression is not compiled immediately, it is compiled when the
+	 * pattern is first applied, thus the descriptor must be valid.
+	 * 
+	 * @param expr pattern descriptor
+	 * @param prop PROPERTY that a question which matches the pattern asks for
+	 * @param compile compile the regular expression immediately
+	 */
+	public QuestionPattern(String expr, String prop, boolean compile) {
+		desc = expr;  // pattern descriptor
 		property = prop;  // PROPERTY that this pattern extracts
 		
+		if (compile) compile();
+	}
+	
+	/**
+	 * Builds the regular expression from the pattern descriptor and compiles
+	 * it, unless this has been done before.
+	 * 
+	 * @return the compiled pattern
+	 */
+	private synchronized Pattern compile() {
+		if (pattern != null) return pattern;
+		String expr = desc;
+		
 		// add ".*?" at the beginning of the expression
 		expr = ".*?" + expr;  // reluctant
 		// add ".*+" at the end of the expression, if it does not end with a
@@ -56,6 +89,8 @@ public class QuestionPattern {
 		
 		// compile regular expression (case insensitive)
 		pattern = Pattern.compile(expr, Pattern.CASE_INSENSITIVE);
+		
+		return pattern;
 	}
 	
 	/**
@@ -186,6 +221,28 @@ public class QuestionPattern {
 		return object.replaceFirst("(?i)^(an?|the) ", "").trim();
 	}
 	
+	/**
+	 * Returns the pattern descriptor.
+	 * 
+	 * @return pattern descriptor
+	 */
+	public String getDesc() {
+		return desc;
+	}
+	
+	/**
+	 * Returns strings that occur in every question the pattern matches, in the
+	 * form returned by <code>RegexLiterals.getRequiredLiterals()</code>.
+	 * 
+	 * @return clauses of alternative strings, possibly an empty array
+	 */
+	public String[][] getRequiredLiterals() {
+		// TARGET and CONTEXT tags match arbitrary strings
+		String expr = desc.replace("<TO>", "(.*?)").replace("<CO>", "(.*?)");
+		
+		return RegexLiterals.getRequiredLiterals(expr);
+	}
+	
 	/**
 	 * Returns the PROPERTY that a question which matches the pattern asks for.
 	 * 
@@ -206,6 +263,9 @@ public class QuestionPattern {
 	 * 		   question does not match the pattern
 	 */
 	public QuestionInterpretation apply(String qn, String stemmed) {
+		Pattern pattern = this.pattern;
+		if (pattern == null) pattern = compile();
+		
 		Matcher m = pattern.matcher(stemmed);
 		
 		if (m.matches()) {
@@ -0,0 +1,106 @@
+package info.ephyra.questionanalysis;
+
+import info.ephyra.util.AhoCorasick;
+import info.ephyra.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * <p>An index over the question patterns that determines the patterns that
+ * can match a question without applying them.</p>
+ * 
+ * <p>For each pattern, the keywords that occur in every question it matches
+ * are obtained from <code>QuestionPattern.getRequiredLiterals()</code>, as
+ * clauses of alternative keywords. The keywords of all patterns are compiled
+ * into an Aho-Corasick automaton, so that a question is scanned only once to
+ * find the candidate patterns, i.e. those patterns with at least one keyword
+ * of each clause in the question. Only the candidates need to be applied, the
+ * result is the same as if all patterns were applied.</p>
+ * 
+ * <p>The index is immutable and must be rebuilt when the patterns change.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class QuestionPatternIndex {
+	/** The patterns in the order of the collection. */
+	private QuestionPattern[] patterns;
+	/** For each pattern the clauses of alternative keyword IDs. */
+	private int[][][] clauses;
+	/** Finds the keywords in a question. */
+	private AhoCorasick keywords;
+	
+	/**
+	 * Builds an index over a collection of question patterns.
+	 * 
+	 * @param patterns the question patterns
+	 */
+	public QuestionPatternIndex(Collection<QuestionPattern> patterns) {
+		this.patterns = patterns.toArray(new QuestionPattern[patterns.size()]);
+		clauses = new int[this.patterns.length][][];
+		
+		// assign IDs to the distinct keywords
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		ArrayList<String> kws = new ArrayList<String>();
+		for (int i = 0; i < this.patterns.length; i++) {
+			String[][] cs = this.patterns[i].getRequiredLiterals();
+			clauses[i] = new int[cs.length][];
+			for (int j = 0; j < cs.length; j++) {
+				clauses[i][j] = new int[cs[j].length];
+				for (int k = 0; k < cs[j].length; k++) {
+					Integer id = ids.get(cs[j][k]);
+					if (id == null) {
+						id = kws.size();
+						ids.put(cs[j][k], id);
+						kws.add(cs[j][k]);
+					}
+					clauses[i][j][k] = id;
+				}
+			}
+		}
+		
+		keywords = new AhoCorasick(kws.toArray(new String[kws.size()]));
+	}
+	
+	/**
+	 * Returns the question patterns in the order of the collection the index
+	 * was built from.
+	 * 
+	 * @return the question patterns
+	 */
+	public QuestionPattern[] getPatterns() {
+		return patterns;
+	}
+	
+	/**
+	 * Determines the question patterns that can match a question.
+	 * 
+	 * @param question the question string the patterns are applied to
+	 * @return for each pattern in the order of <code>getPatterns()</code>
+	 * 		   <code>true</code> iff it can match the question
+	 */
+	public boolean[] getCandidates(String question) {
+		boolean[] found =
+			keywords.findAll(StringUtils.toLowerCaseAscii(question));
+		
+		boolean[] candidates = new boolean[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			candidates[i] = true;
+			for (int[] clause : clauses[i]) {
+				boolean satisfied = false;
+				for (int id : clause)
+					if (found[id]) {
+						satisfied = true;
+						break;
+					}
+				if (!satisfied) {
+					candidates[i] = false;
+					break;
+				}
+			}
+		}
+		
+		return candidates;
+	}
+}
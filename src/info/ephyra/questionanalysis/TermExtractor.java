@@ -12,6 +12,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import opennlp.tools.util.Span;
+
 /**
  * Extracts single- and multi-token terms from a sentence. Multi-token terms are
  * named entities or compound terms found in dictionaries.
@@ -55,15 +57,12 @@ public class TermExtractor {
 	 * @return named entities in the sentence
 	 */
 	public static String[][] getNes(String sentence) {
-		String[] tokens = NETagger.tokenize(sentence);
-		String[][] nes = NETagger.extractNes(new String[][] {tokens})[0];
-		
-		// untokenize named entities
-		for (int i = 0; i < nes.length; i++)
-			for (int j = 0; j < nes[i].length; j++)
-				nes[i][j] = OpenNLP.untokenize(nes[i][j], sentence);
+		Span[] spans = NETagger.tokenizeToSpans(sentence);
+		String[] tokens = NETagger.spansToStrings(spans, sentence);
 		
-		return nes;
+		// extract named entities and map them to the original sentence
+		return NETagger.extractNes(new String[][] {tokens},
+				new String[] {sentence}, new Span[][] {spans})[0];
 	}
 	
 	/**
@@ -120,8 +119,12 @@ public class TermExtractor {
 	 */
 	public static Term[] getTerms(String sentence, String[][] nes,
 			Dictionary[] dicts) {
-		// extract tokens
-		String[] tokens = OpenNLP.tokenize(sentence);
+		// extract tokens and their positions in the sentence
+		Span[] spans = OpenNLP.tokenizeToSpans(sentence);
+		String[] tokens = new String[spans.length];
+		for (int i = 0; i < spans.length; i++)
+			tokens[i] = sentence.substring(spans[i].getStart(),
+					spans[i].getEnd());
 		// tag part of speech
 		String[] pos = OpenNLP.tagPos(tokens);
 		// tag phrase chunks
@@ -148,10 +151,8 @@ public class TermExtractor {
 				if (skip) continue;
 				
 				// get phrase spanning the tokens
-				String text = tokens[id];
-				for (int offset = 1; offset < length; offset++)
-					text += " " + tokens[id + offset];
-				text = OpenNLP.untokenize(text, sentence);
+				String text = sentence.substring(spans[id].getStart(),
+						spans[id + length - 1].getEnd());
 				
 				// phrase is a duplicate?
 				if (!termSet.add(StringUtils.normalize(text))) continue;
@@ -29,7 +29,7 @@ import edu.cmu.lti.javelin.qa.Term;
  * Finder of the focus word, or target word, of a question.
  * 
  * @author Justin Betteridge
- * @version 2008-02-10
+ * @version 2026-10-19
  */
 public class FocusFinder {
     
@@ -228,7 +228,11 @@ public class FocusFinder {
             while (m.find()) phrSpaces++;
                 
             try {
-                IndexWord indexWord = Dictionary.getInstance().lookupIndexWord(POS.NOUN, phr);
+                IndexWord indexWord;
+                // the JWNL dictionary is not thread-safe
+                synchronized (Dictionary.getInstance()) {
+                    indexWord = Dictionary.getInstance().lookupIndexWord(POS.NOUN, phr);
+                }
                 if (indexWord == null) throw new Exception("Failed to get index word");
                 int wrdSpaces = 0;
                 Matcher m2 = Pattern.compile(" ").matcher(indexWord.getLemma());
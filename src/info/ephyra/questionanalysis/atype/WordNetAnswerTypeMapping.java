@@ -30,7 +30,7 @@ import edu.cmu.lti.javelin.qa.Term;
  * Uses WordNet to map question focus terms to answer types.
  * 
  * @author Justin Betteridge
- * @version 2008-02-10
+ * @version 2026-10-19
  */
 public class WordNetAnswerTypeMapping {
     
@@ -116,16 +116,19 @@ public class WordNetAnswerTypeMapping {
         String focusText = focusTerm.getText();
         List<AnswerType> focusTypes = new ArrayList<AnswerType>();
 
+        // the JWNL dictionary is not thread-safe
         try {
-            IndexWord indexWord = Dictionary.getInstance().lookupIndexWord(POS.NOUN, focusText);
-            if (indexWord == null) throw new Exception("Failed to get index word");
-            Synset[] senses = indexWord.getSenses();
-            if (senses == null) throw new Exception("Failed to get synsets");
-            
-            for (Synset sense : senses) {
-                AnswerType type = findWnMapMatch(sense,0);
-                if (type != null) {
-                    focusTypes.add(type);
+            synchronized (Dictionary.getInstance()) {
+                IndexWord indexWord = Dictionary.getInstance().lookupIndexWord(POS.NOUN, focusText);
+                if (indexWord == null) throw new Exception("Failed to get index word");
+                Synset[] senses = indexWord.getSenses();
+                if (senses == null) throw new Exception("Failed to get synsets");
+                
+                for (Synset sense : senses) {
+                    AnswerType type = findWnMapMatch(sense,0);
+                    if (type != null) {
+                        focusTypes.add(type);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -32,7 +32,7 @@ import edu.cmu.minorthird.classify.MutableInstance;
  * for a specification of the input file format.
  * 
  * @author Justin Betteridge
- * @version 2008-02-10
+ * @version 2026-10-19
  */
 public class EnglishFeatureExtractor extends FeatureExtractor{
     
@@ -158,7 +158,11 @@ public class EnglishFeatureExtractor extends FeatureExtractor{
         String mainVerb = tree.getHeadWord();
         //mainVerb = WordnetInterface.getLemma("VERB",mainVerb);
         try {
-            IndexWord word = Dictionary.getInstance().lookupIndexWord(POS.VERB, mainVerb);
+            IndexWord word;
+            // the JWNL dictionary is not thread-safe
+            synchronized (Dictionary.getInstance()) {
+                word = Dictionary.getInstance().lookupIndexWord(POS.VERB, mainVerb);
+            }
             String lemma = null;
             if (word != null) lemma = word.getLemma();
             if (lemma != null) mainVerb = lemma;
@@ -3,6 +3,7 @@ package info.ephyra.search;
 import info.ephyra.nlp.semantics.Predicate;
 import info.ephyra.querygeneration.Query;
 import info.ephyra.questionanalysis.Term;
+import info.ephyra.util.StringUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -32,7 +33,7 @@ import java.util.Map;
  * inconsistent with <code>equals()</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2008-01-29
+ * @version 2026-10-19
  */
 public class Result implements Comparable<Result>, Serializable {
 	/** Version number used during deserialization. */
@@ -40,6 +41,8 @@ public class Result implements Comparable<Result>, Serializable {
 	
 	/** The answer string. */
 	private String answer;
+	/** The normalized answer string, computed when it is first needed. */
+	private transient String normAnswer;
 	/** A confidence measure for the answer, initially 0. */
 	private float score = 0;
 	/** A normalized confidence measure for the answer (optional). */
@@ -197,6 +200,17 @@ public class Result implements Comparable<Result>, Serializable {
 		return answer;
 	}
 	
+	/**
+	 * Returns the normalization of the answer string, as computed by
+	 * <code>StringUtils.normalize()</code>.
+	 * 
+	 * @return normalized answer string
+	 */
+	public String getNormalizedAnswer() {
+		if (normAnswer == null) normAnswer = StringUtils.normalize(answer);
+		return normAnswer;
+	}
+	
 	/**
 	 * Returns the confidence score of the result.
 	 * 
@@ -361,6 +375,7 @@ public class Result implements Comparable<Result>, Serializable {
 	 */
 	public void setAnswer(String answer) {
 		this.answer = answer;
+		normAnswer = null;
 	}
 	
 	/**
@@ -390,6 +405,15 @@ public class Result implements Comparable<Result>, Serializable {
 		this.normScore = normScore;
 	}
 	
+	/**
+	 * Sets the query that was used to obtain this result.
+	 * 
+	 * @param query <code>Query</code> object
+	 */
+	public void setQuery(Query query) {
+		this.query = query;
+	}
+	
 	/**
 	 * Sets the ID of a document that contains the answer.
 	 * 
@@ -529,6 +553,7 @@ public class Result implements Comparable<Result>, Serializable {
 	 */
 	public Result getCopy() {
 		Result result = new Result(answer, query, docID, hitPos);
+		result.normAnswer = normAnswer;
 		result.score = score;
 		result.normScore = normScore;
 		result.cacheID = cacheID;
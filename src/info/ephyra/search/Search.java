@@ -6,6 +6,7 @@ import info.ephyra.search.searchers.KnowledgeAnnotator;
 import info.ephyra.search.searchers.KnowledgeMiner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -21,8 +22,21 @@ import java.util.Set;
  * <code>Result</code> class in this package.
  * </p>
  * 
+ * <p>
+ * Queries that only need the keywords of the question can be sent to the
+ * <code>KnowledgeMiners</code> before the analysis of the question is complete.
+ * Their results are merged with the results of the remaining queries.
+ * </p>
+ * 
+ * <p>
+ * Each search belongs to a generation of searches, which ends when the
+ * results are reset for the next question. Results of searches from an
+ * earlier generation are dropped, so searches that outlive their question
+ * cannot affect the results of the next one.
+ * </p>
+ * 
  * @author Nico Schlaefer
- * @version 2007-05-29
+ * @version 2026-10-19
  */
 public class Search
 {
@@ -43,6 +57,39 @@ public class Search
     private static ArrayList<Result> results;
     /** Number pending of queries. */
     private static int pending;
+    /** Generation of the current searches. */
+    private static int generation;
+    /**
+     * Queries that were sent to the <code>KnowledgeMiners</code> before the
+     * analysis of the question was complete.
+     */
+    private static ArrayList<Query> earlyQueries = new ArrayList<Query>();
+
+    /**
+     * Starts a new generation of searches with empty results. Pending searches
+     * of the previous generation are no longer waited for, and their results
+     * are dropped.
+     */
+    private static void reset()
+    {
+        if (results == null)
+        {
+            results = new ArrayList<Result>();
+            pending = 0;
+            generation++;
+            return;
+        }
+
+        // searchers that synchronize on the old results see the new generation
+        ArrayList<Result> old = results;
+        synchronized (old)
+        {
+            results = new ArrayList<Result>();
+            pending = 0;
+            generation++;
+            old.notifyAll();
+        }
+    }
 
     /**
      * Searches the (semi)structured knowledge sources.
@@ -149,36 +196,129 @@ public class Search
         kms.clear();
     }
 
+    /**
+     * Sends queries to the <code>KnowledgeMiners</code> before the analysis of
+     * the question is complete. The searches run while the question is
+     * analyzed, the results are returned by the next call to
+     * <code>doSearch()</code>.
+     * 
+     * @param queries
+     *            queries generated from the keywords of the question
+     */
+    public static void doEarlySearch(Query[] queries)
+    {
+        reset();
+        earlyQueries.clear();
+
+        for (Query query : queries)
+        {
+            queryKMs(query);
+            earlyQueries.add(query);
+        }
+    }
+
     /**
      * Sends several alternative queries to all the searchers that have been
      * registered and returns the aggregated results.
      * 
+     * <p>
+     * If queries were sent with <code>doEarlySearch()</code>, a query with the
+     * same query string is not sent again, but the results of the early query
+     * are assigned to it. Results of early queries that do not correspond to
+     * any of the queries are dropped.
+     * </p>
+     * 
      * @param queries
      *            queries to be processed
      * @return results returned by the searchers
      */
     public static Result[] doSearch(Query[] queries)
     {
-        results = new ArrayList<Result>();
-        pending = 0;
+        if (earlyQueries.isEmpty())
+            reset();
+
+        // assign early queries to queries with the same query string
+        HashMap<Query, Query> assigned = new HashMap<Query, Query>();
+        for (Query early : earlyQueries)
+            assigned.put(early, null);
+        ArrayList<Query> toSend = new ArrayList<Query>();
+        for (Query query : queries)
+        {
+            Query early = null;
+            for (Query e : earlyQueries)
+                if (assigned.get(e) == null && e.getQueryString().equals(
+                        query.getQueryString()))
+                {
+                    early = e;
+                    break;
+                }
+            if (early != null)
+                assigned.put(early, query);
+            else
+                toSend.add(query);
+        }
+        earlyQueries.clear();
 
         // send only the first query to the KnowledgeAnnotators
         if (queries.length > 0)
             queryKAs(queries[0]);
 
-        // send all queries to the KnowledgeMiners
-        for (Query query : queries)
+        // send the remaining queries to the KnowledgeMiners
+        for (Query query : toSend)
             queryKMs(query);
 
         // wait until all queries have been completed
         waitForResults();
 
+        // merge results of early queries
+        if (!assigned.isEmpty())
+        {
+            ArrayList<Result> merged = new ArrayList<Result>();
+            for (Result result : results)
+                if (!assigned.containsKey(result.getQuery()))
+                    merged.add(result);
+                else if (assigned.get(result.getQuery()) != null)
+                {
+                    result.setQuery(assigned.get(result.getQuery()));
+                    merged.add(result);
+                }
+            results = merged;
+        }
+
         // drop duplicates among results from KnowledgeMiners
         results = dropDuplicates(results);
 
         return results.toArray(new Result[results.size()]);
     }
 
+    /**
+     * Discards the queries that were sent with <code>doEarlySearch()</code> if
+     * they were not followed by a call to <code>doSearch()</code>, e.g.
+     * because the analysis of the question failed. Their results are dropped.
+     */
+    public static void discardEarlySearch()
+    {
+        if (earlyQueries.isEmpty())
+            return;
+
+        reset();
+        earlyQueries.clear();
+    }
+
+    /**
+     * Returns the generation of the current searches. A
+     * <code>Searcher</code> passes it back with its results.
+     * 
+     * @return generation of the searches
+     */
+    public static int getGeneration()
+    {
+        synchronized (results)
+        {
+            return generation;
+        }
+    }
+
     /**
      * Delays a thread until there are less than MAX_PENDING pending queries.
      */
@@ -210,15 +350,21 @@ public class Search
 
     /**
      * Used by <code>Searchers</code> to return the results found in the
-     * knowledge sources.
+     * knowledge sources. Results of an earlier generation of searches are
+     * dropped.
      * 
      * @param results
      *            results found in the knowledge sources
+     * @param generation
+     *            generation of the search
      */
-    public static void addResults(Result[] results)
+    public static void addResults(Result[] results, int generation)
     {
         synchronized (Search.results)
         {
+            if (generation != Search.generation)
+                return; // the question has been abandoned
+
             for (Result result : results)
                 Search.results.add(result);
 
@@ -16,12 +16,13 @@ import lemurproject.indri.ScoredExtentResult;
  * documents are returned instead of paragraphs.</p>
  * 
  * <p>It runs as a separate thread, so several queries can be performed in
- * parallel.</p>
+ * parallel. The query environments are taken from an <code>IndriPool</code>
+ * and reused by subsequent queries.</p>
  * 
  * <p>This class extends the class <code>KnowledgeMiner</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-07-26
+ * @version 2026-10-19
  */
 public class IndriDocumentKM extends KnowledgeMiner {
 	/** Maximum total number of search results. */
@@ -136,24 +137,27 @@ public class IndriDocumentKM extends KnowledgeMiner {
 	 * Queries the Indri indices or servers and returns an array containing up
 	 * to <code>MAX_RESULTS_PERQUERY</code> search results.
 	 * 
-	 * @return Indri search results
+	 * @return Indri search results or an empty array, if the search failed
 	 */
 	protected Result[] doSearch() {
+		// get pool of query environments for the Indri indices or servers
+		IndriPool pool;
+		if (indriDirs != null && indriDirs.length > 0) {
+			pool = IndriPool.getPool(indriDirs, false);
+		} else if (indriUrls != null && indriUrls.length > 0) {
+			pool = IndriPool.getPool(indriUrls, true);
+		} else {
+			MsgPrinter.printErrorMsg("Directories of Indri indices or " +
+					"URLs of Indri servers required.");
+			return new Result[0];
+		}
+		
+		QueryEnvironment env = null;
+		boolean failed = true;
 		try {
-			// create query environment
-			QueryEnvironment env = new QueryEnvironment();
+			// get query environment
+			env = pool.acquire();
 			
-		    // add Indri indices or servers
-			if (indriDirs != null && indriDirs.length > 0) {
-				for (String indriDir : indriDirs) env.addIndex(indriDir);
-			} else if (indriUrls != null && indriUrls.length > 0) {
-				for (String indriUrl : indriUrls) env.addServer(indriUrl);
-			} else {
-				MsgPrinter.printErrorMsg("Directories of Indri indices or " +
-						"URLs of Indri servers required.");
-				System.exit(1);
-			}
-		    
 		    // run an Indri query, returning up to MAX_RESULTS_PERQUERY results
 		    ScoredExtentResult[] results =
 		    	env.runQuery(transformQueryString(query.getQueryString()),
@@ -174,19 +178,17 @@ public class IndriDocumentKM extends KnowledgeMiner {
 					docs[j+i] = documents[j].text;
 			}
 			String[] docNos = env.documentMetadata(results, "docno");
-		    
-		    // close query environment
-		    env.close();
+			failed = false;
 			
 			// return results
 			return getResults(docs, docNos, false);
 		} catch (Exception e) {
 			MsgPrinter.printSearchError(e);  // print search error message
 			
-			MsgPrinter.printErrorMsg("\nSearch failed.");
-			System.exit(1);
-			
-			return null;
+			return new Result[0];
+		} finally {
+			// return query environment to the pool
+			if (env != null) pool.release(env, failed);
 		}
 	}
 	
@@ -0,0 +1,205 @@
+package info.ephyra.search.searchers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import lemurproject.indri.QueryEnvironment;
+
+/**
+ * <p>A pool of opened Indri <code>QueryEnvironments</code> for one set of
+ * indices or servers. Opening an environment and adding the indices or
+ * servers is expensive, so the environments are reused by subsequent queries
+ * instead of being closed after each query.</p>
+ * 
+ * <p>An environment is only used by one thread at a time. Environments that
+ * have been idle for a while or that were used by a query that failed are
+ * checked before they are handed out again, broken environments are
+ * closed.</p>
+ * 
+ * <p>The idle environments of all pools are closed when the VM exits.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class IndriPool {
+	/** Maximum number of idle environments kept per pool. */
+	private static final int MAX_IDLE = 30;
+	/** Time in ms after which an idle environment is checked again. */
+	private static final long CHECK_INTERVAL = 60000;
+	
+	/** Pools by indices or servers. */
+	private static HashMap<String, IndriPool> pools =
+		new HashMap<String, IndriPool>();
+	/** Set if a shutdown hook closes the pools. */
+	private static boolean shutdownHook;
+	
+	/** Directories of Indri indices or URLs of Indri servers. */
+	private String[] locations;
+	/** <code>true</code> iff the locations are URLs of servers. */
+	private boolean isServers;
+	/** Idle environments, the most recently used one last. */
+	private ArrayList<QueryEnvironment> idle =
+		new ArrayList<QueryEnvironment>();
+	/** Times when the idle environments were last used. */
+	private ArrayList<Long> lastUsed = new ArrayList<Long>();
+	
+	/**
+	 * Returns the pool for the given indices or servers, creating it if
+	 * necessary.
+	 * 
+	 * @param locations directories of indices or URLs of servers
+	 * @param isServers <code>true</code> iff the first parameter provides URLs
+	 *                  of servers
+	 * @return pool of query environments
+	 */
+	public static synchronized IndriPool getPool(String[] locations,
+			boolean isServers) {
+		StringBuilder key = new StringBuilder(isServers ? "server" : "index");
+		for (String location : locations) key.append(';').append(location);
+		
+		// close the environments when the VM exits
+		if (!shutdownHook) {
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					closeAll();
+				}
+			});
+			shutdownHook = true;
+		}
+		
+		IndriPool pool = pools.get(key.toString());
+		if (pool == null) {
+			pool = new IndriPool(locations, isServers);
+			pools.put(key.toString(), pool);
+		}
+		
+		return pool;
+	}
+	
+	/**
+	 * Closes the idle environments of all pools.
+	 */
+	public static synchronized void closeAll() {
+		for (IndriPool pool : pools.values()) pool.close();
+	}
+	
+	/**
+	 * Creates a pool for the given indices or servers.
+	 * 
+	 * @param locations directories of indices or URLs of servers
+	 * @param isServers <code>true</code> iff the first parameter provides URLs
+	 *                  of servers
+	 */
+	private IndriPool(String[] locations, boolean isServers) {
+		this.locations = locations.clone();
+		this.isServers = isServers;
+	}
+	
+	/**
+	 * Opens a new environment and adds the indices or servers.
+	 * 
+	 * @return new query environment
+	 * @throws Exception if an index or server could not be added
+	 */
+	private QueryEnvironment open() throws Exception {
+		QueryEnvironment env = new QueryEnvironment();
+		
+		try {
+			for (String location : locations)
+				if (isServers) env.addServer(location);
+				else env.addIndex(location);
+		} catch (Exception e) {
+			discard(env);
+			throw e;
+		}
+		
+		return env;
+	}
+	
+	/**
+	 * Checks if an environment can still be used.
+	 * 
+	 * @param env query environment
+	 * @return <code>true</code> iff the environment responds
+	 */
+	private static boolean isHealthy(QueryEnvironment env) {
+		try {
+			return env.documentCount() >= 0;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Closes an environment, ignoring any errors.
+	 * 
+	 * @param env query environment
+	 */
+	private static void discard(QueryEnvironment env) {
+		try {
+			env.close();
+		} catch (Exception e) {}  // the environment is broken anyway
+	}
+	
+	/**
+	 * Takes an environment from the pool or opens a new one. The environment
+	 * must be returned with <code>release()</code> when the query is done.
+	 * 
+	 * @return query environment
+	 * @throws Exception if a new environment could not be opened
+	 */
+	public QueryEnvironment acquire() throws Exception {
+		while (true) {
+			QueryEnvironment env;
+			long time;
+			synchronized (this) {
+				if (idle.isEmpty()) break;
+				env = idle.remove(idle.size() - 1);
+				time = lastUsed.remove(lastUsed.size() - 1);
+			}
+			
+			if (System.currentTimeMillis() - time < CHECK_INTERVAL ||
+					isHealthy(env))
+				return env;
+			discard(env);
+		}
+		
+		return open();
+	}
+	
+	/**
+	 * Returns an environment to the pool. If the query failed, the environment
+	 * is only kept if it still responds.
+	 * 
+	 * @param env query environment
+	 * @param failed <code>true</code> iff the query failed
+	 */
+	public void release(QueryEnvironment env, boolean failed) {
+		if (failed && !isHealthy(env)) {
+			discard(env);
+			return;
+		}
+		
+		synchronized (this) {
+			if (idle.size() < MAX_IDLE) {
+				idle.add(env);
+				lastUsed.add(System.currentTimeMillis());
+				return;
+			}
+		}
+		discard(env);
+	}
+	
+	/**
+	 * Closes the idle environments.
+	 */
+	public void close() {
+		ArrayList<QueryEnvironment> envs;
+		synchronized (this) {
+			envs = new ArrayList<QueryEnvironment>(idle);
+			idle.clear();
+			lastUsed.clear();
+		}
+		
+		for (QueryEnvironment env : envs) discard(env);
+	}
+}
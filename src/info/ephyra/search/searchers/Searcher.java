@@ -1,5 +1,6 @@
 package info.ephyra.search.searchers;
 
+import info.ephyra.io.Logger;
 import info.ephyra.querygeneration.Query;
 import info.ephyra.search.Result;
 import info.ephyra.search.Search;
@@ -20,7 +21,7 @@ import info.ephyra.search.Search;
  * </p>
  * 
  * @author Nico Schlaefer
- * @version 2005-11-01
+ * @version 2026-10-19
  */
 public abstract class Searcher extends Thread
 {
@@ -28,6 +29,10 @@ public abstract class Searcher extends Thread
     protected Query query;
     /** The results found in the knowledge source. */
     protected Result[] results;
+    /** Generation of the searches when the thread was started. */
+    private int generation;
+    /** Request of the thread that started the search. */
+    private Integer request;
 
     /**
      * Searches an unstructured or (semi)structured knowledge source and returns
@@ -37,19 +42,33 @@ public abstract class Searcher extends Thread
      */
     protected abstract Result[] doSearch();
 
+    /**
+     * Remembers the current generation of searches and the request of the
+     * calling thread and starts the thread.
+     */
+    public synchronized void start()
+    {
+        generation = Search.getGeneration();
+        request = Logger.getRequest();
+
+        super.start();
+    }
+
     /**
      * Performs the search and passes the results to the static class
      * <code>Search</code>.
      */
     public void run()
     {
+        Logger.setRequest(request);
+
         if (query != null)
         {
             // perform search
             Result[] results = doSearch();
 
             // pass results to class Search
-            Search.addResults(results);
+            Search.addResults(results, generation);
         }
     }
 }
@@ -0,0 +1,195 @@
+package info.ephyra.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>An Aho-Corasick automaton finds all occurrences of a set of keywords in a
+ * text in a single left-to-right pass, independent of the number of
+ * keywords.</p>
+ * 
+ * <p>The keywords are compiled into a trie with failure links, which is stored
+ * in flat arrays. The outgoing edges of each state are sorted by their labels
+ * and looked up with a binary search. Keywords are matched exactly, i.e. the
+ * caller is responsible for normalizing the keywords and the text in the same
+ * way.</p>
+ * 
+ * <p>The automaton is immutable once it has been built and can be used by
+ * multiple threads concurrently.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class AhoCorasick {
+	/** The keywords. */
+	private String[] keywords;
+	/** For each keyword the next keyword that is equal to it or -1. */
+	private int[] duplicates;
+	/**
+	 * Index of the first outgoing edge of each state. The edges of state
+	 * <code>s</code> are <code>edgeStart[s]</code> to
+	 * <code>edgeStart[s + 1] - 1</code>.
+	 */
+	private int[] edgeStart;
+	/** Labels of the edges, sorted for each state. */
+	private char[] edgeLabels;
+	/** Target states of the edges. */
+	private int[] edgeTargets;
+	/** Failure link of each state. */
+	private int[] failure;
+	/** Keyword that ends in each state or -1. */
+	private int[] output;
+	/**
+	 * Next state on the failure path of each state in which a keyword ends or
+	 * -1.
+	 */
+	private int[] outputLink;
+	
+	/**
+	 * Builds an automaton for the given keywords.
+	 * 
+	 * @param keywords the keywords
+	 */
+	public AhoCorasick(String[] keywords) {
+		this.keywords = keywords;
+		duplicates = new int[keywords.length];
+		
+		// build the trie
+		ArrayList<TreeMap<Character, Integer>> trie =
+			new ArrayList<TreeMap<Character, Integer>>();
+		ArrayList<Integer> outputs = new ArrayList<Integer>();
+		trie.add(new TreeMap<Character, Integer>());
+		outputs.add(-1);
+		Map<String, Integer> last = new HashMap<String, Integer>();
+		for (int i = 0; i < keywords.length; i++) {
+			duplicates[i] = -1;
+			Integer previous = last.put(keywords[i], i);
+			if (previous != null) {  // keyword ends in the same state
+				duplicates[previous] = i;
+				continue;
+			}
+			
+			int state = 0;
+			for (int j = 0; j < keywords[i].length(); j++) {
+				Character c = keywords[i].charAt(j);
+				Integer next = trie.get(state).get(c);
+				if (next == null) {
+					next = trie.size();
+					trie.get(state).put(c, next);
+					trie.add(new TreeMap<Character, Integer>());
+					outputs.add(-1);
+				}
+				state = next;
+			}
+			outputs.set(state, i);
+		}
+		
+		// store the trie in flat arrays
+		int states = trie.size();
+		edgeStart = new int[states + 1];
+		edgeLabels = new char[states - 1];
+		edgeTargets = new int[states - 1];
+		output = new int[states];
+		int edge = 0;
+		for (int s = 0; s < states; s++) {
+			edgeStart[s] = edge;
+			for (Map.Entry<Character, Integer> e : trie.get(s).entrySet()) {
+				edgeLabels[edge] = e.getKey();
+				edgeTargets[edge++] = e.getValue();
+			}
+			output[s] = outputs.get(s);
+		}
+		edgeStart[states] = edge;
+		
+		// compute failure links and output links in breadth-first order
+		failure = new int[states];
+		outputLink = new int[states];
+		outputLink[0] = -1;
+		int[] queue = new int[states];
+		int head = 0, tail = 0;
+		queue[tail++] = 0;
+		while (head < tail) {
+			int s = queue[head++];
+			for (int e = edgeStart[s]; e < edgeStart[s + 1]; e++) {
+				int t = edgeTargets[e];
+				char c = edgeLabels[e];
+				
+				int f = 0;
+				if (s != 0) {
+					f = failure[s];
+					int next;
+					while ((next = getNext(f, c)) == -1 && f != 0)
+						f = failure[f];
+					if (next != -1) f = next;
+				}
+				failure[t] = f;
+				outputLink[t] = (output[f] != -1) ? f : outputLink[f];
+				
+				queue[tail++] = t;
+			}
+		}
+	}
+	
+	/**
+	 * Follows the outgoing edge of a state with the given label.
+	 * 
+	 * @param state a state
+	 * @param c label of the edge
+	 * @return target state or -1 if there is no such edge
+	 */
+	private int getNext(int state, char c) {
+		int low = edgeStart[state];
+		int high = edgeStart[state + 1] - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char label = edgeLabels[mid];
+			if (label < c) low = mid + 1;
+			else if (label > c) high = mid - 1;
+			else return edgeTargets[mid];
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Returns the keywords of the automaton.
+	 * 
+	 * @return the keywords
+	 */
+	public String[] getKeywords() {
+		return keywords;
+	}
+	
+	/**
+	 * Determines which of the keywords occur in a text.
+	 * 
+	 * @param text the text
+	 * @return for each keyword <code>true</code> iff it occurs in the text
+	 */
+	public boolean[] findAll(String text) {
+		boolean[] found = new boolean[keywords.length];
+		
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			int next;
+			while ((next = getNext(state, c)) == -1 && state != 0)
+				state = failure[state];
+			state = (next == -1) ? 0 : next;
+			
+			// report all keywords that end at this position
+			int s = (output[state] != -1) ? state : outputLink[state];
+			while (s != -1) {
+				for (int k = output[s]; k != -1; k = duplicates[k]) {
+					if (found[k]) break;  // reported before, with duplicates
+					found[k] = true;
+				}
+				s = outputLink[s];
+			}
+		}
+		
+		return found;
+	}
+}
@@ -0,0 +1,180 @@
+package info.ephyra.util;
+
+import java.util.ArrayList;
+
+/**
+ * <p>A BK-tree is a metric tree that indexes strings by their Levenshtein edit
+ * distance. It supports lookups of all strings within a maximum distance of
+ * a query string without comparing the query to every entry.</p>
+ * 
+ * <p>The distance is computed with unit costs for insertions, deletions and
+ * substitutions, using a banded dynamic programming kernel that stops as
+ * soon as the distance exceeds the bound and that does not allocate memory
+ * once its buffers have grown to the length of the strings.</p>
+ * 
+ * <p>Lookups are thread-safe, insertions must not be run concurrently with
+ * other operations.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class BKTree {
+	/** A node of the tree. */
+	private static class Node {
+		/** String stored in the node. */
+		private String value;
+		/** Children, indexed by their distance to this node. */
+		private Node[] children;
+		/** Largest distance of a child to this node. */
+		private int maxChild = -1;
+		
+		private Node(String value) {
+			this.value = value;
+		}
+	}
+	
+	/** Buffers for the distance computation, one per thread. */
+	private static final ThreadLocal<int[][]> rows = new ThreadLocal<int[][]>() {
+		protected int[][] initialValue() {
+			return new int[2][16];
+		}
+	};
+	
+	/** Root of the tree. */
+	private Node root;
+	/** Number of strings in the tree. */
+	private int size;
+	
+	/**
+	 * Adds a string to the tree. Duplicates are ignored.
+	 * 
+	 * @param s the string
+	 */
+	public void add(String s) {
+		if (root == null) {
+			root = new Node(s);
+			size++;
+			return;
+		}
+		
+		Node node = root;
+		while (true) {
+			int d = distance(s, node.value, Integer.MAX_VALUE - 1);
+			if (d == 0) return;  // duplicate
+			
+			if (node.children == null || node.children.length <= d) {
+				Node[] children = new Node[Math.max(d + 1, 4)];
+				if (node.children != null)
+					System.arraycopy(node.children, 0, children, 0,
+							node.children.length);
+				node.children = children;
+			}
+			if (node.children[d] == null) {
+				node.children[d] = new Node(s);
+				if (d > node.maxChild) node.maxChild = d;
+				size++;
+				return;
+			}
+			node = node.children[d];
+		}
+	}
+	
+	/**
+	 * Checks if there is a string in the tree whose distance to the given
+	 * string is at most <code>maxDistance</code>.
+	 * 
+	 * @param s the string
+	 * @param maxDistance maximum edit distance
+	 * @return <code>true</code> iff there is such a string
+	 */
+	public boolean containsWithin(String s, int maxDistance) {
+		if (root == null) return false;
+		
+		ArrayList<Node> stack = new ArrayList<Node>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			Node node = stack.remove(stack.size() - 1);
+			
+			// distances beyond this bound do not select any children
+			int d = distance(s, node.value,
+					Math.max(node.maxChild, 0) + maxDistance);
+			if (d <= maxDistance) return true;
+			
+			// triangle inequality: only children in [d - max, d + max] qualify
+			int from = Math.max(1, d - maxDistance);
+			int to = Math.min(node.maxChild, d + maxDistance);
+			for (int i = from; i <= to; i++)
+				if (node.children[i] != null) stack.add(node.children[i]);
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the number of strings in the tree.
+	 * 
+	 * @return number of strings
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Computes the Levenshtein distance of two strings with unit costs. Only
+	 * the cells within <code>bound</code> of the diagonal are computed, and the
+	 * computation stops as soon as the distance is known to exceed the bound.
+	 * 
+	 * @param s1 string 1
+	 * @param s2 string 2
+	 * @param bound maximum distance of interest
+	 * @return edit distance, or <code>bound + 1</code> if it exceeds the bound
+	 */
+	public static int distance(String s1, String s2, int bound) {
+		int length1 = s1.length();
+		int length2 = s2.length();
+		if (Math.abs(length1 - length2) > bound) return bound + 1;
+		if (length1 == 0) return length2;
+		if (length2 == 0) return length1;
+		
+		int[][] buffers = rows.get();
+		if (buffers[0].length <= length2) {
+			buffers = new int[2][length2 + 1];
+			rows.set(buffers);
+		}
+		int[] previous = buffers[0];
+		int[] current = buffers[1];
+		int exceeded = bound + 1;
+		
+		// first row, cells beyond the band are set to bound + 1
+		int to = (int) Math.min(length2, (long) bound);
+		for (int j = 0; j <= to; j++) previous[j] = j;
+		if (to < length2) previous[to + 1] = exceeded;
+		
+		for (int i = 1; i <= length1; i++) {
+			int from = Math.max(1, i - bound);
+			to = (int) Math.min(length2, (long) i + bound);
+			
+			current[from - 1] = (from == 1) ? i : exceeded;
+			char c1 = s1.charAt(i - 1);
+			int rowMin = current[from - 1];
+			for (int j = from; j <= to; j++) {
+				int cost = (c1 == s2.charAt(j - 1)) ? 0 : 1;
+				int d = previous[j - 1] + cost;
+				if (previous[j] + 1 < d) d = previous[j] + 1;
+				if (current[j - 1] + 1 < d) d = current[j - 1] + 1;
+				if (d > exceeded) d = exceeded;
+				current[j] = d;
+				if (d < rowMin) rowMin = d;
+			}
+			if (to < length2) current[to + 1] = exceeded;
+			
+			// all paths exceed the bound
+			if (rowMin > bound) return exceeded;
+			
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		
+		return Math.min(previous[length2], exceeded);
+	}
+}
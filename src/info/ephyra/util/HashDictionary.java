@@ -2,6 +2,7 @@ package info.ephyra.util;
 
 import info.ephyra.nlp.NETagger;
 import info.ephyra.nlp.SnowballStemmer;
+import info.ephyra.nlp.Vocabulary;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -20,15 +21,31 @@ import java.util.Iterator;
  * <p>This class implements the interface <code>Dictionary</code>.</p>
  * 
  * @author Nico Schlaefer
- * @version 2007-02-06
+ * @version 2026-10-19
  */
 public class HashDictionary implements Dictionary {
+	/**
+	 * Version of the normalization, to be incremented when
+	 * <code>normalize()</code> is changed.
+	 */
+	private static final int NORMALIZER_VERSION = 1;
+	/**
+	 * Words that are normalized to detect changes of the tokenizer or the
+	 * stemmer.
+	 */
+	private static final String[] PROBES = {"Internets", "U.S.", "doesn't",
+		"New York's", "running", "happily", "generalizations", "1,000.5"};
+	
 	/** <code>HashSet</code> used to store the words. **/
 	private HashSet<String> words;
 	/** <code>HashSet</code> used to store the tokens of words. **/
 	private HashSet<String> tokens;
 	/** Maximum number of tokens of a word in the dictionary. */
 	private int maxTokens = 1;
+	/** Index for fuzzy lookups of words, built on demand. */
+	private BKTree fuzzyWords;
+	/** Index for fuzzy lookups of tokens, built on demand. */
+	private BKTree fuzzyTokens;
 	
 	/**
 	 * Creates an empty <code>HashDictionary</code>.
@@ -55,8 +72,7 @@ public class HashDictionary implements Dictionary {
 				// read and normalize word
 				String word = in.readLine().trim();
 				if (word.startsWith("//")) continue;  // skip comments
-				word = NETagger.tokenizeWithSpaces(word.toLowerCase());
-				word = SnowballStemmer.stemAllTokens(word);
+				word = normalize(word);
 				
 				// add whole word
 				if (word.length() > 0) words.add(word);
@@ -72,6 +88,36 @@ public class HashDictionary implements Dictionary {
 		}
 	}
 	
+	/**
+	 * Normalizes a word the way it is stored in the dictionary: converts it to
+	 * lower case, tokenizes and stems it.
+	 * 
+	 * @param word a word
+	 * @return normalized word
+	 */
+	public static String normalize(String word) {
+		word = NETagger.tokenizeWithSpaces(word.trim().toLowerCase());
+		
+		return SnowballStemmer.stemAllTokens(word);
+	}
+	
+	/**
+	 * Returns the version of the normalization of the words. It combines
+	 * <code>NORMALIZER_VERSION</code> with the normalized forms of a few
+	 * sample words, so that it also changes if the tokenizer or the stemmer
+	 * behaves differently. Files of normalized words that were written with
+	 * another version must be rebuilt.
+	 * 
+	 * @return version of the normalization
+	 */
+	public static int getNormalizerVersion() {
+		int version = NORMALIZER_VERSION;
+		for (String probe : PROBES)
+			version = 31 * version + normalize(probe).hashCode();
+		
+		return version;
+	}
+	
 	/**
 	 * Adds a word to the dictionary.
 	 * 
@@ -79,8 +125,7 @@ public class HashDictionary implements Dictionary {
 	 */
 	public void add(String word) {
 		if (word != null) {
-			word = NETagger.tokenizeWithSpaces(word.trim().toLowerCase());
-			word = SnowballStemmer.stemAllTokens(word);
+			word = normalize(word);
 			
 			// add whole word
 			if (word.length() > 0) words.add(word);
@@ -90,7 +135,41 @@ public class HashDictionary implements Dictionary {
 			if (tokens.length > maxTokens) maxTokens = tokens.length;
 			for (int p = 0; p < tokens.length; p++)
 				if (tokens[p].length() > 0) this.tokens.add(tokens[p]);
+			
+			// rebuild fuzzy indices on next lookup
+			synchronized (this) {
+				fuzzyWords = null;
+				fuzzyTokens = null;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the index for fuzzy lookups of words.
+	 * 
+	 * @return BK-tree of the words
+	 */
+	private synchronized BKTree getFuzzyWords() {
+		if (fuzzyWords == null) {
+			BKTree tree = new BKTree();
+			for (String word : words) tree.add(word);
+			fuzzyWords = tree;
+		}
+		return fuzzyWords;
+	}
+	
+	/**
+	 * Returns the index for fuzzy lookups of tokens.
+	 * 
+	 * @return BK-tree of the tokens
+	 */
+	private synchronized BKTree getFuzzyTokens() {
+		if (fuzzyTokens == null) {
+			BKTree tree = new BKTree();
+			for (String token : tokens) tree.add(token);
+			fuzzyTokens = tree;
 		}
+		return fuzzyTokens;
 	}
 	
 	/**
@@ -100,8 +179,7 @@ public class HashDictionary implements Dictionary {
 	 * @return <code>true</code> iff the word was found
 	 */
 	public boolean contains(String word) {
-		word = NETagger.tokenizeWithSpaces(word.trim().toLowerCase());
-		word = SnowballStemmer.stemAllTokens(word);
+		word = normalize(word);
 		
 		return words.contains(word);
 	}
@@ -118,10 +196,24 @@ public class HashDictionary implements Dictionary {
 		return tokens.contains(token);
 	}
 	
+	/**
+	 * Looks up a word token without surrounding whitespace, given by its ID in
+	 * a vocabulary. The stem of the token is memorized by the vocabulary, so
+	 * repeated lookups of the same token do not stem it again.
+	 * 
+	 * @param vocab the vocabulary
+	 * @param id ID of the word token
+	 * @return <code>true</code> iff a word in the dictionary contains the token
+	 */
+	public boolean containsToken(Vocabulary vocab, int id) {
+		return tokens.contains(vocab.getForm(vocab.getStem(id)));
+	}
+	
 	/**
 	 * Does a fuzzy lookup for a word. The specified word w is considered as
 	 * contained in the dictionary is there is a word W in the dictionary such
-	 * that <code>LevenshteinDistance(w, W) &lt;= maxDistance</code>
+	 * that <code>LevenshteinDistance(w, W) &lt;= maxDistance</code>. The lookup
+	 * uses a BK-tree and does not compare w to every word in the dictionary.
 	 * 
 	 * @param word the word to look up
 	 * @param maxDistance the maximum Levenshtein edit distance for fuzzy
@@ -129,23 +221,19 @@ public class HashDictionary implements Dictionary {
 	 * @return <code>true</code> iff the word was found
 	 */
 	public boolean fuzzyContains(String word, int maxDistance) {
-		word = NETagger.tokenizeWithSpaces(word.trim().toLowerCase());
-		word = SnowballStemmer.stemAllTokens(word);
+		word = normalize(word);
 		
 		if (maxDistance == 0) return this.words.contains(word);
 		else if (this.words.contains(word)) return true;
 		
-		Iterator<String> wordIter = this.words.iterator();
-		while (wordIter.hasNext())
-			if (getLevenshteinDistance(word, wordIter.next(), maxDistance, true, 1, 1) <= maxDistance) return true;
-		
-		return false;
+		return getFuzzyWords().containsWithin(word, maxDistance);
 	}
 	
 	/**
 	 * Does a fuzzy lookup for a token. The specified token t is considered as
 	 * contained in the dictionary is there is a token T in the dictionary such
-	 * that <code>LevenshteinDistance(t, T) &lt;= maxDistance</code>
+	 * that <code>LevenshteinDistance(t, T) &lt;= maxDistance</code>. The lookup
+	 * uses a BK-tree and does not compare t to every token in the dictionary.
 	 * 
 	 * @param token the token to look up
 	 * @param maxDistance the maximum Levenshtein edit distance for fuzzy
@@ -158,11 +246,7 @@ public class HashDictionary implements Dictionary {
 		if (maxDistance == 0) return this.tokens.contains(token);
 		else if (this.tokens.contains(token)) return true;
 		
-		Iterator<String> tokenIter = this.tokens.iterator();
-		while (tokenIter.hasNext())
-			if (getLevenshteinDistance(token, tokenIter.next(), maxDistance, true, 1, 1) <= maxDistance) return true;
-		
-		return false;
+		return getFuzzyTokens().containsWithin(token, maxDistance);
 	}
 	
 	/**	compute the Levenshtein distance of two Strings
@@ -0,0 +1,363 @@
+package info.ephyra.util;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * <p>An immutable <code>Lexicon</code> maps words to primitive
+ * <code>int</code> values, e.g. word frequencies. It is used for the indices
+ * in <code>res/indices</code>, which are loaded once and then only looked
+ * up.</p>
+ * 
+ * <p>The words and values are stored in a single buffer: an open addressing
+ * hash table over the UTF-8 encoded words, the values and the words in the
+ * order in which they were added. Lookups read the buffer directly, without
+ * locks and without creating objects for the values. The buffer is written to
+ * a binary file and memory-mapped when it is loaded, so the lexicon takes
+ * hardly any heap space.</p>
+ * 
+ * <p>A lexicon can also hold a few integers that describe the index it was
+ * built from, e.g. the total number of words in a corpus.</p>
+ * 
+ * <p>The binary file records the version of the preprocessing of the words,
+ * e.g. of their normalization. A file with a different version is treated
+ * like a file that is older than the index, since its words would no longer
+ * match the normalized forms that are looked up.</p>
+ * 
+ * <p>This class implements the interface <code>Dictionary</code>.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class Lexicon implements Dictionary {
+	/** Magic number at the beginning of a lexicon. */
+	private static final int MAGIC = 0x4C584E32;
+	/** Encoding of the words. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	/** Size of the header in bytes, without the additional integers. */
+	private static final int HEADER_SIZE = 20;
+	
+	/** Buffer holding the lexicon, only accessed with absolute positions. */
+	private ByteBuffer buffer;
+	/** Number of words. */
+	private int size;
+	/** Number of slots of the hash table, a power of 2. */
+	private int numSlots;
+	/** Additional integers that describe the index. */
+	private int[] info;
+	/** Position of the hash table. */
+	private int slotsPos;
+	/** Position of the values. */
+	private int valuesPos;
+	/** Position of the start offsets of the words. */
+	private int startsPos;
+	/** Position of the UTF-8 encoded words. */
+	private int wordsPos;
+	
+	/**
+	 * Creates a lexicon from its binary form.
+	 * 
+	 * @param buffer lexicon in binary form
+	 * @throws IOException if the lexicon is corrupted
+	 */
+	private Lexicon(ByteBuffer buffer) throws IOException {
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not a lexicon");
+		
+		this.buffer = buffer;
+		size = buffer.getInt(8);
+		numSlots = buffer.getInt(12);
+		info = new int[buffer.getInt(16)];
+		for (int i = 0; i < info.length; i++)
+			info[i] = buffer.getInt(HEADER_SIZE + 4 * i);
+		
+		slotsPos = HEADER_SIZE + 4 * info.length;
+		valuesPos = slotsPos + 4 * numSlots;
+		startsPos = valuesPos + 4 * size;
+		wordsPos = startsPos + 4 * (size + 1);
+		if (buffer.limit() < wordsPos ||
+				buffer.limit() < wordsPos + buffer.getInt(startsPos + 4 * size))
+			throw new IOException("Lexicon is truncated");
+	}
+	
+	/**
+	 * Builds a lexicon from words and their values. If a word occurs more than
+	 * once, it keeps the position of its first occurrence and the value of its
+	 * last occurrence.
+	 * 
+	 * @param words the words
+	 * @param values the values of the words
+	 * @param info additional integers that describe the index
+	 * @return lexicon
+	 */
+	public static Lexicon build(String[] words, int[] values, int... info) {
+		// add the words to a hash table, dropping duplicates
+		byte[][] encoded = new byte[words.length][];
+		int[] vs = new int[words.length];
+		int numSlots = 2;
+		while (numSlots < 2 * words.length) numSlots <<= 1;
+		int[] slots = new int[numSlots];
+		Arrays.fill(slots, -1);
+		int size = 0;
+		int numBytes = 0;
+		for (int i = 0; i < words.length; i++) {
+			byte[] word = encode(words[i]);
+			int s = findSlot(slots, encoded, word);
+			if (slots[s] == -1) {
+				slots[s] = size;
+				encoded[size++] = word;
+				numBytes += word.length;
+			}
+			vs[slots[s]] = values[i];
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 4 * info.length +
+				4 * numSlots + 4 * size + 4 * (size + 1) + numBytes);
+		buffer.putInt(MAGIC).putInt(0).putInt(size).putInt(numSlots)
+			.putInt(info.length);
+		for (int i : info) buffer.putInt(i);
+		for (int slot : slots) buffer.putInt(slot);
+		for (int e = 0; e < size; e++) buffer.putInt(vs[e]);
+		int start = 0;
+		for (int e = 0; e < size; e++) {
+			buffer.putInt(start);
+			start += encoded[e].length;
+		}
+		buffer.putInt(start);
+		for (int e = 0; e < size; e++) buffer.put(encoded[e]);
+		buffer.flip();
+		
+		try {
+			return new Lexicon(buffer);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);  // cannot happen
+		}
+	}
+	
+	/**
+	 * Finds the slot of a word while the lexicon is built.
+	 * 
+	 * @param slots hash table
+	 * @param encoded encoded words that are already in the table
+	 * @param word encoded word
+	 * @return slot of the word or empty slot for the word
+	 */
+	private static int findSlot(int[] slots, byte[][] encoded, byte[] word) {
+		int mask = slots.length - 1;
+		int s = hash(word) & mask;
+		while (slots[s] != -1 && !Arrays.equals(encoded[slots[s]], word))
+			s = (s + 1) & mask;
+		
+		return s;
+	}
+	
+	/**
+	 * Encodes a word in UTF-8.
+	 * 
+	 * @param word a word
+	 * @return encoded word
+	 */
+	private static byte[] encode(String word) {
+		int length = word.length();
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			char c = word.charAt(i);
+			if (c >= 0x80) return word.getBytes(UTF8);
+			bytes[i] = (byte) c;
+		}
+		
+		return bytes;
+	}
+	
+	/**
+	 * Computes the hash code of an encoded word (FNV-1a). It does not depend
+	 * on the JVM, so that the hash table can be stored in a file.
+	 * 
+	 * @param word encoded word
+	 * @return hash code
+	 */
+	private static int hash(byte[] word) {
+		int h = 0x811C9DC5;
+		for (byte b : word) {
+			h ^= b & 0xFF;
+			h *= 0x01000193;
+		}
+		
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Returns the binary file of the lexicon for an index file.
+	 * 
+	 * @param filename index file
+	 * @return file of the lexicon
+	 */
+	public static File getLexiconFile(String filename) {
+		return new File(filename + ".bin");
+	}
+	
+	/**
+	 * Checks if the binary file of the lexicon for an index file exists, is
+	 * newer than the index file and was written with the given version of the
+	 * preprocessing.
+	 * 
+	 * @param filename index file
+	 * @param version version of the preprocessing of the words
+	 * @return <code>true</code> iff the lexicon can be loaded instead of the
+	 * 		   index file
+	 */
+	public static boolean isUpToDate(String filename, int version) {
+		File lexiconFile = getLexiconFile(filename);
+		if (!lexiconFile.exists() ||
+				lexiconFile.lastModified() < new File(filename).lastModified())
+			return false;
+		
+		try {
+			DataInputStream in =
+				new DataInputStream(new FileInputStream(lexiconFile));
+			try {
+				return in.readInt() == MAGIC && in.readInt() == version;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Memory-maps the binary file of the lexicon for an index file.
+	 * 
+	 * @param filename index file
+	 * @return lexicon
+	 * @throws IOException if the lexicon could not be read or is corrupted
+	 */
+	public static Lexicon load(String filename) throws IOException {
+		RandomAccessFile raf =
+			new RandomAccessFile(getLexiconFile(filename), "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			return new Lexicon(
+				channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Writes the lexicon to the binary file for an index file.
+	 * 
+	 * @param filename index file
+	 * @param version version of the preprocessing of the words
+	 * @throws IOException if the lexicon could not be written
+	 */
+	public void save(String filename, int version) throws IOException {
+		FileOutputStream out = new FileOutputStream(getLexiconFile(filename));
+		try {
+			ByteBuffer header = ByteBuffer.allocate(8);
+			header.putInt(MAGIC).putInt(version).flip();
+			ByteBuffer data = buffer.duplicate();
+			data.clear();
+			data.position(header.limit());
+			out.getChannel().write(new ByteBuffer[] {header, data});
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Finds the position of a word in the lexicon.
+	 * 
+	 * @param word encoded word
+	 * @return position or -1 if the word is not in the lexicon
+	 */
+	private int find(byte[] word) {
+		int mask = numSlots - 1;
+		for (int s = hash(word) & mask; ; s = (s + 1) & mask) {
+			int e = buffer.getInt(slotsPos + 4 * s);
+			if (e == -1) return -1;
+			
+			int start = buffer.getInt(startsPos + 4 * e);
+			int end = buffer.getInt(startsPos + 4 * (e + 1));
+			if (end - start != word.length) continue;
+			int pos = wordsPos + start;
+			int i = 0;
+			while (i < word.length && buffer.get(pos + i) == word[i]) i++;
+			if (i == word.length) return e;
+		}
+	}
+	
+	/**
+	 * Looks up a word.
+	 * 
+	 * @param word the word to look up
+	 * @return <code>true</code> iff the word was found
+	 */
+	public boolean contains(String word) {
+		return find(encode(word)) != -1;
+	}
+	
+	/**
+	 * Looks up the value of a word.
+	 * 
+	 * @param word the word to look up
+	 * @param defaultValue value if the word is not in the lexicon
+	 * @return value of the word or <code>defaultValue</code>
+	 */
+	public int get(String word, int defaultValue) {
+		int e = find(encode(word));
+		
+		return (e != -1) ? buffer.getInt(valuesPos + 4 * e) : defaultValue;
+	}
+	
+	/**
+	 * Returns the number of distinct words in the lexicon.
+	 * 
+	 * @return number of words
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Returns the word at the given position, in the order in which the words
+	 * were added.
+	 * 
+	 * @param e position of the word
+	 * @return the word
+	 */
+	public String getWord(int e) {
+		int start = buffer.getInt(startsPos + 4 * e);
+		byte[] bytes = new byte[buffer.getInt(startsPos + 4 * (e + 1)) - start];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = buffer.get(wordsPos + start + i);
+		
+		return new String(bytes, UTF8);
+	}
+	
+	/**
+	 * Returns the value of the word at the given position.
+	 * 
+	 * @param e position of the word
+	 * @return the value
+	 */
+	public int getValue(int e) {
+		return buffer.getInt(valuesPos + 4 * e);
+	}
+	
+	/**
+	 * Returns the additional integers that describe the index.
+	 * 
+	 * @return additional integers
+	 */
+	public int[] getInfo() {
+		return info.clone();
+	}
+}
@@ -0,0 +1,156 @@
+package info.ephyra.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>The <code>MemoCache</code> memorizes the results of a deterministic
+ * function, such as a stemmer, in main memory. The number of entries is
+ * bounded, the least recently used entries are evicted first.</p>
+ * 
+ * <p>The cache is split into segments with separate locks so that concurrent
+ * requests rarely block each other. It counts hits and misses to measure its
+ * effectiveness.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class MemoCache<K, V> {
+	/** Number of segments. */
+	private static final int SEGMENTS = 16;
+	
+	/** Segments of the cache, each in access order. */
+	private final LinkedHashMap<K, V>[] segments;
+	/** Number of lookups that found an entry. */
+	private final AtomicLong hits = new AtomicLong();
+	/** Number of lookups that did not find an entry. */
+	private final AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * Creates a cache with the given maximum number of entries.
+	 * 
+	 * @param capacity maximum number of entries
+	 */
+	@SuppressWarnings("unchecked")
+	public MemoCache(int capacity) {
+		final int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+		
+		segments = (LinkedHashMap<K, V>[]) new LinkedHashMap<?, ?>[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++)
+			segments[i] = new LinkedHashMap<K, V>(16, 0.75f, true) {
+				private static final long serialVersionUID = 20261019;
+				
+				protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+					return size() > segmentCapacity;
+				}
+			};
+	}
+	
+	/**
+	 * Gets the segment responsible for a key.
+	 * 
+	 * @param key the key
+	 * @return segment of the cache
+	 */
+	private LinkedHashMap<K, V> getSegment(Object key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[(h & 0x7fffffff) % SEGMENTS];
+	}
+	
+	/**
+	 * Looks up the value for a key.
+	 * 
+	 * @param key the key
+	 * @return the value or <code>null</code> if the key is not cached
+	 */
+	public V get(K key) {
+		LinkedHashMap<K, V> segment = getSegment(key);
+		V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+		
+		if (value != null) hits.incrementAndGet();
+		else misses.incrementAndGet();
+		return value;
+	}
+	
+	/**
+	 * Stores the value for a key.
+	 * 
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put(K key, V value) {
+		LinkedHashMap<K, V> segment = getSegment(key);
+		synchronized (segment) {
+			segment.put(key, value);
+		}
+	}
+	
+	/**
+	 * Removes all entries and resets the statistics.
+	 */
+	public void clear() {
+		for (LinkedHashMap<K, V> segment : segments)
+			synchronized (segment) {
+				segment.clear();
+			}
+		hits.set(0);
+		misses.set(0);
+	}
+	
+	/**
+	 * Returns the number of entries in the cache.
+	 * 
+	 * @return number of entries
+	 */
+	public int size() {
+		int size = 0;
+		for (LinkedHashMap<K, V> segment : segments)
+			synchronized (segment) {
+				size += segment.size();
+			}
+		return size;
+	}
+	
+	/**
+	 * Returns the number of lookups that found an entry.
+	 * 
+	 * @return number of hits
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+	
+	/**
+	 * Returns the number of lookups that did not find an entry.
+	 * 
+	 * @return number of misses
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	/**
+	 * Returns the fraction of lookups that found an entry.
+	 * 
+	 * @return hit rate or 0 if there were no lookups
+	 */
+	public double getHitRate() {
+		long hits = this.hits.get();
+		long lookups = hits + misses.get();
+		return (lookups > 0) ? (double) hits / lookups : 0;
+	}
+	
+	/**
+	 * Returns the size and the hit statistics of the cache.
+	 * 
+	 * @return string representation of the statistics
+	 */
+	public String toString() {
+		return size() + " entries, " + getHits() + " hits, " + getMisses() +
+			" misses, hit rate " + Math.round(getHitRate() * 1000) / 10d + "%";
+	}
+}
@@ -0,0 +1,288 @@
+package info.ephyra.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <p>A <code>PatternBank</code> is the compiled binary form of a directory of
+ * pattern files, one file per PROPERTY. For each PROPERTY, it holds a section
+ * of data in a format defined by the class that reads the patterns, e.g. the
+ * pattern descriptors along with metadata that would otherwise be computed at
+ * startup.</p>
+ * 
+ * <p>The bank is stored next to the pattern directory, with the extension
+ * <code>.bin</code>, and memory-mapped when it is loaded. Sections are not
+ * decoded until they are requested, so the patterns for a PROPERTY can be
+ * created when the PROPERTY is first used.</p>
+ * 
+ * <p>The header of the bank records the version of its format, the version
+ * of the sections given by the class that writes them and a checksum of the
+ * pattern files. The bank is only used if all of them match, so it is
+ * rebuilt when the pattern files, the layout of the bank or the preprocessing
+ * of the patterns change.</p>
+ * 
+ * <p>Strings are stored as a length, followed by UTF-8 bytes. The static
+ * methods <code>putString()</code>, <code>getString()</code> and their
+ * counterparts for arrays read and write this format.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class PatternBank {
+	/** Magic number at the beginning of a pattern bank. */
+	private static final int MAGIC = 0x50424B31;
+	/** Version of the format of the header and the table of sections. */
+	private static final int FORMAT = 2;
+	/** Encoding of the strings. */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	/** The PROPERTIES in the order of the sections. */
+	private String[] props;
+	/** The section of each PROPERTY. */
+	private Map<String, ByteBuffer> sections;
+	
+	/**
+	 * Creates a pattern bank from its binary form.
+	 * 
+	 * @param buffer compiled pattern bank
+	 * @throws IOException if the bank is corrupted
+	 */
+	private PatternBank(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("Not a pattern bank");
+		if (buffer.getInt() != FORMAT)
+			throw new IOException("Unsupported pattern bank format");
+		buffer.getInt();  // version of the sections, see isUpToDate()
+		buffer.getLong();  // checksum of the pattern files
+		
+		props = new String[buffer.getInt()];
+		int[] lengths = new int[props.length];
+		for (int i = 0; i < props.length; i++) {
+			props[i] = getString(buffer);
+			lengths[i] = buffer.getInt();
+		}
+		
+		sections = new HashMap<String, ByteBuffer>();
+		for (int i = 0; i < props.length; i++) {
+			if (buffer.remaining() < lengths[i])
+				throw new IOException("Pattern bank is truncated");
+			ByteBuffer section = buffer.slice();
+			section.limit(lengths[i]);
+			sections.put(props[i], section);
+			buffer.position(buffer.position() + lengths[i]);
+		}
+	}
+	
+	/**
+	 * Returns the PROPERTIES in the order in which the sections were written.
+	 * 
+	 * @return the PROPERTIES
+	 */
+	public String[] getProperties() {
+		return props;
+	}
+	
+	/**
+	 * Returns the section for a PROPERTY. Each call returns a new buffer that
+	 * is positioned at the beginning of the section, so that multiple threads
+	 * can read the same section.
+	 * 
+	 * @param prop the PROPERTY
+	 * @return section of the PROPERTY or <code>null</code> if the bank does
+	 * 		   not contain the PROPERTY
+	 */
+	public ByteBuffer getSection(String prop) {
+		ByteBuffer section = sections.get(prop);
+		
+		return (section == null) ? null : section.duplicate();
+	}
+	
+	/**
+	 * Returns the file of the pattern bank for a directory of pattern files.
+	 * 
+	 * @param dir directory of pattern files
+	 * @return file of the pattern bank
+	 */
+	public static File getBankFile(String dir) {
+		File patternDir = new File(dir);
+		
+		return new File(patternDir.getParentFile(),
+				patternDir.getName() + ".bin");
+	}
+	
+	/**
+	 * Computes a checksum of the names and contents of the pattern files in a
+	 * directory.
+	 * 
+	 * @param dir directory of pattern files
+	 * @return checksum of the pattern files
+	 * @throws IOException if a file could not be read
+	 */
+	private static long getChecksum(String dir) throws IOException {
+		File[] files = FileUtils.getFiles(dir);
+		Arrays.sort(files);
+		
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[65536];
+		for (File file : files) {
+			crc.update(file.getName().getBytes(UTF8));
+			crc.update(0);
+			
+			FileInputStream in = new FileInputStream(file);
+			try {
+				int n;
+				while ((n = in.read(buffer)) != -1) crc.update(buffer, 0, n);
+			} finally {
+				in.close();
+			}
+			crc.update(0);
+		}
+		
+		return crc.getValue();
+	}
+	
+	/**
+	 * Checks if the pattern bank for a directory exists, has the given
+	 * version and was written from the current pattern files in the
+	 * directory.
+	 * 
+	 * @param dir directory of pattern files
+	 * @param version version of the sections, must be incremented when the
+	 * 				  format of the sections or the preprocessing of the
+	 * 				  patterns changes
+	 * @return <code>true</code> iff the bank can be used instead of the files
+	 */
+	public static boolean isUpToDate(String dir, int version) {
+		File bankFile = getBankFile(dir);
+		if (!bankFile.exists()) return false;
+		
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(bankFile)));
+			try {
+				return in.readInt() == MAGIC && in.readInt() == FORMAT &&
+					   in.readInt() == version &&
+					   in.readLong() == getChecksum(dir);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Memory-maps the pattern bank for a directory of pattern files.
+	 * 
+	 * @param dir directory of pattern files
+	 * @return pattern bank
+	 * @throws IOException if the bank could not be read or is corrupted
+	 */
+	public static PatternBank load(String dir) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(getBankFile(dir), "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer =
+				channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new PatternBank(buffer);
+		} finally {
+			raf.close();
+		}
+	}
+	
+	/**
+	 * Writes the pattern bank for a directory of pattern files.
+	 * 
+	 * @param dir directory of pattern files
+	 * @param version version of the sections
+	 * @param props the PROPERTIES in the order of the sections
+	 * @param sections the section of each PROPERTY
+	 * @throws IOException if the bank could not be written
+	 */
+	public static void write(String dir, int version, String[] props,
+			Map<String, byte[]> sections) throws IOException {
+		long checksum = getChecksum(dir);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(getBankFile(dir))));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT);
+			out.writeInt(version);
+			out.writeLong(checksum);
+			out.writeInt(props.length);
+			for (String prop : props) {
+				putString(out, prop);
+				out.writeInt(sections.get(prop).length);
+			}
+			for (String prop : props) out.write(sections.get(prop));
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Writes a string to a section.
+	 * 
+	 * @param out the section
+	 * @param s a string
+	 * @throws IOException if the string could not be written
+	 */
+	public static void putString(DataOutputStream out, String s)
+			throws IOException {
+		byte[] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	/**
+	 * Writes an array of strings to a section.
+	 * 
+	 * @param out the section
+	 * @param ss array of strings
+	 * @throws IOException if the strings could not be written
+	 */
+	public static void putStrings(DataOutputStream out, String[] ss)
+			throws IOException {
+		out.writeInt(ss.length);
+		for (String s : ss) putString(out, s);
+	}
+	
+	/**
+	 * Reads a string from a section.
+	 * 
+	 * @param buffer the section
+	 * @return the string
+	 */
+	public static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		
+		return new String(bytes, UTF8);
+	}
+	
+	/**
+	 * Reads an array of strings from a section.
+	 * 
+	 * @param buffer the section
+	 * @return array of strings
+	 */
+	public static String[] getStrings(ByteBuffer buffer) {
+		String[] ss = new String[buffer.getInt()];
+		for (int i = 0; i < ss.length; i++) ss[i] = getString(buffer);
+		
+		return ss;
+	}
+}
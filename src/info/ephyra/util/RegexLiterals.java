@@ -0,0 +1,319 @@
+package info.ephyra.util;
+
+import java.util.ArrayList;
+
+/**
+ * <p>Determines strings that occur in every match of a regular expression.
+ * The strings are used to skip regular expressions that cannot match a text,
+ * e.g. with an <code>AhoCorasick</code> automaton over the strings of many
+ * expressions.</p>
+ * 
+ * <p>The requirements are returned as a conjunction of clauses. Each clause is
+ * an array of alternative strings, at least one of which occurs in every
+ * match. Literal text that is neither optional nor repeated forms a clause
+ * with a single string, a group with alternatives forms a clause with one
+ * string for each alternative.</p>
+ * 
+ * <p>The strings are converted with
+ * <code>StringUtils.toLowerCaseAscii()</code>, i.e. they can be used for
+ * expressions that are matched case-insensitively. Constructs that are not
+ * supported, such as back references, make the analysis stop without
+ * requirements, so that the result is never wrong.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class RegexLiterals {
+	/** Thrown if the regular expression uses an unsupported construct. */
+	private static class UnsupportedException extends Exception {
+		private static final long serialVersionUID = 20261019;
+	}
+	
+	/** The regular expression. */
+	private String regex;
+	/** Position of the parser in the regular expression. */
+	private int pos;
+	
+	/**
+	 * Creates a parser for a regular expression.
+	 * 
+	 * @param regex the regular expression
+	 */
+	private RegexLiterals(String regex) {
+		this.regex = regex;
+	}
+	
+	/**
+	 * Determines the strings that occur in every match of a regular
+	 * expression.
+	 * 
+	 * @param regex the regular expression
+	 * @return clauses of alternative strings, possibly an empty array
+	 */
+	public static String[][] getRequiredLiterals(String regex) {
+		RegexLiterals parser = new RegexLiterals(regex);
+		try {
+			ArrayList<String[]> clauses = parser.parseAlternatives();
+			if (parser.pos < regex.length())
+				return new String[0][];  // unbalanced parenthesis
+			
+			return clauses.toArray(new String[clauses.size()][]);
+		} catch (UnsupportedException e) {
+			return new String[0][];
+		}
+	}
+	
+	/**
+	 * Parses alternatives up to the end of the enclosing group.
+	 * 
+	 * @return clauses required by the alternatives
+	 * @throws UnsupportedException if an unsupported construct is found
+	 */
+	private ArrayList<String[]> parseAlternatives()
+			throws UnsupportedException {
+		ArrayList<ArrayList<String[]>> alternatives =
+			new ArrayList<ArrayList<String[]>>();
+		alternatives.add(parseSequence());
+		while (pos < regex.length() && regex.charAt(pos) == '|') {
+			pos++;
+			alternatives.add(parseSequence());
+		}
+		if (alternatives.size() == 1) return alternatives.get(0);
+		
+		// one of the alternatives matches, take the most selective clause of
+		// each alternative
+		ArrayList<String> clause = new ArrayList<String>();
+		for (ArrayList<String[]> alternative : alternatives) {
+			String[] best = null;
+			for (String[] c : alternative)
+				if (best == null || isMoreSelective(c, best)) best = c;
+			if (best == null) return new ArrayList<String[]>();
+			for (String s : best) clause.add(s);
+		}
+		
+		ArrayList<String[]> clauses = new ArrayList<String[]>();
+		clauses.add(clause.toArray(new String[clause.size()]));
+		return clauses;
+	}
+	
+	/**
+	 * Compares the selectivity of two clauses. A clause with fewer
+	 * alternatives or, with the same number of alternatives, a longer shortest
+	 * string is considered more selective.
+	 * 
+	 * @param c1 a clause
+	 * @param c2 another clause
+	 * @return <code>true</code> iff <code>c1</code> is more selective
+	 */
+	private static boolean isMoreSelective(String[] c1, String[] c2) {
+		if (c1.length != c2.length) return c1.length < c2.length;
+		
+		return getMinLength(c1) > getMinLength(c2);
+	}
+	
+	/**
+	 * Returns the length of the shortest string in a clause.
+	 * 
+	 * @param clause a clause
+	 * @return length of the shortest string
+	 */
+	private static int getMinLength(String[] clause) {
+		int min = Integer.MAX_VALUE;
+		for (String s : clause) min = Math.min(min, s.length());
+		
+		return min;
+	}
+	
+	/**
+	 * Parses a sequence of atoms up to the next alternative or the end of the
+	 * enclosing group.
+	 * 
+	 * @return clauses required by the sequence
+	 * @throws UnsupportedException if an unsupported construct is found
+	 */
+	private ArrayList<String[]> parseSequence() throws UnsupportedException {
+		ArrayList<String[]> clauses = new ArrayList<String[]>();
+		StringBuilder run = new StringBuilder();  // current literal text
+		
+		while (pos < regex.length()) {
+			char c = regex.charAt(pos);
+			if (c == '|' || c == ')') break;
+			
+			if (c == '(') {  // group
+				flush(run, clauses);
+				pos++;
+				boolean required = parseGroupType();
+				ArrayList<String[]> group = parseAlternatives();
+				if (pos == regex.length()) throw new UnsupportedException();
+				pos++;  // closing parenthesis
+				if (parseQuantifier() > 0 && required) clauses.addAll(group);
+			} else if (c == '[') {  // character class
+				flush(run, clauses);
+				skipClass();
+				parseQuantifier();
+			} else if (c == '\\') {  // escape sequence
+				if (pos + 1 == regex.length()) throw new UnsupportedException();
+				char e = regex.charAt(pos + 1);
+				pos += 2;
+				if (!Character.isLetterOrDigit(e)) {  // escaped character
+					addLiteral(e, run, clauses);
+				} else if ("bBdDsSwW".indexOf(e) != -1) {
+					flush(run, clauses);
+					parseQuantifier();
+				} else {
+					throw new UnsupportedException();
+				}
+			} else if (c == '.' || c == '^' || c == '$') {
+				flush(run, clauses);
+				pos++;
+				parseQuantifier();
+			} else if (c == '?' || c == '*' || c == '+' || c == '{') {
+				throw new UnsupportedException();  // dangling quantifier
+			} else {
+				pos++;
+				addLiteral(c, run, clauses);
+			}
+		}
+		flush(run, clauses);
+		
+		return clauses;
+	}
+	
+	/**
+	 * Adds a literal character to the current literal text, taking a
+	 * quantifier after the character into account.
+	 * 
+	 * @param c the character
+	 * @param run current literal text
+	 * @param clauses clauses of the sequence
+	 * @throws UnsupportedException if an unsupported construct is found
+	 */
+	private void addLiteral(char c, StringBuilder run,
+			ArrayList<String[]> clauses) throws UnsupportedException {
+		int start = pos;
+		int min = parseQuantifier();
+		if (pos == start) {  // not quantified
+			run.append(c);
+			return;
+		}
+		
+		// the character is optional or repeated and ends the literal text
+		if (min > 0) run.append(c);
+		flush(run, clauses);
+	}
+	
+	/**
+	 * Adds the current literal text to the clauses and clears it.
+	 * 
+	 * @param run current literal text
+	 * @param clauses clauses of the sequence
+	 */
+	private static void flush(StringBuilder run, ArrayList<String[]> clauses) {
+		if (run.length() > 0)
+			clauses.add(new String[] {
+					StringUtils.toLowerCaseAscii(run.toString())});
+		run.setLength(0);
+	}
+	
+	/**
+	 * Parses the type of a group after the opening parenthesis.
+	 * 
+	 * @return <code>true</code> iff the content of the group is required for a
+	 * 		   match
+	 * @throws UnsupportedException if an unsupported construct is found
+	 */
+	private boolean parseGroupType() throws UnsupportedException {
+		if (pos == regex.length() || regex.charAt(pos) != '?') return true;
+		pos++;
+		if (pos == regex.length()) throw new UnsupportedException();
+		
+		char c = regex.charAt(pos);
+		if (c == ':' || c == '>' || c == '=') {
+			// non-capturing, atomic or positive lookahead
+			pos++;
+			return true;
+		}
+		if (c == '!') {  // negative lookahead
+			pos++;
+			return false;
+		}
+		if (c == '<') {  // lookbehind or named group
+			pos++;
+			if (pos == regex.length()) throw new UnsupportedException();
+			c = regex.charAt(pos);
+			if (c == '=' || c == '!') {
+				pos++;
+				return c == '=';
+			}
+			int end = regex.indexOf('>', pos);
+			if (end == -1) throw new UnsupportedException();
+			pos = end + 1;
+			return true;
+		}
+		
+		// flags, the comments flag changes the meaning of literal text
+		while (pos < regex.length() && regex.charAt(pos) != ')' &&
+			   regex.charAt(pos) != ':') {
+			if ("idmsuU-".indexOf(regex.charAt(pos++)) == -1)
+				throw new UnsupportedException();
+		}
+		if (pos < regex.length() && regex.charAt(pos) == ':') pos++;
+		return true;
+	}
+	
+	/**
+	 * Parses an optional quantifier, including a reluctant or possessive
+	 * modifier.
+	 * 
+	 * @return minimum number of repetitions, 1 if there is no quantifier
+	 * @throws UnsupportedException if the quantifier is malformed
+	 */
+	private int parseQuantifier() throws UnsupportedException {
+		if (pos == regex.length()) return 1;
+		
+		int min;
+		char c = regex.charAt(pos);
+		if (c == '?' || c == '*') {
+			min = 0;
+			pos++;
+		} else if (c == '+') {
+			min = 1;
+			pos++;
+		} else if (c == '{') {
+			int end = regex.indexOf('}', pos);
+			if (end == -1) throw new UnsupportedException();
+			String bounds = regex.substring(pos + 1, end).split(",", -1)[0];
+			try {
+				min = Integer.parseInt(bounds.trim());
+			} catch (NumberFormatException e) {
+				throw new UnsupportedException();
+			}
+			pos = end + 1;
+		} else {
+			return 1;
+		}
+		
+		// reluctant or possessive
+		if (pos < regex.length() &&
+			(regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) pos++;
+		
+		return min;
+	}
+	
+	/**
+	 * Skips a character class.
+	 * 
+	 * @throws UnsupportedException if the class is not closed
+	 */
+	private void skipClass() throws UnsupportedException {
+		int depth = 0;
+		
+		while (pos < regex.length()) {
+			char c = regex.charAt(pos++);
+			if (c == '\\') pos++;
+			else if (c == '[') depth++;
+			else if (c == ']' && --depth == 0) return;
+		}
+		
+		throw new UnsupportedException();
+	}
+}
@@ -2,6 +2,7 @@ package info.ephyra.util;
 
 import info.ephyra.nlp.NETagger;
 import info.ephyra.nlp.SnowballStemmer;
+import info.ephyra.nlp.Vocabulary;
 import info.ephyra.nlp.indices.FunctionWords;
 
 import java.util.ArrayList;
@@ -13,7 +14,7 @@ import java.util.HashSet;
  * A collection of utilities for string processing.
  * 
  * @author Nico Schlaefer
- * @version 2007-05-05
+ * @version 2026-10-19
  */
 // TODO use Levenstein distance to identify similar tokens
 public class StringUtils {
@@ -23,6 +24,16 @@ public class StringUtils {
 	 */
 	private static final float INTERSECT_THRESH = 0.33f;
 	
+	/** Memorizes the normalizations of strings. */
+	private static final MemoCache<String, String> normCache =
+		new MemoCache<String, String>(50000);
+	/**
+	 * Memorizes the stemmed keywords of strings that are compared by
+	 * <code>equalsCommonNorm()</code>.
+	 */
+	private static final MemoCache<String, String[]> keywordCache =
+		new MemoCache<String, String[]>(50000);
+	
 	/**
 	 * Checks if the first array of tokens is a subset if the second array.
 	 * 
@@ -150,6 +161,29 @@ public class StringUtils {
 		return repeated;
 	}
 	
+	/**
+	 * Converts the upper case letters in the US-ASCII charset to lower case.
+	 * Other characters are not changed, so that two strings are equal after
+	 * the conversion iff they are equal when compared with the flag
+	 * <code>Pattern.CASE_INSENSITIVE</code>.
+	 * 
+	 * @param s a string
+	 * @return string without upper case ASCII letters
+	 */
+	public static String toLowerCaseAscii(String s) {
+		char[] cs = null;
+		
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 'A' && c <= 'Z') {
+				if (cs == null) cs = s.toCharArray();
+				cs[i] = (char) (c + ('a' - 'A'));
+			}
+		}
+		
+		return (cs == null) ? s : new String(cs);
+	}
+	
 	/**
 	 * Normalizes a string. Similar strings are mapped to equal normalizations.
 	 * 
@@ -158,17 +192,32 @@ public class StringUtils {
 	 */
 	// TODO use noun and verb stemming (also for equals...Norm() methods)
 	public static String normalize(String s) {
+		String norm = normCache.get(s);
+		if (norm != null) return norm;
+		
 		// convert to lower-case
-		s = s.toLowerCase();
+		String lower = s.toLowerCase();
 		
 		// tokenize
-		String tokens[] = NETagger.tokenize(s);
+		String tokens[] = NETagger.tokenize(lower);
 		
 		// stemm all tokens
+		Vocabulary vocab = Vocabulary.getInstance();
 		for (int i = 0; i < tokens.length; i++)
-			tokens[i] = SnowballStemmer.stem(tokens[i]);
+			tokens[i] = vocab.getForm(vocab.getStem(vocab.getId(tokens[i])));
 		
-		return concatWithSpaces(tokens);
+		norm = concatWithSpaces(tokens);
+		normCache.put(s, norm);
+		return norm;
+	}
+	
+	/**
+	 * Returns the cache of normalized strings, e.g. to get its hit rate.
+	 * 
+	 * @return cache used by <code>normalize()</code>
+	 */
+	public static MemoCache<String, String> getNormCache() {
+		return normCache;
 	}
 	
 	/**
@@ -284,30 +333,56 @@ public class StringUtils {
 	 * @return true, iff the normalizations are equal
 	 */
 	public static boolean equalsCommonNorm(String s1, String s2) {
-		// convert to lower-case
-		s1 = s1.toLowerCase();
-		s2 = s2.toLowerCase();
-		
-		// tokenize
-		String tokens1[] = NETagger.tokenize(s1);
-		String tokens2[] = NETagger.tokenize(s2);
-		
-		// eliminate function words and tokens of length < 2, stemm all tokens
-		ArrayList<String> tks1 = new ArrayList<String>();
-		for (String token1 : tokens1)
-			if (token1.length() > 1 && !FunctionWords.lookup(token1))
-				tks1.add(SnowballStemmer.stem(token1));
-		HashSet<String> tks2 = new HashSet<String>();
-		for (String token2 : tokens2)
-			if (token2.length() > 1 && !FunctionWords.lookup(token2))
-				tks2.add(SnowballStemmer.stem(token2));
+		String[] tks1 = getStemmedKeywords(s1);
+		String[] tks2 = getStemmedKeywords(s2);
 		
 		// check for common token
-		for (String token : tks1) if (tks2.contains(token)) return true;
+		for (String token1 : tks1)
+			for (String token2 : tks2)
+				if (token1.equals(token2)) return true;
 		
 		return false;
 	}
 	
+	/**
+	 * Converts a string to lower-case, tokenizes it, eliminates function words,
+	 * drops tokens shorter than 2 characters and stemms the remaining tokens.
+	 * The results are cached. Two strings are equal according to
+	 * <code>equalsCommonNorm()</code> iff they have a keyword in common.
+	 * 
+	 * @param s the string
+	 * @return stemmed keywords
+	 */
+	public static String[] getStemmedKeywords(String s) {
+		String[] keywords = keywordCache.get(s);
+		if (keywords != null) return keywords;
+		
+		Vocabulary vocab = Vocabulary.getInstance();
+		ArrayList<String> tks = new ArrayList<String>();
+		for (String token : NETagger.tokenize(s.toLowerCase())) {
+			int id = vocab.getId(token);
+			if (token.length() > 1 && !vocab.isFunctionWord(id))
+				tks.add(vocab.getForm(vocab.getStem(id)));
+		}
+		
+		keywords = tks.toArray(new String[tks.size()]);
+		keywordCache.put(s, keywords);
+		return keywords;
+	}
+	
+	/**
+	 * Returns the IDs of the stemmed keywords of a string in a vocabulary, so
+	 * that the keywords of many strings can be compared as integers.
+	 * 
+	 * @param s the string
+	 * @param vocab the vocabulary
+	 * @return IDs of the stemmed keywords
+	 * @see #getStemmedKeywords(String)
+	 */
+	public static int[] getStemmedKeywordIds(String s, Vocabulary vocab) {
+		return vocab.getIds(getStemmedKeywords(s));
+	}
+	
 	/**
 	 * Compares two strings, using the same criterion as the <code>equalsCommonNorm()</code> method, but considers only words starting with a capital letter (proper nouns)
 	 * 
@@ -0,0 +1,185 @@
+package info.ephyra.answerselection.filters;
+
+import info.ephyra.io.MsgPrinter;
+import info.ephyra.nlp.NETagger;
+import info.ephyra.nlp.OpenNLP;
+import info.ephyra.nlp.SnowballStemmer;
+import info.ephyra.querygeneration.Query;
+import info.ephyra.questionanalysis.QuestionInterpretation;
+import info.ephyra.search.Result;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Conformance check for the prefilter of the
+ * <code>AnswerPatternFilter</code> that only applies the answer patterns whose
+ * required strings occur in a sentence. The answer sentences of the TREC test
+ * sets are passed to the filter for every PROPERTY, with the first named
+ * entity in a sentence as the TARGET. The extractions must be the same with
+ * and without the prefilter.</p>
+ * 
+ * <p>Usage: <code>AnswerPatternPrefilterCheck [sentences]</code></p>
+ * 
+ * @version 2026-10-19
+ */
+public class AnswerPatternPrefilterCheck {
+	/** Directory of the TREC test sets. */
+	private static final String TEST_DIR = "res/testdata/trec";
+	/** Directory of the answer patterns. */
+	private static final String PATTERN_DIR =
+		"res/patternlearning/answerpatterns";
+	
+	/**
+	 * Reads the answer sentences of the TREC test sets.
+	 * 
+	 * @param maxSentences maximum number of sentences
+	 * @return answer sentences
+	 */
+	private static List<String> readSentences(int maxSentences)
+			throws Exception {
+		File[] files = new File(TEST_DIR).listFiles();
+		Arrays.sort(files);
+		
+		List<String> sentences = new ArrayList<String>();
+		for (File file : files) {
+			if (!file.getName().contains("answers")) continue;
+			
+			BufferedReader in = new BufferedReader(new FileReader(file));
+			try {
+				String line;
+				while (sentences.size() < maxSentences &&
+						(line = in.readLine()) != null)
+					if (line.startsWith("ANSWER: "))
+						sentences.add(line.substring(8).trim());
+			} finally {
+				in.close();
+			}
+		}
+		
+		return sentences;
+	}
+	
+	/**
+	 * Creates the results that are passed to the filter, one for each
+	 * sentence that contains a named entity and each PROPERTY.
+	 * 
+	 * @param sentences answer sentences
+	 * @param props the PROPERTIES
+	 * @return results for the pattern matching approach
+	 */
+	private static Result[] createResults(List<String> sentences,
+			String[] props) {
+		List<Result> results = new ArrayList<Result>();
+		for (String sentence : sentences) {
+			String[][] tokens = {NETagger.tokenize(sentence)};
+			String target = null;
+			for (String[] nes : NETagger.extractNes(tokens)[0])
+				if (nes.length > 0) {
+					target = nes[0];
+					break;
+				}
+			if (target == null) continue;
+			
+			for (String prop : props) {
+				Query query = new Query(target);
+				query.setInterpretation(new QuestionInterpretation(target,
+						new String[0], prop));
+				query.setExtractionTechniques(
+						new String[] {AnswerPatternFilter.ID});
+				Result result = new Result(sentence, query);
+				result.setScore(Float.NEGATIVE_INFINITY);
+				results.add(result);
+			}
+		}
+		
+		return results.toArray(new Result[results.size()]);
+	}
+	
+	/**
+	 * Applies the filter and describes the extracted answers.
+	 * 
+	 * @param results results for the pattern matching approach
+	 * @param prefilter whether the prefilter is enabled
+	 * @return sorted descriptions of the extracted answers
+	 */
+	private static List<String> extract(Result[] results,
+			boolean prefilter) {
+		AnswerPatternFilter.setPrefilter(prefilter);
+		
+		List<String> extracted = new ArrayList<String>();
+		AnswerPatternFilter filter = new AnswerPatternFilter();
+		for (Result result : results) {
+			Result[] all = filter.apply(new Result[] {result});
+			for (int i = 1; i < all.length; i++) {
+				String[] neTypes = all[i].getNeTypes();
+				if (neTypes != null) Arrays.sort(neTypes);
+				extracted.add(result.getQuery().getInterpretation()
+						.getProperty() + "\t" + all[i].getAnswer() + "\t" +
+						all[i].getScore() + "\t" + all[i].getSentence() +
+						"\t" + Arrays.toString(neTypes));
+			}
+		}
+		Collections.sort(extracted);
+		
+		return extracted;
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if the prefilter changes the
+	 * extractions.
+	 * 
+	 * @param args optional number of answer sentences
+	 */
+	public static void main(String[] args) throws Exception {
+		int numSentences =
+			(args.length > 0) ? Integer.parseInt(args[0]) : 100;
+		
+		MsgPrinter.enableStatusMsgs(false);
+		SnowballStemmer.create();
+		OpenNLP.createSentenceDetector(
+				"res/nlp/sentencedetector/opennlp/EnglishSD.bin.gz");
+		OpenNLP.createTokenizer(
+				"res/nlp/tokenizer/opennlp/EnglishTok.bin.gz");
+		NETagger.loadListTaggers("res/nlp/netagger/lists/");
+		NETagger.loadRegExTaggers("res/nlp/netagger/patterns.lst");
+		if (!AnswerPatternFilter.loadPatterns(PATTERN_DIR)) {
+			System.err.println("Could not load the answer patterns.");
+			System.exit(1);
+		}
+		
+		String[] props = new File(PATTERN_DIR).list();
+		Arrays.sort(props);
+		Result[] results = createResults(readSentences(numSentences), props);
+		
+		long start = System.currentTimeMillis();
+		List<String> expected = extract(results, false);
+		long all = System.currentTimeMillis() - start;
+		start = System.currentTimeMillis();
+		List<String> actual = extract(results, true);
+		long prefiltered = System.currentTimeMillis() - start;
+		AnswerPatternFilter.setPrefilter(true);
+		
+		int failures = 0;
+		if (!actual.equals(expected)) {
+			List<String> missing = new ArrayList<String>(expected);
+			missing.removeAll(actual);
+			List<String> extra = new ArrayList<String>(actual);
+			extra.removeAll(expected);
+			for (String s : missing) System.err.println("missing: " + s);
+			for (String s : extra) System.err.println("extra: " + s);
+			failures = Math.max(missing.size() + extra.size(), 1);
+		}
+		
+		System.out.println(results.length + " results, " + expected.size() +
+				" extractions: " + failures + " failures (" + all +
+				" ms without prefilter, " + prefiltered +
+				" ms with prefilter)");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+}
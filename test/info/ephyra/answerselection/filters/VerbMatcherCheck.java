@@ -0,0 +1,174 @@
+package info.ephyra.answerselection.filters;
+
+import info.ephyra.nlp.VerbFormConverter;
+import info.ephyra.nlp.indices.IrregularVerbs;
+import info.ephyra.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Equivalence check and benchmark for the <code>VerbMatcher</code> of the
+ * <code>PredicateExtractionFilter</code>. The weight of a sentence must be the
+ * highest weight of the verbs whose forms occur in the sentence, as determined
+ * by matching a pattern for each verb separately. This includes verbs with
+ * forms that overlap with the forms of verbs with lower weights.</p>
+ * 
+ * <p>Usage: <code>VerbMatcherCheck [rounds]</code></p>
+ * 
+ * @version 2026-10-19
+ */
+public class VerbMatcherCheck {
+	/** Directory of the TREC test sets. */
+	private static final String TEST_DIR = "res/testdata/trec";
+	
+	/** Verbs and their weights. */
+	private static final String[] VERBS = {
+		"invent", "discover", "found", "establish", "create", "build",
+		"write", "compose", "kill", "assassinate", "die", "bear"
+	};
+	/** Phrasal verbs that contain forms of other verbs and their forms. */
+	private static final String[][] PHRASAL_VERBS = {
+		{"set up", "sets up", "setting up"},
+		{"pass away", "passes away", "passed away", "passing away"},
+		{"write down", "writes down", "wrote down", "written down",
+		 "writing down"}
+	};
+	/** Sentences with overlapping verb forms. */
+	private static final String[] OVERLAPPING = {
+		"The company was set up by two engineers in 1976.",
+		"She passed away in Paris after a long illness.",
+		"He wrote down the melody on a napkin.",
+		"Setting up the first lab took three years.",
+		"The poem was written down centuries after it was composed."
+	};
+	
+	/**
+	 * Reads the answer sentences of the TREC test sets.
+	 * 
+	 * @return answer sentences
+	 */
+	private static List<String> readSentences() throws Exception {
+		File[] files = new File(TEST_DIR).listFiles();
+		Arrays.sort(files);
+		
+		List<String> sentences = new ArrayList<String>();
+		for (File file : files) {
+			if (!file.getName().contains("answers")) continue;
+			
+			BufferedReader in = new BufferedReader(new FileReader(file));
+			try {
+				String line;
+				while ((line = in.readLine()) != null)
+					if (line.startsWith("ANSWER: "))
+						sentences.add(line.substring(8).trim());
+			} finally {
+				in.close();
+			}
+		}
+		sentences.addAll(Arrays.asList(OVERLAPPING));
+		
+		return sentences;
+	}
+	
+	/**
+	 * Gets the weight of a sentence by matching the pattern of each verb.
+	 * 
+	 * @param s the sentence
+	 * @param patterns patterns of the verbs
+	 * @param weights weights of the verbs
+	 * @return highest weight of a verb that occurs or 0
+	 */
+	private static double getWeight(String s, List<Pattern> patterns,
+			List<Double> weights) {
+		double weight = 0;
+		for (int i = 0; i < patterns.size(); i++)
+			if (weights.get(i) > weight && patterns.get(i).matcher(s).matches())
+				weight = weights.get(i);
+		
+		return weight;
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if the <code>VerbMatcher</code>
+	 * returns a different weight for a sentence.
+	 * 
+	 * @param args optional number of rounds for the benchmark
+	 */
+	public static void main(String[] args) throws Exception {
+		int rounds = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+		
+		if (!IrregularVerbs.loadVerbs("res/indices/irregularverbs")) {
+			System.err.println("Could not load the irregular verbs.");
+			System.exit(1);
+		}
+		
+		// the verbs have lower weights than the phrasal verbs that contain them
+		Hashtable<String[], Double> verbFormsMap =
+			new Hashtable<String[], Double>();
+		for (int i = 0; i < VERBS.length; i++)
+			verbFormsMap.put(VerbFormConverter.getAllForms(VERBS[i]),
+					1 - 0.04 * i);
+		for (int i = 0; i < PHRASAL_VERBS.length; i++)
+			verbFormsMap.put(PHRASAL_VERBS[i], 0.3 + 0.1 * i);
+		verbFormsMap.put(new String[] {"pass", "passes", "passed", "passing"},
+				0.9);
+		verbFormsMap.put(new String[] {"set", "sets", "setting"}, 0.8);
+		
+		// one pattern per verb, as before the VerbMatcher
+		List<Pattern> patterns = new ArrayList<Pattern>();
+		List<Double> weights = new ArrayList<Double>();
+		for (String[] verbForms : verbFormsMap.keySet()) {
+			patterns.add(Pattern.compile("(?i).*?\\b(" +
+					StringUtils.concat(verbForms, "|") + ")\\b.*+"));
+			weights.add(verbFormsMap.get(verbForms));
+		}
+		
+		List<String> sentences = readSentences();
+		int matches = 0;
+		int failures = 0;
+		long expectedTime = 0;
+		long actualTime = 0;
+		for (int round = 0; round < rounds; round++) {
+			long start = System.nanoTime();
+			double[] expected = new double[sentences.size()];
+			for (int i = 0; i < expected.length; i++)
+				expected[i] = getWeight(sentences.get(i), patterns, weights);
+			expectedTime += System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			PredicateExtractionFilter.VerbMatcher verbMatcher =
+				new PredicateExtractionFilter.VerbMatcher(verbFormsMap);
+			double[] actual = new double[sentences.size()];
+			boolean[] found = new boolean[sentences.size()];
+			for (int i = 0; i < actual.length; i++) {
+				found[i] = verbMatcher.find(sentences.get(i));
+				actual[i] = verbMatcher.getWeight(sentences.get(i));
+			}
+			actualTime += System.nanoTime() - start;
+			
+			if (round > 0) continue;
+			for (int i = 0; i < expected.length; i++) {
+				if (expected[i] > 0) matches++;
+				if (actual[i] != expected[i] || found[i] != (expected[i] > 0)) {
+					System.err.println("'" + sentences.get(i) + "': weight " +
+							actual[i] + " instead of " + expected[i]);
+					failures++;
+				}
+			}
+		}
+		
+		System.out.println(sentences.size() + " sentences, " + matches +
+				" with verbs: " + failures + " failures (" +
+				expectedTime / 1000000 + " ms with a pattern per verb, " +
+				actualTime / 1000000 + " ms with the VerbMatcher, " + rounds +
+				" rounds)");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+}
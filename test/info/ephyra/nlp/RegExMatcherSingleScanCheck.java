@@ -0,0 +1,154 @@
+package info.ephyra.nlp;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Checks that <code>RegExMatcher.markAllMatches()</code> yields the same
+ * markers whether the patterns are applied in a single scan over the sentence
+ * or to every token subsequence.</p>
+ * 
+ * <p>The check applies patterns with possessive quantifiers and atomic groups,
+ * which must not be applied in a single scan, and all NE patterns of the
+ * <code>RegExMatcher</code> to the answer sentences of a TREC test set.</p>
+ * 
+ * <p>Usage: <code>RegExMatcherSingleScanCheck [answers]</code></p>
+ * 
+ * @version 2026-10-19
+ */
+public class RegExMatcherSingleScanCheck {
+	/** Patterns that match a region that <code>find()</code> misses. */
+	private static final String[] BACKTRACKING_PATTERNS = {
+		"(\\w+ )*+x", "(\\w+ )++x", "(\\w+ )?+x", "(\\w+ ){0,3}+x",
+		"(?>(\\w+ )*)x"
+	};
+	
+	/** Number of differences. */
+	private static int failures = 0;
+	
+	/**
+	 * Applies a pattern with and without the single scan and compares the
+	 * markers.
+	 * 
+	 * @param name name of the pattern
+	 * @param tokens token sequence
+	 * @param pattern the pattern
+	 * @param maxTokens maximum number of tokens of a match
+	 * @return markers of the matches
+	 */
+	private static String[] compare(String name, String[] tokens,
+			Pattern pattern, int maxTokens) {
+		RegExMatcher.setSingleScan(false);
+		String[] expected =
+			RegExMatcher.markAllMatches(tokens, pattern, maxTokens);
+		RegExMatcher.setSingleScan(true);
+		String[] actual =
+			RegExMatcher.markAllMatches(tokens, pattern, maxTokens);
+		
+		if (!Arrays.equals(expected, actual)) {
+			System.err.println(name + " on '" + join(tokens) + "': " +
+					Arrays.toString(actual) + " instead of " +
+					Arrays.toString(expected));
+			failures++;
+		}
+		
+		return actual;
+	}
+	
+	private static String join(String[] tokens) {
+		StringBuilder s = new StringBuilder();
+		for (String token : tokens) s.append((s.length() == 0) ? "" : " ")
+				.append(token);
+		
+		return s.toString();
+	}
+	
+	/**
+	 * Reads the answer sentences of a TREC test set and splits them into
+	 * tokens at whitespace and punctuation.
+	 * 
+	 * @param filename answer file
+	 * @return token sequences
+	 */
+	private static List<String[]> readSentences(String filename)
+			throws Exception {
+		List<String[]> sentences = new ArrayList<String[]>();
+		BufferedReader in = new BufferedReader(new FileReader(filename));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (!line.startsWith("ANSWER: ")) continue;
+				
+				line = line.substring(8).replaceAll("([.,;:!?\"()])", " $1 ");
+				sentences.add(line.trim().split("\\s+"));
+			}
+		} finally {
+			in.close();
+		}
+		
+		return sentences;
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if any markers differ.
+	 * 
+	 * @param args optional TREC answer file
+	 */
+	public static void main(String[] args) throws Exception {
+		String answers = (args.length > 0)
+			? args[0] : "res/testdata/trec/trec10answers";
+		
+		// patterns with possessive quantifiers and atomic groups
+		String[] tokens = {"a", "x", "y"};
+		String[] expected = {RegExMatcher.START, RegExMatcher.CONTINUE,
+				RegExMatcher.OTHER};
+		for (String regEx : BACKTRACKING_PATTERNS) {
+			Pattern pattern = Pattern.compile(regEx);
+			if (RegExMatcher.isSingleScanPattern(pattern)) {
+				System.err.println(regEx + " is applied in a single scan");
+				failures++;
+			}
+			String[] actual = compare(regEx, tokens, pattern, 0);
+			if (!Arrays.equals(expected, actual)) {
+				System.err.println(regEx + ": " + Arrays.toString(actual) +
+						" instead of " + Arrays.toString(expected));
+				failures++;
+			}
+		}
+		
+		// NE patterns of the RegExMatcher
+		List<String[]> sentences = readSentences(answers);
+		int numPatterns = 0;
+		for (Field field : RegExMatcher.class.getFields()) {
+			if (!Modifier.isStatic(field.getModifiers()) ||
+					field.getType() != Pattern.class ||
+					!field.getName().endsWith("_PATTERN"))
+				continue;
+			String prefix = field.getName().substring(0,
+					field.getName().length() - "_PATTERN".length());
+			int maxTokens;
+			try {
+				maxTokens = RegExMatcher.class.getField(prefix + "_MAX_TOKENS")
+					.getInt(null);
+			} catch (NoSuchFieldException e) {
+				continue;
+			}
+			
+			Pattern pattern = (Pattern) field.get(null);
+			for (String[] sentence : sentences)
+				compare(prefix, sentence, pattern, maxTokens);
+			numPatterns++;
+		}
+		
+		System.out.println(BACKTRACKING_PATTERNS.length + " + " + numPatterns +
+				" patterns, " + sentences.size() + " sentences: " + failures +
+				" failures");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+}
@@ -0,0 +1,76 @@
+package info.ephyra.nlp.semantics;
+
+/**
+ * <p>Check for the communication with a persistent annotator. A
+ * <code>MockAnnotator</code> is started as an <code>ASSERTServer</code> and
+ * annotates a batch that is larger than the pipe buffers, and a batch with a
+ * sentence that terminates the annotator.</p>
+ * 
+ * <p>Usage: <code>ASSERTServerCheck [sentences]</code></p>
+ * 
+ * @version 2026-10-19
+ */
+public class ASSERTServerCheck {
+	/**
+	 * Creates a sentence with two verbs.
+	 * 
+	 * @param i number of the sentence
+	 * @return sentence
+	 */
+	private static String sentence(int i) {
+		return "sentence " + i + " jumped over the fence and landed safely";
+	}
+	
+	/**
+	 * Checks the annotations of a sentence created by
+	 * <code>sentence()</code>.
+	 * 
+	 * @param i number of the sentence
+	 * @param parses annotations
+	 * @return <code>true</code> iff the annotations are as expected
+	 */
+	private static boolean isAnnotated(int i, String[] parses) {
+		return parses != null && parses.length == 2 &&
+			parses[0].startsWith("[ARG0 sentence " + i + "] ") &&
+			parses[0].contains("[TARGET jumped ]") &&
+			parses[1].contains("[TARGET landed ]");
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if a sentence was not annotated
+	 * as expected.
+	 * 
+	 * @param args optional number of sentences in the large batch
+	 */
+	public static void main(String[] args) {
+		int numSentences =
+			(args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		
+		ASSERTServer server = new ASSERTServer(new String[] {"java", "-cp",
+				System.getProperty("java.class.path"),
+				MockAnnotator.class.getName()});
+		int failures = 0;
+		
+		// the annotator writes its output while the batch is still written
+		String[] ss = new String[numSentences];
+		for (int i = 0; i < ss.length; i++) ss[i] = sentence(i);
+		String[][] parses = server.annotate(ss);
+		for (int i = 0; i < ss.length; i++)
+			if (!isAnnotated(i, parses[i])) failures++;
+		
+		// the annotator is restarted after the crash
+		ss = new String[10];
+		for (int i = 0; i < ss.length; i++) ss[i] = sentence(i);
+		ss[4] = "#crash#";
+		parses = server.annotate(ss);
+		for (int i = 0; i < ss.length; i++)
+			if ((i == 4) ? parses[i] != null : !isAnnotated(i, parses[i]))
+				failures++;
+		
+		server.stop();
+		
+		System.out.println(numSentences + " + " + ss.length + " sentences: " +
+				failures + " failures");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+}
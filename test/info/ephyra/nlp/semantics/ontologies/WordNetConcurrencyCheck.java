@@ -0,0 +1,171 @@
+package info.ephyra.nlp.semantics.ontologies;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.didion.jwnl.JWNL;
+
+/**
+ * <p>Stress check for concurrent lookups in <code>WordNet</code>. Several
+ * threads look up lemmas, related words and expansions of events, entities
+ * and modifiers at the same time. The caches are cleared in between and more
+ * words are looked up than fit into the cache of the morphological processor,
+ * so that the lookups and the pointer walks reach the JWNL dictionary. The
+ * results are compared to those of sequential lookups.</p>
+ * 
+ * <p>Usage: <code>WordNetConcurrencyCheck [properties [wordlist [words
+ * [threads]]]]</code>, where the word list is in the format of
+ * <code>res/indices/wordfrequencies</code>.</p>
+ * 
+ * @version 2026-10-19
+ */
+public class WordNetConcurrencyCheck {
+	/** Number of words after which a thread clears the caches. */
+	private static final int CLEAR_INTERVAL = 100;
+	
+	/**
+	 * Reads words from a word frequency list, skipping the total count in the
+	 * first line and the frequencies.
+	 * 
+	 * @param filename word frequency list
+	 * @param maxWords maximum number of words
+	 * @return words
+	 */
+	private static String[] readWords(String filename, int maxWords)
+			throws Exception {
+		List<String> words = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(filename));
+		try {
+			in.readLine();
+			String line;
+			while (words.size() < maxWords && (line = in.readLine()) != null) {
+				words.add(line.trim());
+				in.readLine();
+			}
+		} finally {
+			in.close();
+		}
+		
+		return words.toArray(new String[words.size()]);
+	}
+	
+	/**
+	 * Looks up a word as a verb, noun and adjective.
+	 * 
+	 * @param wordNet WordNet ontology
+	 * @param word a word
+	 * @return results of the lookups by type of lookup
+	 */
+	private static Map<String, Object> lookUp(WordNet wordNet, String word) {
+		Map<String, Object> results = new HashMap<String, Object>();
+		
+		results.put("verb lemma", WordNet.getLemma(word, WordNet.VERB));
+		results.put("hypernyms",
+				asSet(WordNet.getHypernyms(word, WordNet.VERB)));
+		results.put("entailing", asSet(WordNet.getEntailing(word)));
+		results.put("causing", asSet(WordNet.getCausing(word)));
+		results.put("event", wordNet.expandEvent(word));
+		
+		results.put("noun lemma", WordNet.getLemma(word, WordNet.NOUN));
+		results.put("hyponyms",
+				asSet(WordNet.getHyponyms(word, WordNet.NOUN)));
+		results.put("members of", asSet(WordNet.getMembersOf(word)));
+		results.put("parts of", asSet(WordNet.getPartsOf(word)));
+		results.put("have part", asSet(WordNet.getHavePart(word)));
+		results.put("entity", wordNet.expandEntity(word));
+		
+		results.put("modifier",
+				wordNet.expandModifier(word, WordNet.ADJECTIVE));
+		
+		return results;
+	}
+	
+	/**
+	 * Converts an array of words to a set, so that lookups that return the
+	 * words in a different order are considered equal.
+	 * 
+	 * @param words array of words or <code>null</code>
+	 * @return set of words or <code>null</code>
+	 */
+	private static Set<String> asSet(String[] words) {
+		return (words == null)
+			? null : new HashSet<String>(Arrays.asList(words));
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if any concurrent lookup failed
+	 * or returned a different result.
+	 * 
+	 * @param args optional JWNL properties file, word list, number of words
+	 *             and number of threads
+	 */
+	public static void main(String[] args) throws Exception {
+		String properties = (args.length > 0)
+			? args[0] : "res/ontologies/wordnet/file_properties.xml";
+		String wordList = (args.length > 1)
+			? args[1] : "res/indices/wordfrequencies";
+		int numWords = (args.length > 2) ? Integer.parseInt(args[2]) : 3000;
+		int numThreads = (args.length > 3) ? Integer.parseInt(args[3]) : 8;
+		
+		if (!WordNet.initialize(properties)) {
+			System.err.println("Could not initialize WordNet.");
+			System.exit(1);
+		}
+		final WordNet wordNet = new WordNet();
+		final String[] words = readWords(wordList, numWords);
+		
+		final List<Map<String, Object>> expected =
+			new ArrayList<Map<String, Object>>();
+		for (String word : words) expected.add(lookUp(wordNet, word));
+		
+		// reinitialize to clear the caches of the JWNL dictionary
+		JWNL.shutdown();
+		if (!WordNet.initialize(properties)) {
+			System.err.println("Could not reinitialize WordNet.");
+			System.exit(1);
+		}
+		final WordNet concurrent = new WordNet();
+		
+		final AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			final int offset = t * words.length / numThreads;
+			threads[t] = new Thread() {
+				public void run() {
+					for (int n = 0; n < words.length; n++) {
+						int i = (offset + n) % words.length;
+						if (n % CLEAR_INTERVAL == 0) WordNet.clearCaches();
+						
+						Map<String, Object> actual;
+						try {
+							actual = lookUp(concurrent, words[i]);
+						} catch (RuntimeException e) {
+							System.err.println(words[i] + ": " + e);
+							failures.incrementAndGet();
+							continue;
+						}
+						if (!actual.equals(expected.get(i))) {
+							System.err.println(words[i] + ": " + actual +
+									" instead of " + expected.get(i));
+							failures.incrementAndGet();
+						}
+					}
+				}
+			};
+		}
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+		
+		System.out.println(numThreads + " threads, " + words.length +
+				" words: " + failures.get() + " failures");
+		System.exit((failures.get() == 0) ? 0 : 1);
+	}
+}
@@ -0,0 +1,242 @@
+package info.ephyra.search.searchers;
+
+import info.ephyra.querygeneration.Query;
+import info.ephyra.search.Result;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lemurproject.indri.IndexEnvironment;
+
+/**
+ * <p>Check for the Indri knowledge miners and the <code>IndriPool</code>. A
+ * small Indri index is built from the answer sentences of a TREC test set,
+ * each sentence being a document with the document number given in the test
+ * set. <code>IndriKM</code> and <code>IndriDocumentKM</code> must find the
+ * document of a sentence when they are queried with the sentence, also when
+ * several threads share the pooled query environments. Queries that fail
+ * must return no results and must not break the pool.</p>
+ * 
+ * <p>The check is skipped if the Indri JNI library is not installed.</p>
+ * 
+ * <p>Usage: <code>IndriPoolCheck [answers [sentences [threads]]]</code></p>
+ * 
+ * @version 2026-10-19
+ */
+public class IndriPoolCheck {
+	/**
+	 * Reads the document numbers and answer sentences of a TREC test set.
+	 * 
+	 * @param filename file with answer sentences
+	 * @param maxSentences maximum number of sentences
+	 * @return pairs of document numbers and sentences
+	 */
+	private static List<String[]> readSentences(String filename,
+			int maxSentences) throws Exception {
+		List<String[]> sentences = new ArrayList<String[]>();
+		BufferedReader in = new BufferedReader(new FileReader(filename));
+		try {
+			String docNo = null;
+			String line;
+			while (sentences.size() < maxSentences &&
+					(line = in.readLine()) != null) {
+				if (line.startsWith("DOCNO: ")) {
+					docNo = line.substring(7).trim();
+				} else if (line.startsWith("ANSWER: ") && docNo != null) {
+					String sentence = line.substring(8).trim();
+					if (sentence.split("\\s++").length >= 4)
+						sentences.add(new String[] {docNo, sentence});
+					docNo = null;
+				}
+			}
+		} finally {
+			in.close();
+		}
+		
+		return sentences;
+	}
+	
+	/**
+	 * Builds an Indri index with one document per sentence.
+	 * 
+	 * @param sentences pairs of document numbers and sentences
+	 * @param dir directory for the documents and the index
+	 * @return directory of the index
+	 */
+	private static String buildIndex(List<String[]> sentences, File dir)
+			throws Exception {
+		File docs = new File(dir, "docs.trectext");
+		PrintWriter out = new PrintWriter(new FileWriter(docs));
+		for (String[] sentence : sentences) {
+			out.println("<DOC>");
+			out.println("<DOCNO>" + sentence[0] + "</DOCNO>");
+			out.println("<TEXT>");
+			out.println("<p>" + sentence[1] + "</p>");
+			out.println("</TEXT>");
+			out.println("</DOC>");
+		}
+		out.close();
+		
+		String index = new File(dir, "index").getPath();
+		IndexEnvironment env = new IndexEnvironment();
+		env.setStemmer("krovetz");
+		env.setIndexedFields(new String[] {"p"});
+		env.setMemory(64 * 1024 * 1024);
+		env.create(index);
+		env.addFile(docs.getPath(), "trectext");
+		env.close();
+		
+		return index;
+	}
+	
+	/**
+	 * Runs a query with a knowledge miner.
+	 * 
+	 * @param km knowledge miner
+	 * @param queryString query string
+	 * @return results
+	 */
+	private static Result[] search(KnowledgeMiner km, String queryString) {
+		km.query = new Query(queryString);
+		km.firstResult = 1;
+		
+		return km.doSearch();
+	}
+	
+	/**
+	 * Checks if the results contain a document.
+	 * 
+	 * @param results search results
+	 * @param docNo document number
+	 * @return <code>true</code> iff a result is from the document
+	 */
+	private static boolean contains(Result[] results, String docNo) {
+		for (Result result : results)
+			if (docNo.equals(result.getDocID())) return true;
+		
+		return false;
+	}
+	
+	/**
+	 * Deletes a directory and its contents.
+	 * 
+	 * @param file file or directory
+	 */
+	private static void delete(File file) {
+		File[] files = file.listFiles();
+		if (files != null) for (File f : files) delete(f);
+		file.delete();
+	}
+	
+	/**
+	 * Runs the check and exits with status 1 if a document was not found or
+	 * a failing query returned results.
+	 * 
+	 * @param args optional file with answer sentences, number of sentences
+	 *             and number of threads
+	 */
+	public static void main(String[] args) throws Exception {
+		String answers = (args.length > 0)
+			? args[0] : "res/testdata/trec/trec10answers";
+		int numSentences = (args.length > 1) ? Integer.parseInt(args[1]) : 200;
+		int numThreads = (args.length > 2) ? Integer.parseInt(args[2]) : 4;
+		
+		try {
+			System.loadLibrary("indri_jni");
+		} catch (UnsatisfiedLinkError e) {
+			System.out.println("Indri JNI library not found, check skipped.");
+			System.exit(0);
+		}
+		
+		final List<String[]> sentences =
+			readSentences(answers, numSentences);
+		File dir = File.createTempFile("indri", "");
+		dir.delete();
+		dir.mkdirs();
+		
+		final AtomicInteger failures = new AtomicInteger();
+		try {
+			final String[] indices = {buildIndex(sentences, dir)};
+			
+			// sequential queries, the environments are reused
+			final Result[][] expected = new Result[sentences.size()][];
+			for (int i = 0; i < sentences.size(); i++) {
+				String[] sentence = sentences.get(i);
+				expected[i] = search(new IndriKM(indices, false), sentence[1]);
+				if (!contains(expected[i], sentence[0])) {
+					System.err.println("IndriKM did not find " + sentence[0]);
+					failures.incrementAndGet();
+				}
+				Result[] docs =
+					search(new IndriDocumentKM(indices, false), sentence[1]);
+				if (!contains(docs, sentence[0])) {
+					System.err.println("IndriDocumentKM did not find " +
+							sentence[0]);
+					failures.incrementAndGet();
+				}
+			}
+			
+			// concurrent queries share the pool
+			Thread[] threads = new Thread[numThreads];
+			for (int t = 0; t < numThreads; t++) {
+				final int offset = t * sentences.size() / numThreads;
+				threads[t] = new Thread() {
+					public void run() {
+						for (int n = 0; n < sentences.size(); n++) {
+							int i = (offset + n) % sentences.size();
+							Result[] results = search(
+									new IndriKM(indices, false),
+									sentences.get(i)[1]);
+							if (results.length != expected[i].length) {
+								System.err.println("Concurrent query " + i +
+										" returned " + results.length +
+										" instead of " + expected[i].length +
+										" results");
+								failures.incrementAndGet();
+							}
+						}
+					}
+				};
+			}
+			for (Thread thread : threads) thread.start();
+			for (Thread thread : threads) thread.join();
+			
+			// a malformed query fails, the environment is checked and reused
+			Result[] results =
+				search(new IndriKM(indices, false), "#combine( \"unbalanced");
+			if (results.length != 0) {
+				System.err.println("Malformed query returned results");
+				failures.incrementAndGet();
+			}
+			String[] sentence = sentences.get(0);
+			if (!contains(search(new IndriKM(indices, false), sentence[1]),
+					sentence[0])) {
+				System.err.println("Query after a failed query did not find " +
+						sentence[0]);
+				failures.incrementAndGet();
+			}
+			
+			// an index that does not exist cannot be opened
+			String[] missing = {new File(dir, "missing").getPath()};
+			if (search(new IndriKM(missing, false), sentence[1]).length != 0 ||
+					search(new IndriDocumentKM(missing, false), sentence[1])
+						.length != 0) {
+				System.err.println("Query on a missing index returned results");
+				failures.incrementAndGet();
+			}
+		} finally {
+			IndriPool.closeAll();
+			delete(dir);
+		}
+		
+		System.out.println(sentences.size() + " sentences, " + numThreads +
+				" threads: " + failures.get() + " failures");
+		System.exit((failures.get() == 0) ? 0 : 1);
+	}
+}